@@ -0,0 +1,134 @@
+package com.barbu.fleetmanagement.common.geo;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link BatchGeoCalculator} computing {@link DoubleVector#length() several} pairs per instruction with the
+ * incubating Vector API. Trigonometric functions are vectorized by the JIT (SVML intrinsics on x86). The tail of the
+ * arrays that does not fill a whole vector is processed pair by pair.
+ * <p>
+ * Kept in the {@code common-vector} artifact so that only its users compile and run with
+ * {@code --add-modules jdk.incubator.vector}. Registered as a {@link java.util.ServiceLoader service}, loaded by
+ * {@link BatchGeoCalculator#create()} when the {@code jdk.incubator.vector} module is present.
+ */
+public class VectorBatchGeoCalculator implements BatchGeoCalculator {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    private static final double EARTH_RADIUS_KM = 6371;
+    private static final double DEGREES_TO_RADIANS = Math.PI / 180;
+    private static final double RADIANS_TO_DEGREES = 180 / Math.PI;
+    private static final double EPSILON = 1e-12;
+
+    private final GeoCalculator geoCalculator = new GeoCalculator();
+
+    @Override
+    public void calculateDistancesInKm(double[] startLatitudes, double[] startLongitudes,
+                                       double[] destinationLatitudes, double[] destinationLongitudes,
+                                       double[] distancesKm, int length) {
+        int upperBound = SPECIES.loopBound(length);
+        for (int i = 0; i < upperBound; i += SPECIES.length()) {
+            distances(startLatitudes, startLongitudes, destinationLatitudes, destinationLongitudes, i)
+                    .intoArray(distancesKm, i);
+        }
+        for (int i = upperBound; i < length; i++) {
+            distancesKm[i] = geoCalculator.calculateDistanceInKm(startLatitudes[i], startLongitudes[i],
+                    destinationLatitudes[i], destinationLongitudes[i]);
+        }
+    }
+
+    @Override
+    public void calculateNewPositions(double[] startLatitudes, double[] startLongitudes,
+                                      double[] destinationLatitudes, double[] destinationLongitudes,
+                                      double[] distancesToMoveKm,
+                                      double[] newLatitudes, double[] newLongitudes, int length) {
+        int upperBound = SPECIES.loopBound(length);
+        for (int i = 0; i < upperBound; i += SPECIES.length()) {
+            DoubleVector destinationLatitude = DoubleVector.fromArray(SPECIES, destinationLatitudes, i);
+            DoubleVector destinationLongitude = DoubleVector.fromArray(SPECIES, destinationLongitudes, i);
+            DoubleVector startLat = DoubleVector.fromArray(SPECIES, startLatitudes, i).mul(DEGREES_TO_RADIANS);
+            DoubleVector startLon = DoubleVector.fromArray(SPECIES, startLongitudes, i).mul(DEGREES_TO_RADIANS);
+            DoubleVector destinationLat = destinationLatitude.mul(DEGREES_TO_RADIANS);
+            DoubleVector destinationLon = destinationLongitude.mul(DEGREES_TO_RADIANS);
+
+            // unit vectors of start and destination, and direction of travel, like Trajectory
+            DoubleVector cosStartLat = startLat.lanewise(VectorOperators.COS);
+            DoubleVector ax = cosStartLat.mul(startLon.lanewise(VectorOperators.COS));
+            DoubleVector ay = cosStartLat.mul(startLon.lanewise(VectorOperators.SIN));
+            DoubleVector az = startLat.lanewise(VectorOperators.SIN);
+            DoubleVector cosDestinationLat = destinationLat.lanewise(VectorOperators.COS);
+            DoubleVector bx = cosDestinationLat.mul(destinationLon.lanewise(VectorOperators.COS));
+            DoubleVector by = cosDestinationLat.mul(destinationLon.lanewise(VectorOperators.SIN));
+            DoubleVector bz = destinationLat.lanewise(VectorOperators.SIN);
+
+            DoubleVector dot = ax.mul(bx).add(ay.mul(by)).add(az.mul(bz));
+            DoubleVector cx = bx.sub(dot.mul(ax));
+            DoubleVector cy = by.sub(dot.mul(ay));
+            DoubleVector cz = bz.sub(dot.mul(az));
+            DoubleVector norm = cx.mul(cx).add(cy.mul(cy)).add(cz.mul(cz)).lanewise(VectorOperators.SQRT);
+            DoubleVector totalDistance = norm.lanewise(VectorOperators.ATAN2, dot).mul(EARTH_RADIUS_KM);
+
+            DoubleVector distanceToMove = DoubleVector.fromArray(SPECIES, distancesToMoveKm, i);
+            VectorMask<Double> arrived = totalDistance.compare(VectorOperators.LT, ARRIVAL_DISTANCE_KM)
+                    .or(distanceToMove.compare(VectorOperators.GE, totalDistance));
+            VectorMask<Double> antipodal = norm.compare(VectorOperators.LE, EPSILON).andNot(arrived);
+
+            DoubleVector angle = distanceToMove.div(EARTH_RADIUS_KM);
+            DoubleVector cos = angle.lanewise(VectorOperators.COS);
+            DoubleVector sin = angle.lanewise(VectorOperators.SIN).div(norm);
+            DoubleVector x = ax.mul(cos).add(cx.mul(sin));
+            DoubleVector y = ay.mul(cos).add(cy.mul(sin));
+            DoubleVector z = az.mul(cos).add(cz.mul(sin));
+            z.lanewise(VectorOperators.ATAN2, x.mul(x).add(y.mul(y)).lanewise(VectorOperators.SQRT))
+                    .mul(RADIANS_TO_DEGREES)
+                    .blend(destinationLatitude, arrived)
+                    .intoArray(newLatitudes, i);
+            y.lanewise(VectorOperators.ATAN2, x)
+                    .mul(RADIANS_TO_DEGREES)
+                    .blend(destinationLongitude, arrived)
+                    .intoArray(newLongitudes, i);
+
+            if (antipodal.anyTrue()) {
+                for (int lane = antipodal.firstTrue(); lane < SPECIES.length(); lane++) {
+                    if (antipodal.laneIsSet(lane)) {
+                        calculateNewPosition(startLatitudes, startLongitudes, destinationLatitudes,
+                                destinationLongitudes, distancesToMoveKm, newLatitudes, newLongitudes, i + lane);
+                    }
+                }
+            }
+        }
+        for (int i = upperBound; i < length; i++) {
+            calculateNewPosition(startLatitudes, startLongitudes, destinationLatitudes, destinationLongitudes,
+                    distancesToMoveKm, newLatitudes, newLongitudes, i);
+        }
+    }
+
+    private static void calculateNewPosition(double[] startLatitudes, double[] startLongitudes,
+                                             double[] destinationLatitudes, double[] destinationLongitudes,
+                                             double[] distancesToMoveKm,
+                                             double[] newLatitudes, double[] newLongitudes, int i) {
+        ScalarBatchGeoCalculator.calculateNewPosition(startLatitudes[i], startLongitudes[i], destinationLatitudes[i],
+                destinationLongitudes[i], distancesToMoveKm[i], newLatitudes, newLongitudes, i);
+    }
+
+    private static DoubleVector distances(double[] startLatitudes, double[] startLongitudes,
+                                          double[] destinationLatitudes, double[] destinationLongitudes, int offset) {
+        DoubleVector lat1 = DoubleVector.fromArray(SPECIES, startLatitudes, offset).mul(DEGREES_TO_RADIANS);
+        DoubleVector lat2 = DoubleVector.fromArray(SPECIES, destinationLatitudes, offset).mul(DEGREES_TO_RADIANS);
+        DoubleVector dLon = DoubleVector.fromArray(SPECIES, destinationLongitudes, offset)
+                .sub(DoubleVector.fromArray(SPECIES, startLongitudes, offset))
+                .mul(DEGREES_TO_RADIANS);
+
+        DoubleVector sinHalfDLat = lat2.sub(lat1).mul(0.5).lanewise(VectorOperators.SIN);
+        DoubleVector sinHalfDLon = dLon.mul(0.5).lanewise(VectorOperators.SIN);
+        DoubleVector a = sinHalfDLat.mul(sinHalfDLat)
+                .add(lat1.lanewise(VectorOperators.COS).mul(lat2.lanewise(VectorOperators.COS))
+                        .mul(sinHalfDLon).mul(sinHalfDLon));
+        DoubleVector c = a.lanewise(VectorOperators.SQRT)
+                .lanewise(VectorOperators.ATAN2, a.neg().add(1).lanewise(VectorOperators.SQRT))
+                .mul(2);
+
+        return c.mul(EARTH_RADIUS_KM);
+    }
+}
@@ -0,0 +1,77 @@
+package com.barbu.fleetmanagement.common.geo;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class VectorBatchGeoCalculatorTest {
+
+    // not a multiple of any vector length, so the tail loop is exercised too
+    private static final int LENGTH = 1003;
+
+    private final BatchGeoCalculator scalar = BatchGeoCalculator.scalar();
+    private final BatchGeoCalculator vector = new VectorBatchGeoCalculator();
+    private final double[] startLatitudes = new double[LENGTH];
+    private final double[] startLongitudes = new double[LENGTH];
+    private final double[] destinationLatitudes = new double[LENGTH];
+    private final double[] destinationLongitudes = new double[LENGTH];
+    private final double[] distancesToMoveKm = new double[LENGTH];
+
+    @BeforeEach
+    void setUp() {
+        Random random = new Random(7);
+        for (int i = 0; i < LENGTH; i++) {
+            startLatitudes[i] = 44.33 + random.nextDouble() * 0.22;
+            startLongitudes[i] = 25.95 + random.nextDouble() * 0.3;
+            // every 10th destination is within 100 m of the start
+            destinationLatitudes[i] = i % 10 == 0 ? startLatitudes[i] + 0.0001 : 44.33 + random.nextDouble() * 0.22;
+            destinationLongitudes[i] = i % 10 == 0 ? startLongitudes[i] : 25.95 + random.nextDouble() * 0.3;
+            distancesToMoveKm[i] = random.nextDouble() * 20;
+        }
+        // the antipode of the start, in a lane moved along the vector loop
+        destinationLatitudes[1] = -startLatitudes[1];
+        destinationLongitudes[1] = startLongitudes[1] - 180;
+    }
+
+    @Test
+    void createShouldLoadTheVectorImplementationWhenTheModuleIsPresent() {
+        assertThat(BatchGeoCalculator.create()).isInstanceOf(VectorBatchGeoCalculator.class);
+    }
+
+    @Test
+    void distancesShouldMatchTheScalarLoop() {
+        double[] expected = new double[LENGTH];
+        double[] distances = new double[LENGTH];
+
+        scalar.calculateDistancesInKm(startLatitudes, startLongitudes,
+                destinationLatitudes, destinationLongitudes, expected, LENGTH);
+        vector.calculateDistancesInKm(startLatitudes, startLongitudes,
+                destinationLatitudes, destinationLongitudes, distances, LENGTH);
+
+        for (int i = 0; i < LENGTH; i++) {
+            assertThat(distances[i]).isCloseTo(expected[i], within(1e-9));
+        }
+    }
+
+    @Test
+    void newPositionsShouldMatchTheScalarLoop() {
+        double[] expectedLatitudes = new double[LENGTH];
+        double[] expectedLongitudes = new double[LENGTH];
+        double[] newLatitudes = new double[LENGTH];
+        double[] newLongitudes = new double[LENGTH];
+
+        scalar.calculateNewPositions(startLatitudes, startLongitudes, destinationLatitudes, destinationLongitudes,
+                distancesToMoveKm, expectedLatitudes, expectedLongitudes, LENGTH);
+        vector.calculateNewPositions(startLatitudes, startLongitudes, destinationLatitudes, destinationLongitudes,
+                distancesToMoveKm, newLatitudes, newLongitudes, LENGTH);
+
+        for (int i = 0; i < LENGTH; i++) {
+            assertThat(newLatitudes[i]).isCloseTo(expectedLatitudes[i], within(1e-9));
+            assertThat(newLongitudes[i]).isCloseTo(expectedLongitudes[i], within(1e-9));
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.barbu.fleetmanagement.common.codec;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+
+import java.math.BigDecimal;
+
+/**
+ * Conventions shared by the binary codecs of the events exchanged between the services.
+ * <p>
+ * The layout version of a record travels in the {@value #VERSION_HEADER} Kafka header (one byte), so the payload
+ * itself carries no framing. Coordinates are stored as integer micro-degrees (1e-6 degrees, about 11 cm), which is
+ * precise enough for car positions and fits a latitude or longitude in 4 bytes.
+ */
+public final class BinaryFormat {
+
+    public static final String VERSION_HEADER = "formatVersion";
+    private static final double MICROS_IN_DEGREE = 1_000_000;
+    private static final int MICRO_DEGREES_SCALE = 6;
+
+    private BinaryFormat() {
+    }
+
+    public static int toMicroDegrees(BigDecimal degrees) {
+        return toMicroDegrees(degrees.doubleValue());
+    }
+
+    public static int toMicroDegrees(double degrees) {
+        return (int) Math.round(degrees * MICROS_IN_DEGREE);
+    }
+
+    public static BigDecimal fromMicroDegrees(int microDegrees) {
+        return BigDecimal.valueOf(microDegrees, MICRO_DEGREES_SCALE);
+    }
+
+    public static double microDegreesToDegrees(int microDegrees) {
+        return microDegrees / MICROS_IN_DEGREE;
+    }
+
+    /**
+     * The layout version of a record, or -1 when the {@value #VERSION_HEADER} header is missing.
+     */
+    public static int version(Headers headers) {
+        Header header = headers == null ? null : headers.lastHeader(VERSION_HEADER);
+        if (header == null || header.value() == null || header.value().length != 1) {
+            return -1;
+        }
+        return header.value()[0];
+    }
+
+    public static void addVersion(Headers headers, byte[] version) {
+        headers.remove(VERSION_HEADER);
+        headers.add(VERSION_HEADER, version);
+    }
+
+    /**
+     * Checks that the record was written with the expected layout version.
+     *
+     * @throws SerializationException when the header is missing (e.g. a JSON record) or holds another version
+     */
+    static void checkVersion(Headers headers, byte expectedVersion, String type) {
+        checkVersion(headers, expectedVersion, expectedVersion, type);
+    }
+
+    /**
+     * Checks that the record was written with one of the layout versions from {@code oldestVersion} to
+     * {@code latestVersion}, for the formats which can still read their former layouts.
+     *
+     * @throws SerializationException when the header is missing or holds an unsupported version
+     */
+    static void checkVersion(Headers headers, byte oldestVersion, byte latestVersion, String type) {
+        int version = version(headers);
+        if (version == -1) {
+            throw new SerializationException("Missing " + VERSION_HEADER + " header, cannot decode binary " + type);
+        }
+        if (version < oldestVersion || version > latestVersion) {
+            throw new SerializationException("Unsupported " + type + " format version " + version);
+        }
+    }
+}
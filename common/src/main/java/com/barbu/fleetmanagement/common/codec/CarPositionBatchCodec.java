@@ -0,0 +1,71 @@
+package com.barbu.fleetmanagement.common.codec;
+
+import com.barbu.fleetmanagement.common.model.CarPosition;
+import com.barbu.fleetmanagement.common.model.CarPositionBatch;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary layout (version {@value #VERSION}) of a {@link CarPositionBatch}: the number of positions as an unsigned
+ * variable length int, followed by the positions in the {@link CarPositionCodec} layout.
+ * <p>
+ * Batches can also be read and written as lists of {@link CarPositionView}, pointing into the batch bytes.
+ */
+public final class CarPositionBatchCodec {
+
+    public static final byte VERSION = 1;
+
+    private CarPositionBatchCodec() {
+    }
+
+    public static byte[] encode(CarPositionBatch batch) {
+        List<CarPosition> positions = batch.positions();
+        int size = VarInts.sizeOfUnsignedVarLong(positions.size());
+        for (CarPosition position : positions) {
+            size += CarPositionCodec.size(position);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        VarInts.writeUnsignedVarLong(buffer, positions.size());
+        for (CarPosition position : positions) {
+            CarPositionCodec.encode(position, buffer);
+        }
+        return buffer.array();
+    }
+
+    public static CarPositionBatch decode(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        int count = (int) VarInts.readUnsignedVarLong(buffer);
+        List<CarPosition> positions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            positions.add(CarPositionCodec.decode(buffer));
+        }
+        return new CarPositionBatch(positions);
+    }
+
+    public static byte[] encodeViews(List<CarPositionView> views) {
+        int size = VarInts.sizeOfUnsignedVarLong(views.size());
+        for (CarPositionView view : views) {
+            size += view.length();
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        VarInts.writeUnsignedVarLong(buffer, views.size());
+        for (CarPositionView view : views) {
+            view.writeTo(buffer);
+        }
+        return buffer.array();
+    }
+
+    public static List<CarPositionView> decodeViews(byte[] bytes) {
+        long count = VarInts.readUnsignedVarLong(bytes, 0);
+        int offset = VarInts.sizeOfUnsignedVarLong(count);
+        List<CarPositionView> views = new ArrayList<>((int) count);
+        for (int i = 0; i < count; i++) {
+            int length = CarPositionCodec.encodedLength(bytes, offset);
+            views.add(new CarPositionView(bytes, offset, length));
+            offset += length;
+        }
+        return views;
+    }
+}
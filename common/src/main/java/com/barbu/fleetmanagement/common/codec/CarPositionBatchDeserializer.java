@@ -0,0 +1,27 @@
+package com.barbu.fleetmanagement.common.codec;
+
+import com.barbu.fleetmanagement.common.model.CarPositionBatch;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+/**
+ * Kafka deserializer reading {@link CarPositionBatch} values written by {@link CarPositionBatchSerializer}. Records
+ * without a matching {@value BinaryFormat#VERSION_HEADER} header are rejected with a
+ * {@link org.apache.kafka.common.errors.SerializationException}.
+ */
+public class CarPositionBatchDeserializer implements Deserializer<CarPositionBatch> {
+
+    @Override
+    public CarPositionBatch deserialize(String topic, byte[] data) {
+        return data == null ? null : CarPositionBatchCodec.decode(data);
+    }
+
+    @Override
+    public CarPositionBatch deserialize(String topic, Headers headers, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        BinaryFormat.checkVersion(headers, CarPositionBatchCodec.VERSION, "CarPositionBatch");
+        return CarPositionBatchCodec.decode(data);
+    }
+}
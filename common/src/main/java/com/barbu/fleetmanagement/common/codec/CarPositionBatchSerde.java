@@ -0,0 +1,11 @@
+package com.barbu.fleetmanagement.common.codec;
+
+import com.barbu.fleetmanagement.common.model.CarPositionBatch;
+import org.apache.kafka.common.serialization.Serdes;
+
+public class CarPositionBatchSerde extends Serdes.WrapperSerde<CarPositionBatch> {
+
+    public CarPositionBatchSerde() {
+        super(new CarPositionBatchSerializer(), new CarPositionBatchDeserializer());
+    }
+}
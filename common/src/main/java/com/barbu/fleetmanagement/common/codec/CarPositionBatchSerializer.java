@@ -0,0 +1,28 @@
+package com.barbu.fleetmanagement.common.codec;
+
+import com.barbu.fleetmanagement.common.model.CarPositionBatch;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * Kafka serializer writing {@link CarPositionBatch} values with {@link CarPositionBatchCodec} and tagging the record
+ * with the {@value BinaryFormat#VERSION_HEADER} header.
+ */
+public class CarPositionBatchSerializer implements Serializer<CarPositionBatch> {
+
+    private static final byte[] VERSION = {CarPositionBatchCodec.VERSION};
+
+    @Override
+    public byte[] serialize(String topic, CarPositionBatch data) {
+        return data == null ? null : CarPositionBatchCodec.encode(data);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, CarPositionBatch data) {
+        if (data == null) {
+            return null;
+        }
+        BinaryFormat.addVersion(headers, VERSION);
+        return CarPositionBatchCodec.encode(data);
+    }
+}
@@ -0,0 +1,27 @@
+package com.barbu.fleetmanagement.common.codec;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.util.List;
+
+/**
+ * Kafka deserializer reading records written by {@link CarPositionBatchSerializer} as a list of
+ * {@link CarPositionView}, all pointing into the record bytes.
+ */
+public class CarPositionBatchViewDeserializer implements Deserializer<List<CarPositionView>> {
+
+    @Override
+    public List<CarPositionView> deserialize(String topic, byte[] data) {
+        return data == null ? null : CarPositionBatchCodec.decodeViews(data);
+    }
+
+    @Override
+    public List<CarPositionView> deserialize(String topic, Headers headers, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        BinaryFormat.checkVersion(headers, CarPositionBatchCodec.VERSION, "CarPositionBatch");
+        return CarPositionBatchCodec.decodeViews(data);
+    }
+}
@@ -0,0 +1,12 @@
+package com.barbu.fleetmanagement.common.codec;
+
+import org.apache.kafka.common.serialization.Serdes;
+
+import java.util.List;
+
+public class CarPositionBatchViewSerde extends Serdes.WrapperSerde<List<CarPositionView>> {
+
+    public CarPositionBatchViewSerde() {
+        super(new CarPositionBatchViewSerializer(), new CarPositionBatchViewDeserializer());
+    }
+}
@@ -0,0 +1,28 @@
+package com.barbu.fleetmanagement.common.codec;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.util.List;
+
+/**
+ * Kafka serializer writing a list of {@link CarPositionView} in the same format as {@link CarPositionBatchSerializer}.
+ */
+public class CarPositionBatchViewSerializer implements Serializer<List<CarPositionView>> {
+
+    private static final byte[] VERSION = {CarPositionBatchCodec.VERSION};
+
+    @Override
+    public byte[] serialize(String topic, List<CarPositionView> data) {
+        return data == null ? null : CarPositionBatchCodec.encodeViews(data);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, List<CarPositionView> data) {
+        if (data == null) {
+            return null;
+        }
+        BinaryFormat.addVersion(headers, VERSION);
+        return CarPositionBatchCodec.encodeViews(data);
+    }
+}
@@ -0,0 +1,112 @@
+package com.barbu.fleetmanagement.common.codec;
+
+import com.barbu.fleetmanagement.common.model.CarPosition;
+import com.barbu.fleetmanagement.common.model.Location;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+
+import static com.barbu.fleetmanagement.common.codec.BinaryFormat.fromMicroDegrees;
+import static com.barbu.fleetmanagement.common.codec.BinaryFormat.toMicroDegrees;
+
+/**
+ * Binary layout (version {@value #VERSION}) of a {@link CarPosition}, big endian:
+ * <ol>
+ *     <li>offset 0: latitude in micro-degrees, int32</li>
+ *     <li>offset 4: longitude in micro-degrees, int32</li>
+ *     <li>offset 8: timestamp in epoch milliseconds, int64</li>
+ *     <li>offset 16: car id, driver id and trip id as unsigned variable length longs</li>
+ * </ol>
+ * The fixed size fields come first so they can be read at constant offsets without decoding the ids. A typical
+ * position takes 22 to 25 bytes, compared to about 150 bytes as JSON.
+ * <p>
+ * The timestamp is truncated to milliseconds and the coordinates are rounded to 6 decimals.
+ */
+public final class CarPositionCodec {
+
+    public static final byte VERSION = 1;
+    public static final int LATITUDE_OFFSET = 0;
+    public static final int LONGITUDE_OFFSET = 4;
+    public static final int TIMESTAMP_OFFSET = 8;
+    public static final int IDS_OFFSET = 16;
+    public static final int MAX_SIZE = IDS_OFFSET + 3 * VarInts.MAX_LONG_SIZE;
+
+    private CarPositionCodec() {
+    }
+
+    public static int size(CarPosition carPosition) {
+        return IDS_OFFSET
+                + VarInts.sizeOfUnsignedVarLong(carPosition.carId())
+                + VarInts.sizeOfUnsignedVarLong(carPosition.driverId())
+                + VarInts.sizeOfUnsignedVarLong(carPosition.tripId());
+    }
+
+    /**
+     * Number of bytes of the position encoded at the given offset, found by skipping over its ids.
+     */
+    public static int encodedLength(byte[] bytes, int offset) {
+        int position = offset + IDS_OFFSET;
+        for (int id = 0; id < 3; id++) {
+            while ((bytes[position++] & 0x80) != 0) {
+                // continuation byte of the variable length id
+            }
+        }
+        return position - offset;
+    }
+
+    public static byte[] encode(CarPosition carPosition) {
+        byte[] bytes = new byte[size(carPosition)];
+        encode(carPosition, ByteBuffer.wrap(bytes));
+        return bytes;
+    }
+
+    /**
+     * Writes the position at the current position of the buffer, advancing it by {@link #size(CarPosition)} bytes.
+     */
+    public static void encode(CarPosition carPosition, ByteBuffer buffer) {
+        Location location = carPosition.currentLocation();
+        buffer.putInt(toMicroDegrees(location.latitude()));
+        buffer.putInt(toMicroDegrees(location.longitude()));
+        buffer.putLong(carPosition.timestamp().toEpochMilli());
+        VarInts.writeUnsignedVarLong(buffer, carPosition.carId());
+        VarInts.writeUnsignedVarLong(buffer, carPosition.driverId());
+        VarInts.writeUnsignedVarLong(buffer, carPosition.tripId());
+    }
+
+    /**
+     * Encodes a position given as primitive fields, e.g. rebuilt from a delta.
+     */
+    public static byte[] encode(int latMicros, int lonMicros, long epochMillis, long carId, long driverId, long tripId) {
+        ByteBuffer buffer = ByteBuffer.allocate(IDS_OFFSET
+                + VarInts.sizeOfUnsignedVarLong(carId)
+                + VarInts.sizeOfUnsignedVarLong(driverId)
+                + VarInts.sizeOfUnsignedVarLong(tripId));
+        buffer.putInt(latMicros);
+        buffer.putInt(lonMicros);
+        buffer.putLong(epochMillis);
+        VarInts.writeUnsignedVarLong(buffer, carId);
+        VarInts.writeUnsignedVarLong(buffer, driverId);
+        VarInts.writeUnsignedVarLong(buffer, tripId);
+        return buffer.array();
+    }
+
+    public static CarPosition decode(byte[] bytes) {
+        return decode(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * Reads a position starting at the current position of the buffer, advancing it past the encoded ids.
+     */
+    public static CarPosition decode(ByteBuffer buffer) {
+        int latitude = buffer.getInt();
+        int longitude = buffer.getInt();
+        long epochMillis = buffer.getLong();
+        return CarPosition.builder()
+                .currentLocation(new Location(fromMicroDegrees(latitude), fromMicroDegrees(longitude)))
+                .timestamp(Instant.ofEpochMilli(epochMillis))
+                .carId(VarInts.readUnsignedVarLong(buffer))
+                .driverId(VarInts.readUnsignedVarLong(buffer))
+                .tripId(VarInts.readUnsignedVarLong(buffer))
+                .build();
+    }
+}
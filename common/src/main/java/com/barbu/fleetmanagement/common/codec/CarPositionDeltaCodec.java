@@ -0,0 +1,75 @@
+package com.barbu.fleetmanagement.common.codec;
+
+import com.barbu.fleetmanagement.common.model.CarPosition;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Binary layout (version {@value #VERSION}) of a delta encoded car position stream. Every record starts with a frame
+ * type byte:
+ * <ol>
+ *     <li>{@value #KEYFRAME}: a keyframe, followed by the whole position in the {@link CarPositionCodec} layout</li>
+ *     <li>{@value #DELTA}: a delta, followed by the trip id, the sequence number of the position since the last
+ *     keyframe of the trip (1 for the first delta) and the latitude, longitude (micro-degrees) and timestamp
+ *     (milliseconds) differences with the previous position of the trip, all as variable length longs, the
+ *     differences zigzag encoded</li>
+ * </ol>
+ * A delta only carries what changes between two positions of a trip, which takes about 12 bytes instead of the 22 to
+ * 25 bytes of a full position. The car and driver ids come from the keyframe. The encoder and decoder keep the previous
+ * position of every trip, the sequence number lets the decoder detect a missing or repeated record, after which it
+ * waits for the next keyframe.
+ */
+public final class CarPositionDeltaCodec {
+
+    public static final byte VERSION = 2;
+    public static final byte KEYFRAME = 0;
+    public static final byte DELTA = 1;
+
+    private CarPositionDeltaCodec() {
+    }
+
+    public static byte[] encodeKeyframe(CarPosition carPosition) {
+        ByteBuffer buffer = ByteBuffer.allocate(1 + CarPositionCodec.size(carPosition));
+        buffer.put(KEYFRAME);
+        CarPositionCodec.encode(carPosition, buffer);
+        return buffer.array();
+    }
+
+    public static byte[] encodeDelta(long tripId, long sequence, int latitudeDelta, int longitudeDelta,
+                                     long timestampDelta) {
+        ByteBuffer buffer = ByteBuffer.allocate(1 + 5 * VarInts.MAX_LONG_SIZE);
+        buffer.put(DELTA);
+        VarInts.writeUnsignedVarLong(buffer, tripId);
+        VarInts.writeUnsignedVarLong(buffer, sequence);
+        VarInts.writeSignedVarLong(buffer, latitudeDelta);
+        VarInts.writeSignedVarLong(buffer, longitudeDelta);
+        VarInts.writeSignedVarLong(buffer, timestampDelta);
+        byte[] bytes = new byte[buffer.position()];
+        buffer.get(0, bytes);
+        return bytes;
+    }
+
+    public static byte frameType(byte[] bytes) {
+        return bytes[0];
+    }
+
+    /**
+     * View of the position of a keyframe, pointing into the record bytes.
+     */
+    public static CarPositionView keyframe(byte[] bytes) {
+        return new CarPositionView(bytes, 1, bytes.length - 1);
+    }
+
+    public static Delta decodeDelta(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, 1, bytes.length - 1);
+        return new Delta(
+                VarInts.readUnsignedVarLong(buffer),
+                VarInts.readUnsignedVarLong(buffer),
+                (int) VarInts.readSignedVarLong(buffer),
+                (int) VarInts.readSignedVarLong(buffer),
+                VarInts.readSignedVarLong(buffer));
+    }
+
+    public record Delta(long tripId, long sequence, int latitudeDelta, int longitudeDelta, long timestampDelta) {
+    }
+}
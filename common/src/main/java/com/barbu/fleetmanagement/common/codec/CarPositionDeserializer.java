@@ -0,0 +1,27 @@
+package com.barbu.fleetmanagement.common.codec;
+
+import com.barbu.fleetmanagement.common.model.CarPosition;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+/**
+ * Kafka deserializer reading {@link CarPosition} values written by {@link CarPositionSerializer}. Records without a
+ * matching {@value BinaryFormat#VERSION_HEADER} header are rejected with a
+ * {@link org.apache.kafka.common.errors.SerializationException}.
+ */
+public class CarPositionDeserializer implements Deserializer<CarPosition> {
+
+    @Override
+    public CarPosition deserialize(String topic, byte[] data) {
+        return data == null ? null : CarPositionCodec.decode(data);
+    }
+
+    @Override
+    public CarPosition deserialize(String topic, Headers headers, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        BinaryFormat.checkVersion(headers, CarPositionCodec.VERSION, "CarPosition");
+        return CarPositionCodec.decode(data);
+    }
+}
@@ -0,0 +1,11 @@
+package com.barbu.fleetmanagement.common.codec;
+
+import com.barbu.fleetmanagement.common.model.CarPosition;
+import org.apache.kafka.common.serialization.Serdes;
+
+public class CarPositionSerde extends Serdes.WrapperSerde<CarPosition> {
+
+    public CarPositionSerde() {
+        super(new CarPositionSerializer(), new CarPositionDeserializer());
+    }
+}
@@ -0,0 +1,28 @@
+package com.barbu.fleetmanagement.common.codec;
+
+import com.barbu.fleetmanagement.common.model.CarPosition;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * Kafka serializer writing {@link CarPosition} values with {@link CarPositionCodec} and tagging the record with the
+ * {@value BinaryFormat#VERSION_HEADER} header.
+ */
+public class CarPositionSerializer implements Serializer<CarPosition> {
+
+    private static final byte[] VERSION = {CarPositionCodec.VERSION};
+
+    @Override
+    public byte[] serialize(String topic, CarPosition data) {
+        return data == null ? null : CarPositionCodec.encode(data);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, CarPosition data) {
+        if (data == null) {
+            return null;
+        }
+        BinaryFormat.addVersion(headers, VERSION);
+        return CarPositionCodec.encode(data);
+    }
+}
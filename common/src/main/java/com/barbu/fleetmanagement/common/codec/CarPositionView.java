@@ -0,0 +1,154 @@
+package com.barbu.fleetmanagement.common.codec;
+
+import com.barbu.fleetmanagement.common.model.CarPosition;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import static com.barbu.fleetmanagement.common.codec.BinaryFormat.microDegreesToDegrees;
+import static com.barbu.fleetmanagement.common.codec.CarPositionCodec.IDS_OFFSET;
+import static com.barbu.fleetmanagement.common.codec.CarPositionCodec.LATITUDE_OFFSET;
+import static com.barbu.fleetmanagement.common.codec.CarPositionCodec.LONGITUDE_OFFSET;
+import static com.barbu.fleetmanagement.common.codec.CarPositionCodec.TIMESTAMP_OFFSET;
+
+/**
+ * Read-only view of a car position encoded with {@link CarPositionCodec}, reading the fields straight from the
+ * encoded bytes.
+ * <p>
+ * Unlike {@link CarPositionCodec#decode(byte[])} no {@code BigDecimal}, {@code Instant} or boxed id is created: the
+ * coordinates and the timestamp are read at their fixed offsets on every call, the ids are decoded once, on first
+ * access. The bytes are not copied, so they must not be modified while the view is in use. A view can be pointed at
+ * another position with {@link #wrap(byte[], int, int)}.
+ */
+public final class CarPositionView {
+
+    private static final VarHandle INT = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+    private static final VarHandle LONG = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+    private byte[] bytes;
+    private int offset;
+    private int length;
+    private boolean idsDecoded;
+    private long carId;
+    private long driverId;
+    private long tripId;
+
+    public CarPositionView(byte[] bytes) {
+        this(bytes, 0, bytes.length);
+    }
+
+    public CarPositionView(byte[] bytes, int offset, int length) {
+        wrap(bytes, offset, length);
+    }
+
+    public static CarPositionView of(CarPosition carPosition) {
+        return new CarPositionView(CarPositionCodec.encode(carPosition));
+    }
+
+    public CarPositionView wrap(byte[] bytes, int offset, int length) {
+        if (length < IDS_OFFSET + 3 || offset + length > bytes.length) {
+            throw new IllegalArgumentException("Not an encoded car position: " + length + " bytes at offset " + offset);
+        }
+        this.bytes = bytes;
+        this.offset = offset;
+        this.length = length;
+        this.idsDecoded = false;
+        return this;
+    }
+
+    public int latMicros() {
+        return (int) INT.get(bytes, offset + LATITUDE_OFFSET);
+    }
+
+    public int lonMicros() {
+        return (int) INT.get(bytes, offset + LONGITUDE_OFFSET);
+    }
+
+    public long epochMillis() {
+        return (long) LONG.get(bytes, offset + TIMESTAMP_OFFSET);
+    }
+
+    public double latitude() {
+        return microDegreesToDegrees(latMicros());
+    }
+
+    public double longitude() {
+        return microDegreesToDegrees(lonMicros());
+    }
+
+    public long carId() {
+        decodeIds();
+        return carId;
+    }
+
+    public long driverId() {
+        decodeIds();
+        return driverId;
+    }
+
+    public long tripId() {
+        decodeIds();
+        return tripId;
+    }
+
+    /**
+     * Number of encoded bytes of this position.
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Copies the encoded position at the current position of the buffer.
+     */
+    public void writeTo(ByteBuffer buffer) {
+        buffer.put(bytes, offset, length);
+    }
+
+    /**
+     * A view to keep beyond the array it was read from: this view when it spans a whole array, otherwise a view over a
+     * copy of its bytes, so that keeping it does not keep e.g. the whole batch it was read from.
+     */
+    public CarPositionView detach() {
+        if (offset == 0 && length == bytes.length) {
+            return this;
+        }
+        return new CarPositionView(toByteArray());
+    }
+
+    /**
+     * The encoded position, without copying when the view spans a whole array.
+     */
+    public byte[] toByteArray() {
+        if (offset == 0 && length == bytes.length) {
+            return bytes;
+        }
+        return Arrays.copyOfRange(bytes, offset, offset + length);
+    }
+
+    public CarPosition toCarPosition() {
+        return CarPositionCodec.decode(ByteBuffer.wrap(bytes, offset, length));
+    }
+
+    private void decodeIds() {
+        if (idsDecoded) {
+            return;
+        }
+        int position = offset + IDS_OFFSET;
+        carId = VarInts.readUnsignedVarLong(bytes, position);
+        position += VarInts.sizeOfUnsignedVarLong(carId);
+        driverId = VarInts.readUnsignedVarLong(bytes, position);
+        position += VarInts.sizeOfUnsignedVarLong(driverId);
+        tripId = VarInts.readUnsignedVarLong(bytes, position);
+        idsDecoded = true;
+    }
+
+    @Override
+    public String toString() {
+        return "CarPositionView[carId=" + carId() + ", driverId=" + driverId() + ", tripId=" + tripId()
+                + ", latMicros=" + latMicros() + ", lonMicros=" + lonMicros() + ", epochMillis=" + epochMillis() + "]";
+    }
+}
@@ -0,0 +1,25 @@
+package com.barbu.fleetmanagement.common.codec;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+/**
+ * Kafka deserializer wrapping records written by {@link CarPositionSerializer} in a {@link CarPositionView}, without
+ * decoding them.
+ */
+public class CarPositionViewDeserializer implements Deserializer<CarPositionView> {
+
+    @Override
+    public CarPositionView deserialize(String topic, byte[] data) {
+        return data == null ? null : new CarPositionView(data);
+    }
+
+    @Override
+    public CarPositionView deserialize(String topic, Headers headers, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        BinaryFormat.checkVersion(headers, CarPositionCodec.VERSION, "CarPosition");
+        return new CarPositionView(data);
+    }
+}
@@ -0,0 +1,10 @@
+package com.barbu.fleetmanagement.common.codec;
+
+import org.apache.kafka.common.serialization.Serdes;
+
+public class CarPositionViewSerde extends Serdes.WrapperSerde<CarPositionView> {
+
+    public CarPositionViewSerde() {
+        super(new CarPositionViewSerializer(), new CarPositionViewDeserializer());
+    }
+}
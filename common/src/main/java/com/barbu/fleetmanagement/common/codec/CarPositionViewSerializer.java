@@ -0,0 +1,27 @@
+package com.barbu.fleetmanagement.common.codec;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * Kafka serializer writing the bytes behind a {@link CarPositionView}, in the same format as
+ * {@link CarPositionSerializer}.
+ */
+public class CarPositionViewSerializer implements Serializer<CarPositionView> {
+
+    private static final byte[] VERSION = {CarPositionCodec.VERSION};
+
+    @Override
+    public byte[] serialize(String topic, CarPositionView data) {
+        return data == null ? null : data.toByteArray();
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, CarPositionView data) {
+        if (data == null) {
+            return null;
+        }
+        BinaryFormat.addVersion(headers, VERSION);
+        return data.toByteArray();
+    }
+}
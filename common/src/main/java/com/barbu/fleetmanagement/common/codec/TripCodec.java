@@ -0,0 +1,80 @@
+package com.barbu.fleetmanagement.common.codec;
+
+import com.barbu.fleetmanagement.common.model.Location;
+import com.barbu.fleetmanagement.common.model.Trip;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static com.barbu.fleetmanagement.common.codec.BinaryFormat.fromMicroDegrees;
+import static com.barbu.fleetmanagement.common.codec.BinaryFormat.toMicroDegrees;
+
+/**
+ * Binary layout (version {@value #VERSION}) of a {@link Trip}, big endian:
+ * <ol>
+ *     <li>start latitude and longitude in micro-degrees, 2 x int32</li>
+ *     <li>destination latitude and longitude in micro-degrees, 2 x int32</li>
+ *     <li>trip id, driver id and car id as unsigned variable length longs</li>
+ *     <li>route length as an unsigned variable length long, 0 without route, followed by the encoded polyline of the
+ *     route in ASCII</li>
+ * </ol>
+ * Only persisted trips are published, so all the ids are expected to be set. A version 1 payload is a version 2 payload
+ * without the route, which {@link #decode(byte[])} still reads.
+ */
+public final class TripCodec {
+
+    public static final byte VERSION = 2;
+    public static final byte OLDEST_SUPPORTED_VERSION = 1;
+    private static final int IDS_OFFSET = 16;
+
+    private TripCodec() {
+    }
+
+    public static int size(Trip trip) {
+        return IDS_OFFSET
+                + VarInts.sizeOfUnsignedVarLong(trip.id())
+                + VarInts.sizeOfUnsignedVarLong(trip.driverId())
+                + VarInts.sizeOfUnsignedVarLong(trip.carId())
+                + VarInts.sizeOfUnsignedVarLong(routeLength(trip))
+                + routeLength(trip);
+    }
+
+    public static byte[] encode(Trip trip) {
+        ByteBuffer buffer = ByteBuffer.allocate(size(trip));
+        buffer.putInt(toMicroDegrees(trip.start().latitude()));
+        buffer.putInt(toMicroDegrees(trip.start().longitude()));
+        buffer.putInt(toMicroDegrees(trip.destination().latitude()));
+        buffer.putInt(toMicroDegrees(trip.destination().longitude()));
+        VarInts.writeUnsignedVarLong(buffer, trip.id());
+        VarInts.writeUnsignedVarLong(buffer, trip.driverId());
+        VarInts.writeUnsignedVarLong(buffer, trip.carId());
+        VarInts.writeUnsignedVarLong(buffer, routeLength(trip));
+        if (routeLength(trip) > 0) {
+            buffer.put(trip.route().getBytes(StandardCharsets.US_ASCII));
+        }
+        return buffer.array();
+    }
+
+    public static Trip decode(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        Location start = new Location(fromMicroDegrees(buffer.getInt()), fromMicroDegrees(buffer.getInt()));
+        Location destination = new Location(fromMicroDegrees(buffer.getInt()), fromMicroDegrees(buffer.getInt()));
+        Trip.TripBuilder trip = Trip.builder()
+                .start(start)
+                .destination(destination)
+                .id(VarInts.readUnsignedVarLong(buffer))
+                .driverId(VarInts.readUnsignedVarLong(buffer))
+                .carId(VarInts.readUnsignedVarLong(buffer));
+        if (buffer.hasRemaining()) {
+            int routeLength = (int) VarInts.readUnsignedVarLong(buffer);
+            if (routeLength > 0) {
+                trip.route(new String(bytes, buffer.position(), routeLength, StandardCharsets.US_ASCII));
+            }
+        }
+        return trip.build();
+    }
+
+    private static int routeLength(Trip trip) {
+        return trip.route() == null ? 0 : trip.route().length();
+    }
+}
@@ -0,0 +1,27 @@
+package com.barbu.fleetmanagement.common.codec;
+
+import com.barbu.fleetmanagement.common.model.Trip;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+/**
+ * Kafka deserializer reading {@link Trip} values written by {@link TripSerializer}, in the current or a former
+ * layout version. Records without a supported {@value BinaryFormat#VERSION_HEADER} header are rejected with a
+ * {@link org.apache.kafka.common.errors.SerializationException}.
+ */
+public class TripDeserializer implements Deserializer<Trip> {
+
+    @Override
+    public Trip deserialize(String topic, byte[] data) {
+        return data == null ? null : TripCodec.decode(data);
+    }
+
+    @Override
+    public Trip deserialize(String topic, Headers headers, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        BinaryFormat.checkVersion(headers, TripCodec.OLDEST_SUPPORTED_VERSION, TripCodec.VERSION, "Trip");
+        return TripCodec.decode(data);
+    }
+}
@@ -0,0 +1,11 @@
+package com.barbu.fleetmanagement.common.codec;
+
+import com.barbu.fleetmanagement.common.model.Trip;
+import org.apache.kafka.common.serialization.Serdes;
+
+public class TripSerde extends Serdes.WrapperSerde<Trip> {
+
+    public TripSerde() {
+        super(new TripSerializer(), new TripDeserializer());
+    }
+}
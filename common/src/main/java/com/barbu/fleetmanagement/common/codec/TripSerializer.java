@@ -0,0 +1,28 @@
+package com.barbu.fleetmanagement.common.codec;
+
+import com.barbu.fleetmanagement.common.model.Trip;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * Kafka serializer writing {@link Trip} values with {@link TripCodec} and tagging the record with the
+ * {@value BinaryFormat#VERSION_HEADER} header.
+ */
+public class TripSerializer implements Serializer<Trip> {
+
+    private static final byte[] VERSION = {TripCodec.VERSION};
+
+    @Override
+    public byte[] serialize(String topic, Trip data) {
+        return data == null ? null : TripCodec.encode(data);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, Trip data) {
+        if (data == null) {
+            return null;
+        }
+        BinaryFormat.addVersion(headers, VERSION);
+        return TripCodec.encode(data);
+    }
+}
@@ -0,0 +1,73 @@
+package com.barbu.fleetmanagement.common.codec;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Variable length encoding of {@code long} values (LEB128, 7 bits per byte, least significant group first): small
+ * positive values such as database ids take one to three bytes instead of eight. Signed values which can be negative
+ * (deltas) are zigzag encoded first, so that small magnitudes stay small.
+ */
+public final class VarInts {
+
+    /**
+     * Maximum number of bytes of an encoded {@code long}.
+     */
+    public static final int MAX_LONG_SIZE = 10;
+
+    private VarInts() {
+    }
+
+    public static void writeUnsignedVarLong(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    public static long readUnsignedVarLong(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed variable length long");
+    }
+
+    /**
+     * Reads an unsigned variable length long starting at the given offset of the array, without moving any buffer
+     * position. Use {@link #sizeOfUnsignedVarLong(long)} on the result to find the offset of the next value.
+     */
+    public static long readUnsignedVarLong(byte[] bytes, int offset) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = bytes[offset++];
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed variable length long");
+    }
+
+    public static int sizeOfUnsignedVarLong(long value) {
+        int size = 1;
+        while ((value & ~0x7FL) != 0) {
+            size++;
+            value >>>= 7;
+        }
+        return size;
+    }
+
+    public static void writeSignedVarLong(ByteBuffer buffer, long value) {
+        writeUnsignedVarLong(buffer, (value << 1) ^ (value >> 63));
+    }
+
+    public static long readSignedVarLong(ByteBuffer buffer) {
+        long zigzag = readUnsignedVarLong(buffer);
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+}
@@ -0,0 +1,120 @@
+package com.barbu.fleetmanagement.common.collection;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing hash map of {@code long} keys to {@code int} values, stored in two primitive arrays.
+ * <p>
+ * Collisions are resolved by linear probing and removals shift the following entries back instead of leaving
+ * tombstones, so lookups never degrade after many insertions and removals. The table is kept at most half full.
+ * {@link Long#MIN_VALUE} marks the free slots and cannot be used as a key. Not thread safe.
+ */
+public final class LongIntHashMap {
+
+    public static final int MISSING = -1;
+    private static final long FREE = Long.MIN_VALUE;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+
+    public LongIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(expectedSize, 4) * 2 - 1) << 1;
+        allocate(capacity);
+    }
+
+    /**
+     * @return The value of the key, or {@link #MISSING}
+     */
+    public int get(long key) {
+        for (int index = indexOf(key); ; index = (index + 1) & mask) {
+            long current = keys[index];
+            if (current == key) {
+                return values[index];
+            }
+            if (current == FREE) {
+                return MISSING;
+            }
+        }
+    }
+
+    public void put(long key, int value) {
+        if (key == FREE) {
+            throw new IllegalArgumentException("Unsupported key " + key);
+        }
+        int index = indexOf(key);
+        while (keys[index] != FREE && keys[index] != key) {
+            index = (index + 1) & mask;
+        }
+        if (keys[index] == FREE) {
+            keys[index] = key;
+            if (++size > keys.length / 2) {
+                values[index] = value;
+                rehash(keys.length * 2);
+                return;
+            }
+        }
+        values[index] = value;
+    }
+
+    /**
+     * @return The value the key had, or {@link #MISSING}
+     */
+    public int remove(long key) {
+        int index = indexOf(key);
+        while (keys[index] != key) {
+            if (keys[index] == FREE) {
+                return MISSING;
+            }
+            index = (index + 1) & mask;
+        }
+        int removed = values[index];
+        size--;
+        // shift back the following entries of the cluster which would not be found anymore
+        int free = index;
+        for (int next = (free + 1) & mask; keys[next] != FREE; next = (next + 1) & mask) {
+            int home = indexOf(keys[next]);
+            if (((next - home) & mask) >= ((next - free) & mask)) {
+                keys[free] = keys[next];
+                values[free] = values[next];
+                free = next;
+            }
+        }
+        keys[free] = FREE;
+        return removed;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private int indexOf(long key) {
+        // spread the high bits, sequential ids would otherwise fill consecutive slots
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int index = 0; index < oldKeys.length; index++) {
+            if (oldKeys[index] != FREE) {
+                int slot = indexOf(oldKeys[index]);
+                while (keys[slot] != FREE) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[index];
+                values[slot] = oldValues[index];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, FREE);
+        mask = capacity - 1;
+    }
+}
@@ -0,0 +1,65 @@
+package com.barbu.fleetmanagement.common.geo;
+
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+/**
+ * Batch counterpart of the {@code double} methods of {@link GeoCalculator} and {@link Trajectory}, for processing many
+ * pairs of coordinates at once (all active trips of a simulation tick, a replayed partition of positions).
+ * <p>
+ * Inputs and outputs are structure-of-arrays: element {@code i} of every array describes the same pair, all
+ * coordinates are in degrees and only the first {@code length} elements are processed. Results are the same as
+ * calling {@link GeoCalculator} or {@link Trajectory} pair by pair, up to the last few bits of the trigonometric
+ * functions.
+ * <p>
+ * Use {@link #create()} to get the fastest implementation available: the SIMD one of the optional
+ * {@code common-vector} artifact, based on the incubating {@code jdk.incubator.vector} module, when it is on the
+ * classpath and the JVM runs with {@code --add-modules jdk.incubator.vector}, a scalar loop otherwise. Only the
+ * artifacts and JVMs using the SIMD implementation need the incubator module.
+ */
+public interface BatchGeoCalculator {
+
+    /**
+     * Distance to the destination under which a car has arrived, like {@link GeoCalculator#calculateNewPosition}.
+     */
+    double ARRIVAL_DISTANCE_KM = 0.1;
+
+    /**
+     * Calculate the Haversine distance, in kilometers, of every start/destination pair.
+     */
+    void calculateDistancesInKm(double[] startLatitudes, double[] startLongitudes,
+                                double[] destinationLatitudes, double[] destinationLongitudes,
+                                double[] distancesKm, int length);
+
+    /**
+     * Calculate the new position of every start/destination pair after moving the given distance towards the
+     * destination along the great circle, as {@link Trajectory#between(double, double, double, double)} would. The
+     * new position is the destination itself when it is closer than {@link #ARRIVAL_DISTANCE_KM} or when the
+     * distance to move exceeds the distance to the destination.
+     */
+    void calculateNewPositions(double[] startLatitudes, double[] startLongitudes,
+                               double[] destinationLatitudes, double[] destinationLongitudes,
+                               double[] distancesToMoveKm,
+                               double[] newLatitudes, double[] newLongitudes, int length);
+
+    /**
+     * Create the fastest implementation available in the running JVM.
+     */
+    static BatchGeoCalculator create() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                return ServiceLoader.load(BatchGeoCalculator.class).findFirst().orElseGet(BatchGeoCalculator::scalar);
+            } catch (ServiceConfigurationError | LinkageError e) {
+                // the vector API is present but unusable on this platform, use the scalar loop
+            }
+        }
+        return scalar();
+    }
+
+    /**
+     * Create the scalar implementation, available on every JVM.
+     */
+    static BatchGeoCalculator scalar() {
+        return new ScalarBatchGeoCalculator(new GeoCalculator());
+    }
+}
@@ -0,0 +1,28 @@
+package com.barbu.fleetmanagement.common.geo;
+
+import jakarta.validation.Constraint;
+import jakarta.validation.Payload;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The annotated string is {@code null}, empty or a {@link Polyline} which can be decoded: a string of the polyline
+ * characters may still be truncated (e.g. {@code "?"}, half a point) and would fail when the trip is simulated.
+ */
+@Documented
+@Constraint(validatedBy = EncodedPolylineValidator.class)
+@Target({ElementType.METHOD, ElementType.FIELD, ElementType.ANNOTATION_TYPE, ElementType.CONSTRUCTOR,
+        ElementType.PARAMETER, ElementType.TYPE_USE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface EncodedPolyline {
+
+    String message() default "must be an encoded polyline";
+
+    Class<?>[] groups() default {};
+
+    Class<? extends Payload>[] payload() default {};
+}
@@ -0,0 +1,23 @@
+package com.barbu.fleetmanagement.common.geo;
+
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+
+/**
+ * Validates an {@link EncodedPolyline} by decoding it.
+ */
+public class EncodedPolylineValidator implements ConstraintValidator<EncodedPolyline, String> {
+
+    @Override
+    public boolean isValid(String polyline, ConstraintValidatorContext context) {
+        if (polyline == null || polyline.isEmpty()) {
+            return true;
+        }
+        try {
+            Polyline.decode(polyline);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
@@ -6,9 +6,28 @@ import java.math.BigDecimal;
 import java.math.MathContext;
 import java.math.RoundingMode;
 
+/**
+ * Geographic calculations used to move cars and to measure the distance they travelled.
+ * <p>
+ * Two flavours of every calculation are offered:
+ * <ul>
+ *   <li>{@link BigDecimal}/{@link Location} based methods, working with the API model</li>
+ *   <li>primitive {@code double} based methods, which do not allocate and should be preferred on hot paths
+ *   (every position update)</li>
+ * </ul>
+ * The {@code BigDecimal} methods only round each intermediate result to {@link #MATH_CONTEXT} (10 significant
+ * digits) and delegate the trigonometry to {@link Math} anyway, so the {@code double} methods are at least as
+ * precise. Compared with the {@code BigDecimal} results, the {@code double} distance differs by at most
+ * {@link #DOUBLE_DISTANCE_TOLERANCE_KM} (1 cm) plus {@link #DOUBLE_DISTANCE_RELATIVE_TOLERANCE} (1e-7) of the
+ * distance, i.e. less than 2 m even for antipodal points. This difference is the rounding noise of the
+ * {@code BigDecimal} flavour.
+ */
 public class GeoCalculator {
     private static final int EARTH_RADIUS_KM = 6371;
     public static final MathContext MATH_CONTEXT = new MathContext(10, RoundingMode.HALF_UP);
+    public static final double DOUBLE_DISTANCE_TOLERANCE_KM = 0.00001;
+    public static final double DOUBLE_DISTANCE_RELATIVE_TOLERANCE = 0.0000001;
+    private static final double ARRIVAL_DISTANCE_KM = 0.1;
 
     /**
      * Calculate the distance between two locations in kilometers using the Haversine formula.
@@ -31,6 +50,40 @@ public class GeoCalculator {
         return new BigDecimal(EARTH_RADIUS_KM).multiply(c);
     }
 
+    /**
+     * Calculate the distance between two coordinates, given in degrees, in kilometers using the Haversine formula.
+     * Allocation free counterpart of {@link #calculateDistanceInKm(Location, Location)}.
+     */
+    public double calculateDistanceInKm(double startLatitude, double startLongitude,
+                                        double destinationLatitude, double destinationLongitude) {
+        double lat1 = Math.toRadians(startLatitude);
+        double lat2 = Math.toRadians(destinationLatitude);
+        double sinHalfDLat = Math.sin((lat2 - lat1) / 2);
+        double sinHalfDLon = Math.sin(Math.toRadians(destinationLongitude - startLongitude) / 2);
+
+        double a = sinHalfDLat * sinHalfDLat + Math.cos(lat1) * Math.cos(lat2) * sinHalfDLon * sinHalfDLon;
+        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+
+        return EARTH_RADIUS_KM * c;
+    }
+
+    /**
+     * Calculate the initial bearing (forward azimuth) from start towards destination, in degrees clockwise
+     * from north, within [0, 360).
+     */
+    public double calculateBearing(double startLatitude, double startLongitude,
+                                   double destinationLatitude, double destinationLongitude) {
+        double lat1 = Math.toRadians(startLatitude);
+        double lat2 = Math.toRadians(destinationLatitude);
+        double dLon = Math.toRadians(destinationLongitude - startLongitude);
+
+        double y = Math.sin(dLon) * Math.cos(lat2);
+        double x = Math.cos(lat1) * Math.sin(lat2) - Math.sin(lat1) * Math.cos(lat2) * Math.cos(dLon);
+        double bearing = Math.toDegrees(Math.atan2(y, x));
+
+        return bearing < 0 ? bearing + 360 : bearing;
+    }
+
     /**
      * Calculate a new location by moving from start towards destination by the specified distance in kilometers.
      */
@@ -59,6 +112,59 @@ public class GeoCalculator {
         return new Location(newLat, newLon);
     }
 
+    /**
+     * Calculate which fraction of the way from start to destination is covered by moving the specified distance in
+     * kilometers. Follows the same rules as {@link #calculateNewPosition(Location, Location, BigDecimal)}: the
+     * fraction is 1 (the destination is reached) when the car is closer than 100 m to the destination or when the
+     * distance to move exceeds the remaining distance.
+     * <p>
+     * Combine it with {@link #interpolate(double, double, double)} to obtain the new coordinates without allocating.
+     */
+    public double calculateMoveFraction(double startLatitude, double startLongitude,
+                                        double destinationLatitude, double destinationLongitude,
+                                        double distanceToMoveKm) {
+        double totalDistanceKm = calculateDistanceInKm(startLatitude, startLongitude,
+                destinationLatitude, destinationLongitude);
+
+        if (totalDistanceKm < ARRIVAL_DISTANCE_KM || distanceToMoveKm >= totalDistanceKm) {
+            return 1;
+        }
+        return distanceToMoveKm / totalDistanceKm;
+    }
+
+    /**
+     * Linearly interpolate a coordinate (latitude or longitude) between start and destination.
+     */
+    public double interpolate(double start, double destination, double fraction) {
+        return start + (destination - start) * fraction;
+    }
+
+    /**
+     * Calculate the great-circle trajectory from start to destination, to be evaluated on every position update
+     * instead of recomputing the geometry.
+     */
+    public Trajectory calculateTrajectory(Location start, Location destination) {
+        return Trajectory.between(start, destination);
+    }
+
+    /**
+     * Calculate the trajectory from start to destination through the points of an encoded {@link Polyline} route,
+     * the great-circle trajectory when there is no route.
+     */
+    public Trajectory calculateTrajectory(Location start, Location destination, String route) {
+        if (route == null || route.isEmpty()) {
+            return calculateTrajectory(start, destination);
+        }
+        double[] routePoints = Polyline.decode(route);
+        double[] waypoints = new double[routePoints.length + 4];
+        waypoints[0] = start.latitude().doubleValue();
+        waypoints[1] = start.longitude().doubleValue();
+        System.arraycopy(routePoints, 0, waypoints, 2, routePoints.length);
+        waypoints[waypoints.length - 2] = destination.latitude().doubleValue();
+        waypoints[waypoints.length - 1] = destination.longitude().doubleValue();
+        return Trajectory.along(waypoints);
+    }
+
     private static BigDecimal toRadians(BigDecimal degrees) {
         return degrees.multiply(new BigDecimal(Math.PI)).divide(new BigDecimal("180"), MATH_CONTEXT);
     }
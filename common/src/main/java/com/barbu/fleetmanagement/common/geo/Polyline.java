@@ -0,0 +1,94 @@
+package com.barbu.fleetmanagement.common.geo;
+
+import java.util.Arrays;
+
+/**
+ * Encoded polyline algorithm format, with a precision of 5 decimals (about 1 m), as produced by most routing services.
+ * <p>
+ * Each latitude and longitude is written as its difference with the previous point, in 1e-5 degrees, zig-zag encoded
+ * in chunks of 5 bits, each chunk being one printable ASCII character between {@code ?} and {@code ~}. Consecutive
+ * route points being close, a point usually takes 4 to 8 characters, so a route of thousands of points stays a few
+ * kilobytes.
+ * <p>
+ * The coordinates are handled as arrays of latitude and longitude pairs, in degrees.
+ */
+public final class Polyline {
+
+    private static final double FACTOR = 1e5;
+    private static final int CHUNK_BITS = 5;
+    private static final int CHUNK_MASK = 0x1f;
+    private static final int CONTINUATION = 0x20;
+    private static final int OFFSET = 63;
+
+    private Polyline() {
+    }
+
+    public static String encode(double[] coordinates) {
+        if (coordinates.length % 2 != 0) {
+            throw new IllegalArgumentException("Expected latitude and longitude pairs, got " + coordinates.length
+                    + " coordinates");
+        }
+        StringBuilder polyline = new StringBuilder(coordinates.length * 4);
+        long previousLatitude = 0;
+        long previousLongitude = 0;
+        for (int point = 0; point < coordinates.length; point += 2) {
+            long latitude = Math.round(coordinates[point] * FACTOR);
+            long longitude = Math.round(coordinates[point + 1] * FACTOR);
+            encodeValue(polyline, latitude - previousLatitude);
+            encodeValue(polyline, longitude - previousLongitude);
+            previousLatitude = latitude;
+            previousLongitude = longitude;
+        }
+        return polyline.toString();
+    }
+
+    /**
+     * @throws IllegalArgumentException when the polyline is truncated or holds characters outside of the format
+     */
+    public static double[] decode(String polyline) {
+        double[] coordinates = new double[Math.max(2, polyline.length() / 2) & ~1];
+        int length = 0;
+        int index = 0;
+        long latitude = 0;
+        long longitude = 0;
+        while (index < polyline.length()) {
+            for (int coordinate = 0; coordinate < 2; coordinate++) {
+                long result = 0;
+                int shift = 0;
+                int chunk;
+                do {
+                    if (index == polyline.length()) {
+                        throw new IllegalArgumentException("Truncated polyline at character " + index);
+                    }
+                    chunk = polyline.charAt(index++) - OFFSET;
+                    if (chunk < 0 || chunk > CHUNK_MASK + CONTINUATION || shift > Long.SIZE - CHUNK_BITS) {
+                        throw new IllegalArgumentException("Invalid polyline character at " + (index - 1));
+                    }
+                    result |= (long) (chunk & CHUNK_MASK) << shift;
+                    shift += CHUNK_BITS;
+                } while (chunk >= CONTINUATION);
+                long value = (result & 1) != 0 ? ~(result >>> 1) : result >>> 1;
+                if (coordinate == 0) {
+                    latitude += value;
+                } else {
+                    longitude += value;
+                }
+            }
+            if (length + 2 > coordinates.length) {
+                coordinates = Arrays.copyOf(coordinates, length * 2);
+            }
+            coordinates[length++] = latitude / FACTOR;
+            coordinates[length++] = longitude / FACTOR;
+        }
+        return length == coordinates.length ? coordinates : Arrays.copyOf(coordinates, length);
+    }
+
+    private static void encodeValue(StringBuilder polyline, long value) {
+        long zigZag = value < 0 ? ~(value << 1) : value << 1;
+        while (zigZag >= CONTINUATION) {
+            polyline.append((char) ((CONTINUATION | (zigZag & CHUNK_MASK)) + OFFSET));
+            zigZag >>>= CHUNK_BITS;
+        }
+        polyline.append((char) (zigZag + OFFSET));
+    }
+}
@@ -0,0 +1,87 @@
+package com.barbu.fleetmanagement.common.geo;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * {@link BatchGeoCalculator} looping over the pairs one by one, with the {@code double} distance method of
+ * {@link GeoCalculator} and the great-circle math of {@link Trajectory}.
+ */
+@RequiredArgsConstructor
+class ScalarBatchGeoCalculator implements BatchGeoCalculator {
+
+    private static final double EARTH_RADIUS_KM = 6371;
+    private static final double EPSILON = 1e-12;
+
+    private final GeoCalculator geoCalculator;
+
+    @Override
+    public void calculateDistancesInKm(double[] startLatitudes, double[] startLongitudes,
+                                       double[] destinationLatitudes, double[] destinationLongitudes,
+                                       double[] distancesKm, int length) {
+        for (int i = 0; i < length; i++) {
+            distancesKm[i] = geoCalculator.calculateDistanceInKm(startLatitudes[i], startLongitudes[i],
+                    destinationLatitudes[i], destinationLongitudes[i]);
+        }
+    }
+
+    @Override
+    public void calculateNewPositions(double[] startLatitudes, double[] startLongitudes,
+                                      double[] destinationLatitudes, double[] destinationLongitudes,
+                                      double[] distancesToMoveKm,
+                                      double[] newLatitudes, double[] newLongitudes, int length) {
+        for (int i = 0; i < length; i++) {
+            calculateNewPosition(startLatitudes[i], startLongitudes[i], destinationLatitudes[i],
+                    destinationLongitudes[i], distancesToMoveKm[i], newLatitudes, newLongitudes, i);
+        }
+    }
+
+    /**
+     * Moves along the great circle of the pair like a single segment {@link Trajectory}: the point reached is
+     * {@code a * cos(d / R) + c * sin(d / R)}, {@code a} being the unit vector of the start and {@code c} the unit
+     * direction of travel at the start.
+     */
+    static void calculateNewPosition(double startLatitude, double startLongitude,
+                                     double destinationLatitude, double destinationLongitude, double distanceToMoveKm,
+                                     double[] newLatitudes, double[] newLongitudes, int index) {
+        double startLat = Math.toRadians(startLatitude);
+        double startLon = Math.toRadians(startLongitude);
+        double destinationLat = Math.toRadians(destinationLatitude);
+        double destinationLon = Math.toRadians(destinationLongitude);
+
+        double ax = Math.cos(startLat) * Math.cos(startLon);
+        double ay = Math.cos(startLat) * Math.sin(startLon);
+        double az = Math.sin(startLat);
+        double bx = Math.cos(destinationLat) * Math.cos(destinationLon);
+        double by = Math.cos(destinationLat) * Math.sin(destinationLon);
+        double bz = Math.sin(destinationLat);
+
+        double dot = ax * bx + ay * by + az * bz;
+        double cx = bx - dot * ax;
+        double cy = by - dot * ay;
+        double cz = bz - dot * az;
+        double norm = Math.sqrt(cx * cx + cy * cy + cz * cz);
+        double totalDistanceKm = EARTH_RADIUS_KM * Math.atan2(norm, dot);
+
+        if (totalDistanceKm < ARRIVAL_DISTANCE_KM || distanceToMoveKm >= totalDistanceKm) {
+            newLatitudes[index] = destinationLatitude;
+            newLongitudes[index] = destinationLongitude;
+            return;
+        }
+        if (norm <= EPSILON) {
+            // antipodal points, the trajectory picks the great circle
+            Trajectory trajectory = Trajectory.between(startLatitude, startLongitude,
+                    destinationLatitude, destinationLongitude);
+            newLatitudes[index] = trajectory.latitudeAt(distanceToMoveKm);
+            newLongitudes[index] = trajectory.longitudeAt(distanceToMoveKm);
+            return;
+        }
+        double angle = distanceToMoveKm / EARTH_RADIUS_KM;
+        double cos = Math.cos(angle);
+        double sin = Math.sin(angle) / norm;
+        double x = ax * cos + cx * sin;
+        double y = ay * cos + cy * sin;
+        double z = az * cos + cz * sin;
+        newLatitudes[index] = Math.toDegrees(Math.atan2(z, Math.sqrt(x * x + y * y)));
+        newLongitudes[index] = Math.toDegrees(Math.atan2(y, x));
+    }
+}
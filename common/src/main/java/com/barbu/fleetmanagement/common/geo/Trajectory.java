@@ -0,0 +1,250 @@
+package com.barbu.fleetmanagement.common.geo;
+
+import com.barbu.fleetmanagement.common.model.Location;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/**
+ * Path from a start to a destination, precomputed once per trip: a single great-circle segment, or one per leg of a
+ * route through waypoints.
+ * <p>
+ * Each segment is described by two orthogonal unit vectors of its great-circle plane: {@code a}, pointing to the
+ * segment start, and {@code c}, the direction of travel at the start. The point reached after travelling {@code d} km
+ * along the segment is {@code a * cos(d / R) + c * sin(d / R)}, so evaluating a position only costs a few
+ * multiplications and the conversion back to latitude and longitude, instead of a full Haversine computation on every
+ * update. Unlike a linear interpolation of latitude and longitude, the positions follow the shortest path on the
+ * Earth's surface.
+ * <p>
+ * The distance from the start at which each segment begins is kept in a cumulative array, so the segment of a
+ * travelled distance is found with a binary search, without walking the route again on every update.
+ * <p>
+ * Instances are immutable and can be shared between threads; the distance already travelled (the cursor) is kept
+ * by the caller.
+ */
+public final class Trajectory {
+    private static final double EARTH_RADIUS_KM = 6371;
+    private static final double EPSILON = 1e-12;
+    private static final int VECTORS_PER_SEGMENT = 6;
+
+    /**
+     * {@code ax, ay, az, cx, cy, cz} of every segment.
+     */
+    private final double[] vectors;
+    /**
+     * Distance from the start at which every segment begins, ascending, the first one being 0.
+     */
+    private final double[] segmentStartKm;
+    /**
+     * Latitude and longitude of the route points, {@code null} for a single great-circle segment.
+     */
+    private final double[] waypoints;
+    @Getter
+    private final double lengthKm;
+
+    private Trajectory(double[] vectors, double[] segmentStartKm, double[] waypoints, double lengthKm) {
+        this.vectors = vectors;
+        this.segmentStartKm = segmentStartKm;
+        this.waypoints = waypoints;
+        this.lengthKm = lengthKm;
+    }
+
+    /**
+     * Create the great-circle trajectory between two coordinates given in degrees.
+     */
+    public static Trajectory between(double startLatitude, double startLongitude,
+                                     double destinationLatitude, double destinationLongitude) {
+        double[] vectors = new double[VECTORS_PER_SEGMENT];
+        double lengthKm = segment(vectors, 0, startLatitude, startLongitude, destinationLatitude, destinationLongitude);
+        return new Trajectory(vectors, new double[]{0}, null, lengthKm);
+    }
+
+    public static Trajectory between(Location start, Location destination) {
+        return between(start.latitude().doubleValue(), start.longitude().doubleValue(),
+                destination.latitude().doubleValue(), destination.longitude().doubleValue());
+    }
+
+    /**
+     * Create the trajectory following a route, one great-circle segment between each pair of consecutive points.
+     * Repeated consecutive points are skipped.
+     *
+     * @param waypoints Latitude and longitude, in degrees, of each point of the route, at least the start
+     * @throws IllegalArgumentException when no point or an odd number of coordinates is given
+     */
+    public static Trajectory along(double[] waypoints) {
+        if (waypoints.length < 2 || waypoints.length % 2 != 0) {
+            throw new IllegalArgumentException("Expected latitude and longitude pairs, got " + waypoints.length
+                    + " coordinates");
+        }
+        double[] points = distinctConsecutive(waypoints);
+        if (points.length == 2) {
+            return between(points[0], points[1], points[0], points[1]);
+        }
+        int segments = points.length / 2 - 1;
+        double[] vectors = new double[segments * VECTORS_PER_SEGMENT];
+        double[] segmentStartKm = new double[segments];
+        double lengthKm = 0;
+        for (int segment = 0; segment < segments; segment++) {
+            int point = segment * 2;
+            segmentStartKm[segment] = lengthKm;
+            lengthKm += segment(vectors, segment * VECTORS_PER_SEGMENT,
+                    points[point], points[point + 1], points[point + 2], points[point + 3]);
+        }
+        return new Trajectory(vectors, segmentStartKm, points, lengthKm);
+    }
+
+    /**
+     * Number of great-circle segments, 1 unless the trajectory follows a route.
+     */
+    public int getSegmentCount() {
+        return segmentStartKm.length;
+    }
+
+    /**
+     * Latitude and longitude of the route points the trajectory was created {@link #along(double[])}, or of its start
+     * and destination for a single great-circle segment.
+     */
+    public double[] getWaypoints() {
+        if (waypoints != null) {
+            return waypoints.clone();
+        }
+        return new double[]{latitudeAt(0), longitudeAt(0), latitudeAt(lengthKm), longitudeAt(lengthKm)};
+    }
+
+    /**
+     * Latitude, in degrees, of the point reached after travelling the given distance from the start.
+     */
+    public double latitudeAt(double distanceKm) {
+        double distance = clamp(distanceKm);
+        int segment = segmentAt(distance);
+        int offset = segment * VECTORS_PER_SEGMENT;
+        double angle = (distance - segmentStartKm[segment]) / EARTH_RADIUS_KM;
+        double cos = Math.cos(angle);
+        double sin = Math.sin(angle);
+        double x = vectors[offset] * cos + vectors[offset + 3] * sin;
+        double y = vectors[offset + 1] * cos + vectors[offset + 4] * sin;
+        double z = vectors[offset + 2] * cos + vectors[offset + 5] * sin;
+        return Math.toDegrees(Math.atan2(z, Math.sqrt(x * x + y * y)));
+    }
+
+    /**
+     * Longitude, in degrees, of the point reached after travelling the given distance from the start.
+     */
+    public double longitudeAt(double distanceKm) {
+        double distance = clamp(distanceKm);
+        int segment = segmentAt(distance);
+        int offset = segment * VECTORS_PER_SEGMENT;
+        double angle = (distance - segmentStartKm[segment]) / EARTH_RADIUS_KM;
+        double cos = Math.cos(angle);
+        double sin = Math.sin(angle);
+        return Math.toDegrees(Math.atan2(vectors[offset + 1] * cos + vectors[offset + 4] * sin,
+                vectors[offset] * cos + vectors[offset + 3] * sin));
+    }
+
+    /**
+     * Location reached after travelling the given distance from the start. Distances beyond the length of the
+     * trajectory stop at the destination.
+     */
+    public Location locationAt(double distanceKm) {
+        double distance = clamp(distanceKm);
+        int segment = segmentAt(distance);
+        int offset = segment * VECTORS_PER_SEGMENT;
+        double angle = (distance - segmentStartKm[segment]) / EARTH_RADIUS_KM;
+        double cos = Math.cos(angle);
+        double sin = Math.sin(angle);
+        double x = vectors[offset] * cos + vectors[offset + 3] * sin;
+        double y = vectors[offset + 1] * cos + vectors[offset + 4] * sin;
+        double z = vectors[offset + 2] * cos + vectors[offset + 5] * sin;
+        return new Location(
+                BigDecimal.valueOf(Math.toDegrees(Math.atan2(z, Math.sqrt(x * x + y * y)))).round(GeoCalculator.MATH_CONTEXT),
+                BigDecimal.valueOf(Math.toDegrees(Math.atan2(y, x))).round(GeoCalculator.MATH_CONTEXT));
+    }
+
+    /**
+     * Index of the segment the given distance, already clamped, falls in.
+     */
+    private int segmentAt(double distanceKm) {
+        if (segmentStartKm.length == 1) {
+            return 0;
+        }
+        int index = Arrays.binarySearch(segmentStartKm, distanceKm);
+        // not found: the insertion point is the first segment starting further
+        return index >= 0 ? index : -index - 2;
+    }
+
+    private double clamp(double distanceKm) {
+        return Math.max(0, Math.min(distanceKm, lengthKm));
+    }
+
+    /**
+     * Computes the vectors of the great-circle segment between two coordinates given in degrees.
+     *
+     * @return The length of the segment, in kilometers
+     */
+    private static double segment(double[] vectors, int offset, double startLatitude, double startLongitude,
+                                  double destinationLatitude, double destinationLongitude) {
+        double startLat = Math.toRadians(startLatitude);
+        double startLon = Math.toRadians(startLongitude);
+        double destinationLat = Math.toRadians(destinationLatitude);
+        double destinationLon = Math.toRadians(destinationLongitude);
+
+        // unit vectors (n-vectors) of start and destination
+        double ax = Math.cos(startLat) * Math.cos(startLon);
+        double ay = Math.cos(startLat) * Math.sin(startLon);
+        double az = Math.sin(startLat);
+        double bx = Math.cos(destinationLat) * Math.cos(destinationLon);
+        double by = Math.cos(destinationLat) * Math.sin(destinationLon);
+        double bz = Math.sin(destinationLat);
+
+        // component of the destination orthogonal to the start gives the direction of travel
+        double dot = ax * bx + ay * by + az * bz;
+        double cx = bx - dot * ax;
+        double cy = by - dot * ay;
+        double cz = bz - dot * az;
+        double norm = Math.sqrt(cx * cx + cy * cy + cz * cz);
+        double angle = Math.atan2(norm, dot);
+
+        if (norm > EPSILON) {
+            cx /= norm;
+            cy /= norm;
+            cz /= norm;
+        } else if (dot < 0) {
+            // antipodal points: every great circle through the start works, head north (or along the x axis at a pole)
+            double horizontal = Math.sqrt(ax * ax + ay * ay);
+            if (horizontal > EPSILON) {
+                cx = -az * ax / horizontal;
+                cy = -az * ay / horizontal;
+                cz = horizontal;
+            } else {
+                cx = 1;
+                cy = 0;
+                cz = 0;
+            }
+        } else {
+            // start and destination are the same point
+            cx = 0;
+            cy = 0;
+            cz = 0;
+        }
+        vectors[offset] = ax;
+        vectors[offset + 1] = ay;
+        vectors[offset + 2] = az;
+        vectors[offset + 3] = cx;
+        vectors[offset + 4] = cy;
+        vectors[offset + 5] = cz;
+        return EARTH_RADIUS_KM * angle;
+    }
+
+    private static double[] distinctConsecutive(double[] waypoints) {
+        double[] points = new double[waypoints.length];
+        int length = 0;
+        for (int point = 0; point < waypoints.length; point += 2) {
+            if (length == 0 || waypoints[point] != points[length - 2] || waypoints[point + 1] != points[length - 1]) {
+                points[length++] = waypoints[point];
+                points[length++] = waypoints[point + 1];
+            }
+        }
+        return length == points.length ? points : Arrays.copyOf(points, length);
+    }
+}
@@ -0,0 +1,10 @@
+package com.barbu.fleetmanagement.common.model;
+
+import java.util.List;
+
+/**
+ * Several car positions published as a single Kafka record. All the positions of a batch belong to drivers of the
+ * same partition key bucket and are kept in the order they were produced.
+ */
+public record CarPositionBatch(List<CarPosition> positions) {
+}
@@ -1,13 +1,21 @@
 package com.barbu.fleetmanagement.common.model;
 
+import com.barbu.fleetmanagement.common.geo.EncodedPolyline;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import lombok.Builder;
 
+/**
+ * A trip of a driver with a car. Without {@code route} the car drives straight to the destination, along the
+ * great-circle path; otherwise {@code route} is the encoded polyline (precision 5) of the points the car drives
+ * through, see {@link com.barbu.fleetmanagement.common.geo.Polyline}. The route may or may not repeat the start and
+ * the destination.
+ */
 @Builder
 public record Trip(Long id,
                   @Valid @NotNull Location start,
                   @Valid @NotNull Location destination,
                   @NotNull Long driverId,
-                  @NotNull Long carId) {
-}
\ No newline at end of file
+                  @NotNull Long carId,
+                  @EncodedPolyline String route) {
+}
@@ -0,0 +1,65 @@
+package com.barbu.fleetmanagement.common.codec;
+
+import com.barbu.fleetmanagement.common.model.CarPosition;
+import com.barbu.fleetmanagement.common.model.CarPositionBatch;
+import com.barbu.fleetmanagement.common.model.Location;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CarPositionBatchCodecTest {
+
+    @Test
+    void shouldRoundTripPositionsInOrder() {
+        List<CarPosition> positions = new ArrayList<>();
+        for (long i = 0; i < 200; i++) {
+            positions.add(CarPosition.builder()
+                    .carId(i)
+                    .driverId(i % 7)
+                    .tripId(1000 + i)
+                    .currentLocation(new Location(
+                            BigDecimal.valueOf(44_400_000 + i, 6),
+                            BigDecimal.valueOf(26_100_000 - i, 6)))
+                    .timestamp(Instant.ofEpochMilli(1_750_000_000_000L + i * 10_000))
+                    .build());
+        }
+        CarPositionBatch batch = new CarPositionBatch(positions);
+
+        byte[] bytes = CarPositionBatchCodec.encode(batch);
+
+        assertThat(CarPositionBatchCodec.decode(bytes)).isEqualTo(batch);
+        // 2 bytes for the count, no per position framing
+        assertThat(bytes).hasSize(2 + positions.stream().mapToInt(CarPositionCodec::size).sum());
+    }
+
+    @Test
+    void shouldRoundTripEmptyBatch() {
+        CarPositionBatch batch = new CarPositionBatch(List.of());
+
+        assertThat(CarPositionBatchCodec.decode(CarPositionBatchCodec.encode(batch)).positions()).isEmpty();
+    }
+
+    @Test
+    void serdeShouldTagRecordWithFormatVersion() {
+        CarPositionBatchSerde serde = new CarPositionBatchSerde();
+        RecordHeaders headers = new RecordHeaders();
+        CarPositionBatch batch = new CarPositionBatch(List.of(CarPosition.builder()
+                .carId(1L)
+                .driverId(2L)
+                .tripId(3L)
+                .currentLocation(new Location(new BigDecimal("44.720965"), new BigDecimal("26.606699")))
+                .timestamp(Instant.parse("2025-06-01T10:15:30Z"))
+                .build()));
+
+        byte[] bytes = serde.serializer().serialize("topic", headers, batch);
+
+        assertThat(headers.lastHeader(BinaryFormat.VERSION_HEADER).value()).containsExactly(CarPositionBatchCodec.VERSION);
+        assertThat(serde.deserializer().deserialize("topic", headers, bytes)).isEqualTo(batch);
+    }
+}
@@ -0,0 +1,130 @@
+package com.barbu.fleetmanagement.common.codec;
+
+import com.barbu.fleetmanagement.common.model.CarPosition;
+import com.barbu.fleetmanagement.common.model.Location;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CarPositionCodecTest {
+
+    private static final CarPosition CAR_POSITION = CarPosition.builder()
+            .carId(12L)
+            .driverId(345L)
+            .tripId(67890L)
+            .currentLocation(new Location(new BigDecimal("44.720965"), new BigDecimal("-26.606699")))
+            .timestamp(Instant.parse("2025-06-01T10:15:30.123Z"))
+            .build();
+
+    @Test
+    void shouldRoundTrip() {
+        CarPosition decoded = CarPositionCodec.decode(CarPositionCodec.encode(CAR_POSITION));
+
+        assertThat(decoded.carId()).isEqualTo(12L);
+        assertThat(decoded.driverId()).isEqualTo(345L);
+        assertThat(decoded.tripId()).isEqualTo(67890L);
+        assertThat(decoded.timestamp()).isEqualTo(CAR_POSITION.timestamp());
+        assertThat(decoded.currentLocation().latitude()).isEqualByComparingTo("44.720965");
+        assertThat(decoded.currentLocation().longitude()).isEqualByComparingTo("-26.606699");
+    }
+
+    @Test
+    void shouldUseFixedOffsetsAndVariableLengthIds() {
+        byte[] bytes = CarPositionCodec.encode(CAR_POSITION);
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+
+        // 1 byte for car id 12, 2 bytes for driver id 345, 3 bytes for trip id 67890
+        assertThat(bytes).hasSize(CarPositionCodec.IDS_OFFSET + 1 + 2 + 3);
+        assertThat(buffer.getInt(CarPositionCodec.LATITUDE_OFFSET)).isEqualTo(44_720_965);
+        assertThat(buffer.getInt(CarPositionCodec.LONGITUDE_OFFSET)).isEqualTo(-26_606_699);
+        assertThat(buffer.getLong(CarPositionCodec.TIMESTAMP_OFFSET)).isEqualTo(CAR_POSITION.timestamp().toEpochMilli());
+    }
+
+    @Test
+    void shouldRoundCoordinatesToMicroDegreesAndTruncateTimestampToMillis() {
+        CarPosition carPosition = CarPosition.builder()
+                .carId(1L)
+                .driverId(1L)
+                .tripId(1L)
+                .currentLocation(new Location(new BigDecimal("44.72096549"), new BigDecimal("26.60669951")))
+                .timestamp(Instant.parse("2025-06-01T10:15:30.123456789Z"))
+                .build();
+
+        CarPosition decoded = CarPositionCodec.decode(CarPositionCodec.encode(carPosition));
+
+        assertThat(decoded.currentLocation().latitude()).isEqualByComparingTo("44.720965");
+        assertThat(decoded.currentLocation().longitude()).isEqualByComparingTo("26.606700");
+        assertThat(decoded.timestamp()).isEqualTo(Instant.parse("2025-06-01T10:15:30.123Z"));
+    }
+
+    @Test
+    void shouldEncodeLargeIds() {
+        CarPosition carPosition = CarPosition.builder()
+                .carId(Long.MAX_VALUE)
+                .driverId(0L)
+                .tripId(1L << 40)
+                .currentLocation(new Location(new BigDecimal("-90"), new BigDecimal("180")))
+                .timestamp(Instant.EPOCH)
+                .build();
+
+        byte[] bytes = CarPositionCodec.encode(carPosition);
+        CarPosition decoded = CarPositionCodec.decode(bytes);
+
+        assertThat(bytes.length).isLessThanOrEqualTo(CarPositionCodec.MAX_SIZE);
+        assertThat(decoded.carId()).isEqualTo(Long.MAX_VALUE);
+        assertThat(decoded.driverId()).isZero();
+        assertThat(decoded.tripId()).isEqualTo(1L << 40);
+        assertThat(decoded.currentLocation().latitude()).isEqualByComparingTo("-90");
+        assertThat(decoded.currentLocation().longitude()).isEqualByComparingTo("180");
+    }
+
+    @Nested
+    class SerdeTests {
+
+        private final CarPositionSerde serde = new CarPositionSerde();
+
+        @Test
+        void shouldTagRecordWithFormatVersion() {
+            RecordHeaders headers = new RecordHeaders();
+
+            byte[] bytes = serde.serializer().serialize("topic", headers, CAR_POSITION);
+
+            assertThat(headers.lastHeader(BinaryFormat.VERSION_HEADER).value()).containsExactly(CarPositionCodec.VERSION);
+            assertThat(serde.deserializer().deserialize("topic", headers, bytes)).isEqualTo(CAR_POSITION);
+        }
+
+        @Test
+        void shouldRejectRecordsWithoutFormatVersion() {
+            byte[] json = "{\"carId\":12}".getBytes();
+
+            assertThatThrownBy(() -> serde.deserializer().deserialize("topic", new RecordHeaders(), json))
+                    .isInstanceOf(SerializationException.class);
+        }
+
+        @Test
+        void shouldRejectUnknownFormatVersion() {
+            RecordHeaders headers = new RecordHeaders();
+            headers.add(BinaryFormat.VERSION_HEADER, new byte[]{99});
+
+            assertThatThrownBy(() -> serde.deserializer().deserialize("topic", headers, new byte[22]))
+                    .isInstanceOf(SerializationException.class)
+                    .hasMessageContaining("99");
+        }
+
+        @Test
+        void shouldPassTombstonesThrough() {
+            RecordHeaders headers = new RecordHeaders();
+
+            assertThat(serde.serializer().serialize("topic", headers, null)).isNull();
+            assertThat(serde.deserializer().deserialize("topic", headers, (byte[]) null)).isNull();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.barbu.fleetmanagement.common.codec;
+
+import com.barbu.fleetmanagement.common.model.CarPosition;
+import com.barbu.fleetmanagement.common.model.Location;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CarPositionDeltaCodecTest {
+
+    @Test
+    void keyframeShouldHoldTheWholePosition() {
+        CarPosition carPosition = CarPosition.builder()
+                .carId(12L)
+                .driverId(345L)
+                .tripId(67890L)
+                .currentLocation(new Location(new BigDecimal("44.720965"), new BigDecimal("26.606699")))
+                .timestamp(Instant.parse("2025-06-01T10:15:30.123Z"))
+                .build();
+
+        byte[] bytes = CarPositionDeltaCodec.encodeKeyframe(carPosition);
+
+        assertThat(CarPositionDeltaCodec.frameType(bytes)).isEqualTo(CarPositionDeltaCodec.KEYFRAME);
+        assertThat(bytes).hasSize(1 + CarPositionCodec.size(carPosition));
+        assertThat(CarPositionDeltaCodec.keyframe(bytes).toCarPosition()).isEqualTo(carPosition);
+    }
+
+    @Test
+    void deltaShouldRoundTripSignedDifferences() {
+        byte[] bytes = CarPositionDeltaCodec.encodeDelta(67890L, 3, -1_234, 2_345, 10_000);
+
+        CarPositionDeltaCodec.Delta delta = CarPositionDeltaCodec.decodeDelta(bytes);
+
+        assertThat(CarPositionDeltaCodec.frameType(bytes)).isEqualTo(CarPositionDeltaCodec.DELTA);
+        assertThat(delta).isEqualTo(new CarPositionDeltaCodec.Delta(67890L, 3, -1_234, 2_345, 10_000));
+        // type, 3 bytes trip id, 1 byte sequence, 2 bytes per coordinate and 3 bytes for the time difference
+        assertThat(bytes).hasSize(1 + 3 + 1 + 2 + 2 + 3);
+    }
+}
@@ -0,0 +1,112 @@
+package com.barbu.fleetmanagement.common.codec;
+
+import com.barbu.fleetmanagement.common.model.CarPosition;
+import com.barbu.fleetmanagement.common.model.CarPositionBatch;
+import com.barbu.fleetmanagement.common.model.Location;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class CarPositionViewTest {
+
+    private static final CarPosition CAR_POSITION = carPosition(12L, 345L, 67890L, "44.720965", "-26.606699");
+
+    @Test
+    void shouldReadFieldsFromEncodedBytes() {
+        CarPositionView view = new CarPositionView(CarPositionCodec.encode(CAR_POSITION));
+
+        assertThat(view.carId()).isEqualTo(12L);
+        assertThat(view.driverId()).isEqualTo(345L);
+        assertThat(view.tripId()).isEqualTo(67890L);
+        assertThat(view.latMicros()).isEqualTo(44_720_965);
+        assertThat(view.lonMicros()).isEqualTo(-26_606_699);
+        assertThat(view.latitude()).isCloseTo(44.720965, within(1e-12));
+        assertThat(view.longitude()).isCloseTo(-26.606699, within(1e-12));
+        assertThat(view.epochMillis()).isEqualTo(CAR_POSITION.timestamp().toEpochMilli());
+        assertThat(view.toCarPosition()).isEqualTo(CAR_POSITION);
+    }
+
+    @Test
+    void shouldReadPositionAtOffsetAndBeReusable() {
+        CarPosition other = carPosition(1L, 2L, 3L, "-1.000001", "179.999999");
+        byte[] first = CarPositionCodec.encode(CAR_POSITION);
+        byte[] second = CarPositionCodec.encode(other);
+        byte[] bytes = new byte[5 + first.length + second.length];
+        System.arraycopy(first, 0, bytes, 5, first.length);
+        System.arraycopy(second, 0, bytes, 5 + first.length, second.length);
+
+        CarPositionView view = new CarPositionView(bytes, 5, first.length);
+        assertThat(view.tripId()).isEqualTo(67890L);
+        assertThat(view.toByteArray()).containsExactly(first);
+
+        view.wrap(bytes, 5 + first.length, second.length);
+        assertThat(view.tripId()).isEqualTo(3L);
+        assertThat(view.latMicros()).isEqualTo(-1_000_001);
+        assertThat(view.toCarPosition()).isEqualTo(other);
+    }
+
+    @Test
+    void detachShouldCopyOnlyTheSlicesOfLargerArrays() {
+        byte[] encoded = CarPositionCodec.encode(CAR_POSITION);
+        byte[] batch = new byte[3 + encoded.length];
+        System.arraycopy(encoded, 0, batch, 3, encoded.length);
+        CarPositionView whole = new CarPositionView(encoded);
+
+        CarPositionView detached = new CarPositionView(batch, 3, encoded.length).detach();
+
+        assertThat(whole.detach()).isSameAs(whole);
+        assertThat(detached.toByteArray()).hasSize(encoded.length).isNotSameAs(batch).containsExactly(encoded);
+        assertThat(detached.toCarPosition()).isEqualTo(CAR_POSITION);
+    }
+
+    @Test
+    void shouldRejectTooShortBytes() {
+        assertThatThrownBy(() -> new CarPositionView(new byte[10]))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void serdeShouldReadRecordsWrittenByCarPositionSerializer() {
+        RecordHeaders headers = new RecordHeaders();
+        byte[] bytes = new CarPositionSerializer().serialize("topic", headers, CAR_POSITION);
+        CarPositionViewSerde serde = new CarPositionViewSerde();
+
+        CarPositionView view = serde.deserializer().deserialize("topic", headers, bytes);
+
+        assertThat(view.toCarPosition()).isEqualTo(CAR_POSITION);
+        assertThat(serde.serializer().serialize("topic", new RecordHeaders(), view)).isSameAs(bytes);
+    }
+
+    @Test
+    void batchSerdeShouldReadViewsIntoBatchBytes() {
+        CarPositionBatch batch = new CarPositionBatch(List.of(
+                CAR_POSITION,
+                carPosition(1L, 2L, 3L, "-1.000001", "179.999999"),
+                carPosition(Long.MAX_VALUE, 0L, 300L, "0.000000", "0.000000")));
+        RecordHeaders headers = new RecordHeaders();
+        byte[] bytes = new CarPositionBatchSerializer().serialize("topic", headers, batch);
+        CarPositionBatchViewSerde serde = new CarPositionBatchViewSerde();
+
+        List<CarPositionView> views = serde.deserializer().deserialize("topic", headers, bytes);
+
+        assertThat(views).extracting(CarPositionView::toCarPosition).isEqualTo(batch.positions());
+        assertThat(serde.serializer().serialize("topic", new RecordHeaders(), views)).containsExactly(bytes);
+    }
+
+    private static CarPosition carPosition(Long carId, Long driverId, Long tripId, String latitude, String longitude) {
+        return CarPosition.builder()
+                .carId(carId)
+                .driverId(driverId)
+                .tripId(tripId)
+                .currentLocation(new Location(new BigDecimal(latitude), new BigDecimal(longitude)))
+                .timestamp(Instant.parse("2025-06-01T10:15:30.123Z"))
+                .build();
+    }
+}
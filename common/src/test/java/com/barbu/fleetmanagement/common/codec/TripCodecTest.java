@@ -0,0 +1,78 @@
+package com.barbu.fleetmanagement.common.codec;
+
+import com.barbu.fleetmanagement.common.model.Location;
+import com.barbu.fleetmanagement.common.model.Trip;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TripCodecTest {
+
+    private static final Trip TRIP = Trip.builder()
+            .id(1001L)
+            .driverId(7L)
+            .carId(300L)
+            .start(new Location(new BigDecimal("44.426767"), new BigDecimal("26.102538")))
+            .destination(new Location(new BigDecimal("-33.868820"), new BigDecimal("151.209296")))
+            .build();
+
+    @Test
+    void shouldRoundTrip() {
+        byte[] bytes = TripCodec.encode(TRIP);
+        Trip decoded = TripCodec.decode(bytes);
+
+        // coordinates, ids and an empty route
+        assertThat(bytes).hasSize(16 + 2 + 1 + 2 + 1);
+        assertThat(decoded.id()).isEqualTo(1001L);
+        assertThat(decoded.driverId()).isEqualTo(7L);
+        assertThat(decoded.carId()).isEqualTo(300L);
+        assertThat(decoded.start().latitude()).isEqualByComparingTo("44.426767");
+        assertThat(decoded.start().longitude()).isEqualByComparingTo("26.102538");
+        assertThat(decoded.destination().latitude()).isEqualByComparingTo("-33.868820");
+        assertThat(decoded.destination().longitude()).isEqualByComparingTo("151.209296");
+        assertThat(decoded.route()).isNull();
+    }
+
+    @Test
+    void shouldRoundTripTheRoute() {
+        Trip trip = Trip.builder()
+                .id(TRIP.id())
+                .driverId(TRIP.driverId())
+                .carId(TRIP.carId())
+                .start(TRIP.start())
+                .destination(TRIP.destination())
+                .route("_p~iF~ps|U_ulLnnqC_mqNvxq`@")
+                .build();
+
+        byte[] bytes = TripCodec.encode(trip);
+
+        assertThat(bytes).hasSize(16 + 2 + 1 + 2 + 1 + trip.route().length());
+        assertThat(TripCodec.decode(bytes)).isEqualTo(trip);
+    }
+
+    @Test
+    void shouldReadVersion1PayloadsWithoutRoute() {
+        byte[] version2 = TripCodec.encode(TRIP);
+        // version 1 had no route length
+        byte[] version1 = Arrays.copyOf(version2, version2.length - 1);
+        RecordHeaders headers = new RecordHeaders();
+        headers.add(BinaryFormat.VERSION_HEADER, new byte[]{1});
+
+        assertThat(new TripDeserializer().deserialize("topic", headers, version1)).isEqualTo(TRIP);
+    }
+
+    @Test
+    void serdeShouldTagRecordWithFormatVersion() {
+        TripSerde serde = new TripSerde();
+        RecordHeaders headers = new RecordHeaders();
+
+        byte[] bytes = serde.serializer().serialize("topic", headers, TRIP);
+
+        assertThat(headers.lastHeader(BinaryFormat.VERSION_HEADER).value()).containsExactly(TripCodec.VERSION);
+        assertThat(serde.deserializer().deserialize("topic", headers, bytes)).isEqualTo(TRIP);
+    }
+}
@@ -0,0 +1,63 @@
+package com.barbu.fleetmanagement.common.collection;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LongIntHashMapTest {
+
+    @Test
+    void shouldPutReplaceAndRemoveValues() {
+        LongIntHashMap map = new LongIntHashMap(4);
+
+        map.put(7L, 1);
+        map.put(7L, 2);
+        map.put(-3L, 3);
+
+        assertThat(map.get(7L)).isEqualTo(2);
+        assertThat(map.get(-3L)).isEqualTo(3);
+        assertThat(map.get(8L)).isEqualTo(LongIntHashMap.MISSING);
+        assertThat(map.size()).isEqualTo(2);
+
+        assertThat(map.remove(7L)).isEqualTo(2);
+        assertThat(map.remove(7L)).isEqualTo(LongIntHashMap.MISSING);
+        assertThat(map.get(7L)).isEqualTo(LongIntHashMap.MISSING);
+        assertThat(map.size()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldBehaveLikeAHashMapUnderRandomOperations() {
+        LongIntHashMap map = new LongIntHashMap(1);
+        Map<Long, Integer> expected = new HashMap<>();
+        SplittableRandom random = new SplittableRandom(42);
+
+        for (int operation = 0; operation < 100_000; operation++) {
+            // a small key range forces collisions, removals in the middle of clusters and growth
+            long key = random.nextLong(2_000);
+            if (random.nextInt(3) == 0) {
+                assertThat(map.remove(key)).isEqualTo(expected.getOrDefault(key, LongIntHashMap.MISSING));
+                expected.remove(key);
+            } else {
+                map.put(key, operation);
+                expected.put(key, operation);
+            }
+        }
+
+        assertThat(map.size()).isEqualTo(expected.size());
+        for (long key = 0; key < 2_000; key++) {
+            assertThat(map.get(key)).isEqualTo(expected.getOrDefault(key, LongIntHashMap.MISSING));
+        }
+    }
+
+    @Test
+    void shouldRejectTheFreeSlotMarkerAsKey() {
+        LongIntHashMap map = new LongIntHashMap(4);
+
+        assertThatThrownBy(() -> map.put(Long.MIN_VALUE, 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
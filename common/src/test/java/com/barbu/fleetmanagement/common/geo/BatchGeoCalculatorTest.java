@@ -0,0 +1,114 @@
+package com.barbu.fleetmanagement.common.geo;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class BatchGeoCalculatorTest {
+
+    private static final int LENGTH = 1003;
+
+    private final GeoCalculator geoCalculator = new GeoCalculator();
+    private final BatchGeoCalculator batchGeoCalculator = BatchGeoCalculator.scalar();
+    private final double[] startLatitudes = new double[LENGTH];
+    private final double[] startLongitudes = new double[LENGTH];
+    private final double[] destinationLatitudes = new double[LENGTH];
+    private final double[] destinationLongitudes = new double[LENGTH];
+    private final double[] distancesToMoveKm = new double[LENGTH];
+
+    @BeforeEach
+    void setUp() {
+        Random random = new Random(7);
+        for (int i = 0; i < LENGTH; i++) {
+            startLatitudes[i] = 44.33 + random.nextDouble() * 0.22;
+            startLongitudes[i] = 25.95 + random.nextDouble() * 0.3;
+            // every 10th destination is within 100 m of the start
+            destinationLatitudes[i] = i % 10 == 0 ? startLatitudes[i] + 0.0001 : 44.33 + random.nextDouble() * 0.22;
+            destinationLongitudes[i] = i % 10 == 0 ? startLongitudes[i] : 25.95 + random.nextDouble() * 0.3;
+            distancesToMoveKm[i] = random.nextDouble() * 20;
+        }
+    }
+
+    @Test
+    void createShouldFallBackToTheScalarLoopWithoutTheVectorImplementation() {
+        assertThat(BatchGeoCalculator.create()).isInstanceOf(ScalarBatchGeoCalculator.class);
+    }
+
+    @Test
+    void distancesShouldMatchGeoCalculator() {
+        double[] distances = new double[LENGTH];
+
+        batchGeoCalculator.calculateDistancesInKm(startLatitudes, startLongitudes,
+                destinationLatitudes, destinationLongitudes, distances, LENGTH);
+
+        for (int i = 0; i < LENGTH; i++) {
+            assertThat(distances[i]).isCloseTo(geoCalculator.calculateDistanceInKm(
+                    startLatitudes[i], startLongitudes[i], destinationLatitudes[i], destinationLongitudes[i]),
+                    within(1e-9));
+        }
+    }
+
+    @Test
+    void newPositionsShouldFollowTheGreatCircleOfTrajectory() {
+        double[] newLatitudes = new double[LENGTH];
+        double[] newLongitudes = new double[LENGTH];
+
+        batchGeoCalculator.calculateNewPositions(startLatitudes, startLongitudes,
+                destinationLatitudes, destinationLongitudes, distancesToMoveKm,
+                newLatitudes, newLongitudes, LENGTH);
+
+        for (int i = 0; i < LENGTH; i++) {
+            Trajectory trajectory = Trajectory.between(startLatitudes[i], startLongitudes[i],
+                    destinationLatitudes[i], destinationLongitudes[i]);
+            if (trajectory.getLengthKm() < 0.1 || distancesToMoveKm[i] >= trajectory.getLengthKm()) {
+                assertThat(newLatitudes[i]).isEqualTo(destinationLatitudes[i]);
+                assertThat(newLongitudes[i]).isEqualTo(destinationLongitudes[i]);
+            } else {
+                assertThat(newLatitudes[i]).isCloseTo(trajectory.latitudeAt(distancesToMoveKm[i]), within(1e-9));
+                assertThat(newLongitudes[i]).isCloseTo(trajectory.longitudeAt(distancesToMoveKm[i]), within(1e-9));
+            }
+        }
+    }
+
+    @Test
+    void newPositionsShouldLeaveTheLinearInterpolationOnLongTrips() {
+        // Bucharest to Tokyo: the great circle goes well north of the straight line in degrees
+        double[] newLatitudes = new double[1];
+        double[] newLongitudes = new double[1];
+
+        batchGeoCalculator.calculateNewPositions(new double[]{44.43}, new double[]{26.10}, new double[]{35.68},
+                new double[]{139.69}, new double[]{4000}, newLatitudes, newLongitudes, 1);
+
+        Trajectory trajectory = Trajectory.between(44.43, 26.10, 35.68, 139.69);
+        assertThat(newLatitudes[0]).isCloseTo(trajectory.latitudeAt(4000), within(1e-9)).isGreaterThan(50);
+        assertThat(newLongitudes[0]).isCloseTo(trajectory.longitudeAt(4000), within(1e-9));
+    }
+
+    @Test
+    void newPositionsShouldPickAGreatCircleBetweenAntipodalPoints() {
+        double[] newLatitudes = new double[1];
+        double[] newLongitudes = new double[1];
+
+        batchGeoCalculator.calculateNewPositions(new double[]{10}, new double[]{20}, new double[]{-10},
+                new double[]{-160}, new double[]{1000}, newLatitudes, newLongitudes, 1);
+
+        Trajectory trajectory = Trajectory.between(10, 20, -10, -160);
+        assertThat(newLatitudes[0]).isCloseTo(trajectory.latitudeAt(1000), within(1e-9));
+        assertThat(newLongitudes[0]).isCloseTo(trajectory.longitudeAt(1000), within(1e-9));
+    }
+
+    @Test
+    void shouldOnlyProcessRequestedLength() {
+        double[] distances = new double[LENGTH];
+
+        batchGeoCalculator.calculateDistancesInKm(startLatitudes, startLongitudes,
+                destinationLatitudes, destinationLongitudes, distances, 5);
+
+        assertThat(distances[4]).isPositive();
+        assertThat(distances[5]).isZero();
+    }
+}
@@ -0,0 +1,54 @@
+package com.barbu.fleetmanagement.common.geo;
+
+import com.barbu.fleetmanagement.common.model.Location;
+import com.barbu.fleetmanagement.common.model.Trip;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EncodedPolylineValidatorTest {
+
+    private final EncodedPolylineValidator validator = new EncodedPolylineValidator();
+
+    @Test
+    void shouldAcceptMissingAndDecodableRoutes() {
+        assertThat(validator.isValid(null, null)).isTrue();
+        assertThat(validator.isValid("", null)).isTrue();
+        assertThat(validator.isValid("_p~iF~ps|U_ulLnnqC_mqNvxq`@", null)).isTrue();
+    }
+
+    @Test
+    void shouldRejectTruncatedRoutesMadeOfPolylineCharacters() {
+        assertThat(validator.isValid("?", null)).isFalse();
+        assertThat(validator.isValid("_", null)).isFalse();
+        assertThat(validator.isValid("_p~iF", null)).isFalse();
+        assertThat(validator.isValid("_p~iF~ps|U_", null)).isFalse();
+    }
+
+    @Test
+    void shouldRejectATripWithATruncatedRoute() {
+        Trip trip = Trip.builder()
+                .start(new Location(new BigDecimal("44.4268"), new BigDecimal("26.1025")))
+                .destination(new Location(new BigDecimal("44.4500"), new BigDecimal("26.0800")))
+                .driverId(1L)
+                .carId(1L)
+                .route("_")
+                .build();
+
+        try (ValidatorFactory factory = Validation.buildDefaultValidatorFactory()) {
+            Validator tripValidator = factory.getValidator();
+            assertThat(tripValidator.validate(trip)).singleElement()
+                    .satisfies(violation -> assertThat(violation.getPropertyPath()).hasToString("route"));
+        }
+    }
+
+    @Test
+    void shouldRejectCharactersOutsideOfTheFormat() {
+        assertThat(validator.isValid("_p~iF ps|U", null)).isFalse();
+    }
+}
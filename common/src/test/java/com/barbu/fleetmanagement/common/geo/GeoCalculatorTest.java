@@ -0,0 +1,125 @@
+package com.barbu.fleetmanagement.common.geo;
+
+import com.barbu.fleetmanagement.common.model.Location;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import static com.barbu.fleetmanagement.common.geo.GeoCalculator.DOUBLE_DISTANCE_RELATIVE_TOLERANCE;
+import static com.barbu.fleetmanagement.common.geo.GeoCalculator.DOUBLE_DISTANCE_TOLERANCE_KM;
+import static com.barbu.fleetmanagement.common.geo.GeoCalculator.MATH_CONTEXT;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class GeoCalculatorTest {
+
+    private final GeoCalculator geoCalculator = new GeoCalculator();
+
+    @Nested
+    class CalculateDistanceInKm {
+        @Test
+        void doubleDistanceShouldStayWithinDocumentedBoundOfBigDecimalDistance() {
+            Random random = new Random(42);
+            for (int i = 0; i < 10_000; i++) {
+                double startLat = random.nextDouble() * 170 - 85;
+                double startLon = random.nextDouble() * 360 - 180;
+                // half of the samples are short hops as produced by a position update, the others arbitrary pairs
+                double destinationLat = i % 2 == 0 ? startLat + random.nextGaussian() * 0.05 : random.nextDouble() * 170 - 85;
+                double destinationLon = i % 2 == 0 ? startLon + random.nextGaussian() * 0.05 : random.nextDouble() * 360 - 180;
+                Location start = location(startLat, startLon);
+                Location destination = location(destinationLat, destinationLon);
+
+                double expected = geoCalculator.calculateDistanceInKm(start, destination).doubleValue();
+                double actual = geoCalculator.calculateDistanceInKm(
+                        start.latitude().doubleValue(), start.longitude().doubleValue(),
+                        destination.latitude().doubleValue(), destination.longitude().doubleValue());
+
+                assertThat(actual).isCloseTo(expected,
+                        within(DOUBLE_DISTANCE_TOLERANCE_KM + DOUBLE_DISTANCE_RELATIVE_TOLERANCE * expected));
+            }
+        }
+
+        @Test
+        void shouldReturnZeroForSameCoordinates() {
+            assertThat(geoCalculator.calculateDistanceInKm(44.720965, 26.606699, 44.720965, 26.606699)).isZero();
+        }
+
+        @Test
+        void shouldCalculateKnownDistance() {
+            // New York - Los Angeles
+            assertThat(geoCalculator.calculateDistanceInKm(40.7128, -74.0060, 34.0522, -118.2437))
+                    .isCloseTo(3935.75, within(0.1));
+        }
+    }
+
+    @Nested
+    class CalculateBearing {
+        @Test
+        void shouldReturnCardinalDirections() {
+            assertThat(geoCalculator.calculateBearing(0, 0, 1, 0)).isCloseTo(0, within(1e-9));
+            assertThat(geoCalculator.calculateBearing(0, 0, 0, 1)).isCloseTo(90, within(1e-9));
+            assertThat(geoCalculator.calculateBearing(1, 0, 0, 0)).isCloseTo(180, within(1e-9));
+            assertThat(geoCalculator.calculateBearing(0, 1, 0, 0)).isCloseTo(270, within(1e-9));
+        }
+    }
+
+    @Nested
+    class CalculateNewPosition {
+        @Test
+        void doubleInterpolationShouldMatchBigDecimalPosition() {
+            Location start = location(44.720965, 26.606699);
+            Location destination = location(44.777532, 26.505762);
+
+            Location expected = geoCalculator.calculateNewPosition(start, destination, new BigDecimal("2.5"));
+            double fraction = geoCalculator.calculateMoveFraction(44.720965, 26.606699, 44.777532, 26.505762, 2.5);
+
+            assertThat(geoCalculator.interpolate(44.720965, 44.777532, fraction))
+                    .isCloseTo(expected.latitude().doubleValue(), within(1e-7));
+            assertThat(geoCalculator.interpolate(26.606699, 26.505762, fraction))
+                    .isCloseTo(expected.longitude().doubleValue(), within(1e-7));
+        }
+
+        @Test
+        void moveFractionShouldReachDestinationWhenMovingFurtherThanRemainingDistance() {
+            assertThat(geoCalculator.calculateMoveFraction(44.720965, 26.606699, 44.777532, 26.505762, 100))
+                    .isEqualTo(1);
+        }
+
+        @Test
+        void moveFractionShouldReachDestinationWhenCloserThan100Meters() {
+            assertThat(geoCalculator.calculateMoveFraction(44.720965, 26.606699, 44.7210, 26.6067, 0.01))
+                    .isEqualTo(1);
+        }
+    }
+
+    @Nested
+    class CalculateTrajectory {
+        @Test
+        void shouldDriveFromTheStartThroughTheRouteToTheDestination() {
+            Location start = location(44.4268, 26.1025);
+            Location destination = location(44.4520, 26.0860);
+            String route = Polyline.encode(new double[]{44.4378, 26.0970, 44.4479, 26.0979});
+
+            Trajectory trajectory = geoCalculator.calculateTrajectory(start, destination, route);
+
+            assertThat(trajectory.getSegmentCount()).isEqualTo(3);
+            assertThat(trajectory.getWaypoints())
+                    .containsExactly(44.4268, 26.1025, 44.4378, 26.0970, 44.4479, 26.0979, 44.4520, 26.0860);
+        }
+
+        @Test
+        void shouldDriveStraightWithoutRoute() {
+            Location start = location(44.4268, 26.1025);
+            Location destination = location(44.4520, 26.0860);
+
+            assertThat(geoCalculator.calculateTrajectory(start, destination, null).getLengthKm())
+                    .isEqualTo(geoCalculator.calculateTrajectory(start, destination).getLengthKm());
+        }
+    }
+
+    private static Location location(double latitude, double longitude) {
+        return new Location(new BigDecimal(latitude, MATH_CONTEXT), new BigDecimal(longitude, MATH_CONTEXT));
+    }
+}
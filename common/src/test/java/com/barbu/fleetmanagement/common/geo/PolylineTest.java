@@ -0,0 +1,51 @@
+package com.barbu.fleetmanagement.common.geo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class PolylineTest {
+
+    // example of the format specification
+    private static final String ENCODED = "_p~iF~ps|U_ulLnnqC_mqNvxq`@";
+    private static final double[] DECODED = {38.5, -120.2, 40.7, -120.95, 43.252, -126.453};
+
+    @Test
+    void shouldEncodeTheSpecificationExample() {
+        assertThat(Polyline.encode(DECODED)).isEqualTo(ENCODED);
+    }
+
+    @Test
+    void shouldDecodeTheSpecificationExample() {
+        assertThat(Polyline.decode(ENCODED)).containsExactly(DECODED, within(1e-9));
+    }
+
+    @Test
+    void shouldRoundTripLongRoutesToTheFifthDecimal() {
+        SplittableRandom random = new SplittableRandom(42);
+        double[] route = new double[2 * 5_000];
+        route[0] = 44.4;
+        route[1] = 26.1;
+        for (int coordinate = 2; coordinate < route.length; coordinate++) {
+            route[coordinate] = route[coordinate - 2] + random.nextDouble(-0.001, 0.001);
+        }
+
+        String encoded = Polyline.encode(route);
+
+        assertThat(encoded.length()).isLessThan(route.length * 4);
+        assertThat(Polyline.decode(encoded)).containsExactly(route, within(0.5e-5));
+        assertThat(Polyline.encode(Polyline.decode(encoded))).isEqualTo(encoded);
+    }
+
+    @Test
+    void shouldRejectMalformedPolylines() {
+        assertThat(Polyline.decode("")).isEmpty();
+        // the last chunk of the longitude is missing
+        assertThatThrownBy(() -> Polyline.decode("_p~iF~ps|")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Polyline.decode("_p~iF ps|U")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,107 @@
+package com.barbu.fleetmanagement.common.geo;
+
+import com.barbu.fleetmanagement.common.model.Location;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class TrajectoryTest {
+
+    private final GeoCalculator geoCalculator = new GeoCalculator();
+
+    @Test
+    void lengthShouldMatchHaversineDistance() {
+        Trajectory trajectory = Trajectory.between(40.7128, -74.0060, 34.0522, -118.2437);
+
+        assertThat(trajectory.getLengthKm())
+                .isCloseTo(geoCalculator.calculateDistanceInKm(40.7128, -74.0060, 34.0522, -118.2437), within(1e-6));
+    }
+
+    @Test
+    void shouldStartAtStartAndEndAtDestination() {
+        Trajectory trajectory = Trajectory.between(44.720965, 26.606699, 44.777532, 26.505762);
+
+        assertThat(trajectory.latitudeAt(0)).isCloseTo(44.720965, within(1e-9));
+        assertThat(trajectory.longitudeAt(0)).isCloseTo(26.606699, within(1e-9));
+        assertThat(trajectory.latitudeAt(trajectory.getLengthKm())).isCloseTo(44.777532, within(1e-9));
+        assertThat(trajectory.longitudeAt(trajectory.getLengthKm())).isCloseTo(26.505762, within(1e-9));
+        // beyond the destination the car stays at the destination
+        assertThat(trajectory.latitudeAt(trajectory.getLengthKm() + 10)).isCloseTo(44.777532, within(1e-9));
+    }
+
+    @Test
+    void pointsShouldLieOnTheGreatCircleAtTheTravelledDistance() {
+        Trajectory trajectory = Trajectory.between(40.7128, -74.0060, 34.0522, -118.2437);
+
+        for (double distance = 0; distance < trajectory.getLengthKm(); distance += 250) {
+            double latitude = trajectory.latitudeAt(distance);
+            double longitude = trajectory.longitudeAt(distance);
+            assertThat(geoCalculator.calculateDistanceInKm(40.7128, -74.0060, latitude, longitude))
+                    .isCloseTo(distance, within(1e-6));
+            assertThat(geoCalculator.calculateDistanceInKm(latitude, longitude, 34.0522, -118.2437))
+                    .isCloseTo(trajectory.getLengthKm() - distance, within(1e-6));
+        }
+    }
+
+    @Test
+    void greatCircleShouldBendTowardsThePoleComparedToLinearInterpolation() {
+        // along the 60th parallel the shortest path goes north of the parallel
+        Trajectory trajectory = Trajectory.between(60, 0, 60, 90);
+
+        assertThat(trajectory.latitudeAt(trajectory.getLengthKm() / 2)).isGreaterThan(67);
+        assertThat(trajectory.longitudeAt(trajectory.getLengthKm() / 2)).isCloseTo(45, within(1e-9));
+    }
+
+    @Test
+    void locationAtShouldMatchPrimitiveCoordinates() {
+        Trajectory trajectory = Trajectory.between(44.720965, 26.606699, 44.777532, 26.505762);
+
+        Location location = trajectory.locationAt(3.2);
+
+        assertThat(location.latitude().doubleValue()).isCloseTo(trajectory.latitudeAt(3.2), within(1e-7));
+        assertThat(location.longitude().doubleValue()).isCloseTo(trajectory.longitudeAt(3.2), within(1e-7));
+    }
+
+    @Test
+    void shouldHandleSamePointAndAntipodalPoints() {
+        Trajectory samePoint = Trajectory.between(44.4, 26.1, 44.4, 26.1);
+        assertThat(samePoint.getLengthKm()).isZero();
+        assertThat(samePoint.latitudeAt(1)).isCloseTo(44.4, within(1e-9));
+
+        Trajectory antipodal = Trajectory.between(10, 20, -10, -160);
+        assertThat(antipodal.getLengthKm()).isCloseTo(Math.PI * 6371, within(1e-6));
+        assertThat(antipodal.latitudeAt(antipodal.getLengthKm())).isCloseTo(-10, within(1e-6));
+    }
+
+    @Test
+    void routeShouldChainTheGreatCircleSegmentsOfItsPoints() {
+        double[] waypoints = {44.4268, 26.1025, 44.4378, 26.0970, 44.4479, 26.0979, 44.4520, 26.0860};
+        Trajectory route = Trajectory.along(waypoints);
+
+        Trajectory first = Trajectory.between(44.4268, 26.1025, 44.4378, 26.0970);
+        Trajectory second = Trajectory.between(44.4378, 26.0970, 44.4479, 26.0979);
+        Trajectory third = Trajectory.between(44.4479, 26.0979, 44.4520, 26.0860);
+        assertThat(route.getSegmentCount()).isEqualTo(3);
+        assertThat(route.getLengthKm())
+                .isCloseTo(first.getLengthKm() + second.getLengthKm() + third.getLengthKm(), within(1e-9));
+        // on the second segment, at a waypoint and at the end
+        double onSecond = first.getLengthKm() + second.getLengthKm() / 3;
+        assertThat(route.latitudeAt(onSecond)).isCloseTo(second.latitudeAt(second.getLengthKm() / 3), within(1e-9));
+        assertThat(route.longitudeAt(onSecond)).isCloseTo(second.longitudeAt(second.getLengthKm() / 3), within(1e-9));
+        assertThat(route.latitudeAt(first.getLengthKm())).isCloseTo(44.4378, within(1e-9));
+        assertThat(route.longitudeAt(route.getLengthKm() + 1)).isCloseTo(26.0860, within(1e-9));
+        assertThat(route.getWaypoints()).containsExactly(waypoints);
+    }
+
+    @Test
+    void routeShouldSkipRepeatedPoints() {
+        Trajectory route = Trajectory.along(new double[]{44.4, 26.1, 44.4, 26.1, 44.5, 26.1, 44.5, 26.1});
+        Trajectory single = Trajectory.along(new double[]{44.4, 26.1, 44.4, 26.1});
+
+        assertThat(route.getSegmentCount()).isEqualTo(1);
+        assertThat(route.getLengthKm()).isCloseTo(Trajectory.between(44.4, 26.1, 44.5, 26.1).getLengthKm(), within(1e-9));
+        assertThat(single.getLengthKm()).isZero();
+        assertThat(single.latitudeAt(1)).isCloseTo(44.4, within(1e-9));
+    }
+}
@@ -0,0 +1,77 @@
+package com.barbu.fleetmanagement.benchmarks;
+
+import com.barbu.fleetmanagement.common.geo.BatchGeoCalculator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Batch distance and new position calculations for a tick of 4096 trips inside Bucharest, scalar loop against the
+ * Vector API implementation. Scores are per pair.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class BatchGeoCalculatorBenchmark {
+
+    private static final int BATCH_SIZE = 4096;
+
+    @Param({"scalar", "vector"})
+    String implementation;
+
+    private BatchGeoCalculator batchGeoCalculator;
+    private final double[] startLatitudes = new double[BATCH_SIZE];
+    private final double[] startLongitudes = new double[BATCH_SIZE];
+    private final double[] destinationLatitudes = new double[BATCH_SIZE];
+    private final double[] destinationLongitudes = new double[BATCH_SIZE];
+    private final double[] distancesToMoveKm = new double[BATCH_SIZE];
+    private final double[] distancesKm = new double[BATCH_SIZE];
+    private final double[] newLatitudes = new double[BATCH_SIZE];
+    private final double[] newLongitudes = new double[BATCH_SIZE];
+
+    @Setup
+    public void setUp() {
+        batchGeoCalculator = "vector".equals(implementation) ? BatchGeoCalculator.create() : BatchGeoCalculator.scalar();
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            startLatitudes[i] = random.nextDouble(44.33, 44.55);
+            startLongitudes[i] = random.nextDouble(25.95, 26.25);
+            destinationLatitudes[i] = random.nextDouble(44.33, 44.55);
+            destinationLongitudes[i] = random.nextDouble(25.95, 26.25);
+            // 40 to 120 km/h during a 10 seconds tick
+            distancesToMoveKm[i] = random.nextDouble(0.11, 0.34);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public double[] distances() {
+        batchGeoCalculator.calculateDistancesInKm(startLatitudes, startLongitudes,
+                destinationLatitudes, destinationLongitudes, distancesKm, BATCH_SIZE);
+        return distancesKm;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public double[] newPositions() {
+        batchGeoCalculator.calculateNewPositions(startLatitudes, startLongitudes,
+                destinationLatitudes, destinationLongitudes, distancesToMoveKm,
+                newLatitudes, newLongitudes, BATCH_SIZE);
+        return newLatitudes;
+    }
+}
@@ -0,0 +1,115 @@
+package com.barbu.fleetmanagement.benchmarks;
+
+import com.barbu.fleetmanagement.common.geo.GeoCalculator;
+import com.barbu.fleetmanagement.common.model.CarPosition;
+import com.barbu.fleetmanagement.common.model.Location;
+import com.barbu.fleetmanagement.common.model.Trip;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Realistic, reproducible input data for the benchmarks: trips inside the Bucharest metropolitan area (the area used
+ * in the README examples) and the car positions a simulated car emits every 10 seconds along them.
+ */
+public final class BenchmarkData {
+
+    public static final int INTERVAL_SECONDS = 10;
+    private static final double MIN_LATITUDE = 44.33;
+    private static final double MAX_LATITUDE = 44.55;
+    private static final double MIN_LONGITUDE = 25.95;
+    private static final double MAX_LONGITUDE = 26.25;
+    private static final int MINIMUM_SPEED_KM_H = 40;
+    private static final int MAXIMUM_SPEED_KM_H = 120;
+    private static final long SEED = 20250601L;
+    private static final GeoCalculator GEO_CALCULATOR = new GeoCalculator();
+    // keep a strong reference, JUL only holds loggers weakly and would forget the level
+    private static final Logger APPLICATION_LOGGER = Logger.getLogger("com.barbu.fleetmanagement");
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * The services log every position update at INFO; the benchmarks measure the computation, not the console.
+     */
+    public static void silenceApplicationLogs() {
+        APPLICATION_LOGGER.setLevel(Level.WARNING);
+    }
+
+    public static List<Trip> trips(int count) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        List<Trip> trips = new ArrayList<>(count);
+        for (long id = 1; id <= count; id++) {
+            trips.add(Trip.builder()
+                    .id(id)
+                    .carId(id)
+                    .driverId(id)
+                    .start(randomLocation(random))
+                    .destination(randomLocation(random))
+                    .build());
+        }
+        return trips;
+    }
+
+    /**
+     * Positions emitted for the given trips, in emission order: first tick of every trip, second tick of every
+     * trip, and so on. Consecutive positions of a trip are {@link #INTERVAL_SECONDS} apart and driven with a random
+     * speed between 40 and 120 km/h, like the trip simulator does.
+     */
+    public static List<CarPosition> positions(List<Trip> trips, int ticksPerTrip) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        Instant start = Instant.parse("2025-06-01T08:00:00Z");
+        List<CarPosition> positions = new ArrayList<>(trips.size() * ticksPerTrip);
+        double[] latitudes = new double[trips.size()];
+        double[] longitudes = new double[trips.size()];
+        for (int i = 0; i < trips.size(); i++) {
+            latitudes[i] = trips.get(i).start().latitude().doubleValue();
+            longitudes[i] = trips.get(i).start().longitude().doubleValue();
+        }
+        for (int tick = 0; tick < ticksPerTrip; tick++) {
+            for (int i = 0; i < trips.size(); i++) {
+                Trip trip = trips.get(i);
+                double destinationLatitude = trip.destination().latitude().doubleValue();
+                double destinationLongitude = trip.destination().longitude().doubleValue();
+                double distanceKm = random.nextInt(MINIMUM_SPEED_KM_H, MAXIMUM_SPEED_KM_H + 1)
+                        * INTERVAL_SECONDS / 3600.0;
+                double fraction = GEO_CALCULATOR.calculateMoveFraction(latitudes[i], longitudes[i],
+                        destinationLatitude, destinationLongitude, distanceKm);
+                latitudes[i] = GEO_CALCULATOR.interpolate(latitudes[i], destinationLatitude, fraction);
+                longitudes[i] = GEO_CALCULATOR.interpolate(longitudes[i], destinationLongitude, fraction);
+                positions.add(CarPosition.builder()
+                        .carId(trip.carId())
+                        .driverId(trip.driverId())
+                        .tripId(trip.id())
+                        .currentLocation(location(latitudes[i], longitudes[i]))
+                        .timestamp(start.plusSeconds((long) tick * INTERVAL_SECONDS))
+                        .build());
+            }
+        }
+        return positions;
+    }
+
+    public static double[] speeds(int count) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        double[] speeds = new double[count];
+        for (int i = 0; i < count; i++) {
+            speeds[i] = random.nextDouble(MINIMUM_SPEED_KM_H, MAXIMUM_SPEED_KM_H);
+        }
+        return speeds;
+    }
+
+    public static Location location(double latitude, double longitude) {
+        return new Location(
+                BigDecimal.valueOf(latitude).round(GeoCalculator.MATH_CONTEXT),
+                BigDecimal.valueOf(longitude).round(GeoCalculator.MATH_CONTEXT));
+    }
+
+    private static Location randomLocation(SplittableRandom random) {
+        return location(random.nextDouble(MIN_LATITUDE, MAX_LATITUDE), random.nextDouble(MIN_LONGITUDE, MAX_LONGITUDE));
+    }
+}
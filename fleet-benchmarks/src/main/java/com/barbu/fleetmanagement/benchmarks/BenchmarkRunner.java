@@ -0,0 +1,24 @@
+package com.barbu.fleetmanagement.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmarks jar. Accepts the usual JMH command line options and always adds the GC profiler,
+ * so every result reports the bytes allocated per operation ({@code gc.alloc.rate.norm}) next to the ops/s.
+ * <p>
+ * Usage: {@code java -jar fleet-benchmarks/target/benchmarks.jar [regexp] [JMH options]}
+ */
+public class BenchmarkRunner {
+
+    public static void main(String... args) throws Exception {
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
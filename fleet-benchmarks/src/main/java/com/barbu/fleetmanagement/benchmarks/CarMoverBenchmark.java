@@ -0,0 +1,84 @@
+package com.barbu.fleetmanagement.benchmarks;
+
+import com.barbu.fleetmanagement.common.geo.GeoCalculator;
+import com.barbu.fleetmanagement.common.model.Trip;
+import com.barbu.fleetmanagement.simulator.application.service.CarMover;
+import com.barbu.fleetmanagement.simulator.application.service.CarSpeedLimits;
+import com.barbu.fleetmanagement.simulator.application.service.MarkovSpeedModel;
+import com.barbu.fleetmanagement.simulator.application.service.RandomStreams;
+import com.barbu.fleetmanagement.simulator.application.service.SimulationClock;
+import com.barbu.fleetmanagement.simulator.application.service.SpeedLimits;
+import com.barbu.fleetmanagement.simulator.application.service.SpeedModel;
+import com.barbu.fleetmanagement.simulator.application.service.UniformSpeedModel;
+import com.barbu.fleetmanagement.simulator.domain.CarPositionDetails;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One simulation tick of a trip: {@link CarMover#move(CarPositionDetails)} on a position last updated 10 seconds ago,
+ * with each {@link SpeedModel}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.util.logging.manager=org.jboss.logmanager.LogManager")
+public class CarMoverBenchmark {
+
+    private static final int SIZE = 1024;
+
+    @Param({"uniform", "markov"})
+    private String speedModel;
+
+    private CarMover carMover;
+    private CarPositionDetails[] positions;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        BenchmarkData.silenceApplicationLogs();
+        SpeedModel model = "markov".equals(speedModel) ? new MarkovSpeedModel(2) : new UniformSpeedModel();
+        carMover = new CarMover(new GeoCalculator(), SimulationClock.SYSTEM, model,
+                new CarSpeedLimits(new SpeedLimits(40, 120), Map.of()), new RandomStreams(42));
+        List<Trip> trips = BenchmarkData.trips(SIZE);
+        positions = new CarPositionDetails[SIZE];
+        // the move distance depends on the time elapsed since the last update, keep it at one interval
+        Instant lastUpdate = Instant.now().minusSeconds(BenchmarkData.INTERVAL_SECONDS);
+        for (int i = 0; i < SIZE; i++) {
+            CarPositionDetails initialPosition = carMover.moveToInitialPosition(trips.get(i));
+            positions[i] = CarPositionDetails.builder()
+                    .carId(initialPosition.getCarId())
+                    .driverId(initialPosition.getDriverId())
+                    .tripId(initialPosition.getTripId())
+                    .currentLocation(initialPosition.getCurrentLocation())
+                    .destination(initialPosition.getDestination())
+                    .trajectory(initialPosition.getTrajectory())
+                    .distanceTravelledKm(initialPosition.getDistanceTravelledKm())
+                    .speedKmPerHour(initialPosition.getSpeedKmPerHour())
+                    .timestamp(lastUpdate)
+                    .build();
+        }
+    }
+
+    @Benchmark
+    public Optional<CarPositionDetails> move() {
+        index = (index + 1) & (SIZE - 1);
+        return carMover.move(positions[index]);
+    }
+}
@@ -0,0 +1,152 @@
+package com.barbu.fleetmanagement.benchmarks;
+
+import com.barbu.fleetmanagement.common.geo.GeoCalculator;
+import com.barbu.fleetmanagement.common.model.Trip;
+import com.barbu.fleetmanagement.simulator.application.service.CarMover;
+import com.barbu.fleetmanagement.simulator.application.service.CarSpeedLimits;
+import com.barbu.fleetmanagement.simulator.application.service.RandomStreams;
+import com.barbu.fleetmanagement.simulator.application.service.SimulationClock;
+import com.barbu.fleetmanagement.simulator.application.service.SpeedLimits;
+import com.barbu.fleetmanagement.simulator.application.service.UniformSpeedModel;
+import com.barbu.fleetmanagement.simulator.domain.CarPositionDetails;
+import com.barbu.fleetmanagement.simulator.domain.CarPositionRepository;
+import com.barbu.fleetmanagement.simulator.domain.CarPositionState;
+import com.barbu.fleetmanagement.simulator.domain.InMemoryCarPositionRepository;
+import com.barbu.fleetmanagement.simulator.domain.PrimitiveCarPositionRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Storing the position of a trip at every tick, with the {@code in-memory} and the {@code primitive}
+ * {@link CarPositionRepository}: each operation finds the position of the next trip and saves a moved copy of it,
+ * finding either the {@link CarPositionDetails} or the {@link CarPositionState} read by the engines.
+ * <p>
+ * The {@link #main(String...)} method compares the heap retained per active trip instead:
+ * <pre>
+ * java -cp fleet-benchmarks/target/benchmarks.jar \
+ *     com.barbu.fleetmanagement.benchmarks.CarPositionRepositoryBenchmark [trips]
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.util.logging.manager=org.jboss.logmanager.LogManager")
+public class CarPositionRepositoryBenchmark {
+
+    private static final int TRIPS = 100_000;
+
+    @Param({"in-memory", "primitive"})
+    private String repository;
+
+    private CarPositionRepository carPositionRepository;
+    private CarPositionDetails[] movedPositions;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        BenchmarkData.silenceApplicationLogs();
+        carPositionRepository = create(repository, TRIPS);
+        CarMover carMover = carMover();
+        List<Trip> trips = BenchmarkData.trips(TRIPS);
+        movedPositions = new CarPositionDetails[TRIPS];
+        for (int i = 0; i < TRIPS; i++) {
+            CarPositionDetails initialPosition = carMover.moveToInitialPosition(trips.get(i));
+            carPositionRepository.save(initialPosition);
+            movedPositions[i] = moved(initialPosition);
+        }
+    }
+
+    @Benchmark
+    public Optional<CarPositionDetails> findAndSave() {
+        index = index + 1 == TRIPS ? 0 : index + 1;
+        CarPositionDetails moved = movedPositions[index];
+        Optional<CarPositionDetails> current = carPositionRepository.findByTripId(moved.getTripId());
+        carPositionRepository.save(moved);
+        return current;
+    }
+
+    @Benchmark
+    public Optional<CarPositionState> findStateAndSave() {
+        index = index + 1 == TRIPS ? 0 : index + 1;
+        CarPositionDetails moved = movedPositions[index];
+        Optional<CarPositionState> current = carPositionRepository.findStateByTripId(moved.getTripId());
+        carPositionRepository.save(moved);
+        return current;
+    }
+
+    public static void main(String... args) {
+        BenchmarkData.silenceApplicationLogs();
+        int tripCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        CarMover carMover = carMover();
+        List<Trip> trips = BenchmarkData.trips(tripCount);
+        for (String repository : List.of("in-memory", "primitive")) {
+            long before = usedHeap();
+            CarPositionRepository carPositionRepository = create(repository, tripCount);
+            for (Trip trip : trips) {
+                // the trajectory is shared by both implementations, leave it out of the comparison
+                CarPositionDetails initialPosition = carMover.moveToInitialPosition(trip);
+                carPositionRepository.save(moved(initialPosition));
+            }
+            long retained = usedHeap() - before;
+            System.out.printf("%-10s %,d trips: %,d bytes retained, %,d bytes per trip%n",
+                    repository, tripCount, retained, retained / tripCount);
+            // keep the repository reachable until it is measured
+            carPositionRepository.findByTripId(1L);
+        }
+    }
+
+    private static CarMover carMover() {
+        return new CarMover(new GeoCalculator(), SimulationClock.SYSTEM, new UniformSpeedModel(),
+                new CarSpeedLimits(new SpeedLimits(40, 120), Map.of()), new RandomStreams(42));
+    }
+
+    private static CarPositionRepository create(String repository, int capacity) {
+        return switch (repository) {
+            case "in-memory" -> new InMemoryCarPositionRepository();
+            case "primitive" -> new PrimitiveCarPositionRepository(capacity);
+            default -> throw new IllegalArgumentException("Unknown repository " + repository);
+        };
+    }
+
+    private static CarPositionDetails moved(CarPositionDetails position) {
+        double distanceTravelledKm = Math.min(1, position.getTrajectory().getLengthKm());
+        return CarPositionDetails.builder()
+                .carId(position.getCarId())
+                .driverId(position.getDriverId())
+                .tripId(position.getTripId())
+                .currentLocation(position.getTrajectory().locationAt(distanceTravelledKm))
+                // a copy, the destination of the trip would otherwise be retained by the trip list as well
+                .destination(BenchmarkData.location(position.getDestination().latitude().doubleValue(),
+                        position.getDestination().longitude().doubleValue()))
+                .distanceTravelledKm(distanceTravelledKm)
+                .speedKmPerHour(position.getSpeedKmPerHour())
+                .timestamp(position.getTimestamp())
+                .build();
+    }
+
+    private static long usedHeap() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,81 @@
+package com.barbu.fleetmanagement.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Time to run the position updates of many trips falling due at once, with the two execution modes of the
+ * {@code scheduled} engine: on the 10 threads of the scheduler pool ({@code pooled}) or triggered by the scheduler and
+ * run on one virtual thread each ({@code virtual}).
+ * <p>
+ * Every update blocks for {@code blockingMicros}, standing for a Kafka send waiting for buffer space or a stalled
+ * logger. The time of an invocation is the scheduling lag of the last update of the tick; the number of trips divided
+ * by it is the throughput. At runtime the same comparison is reported by the {@code simulator.tick.lag} timer and the
+ * {@code simulator.position.updates} counter, tagged with the mode.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExecutionModeBenchmark {
+
+    private static final int SCHEDULER_THREADS = 10;
+
+    @Param({"pooled", "virtual"})
+    private String mode;
+
+    @Param({"5000"})
+    private int trips;
+
+    @Param({"1000"})
+    private long blockingMicros;
+
+    private ScheduledExecutorService scheduler;
+    private ExecutorService virtualThreads;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        scheduler = Executors.newScheduledThreadPool(SCHEDULER_THREADS);
+        virtualThreads = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        scheduler.shutdownNow();
+        virtualThreads.shutdownNow();
+    }
+
+    @Benchmark
+    public void tick() throws InterruptedException {
+        CountDownLatch updated = new CountDownLatch(trips);
+        Runnable update = () -> {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(blockingMicros));
+            updated.countDown();
+        };
+        boolean virtual = "virtual".equals(mode);
+        for (int trip = 0; trip < trips; trip++) {
+            scheduler.execute(virtual ? () -> virtualThreads.execute(update) : update);
+        }
+        updated.await();
+    }
+}
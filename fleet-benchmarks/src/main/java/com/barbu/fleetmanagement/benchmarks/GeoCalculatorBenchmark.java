@@ -0,0 +1,104 @@
+package com.barbu.fleetmanagement.benchmarks;
+
+import com.barbu.fleetmanagement.common.geo.GeoCalculator;
+import com.barbu.fleetmanagement.common.geo.Trajectory;
+import com.barbu.fleetmanagement.common.model.Location;
+import com.barbu.fleetmanagement.common.model.Trip;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Distance and new position calculations of {@link GeoCalculator}, in both the {@code BigDecimal} and the
+ * {@code double} flavour, and position evaluation on a precomputed {@link Trajectory}, over trips inside Bucharest.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GeoCalculatorBenchmark {
+
+    private static final int SIZE = 1024;
+    private static final BigDecimal DISTANCE_TO_MOVE_KM = new BigDecimal("0.25");
+
+    private final GeoCalculator geoCalculator = new GeoCalculator();
+    private Location[] starts;
+    private Location[] destinations;
+    private double[] coordinates;
+    private Trajectory[] trajectories;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        List<Trip> trips = BenchmarkData.trips(SIZE);
+        starts = new Location[SIZE];
+        destinations = new Location[SIZE];
+        coordinates = new double[SIZE * 4];
+        trajectories = new Trajectory[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            Trip trip = trips.get(i);
+            starts[i] = trip.start();
+            destinations[i] = trip.destination();
+            coordinates[i * 4] = trip.start().latitude().doubleValue();
+            coordinates[i * 4 + 1] = trip.start().longitude().doubleValue();
+            coordinates[i * 4 + 2] = trip.destination().latitude().doubleValue();
+            coordinates[i * 4 + 3] = trip.destination().longitude().doubleValue();
+            trajectories[i] = geoCalculator.calculateTrajectory(trip.start(), trip.destination());
+        }
+    }
+
+    private int next() {
+        return index = (index + 1) & (SIZE - 1);
+    }
+
+    @Benchmark
+    public BigDecimal distanceBigDecimal() {
+        int i = next();
+        return geoCalculator.calculateDistanceInKm(starts[i], destinations[i]);
+    }
+
+    @Benchmark
+    public double distanceDouble() {
+        int i = next() * 4;
+        return geoCalculator.calculateDistanceInKm(coordinates[i], coordinates[i + 1], coordinates[i + 2], coordinates[i + 3]);
+    }
+
+    @Benchmark
+    public Location newPositionBigDecimal() {
+        int i = next();
+        return geoCalculator.calculateNewPosition(starts[i], destinations[i], DISTANCE_TO_MOVE_KM);
+    }
+
+    @Benchmark
+    public double newPositionDouble() {
+        int i = next() * 4;
+        double fraction = geoCalculator.calculateMoveFraction(
+                coordinates[i], coordinates[i + 1], coordinates[i + 2], coordinates[i + 3], 0.25);
+        return geoCalculator.interpolate(coordinates[i], coordinates[i + 2], fraction)
+                + geoCalculator.interpolate(coordinates[i + 1], coordinates[i + 3], fraction);
+    }
+
+    @Benchmark
+    public double trajectoryPosition() {
+        Trajectory trajectory = trajectories[next()];
+        return trajectory.latitudeAt(0.25) + trajectory.longitudeAt(0.25);
+    }
+
+    @Benchmark
+    public Location trajectoryLocation() {
+        return trajectories[next()].locationAt(0.25);
+    }
+}
@@ -0,0 +1,132 @@
+package com.barbu.fleetmanagement.benchmarks;
+
+import com.barbu.fleetmanagement.common.codec.CarPositionCodec;
+import com.barbu.fleetmanagement.common.codec.CarPositionView;
+import com.barbu.fleetmanagement.common.geo.GeoCalculator;
+import com.barbu.fleetmanagement.common.model.CarPosition;
+import com.barbu.fleetmanagement.penaltypoints.application.service.InMemoryCarPositionCache;
+import com.barbu.fleetmanagement.penaltypoints.application.service.SpeedCalculatorService;
+import com.barbu.fleetmanagement.penaltypoints.domain.CarSpeed;
+import com.barbu.fleetmanagement.penaltypoints.domain.DriverPenaltyPoints;
+import com.barbu.fleetmanagement.penaltypoints.domain.PenaltyPoints;
+import com.barbu.fleetmanagement.penaltypoints.domain.SpeedInterval;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.quarkus.kafka.client.serialization.ObjectMapperSerde;
+import org.apache.kafka.common.serialization.Serde;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per record cost of the two penalty points topologies ({@code penalty-points.topology}), over the replay of
+ * {@link SpeedCalculatorServiceBenchmark}:
+ * <ul>
+ *   <li>{@code dsl}: speed as an {@link Optional} {@link CarSpeed}, classified twice with
+ *   {@link SpeedInterval#getInterval(double)}, {@link PenaltyPoints} built and written to then read back from the
+ *   repartition topic, added to the total of the driver</li>
+ *   <li>{@code processor}: speed as a primitive, classified once with
+ *   {@link SpeedInterval#getPenaltyPointsPerKm(double)}, {@link PenaltyPoints} written to the penalty points topic,
+ *   added to the total of the driver</li>
+ * </ul>
+ * Only the work of the application is measured: the Kafka clients, the state stores (a map here) and the record
+ * caches of Kafka Streams are left out, as is the driver total sent by both topologies. The penalty points are
+ * serialized with a mapper configured like the Quarkus one, see {@link SerdesBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.util.logging.manager=org.jboss.logmanager.LogManager")
+public class PenaltyPointsTopologyBenchmark {
+
+    private static final int TRIPS = 256;
+    private static final int TICKS_PER_TRIP = 64;
+    private static final String TOPIC = "fleet-management.penalty-points";
+
+    private SpeedCalculatorService speedCalculatorService;
+    private InMemoryCarPositionCache carPositionCache;
+    private Serde<PenaltyPoints> penaltyPointsSerde;
+    private Map<String, DriverPenaltyPoints> driverPoints;
+    private byte[][] positions;
+    private String[] keys;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        BenchmarkData.silenceApplicationLogs();
+        carPositionCache = new InMemoryCarPositionCache();
+        speedCalculatorService = new SpeedCalculatorService(new GeoCalculator(), carPositionCache);
+        ObjectMapper objectMapper = new ObjectMapper()
+                .findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        penaltyPointsSerde = new ObjectMapperSerde<>(PenaltyPoints.class, objectMapper);
+        driverPoints = new HashMap<>();
+        List<CarPosition> replay = BenchmarkData.positions(BenchmarkData.trips(TRIPS), TICKS_PER_TRIP);
+        positions = replay.stream().map(CarPositionCodec::encode).toArray(byte[][]::new);
+        keys = replay.stream().map(carPosition -> String.valueOf(carPosition.driverId())).toArray(String[]::new);
+    }
+
+    @Benchmark
+    public DriverPenaltyPoints dsl() {
+        index = (index + 1) & (TRIPS * TICKS_PER_TRIP - 1);
+        Optional<CarSpeed> speed = speedCalculatorService.calculateCarSpeed(new CarPositionView(positions[index]));
+        if (speed.isEmpty() || SpeedInterval.getInterval(speed.get().getSpeedKmh()).isEmpty()) {
+            return null;
+        }
+        CarSpeed carSpeed = speed.get();
+        PenaltyPoints penaltyPoints = PenaltyPoints.builder()
+                .driverId(carSpeed.getDriverId())
+                .carId(carSpeed.getCarId())
+                .tripId(carSpeed.getTripId())
+                .penaltyTime(carSpeed.getCurrentTimestamp())
+                .penaltyPoints(SpeedInterval.getInterval(carSpeed.getSpeedKmh())
+                        .map(SpeedInterval::getPenaltyPointsPerKm)
+                        .orElse(0))
+                .build();
+        byte[] repartitioned = penaltyPointsSerde.serializer().serialize(TOPIC, penaltyPoints);
+        return addPenaltyPoints(keys[index],
+                penaltyPointsSerde.deserializer().deserialize(TOPIC, repartitioned).penaltyPoints());
+    }
+
+    @Benchmark
+    public DriverPenaltyPoints processor() {
+        index = (index + 1) & (TRIPS * TICKS_PER_TRIP - 1);
+        CarPositionView carPosition = new CarPositionView(positions[index]);
+        int penaltyPointsPerKm = SpeedInterval.getPenaltyPointsPerKm(
+                speedCalculatorService.calculateSpeedKmh(carPosition, carPositionCache));
+        if (penaltyPointsPerKm == 0) {
+            return null;
+        }
+        PenaltyPoints penaltyPoints = new PenaltyPoints(carPosition.driverId(), carPosition.tripId(),
+                carPosition.carId(), penaltyPointsPerKm, Instant.ofEpochMilli(carPosition.epochMillis()));
+        penaltyPointsSerde.serializer().serialize(TOPIC, penaltyPoints);
+        return addPenaltyPoints(keys[index], penaltyPointsPerKm);
+    }
+
+    private DriverPenaltyPoints addPenaltyPoints(String driverId, int penaltyPoints) {
+        DriverPenaltyPoints total = driverPoints.computeIfAbsent(driverId, _ -> {
+            DriverPenaltyPoints driverPenaltyPoints = new DriverPenaltyPoints();
+            driverPenaltyPoints.setDriverId(Long.parseLong(driverId));
+            return driverPenaltyPoints;
+        });
+        return total.addPenaltyPoint(penaltyPoints);
+    }
+}
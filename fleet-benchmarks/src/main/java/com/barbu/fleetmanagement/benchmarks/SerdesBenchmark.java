@@ -0,0 +1,194 @@
+package com.barbu.fleetmanagement.benchmarks;
+
+import com.barbu.fleetmanagement.common.codec.CarPositionSerde;
+import com.barbu.fleetmanagement.common.codec.CarPositionView;
+import com.barbu.fleetmanagement.common.codec.TripSerde;
+import com.barbu.fleetmanagement.common.model.CarPosition;
+import com.barbu.fleetmanagement.common.model.Trip;
+import com.barbu.fleetmanagement.penaltypoints.domain.DriverPenaltyPoints;
+import com.barbu.fleetmanagement.penaltypoints.domain.PenaltyPoints;
+import com.barbu.fleetmanagement.penaltypoints.stream.SerdesFactory;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.quarkus.kafka.client.serialization.ObjectMapperSerde;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.Serde;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization and deserialization of the records exchanged between the services.
+ * <p>
+ * Car positions and trips are measured both with the binary codecs used on the wire and with JSON, the format they
+ * were published in before. Outside a running Quarkus application {@code ObjectMapperSerde} falls back to a bare
+ * {@link ObjectMapper}, which cannot handle {@link Instant}. The JSON serdes are therefore built with a mapper
+ * configured like the Quarkus one (registered modules, ISO dates, unknown properties ignored).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerdesBenchmark {
+
+    private static final String TOPIC = "benchmark";
+    private static final int SIZE = 1024;
+
+    private Serde<CarPosition> carPositionJsonSerde;
+    private Serde<CarPosition> carPositionBinarySerde;
+    private Serde<CarPositionView> carPositionViewSerde;
+    private Serde<Trip> tripJsonSerde;
+    private Serde<Trip> tripBinarySerde;
+    private Serde<PenaltyPoints> penaltyPointsSerde;
+    private Serde<DriverPenaltyPoints> driverPenaltyPointsSerde;
+    private CarPosition[] carPositions;
+    private byte[][] jsonCarPositions;
+    private byte[][] binaryCarPositions;
+    private Trip[] trips;
+    private byte[][] jsonTrips;
+    private byte[][] binaryTrips;
+    private Headers headers;
+    private PenaltyPoints penaltyPoints;
+    private byte[] serializedPenaltyPoints;
+    private DriverPenaltyPoints driverPenaltyPoints;
+    private byte[] serializedDriverPenaltyPoints;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper()
+                .findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        carPositionJsonSerde = new ObjectMapperSerde<>(CarPosition.class, objectMapper);
+        carPositionBinarySerde = new CarPositionSerde();
+        carPositionViewSerde = SerdesFactory.carPositionViewSerde();
+        tripJsonSerde = new ObjectMapperSerde<>(Trip.class, objectMapper);
+        tripBinarySerde = new TripSerde();
+        penaltyPointsSerde = new ObjectMapperSerde<>(PenaltyPoints.class, objectMapper);
+        driverPenaltyPointsSerde = new ObjectMapperSerde<>(DriverPenaltyPoints.class, objectMapper);
+
+        // the version header is the same for every record, writing it again only replaces it
+        headers = new RecordHeaders();
+        List<Trip> tripList = BenchmarkData.trips(SIZE);
+        trips = tripList.toArray(Trip[]::new);
+        carPositions = BenchmarkData.positions(tripList, 1).toArray(CarPosition[]::new);
+        jsonCarPositions = new byte[SIZE][];
+        binaryCarPositions = new byte[SIZE][];
+        jsonTrips = new byte[SIZE][];
+        binaryTrips = new byte[SIZE][];
+        for (int i = 0; i < SIZE; i++) {
+            jsonCarPositions[i] = carPositionJsonSerde.serializer().serialize(TOPIC, carPositions[i]);
+            binaryCarPositions[i] = carPositionBinarySerde.serializer().serialize(TOPIC, headers, carPositions[i]);
+            jsonTrips[i] = tripJsonSerde.serializer().serialize(TOPIC, trips[i]);
+            binaryTrips[i] = tripBinarySerde.serializer().serialize(TOPIC, headers, trips[i]);
+        }
+
+        penaltyPoints = PenaltyPoints.builder()
+                .driverId(42L)
+                .carId(7L)
+                .tripId(1234L)
+                .penaltyPoints(5)
+                .penaltyTime(Instant.parse("2025-06-01T08:00:00Z"))
+                .build();
+        serializedPenaltyPoints = penaltyPointsSerde.serializer().serialize(TOPIC, penaltyPoints);
+
+        driverPenaltyPoints = new DriverPenaltyPoints();
+        driverPenaltyPoints.setDriverId(42L);
+        driverPenaltyPoints.setTotalPoints(117);
+        driverPenaltyPoints.setLastUpdated(Instant.parse("2025-06-01T08:00:00Z"));
+        serializedDriverPenaltyPoints = driverPenaltyPointsSerde.serializer().serialize(TOPIC, driverPenaltyPoints);
+    }
+
+    private int next() {
+        return index = (index + 1) & (SIZE - 1);
+    }
+
+    @Benchmark
+    public byte[] serializeCarPositionJson() {
+        return carPositionJsonSerde.serializer().serialize(TOPIC, carPositions[next()]);
+    }
+
+    @Benchmark
+    public CarPosition deserializeCarPositionJson() {
+        return carPositionJsonSerde.deserializer().deserialize(TOPIC, jsonCarPositions[next()]);
+    }
+
+    @Benchmark
+    public byte[] serializeCarPositionBinary() {
+        return carPositionBinarySerde.serializer().serialize(TOPIC, headers, carPositions[next()]);
+    }
+
+    @Benchmark
+    public CarPosition deserializeCarPositionBinary() {
+        return carPositionBinarySerde.deserializer().deserialize(TOPIC, headers, binaryCarPositions[next()]);
+    }
+
+    /**
+     * Deserializes into a view and reads the fields the topology looks at for every record.
+     */
+    @Benchmark
+    public void deserializeCarPositionView(Blackhole blackhole) {
+        CarPositionView view = carPositionViewSerde.deserializer().deserialize(TOPIC, headers, binaryCarPositions[next()]);
+        blackhole.consume(view.tripId());
+        blackhole.consume(view.latMicros());
+        blackhole.consume(view.lonMicros());
+        blackhole.consume(view.epochMillis());
+    }
+
+    @Benchmark
+    public byte[] serializeTripJson() {
+        return tripJsonSerde.serializer().serialize(TOPIC, trips[next()]);
+    }
+
+    @Benchmark
+    public Trip deserializeTripJson() {
+        return tripJsonSerde.deserializer().deserialize(TOPIC, jsonTrips[next()]);
+    }
+
+    @Benchmark
+    public byte[] serializeTripBinary() {
+        return tripBinarySerde.serializer().serialize(TOPIC, headers, trips[next()]);
+    }
+
+    @Benchmark
+    public Trip deserializeTripBinary() {
+        return tripBinarySerde.deserializer().deserialize(TOPIC, headers, binaryTrips[next()]);
+    }
+
+    @Benchmark
+    public byte[] serializePenaltyPoints() {
+        return penaltyPointsSerde.serializer().serialize(TOPIC, penaltyPoints);
+    }
+
+    @Benchmark
+    public PenaltyPoints deserializePenaltyPoints() {
+        return penaltyPointsSerde.deserializer().deserialize(TOPIC, serializedPenaltyPoints);
+    }
+
+    @Benchmark
+    public byte[] serializeDriverPenaltyPoints() {
+        return driverPenaltyPointsSerde.serializer().serialize(TOPIC, driverPenaltyPoints);
+    }
+
+    @Benchmark
+    public DriverPenaltyPoints deserializeDriverPenaltyPoints() {
+        return driverPenaltyPointsSerde.deserializer().deserialize(TOPIC, serializedDriverPenaltyPoints);
+    }
+}
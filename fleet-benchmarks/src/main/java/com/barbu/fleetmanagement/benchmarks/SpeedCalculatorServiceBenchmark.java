@@ -0,0 +1,77 @@
+package com.barbu.fleetmanagement.benchmarks;
+
+import com.barbu.fleetmanagement.common.codec.CarPositionCodec;
+import com.barbu.fleetmanagement.common.codec.CarPositionView;
+import com.barbu.fleetmanagement.common.geo.GeoCalculator;
+import com.barbu.fleetmanagement.common.model.CarPosition;
+import com.barbu.fleetmanagement.penaltypoints.application.service.BoundedCarPositionCache;
+import com.barbu.fleetmanagement.penaltypoints.application.service.CarPositionCache;
+import com.barbu.fleetmanagement.penaltypoints.application.service.InMemoryCarPositionCache;
+import com.barbu.fleetmanagement.penaltypoints.application.service.SpeedCalculatorService;
+import com.barbu.fleetmanagement.penaltypoints.domain.CarSpeed;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per record cost of the penalty points calculator speed step: previous position lookup, distance and speed
+ * calculation, over a replay of 256 trips emitting 64 positions each.
+ * <p>
+ * The replay restarts from the beginning once exhausted, which makes the first position of every trip a regular
+ * update (its previous position being the last one of the replay) instead of a cache miss.
+ * <p>
+ * Each position is wrapped in a new {@link CarPositionView} over its encoded bytes, like the topology deserializer
+ * does for every record.
+ * <p>
+ * {@code cache} compares the map of positions ({@code in-memory}) with the {@link BoundedCarPositionCache}, which
+ * rebuilds the previous position from primitive fields on every lookup.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.util.logging.manager=org.jboss.logmanager.LogManager")
+public class SpeedCalculatorServiceBenchmark {
+
+    private static final int TRIPS = 256;
+    private static final int TICKS_PER_TRIP = 64;
+
+    @Param({"in-memory", "bounded"})
+    public String cache;
+
+    private SpeedCalculatorService speedCalculatorService;
+    private byte[][] positions;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        BenchmarkData.silenceApplicationLogs();
+        CarPositionCache carPositionCache = "bounded".equals(cache)
+                ? new BoundedCarPositionCache(TRIPS, Duration.ofMinutes(5), new SimpleMeterRegistry())
+                : new InMemoryCarPositionCache();
+        speedCalculatorService = new SpeedCalculatorService(new GeoCalculator(), carPositionCache);
+        List<CarPosition> replay = BenchmarkData.positions(BenchmarkData.trips(TRIPS), TICKS_PER_TRIP);
+        positions = replay.stream().map(CarPositionCodec::encode).toArray(byte[][]::new);
+    }
+
+    @Benchmark
+    public Optional<CarSpeed> calculateCarSpeed() {
+        index = (index + 1) & (TRIPS * TICKS_PER_TRIP - 1);
+        return speedCalculatorService.calculateCarSpeed(new CarPositionView(positions[index]));
+    }
+}
@@ -0,0 +1,44 @@
+package com.barbu.fleetmanagement.benchmarks;
+
+import com.barbu.fleetmanagement.penaltypoints.domain.SpeedInterval;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Classification of a calculated speed into a penalty {@link SpeedInterval}, for speeds between 40 and 120 km/h.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SpeedIntervalBenchmark {
+
+    private static final int SIZE = 1024;
+
+    private double[] speeds;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        speeds = BenchmarkData.speeds(SIZE);
+    }
+
+    @Benchmark
+    public Optional<SpeedInterval> getInterval() {
+        index = (index + 1) & (SIZE - 1);
+        return SpeedInterval.getInterval(speeds[index]);
+    }
+}
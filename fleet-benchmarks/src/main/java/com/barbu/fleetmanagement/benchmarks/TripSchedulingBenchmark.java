@@ -0,0 +1,77 @@
+package com.barbu.fleetmanagement.benchmarks;
+
+import com.barbu.fleetmanagement.simulator.application.service.HashedTimingWheel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of re-arming every active trip for its next tick, per trip: one {@link ScheduledThreadPoolExecutor} task per
+ * trip (the {@code scheduled} engine) against one {@link HashedTimingWheel} entry per trip (the {@code timing-wheel}
+ * engine, 100 slots of 100 ms).
+ * <p>
+ * Each invocation schedules all the trips 10 seconds ahead and then drops them, the executor by clearing its queue,
+ * the wheel by advancing one revolution.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TripSchedulingBenchmark {
+
+    private static final int TRIPS = 100_000;
+    private static final int WHEEL_SIZE = 100;
+    private static final Runnable NO_OP = () -> {
+    };
+
+    private ScheduledThreadPoolExecutor executor;
+    private HashedTimingWheel wheel;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        executor = new ScheduledThreadPoolExecutor(1);
+        wheel = new HashedTimingWheel(WHEEL_SIZE);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TRIPS)
+    public void scheduledExecutor() {
+        for (int trip = 0; trip < TRIPS; trip++) {
+            executor.schedule(NO_OP, BenchmarkData.INTERVAL_SECONDS, TimeUnit.SECONDS);
+        }
+        executor.getQueue().clear();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TRIPS)
+    public void timingWheel(Blackhole blackhole) {
+        for (int trip = 0; trip < TRIPS; trip++) {
+            // spread the trips over the slots, like trips started at different times
+            wheel.schedule(trip, 1 + trip % WHEEL_SIZE);
+        }
+        for (int tick = 0; tick < WHEEL_SIZE; tick++) {
+            blackhole.consume(wheel.advance());
+        }
+    }
+}
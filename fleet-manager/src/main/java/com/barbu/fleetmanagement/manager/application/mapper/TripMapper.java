@@ -16,6 +16,7 @@ public class TripMapper {
                 .longitudeDestination(trip.destination().longitude())
                 .driverId(trip.driverId())
                 .carId(trip.carId())
+                .route(trip.route())
                 .build();
     }
 
@@ -26,6 +27,7 @@ public class TripMapper {
                 .destination(new Location(entity.getLatitudeDestination(), entity.getLongitudeDestination()))
                 .driverId(entity.getDriverId())
                 .carId(entity.getCarId())
+                .route(entity.getRoute())
                 .build();
     }
 }
@@ -43,6 +43,8 @@ public class TripEntity extends PanacheEntityBase {
   private Long driverId;
   @Column(name="car_id")
   private Long carId;
+  @Column(name="route")
+  private String route;
   @CreationTimestamp
   @Column(name = "created_at")
   private LocalDateTime createdAt;
@@ -140,6 +140,26 @@ public class TripResourceIntegrationTest {
                 .statusCode(400); // Bad Request
     }
 
+    @Test
+    public void testCreateTripWithTruncatedRoute() {
+        Trip invalidTrip = Trip.builder()
+                .start(new Location(BigDecimal.valueOf(37.7749), BigDecimal.valueOf(-122.4194)))
+                .destination(new Location(BigDecimal.valueOf(34.0522), BigDecimal.valueOf(-118.2437)))
+                .driverId(driverId)
+                .carId(carId)
+                // characters of the polyline format, but half a point
+                .route("_p~iF")
+                .build();
+
+        given()
+                .contentType(ContentType.JSON)
+                .body(invalidTrip)
+                .when()
+                .put(TRIPS_ENDPOINT)
+                .then()
+                .statusCode(400); // Bad Request
+    }
+
     private Trip createTestTrip() {
         return Trip.builder()
                 .start(new Location(BigDecimal.valueOf(37.7749), BigDecimal.valueOf(-122.4194))) // San Francisco
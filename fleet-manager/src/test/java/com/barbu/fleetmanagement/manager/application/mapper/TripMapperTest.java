@@ -21,6 +21,7 @@ public class TripMapperTest {
         BigDecimal destLongitude = new BigDecimal("-118.2437");
         Long driverId = 1L;
         Long carId = 2L;
+        String route = "_p~iF~ps|U_ulLnnqC";
 
         Location start = new Location(startLatitude, startLongitude);
         Location destination = new Location(destLatitude, destLongitude);
@@ -30,6 +31,7 @@ public class TripMapperTest {
                 .destination(destination)
                 .driverId(driverId)
                 .carId(carId)
+                .route(route)
                 .build();
 
         TripEntity tripEntity = tripMapper.to(trip);
@@ -40,7 +42,8 @@ public class TripMapperTest {
                 .returns(destLatitude, TripEntity::getLatitudeDestination)
                 .returns(destLongitude, TripEntity::getLongitudeDestination)
                 .returns(driverId, TripEntity::getDriverId)
-                .returns(carId, TripEntity::getCarId);
+                .returns(carId, TripEntity::getCarId)
+                .returns(route, TripEntity::getRoute);
     }
 
     @Test
@@ -52,6 +55,7 @@ public class TripMapperTest {
         Long driverId = 1L;
         Long carId = 2L;
         Long id = 3L;
+        String route = "_p~iF~ps|U_ulLnnqC";
 
         TripEntity tripEntity = TripEntity.builder()
                 .id(id)
@@ -61,6 +65,7 @@ public class TripMapperTest {
                 .longitudeDestination(destLongitude)
                 .driverId(driverId)
                 .carId(carId)
+                .route(route)
                 .build();
 
         Trip trip = tripMapper.from(tripEntity);
@@ -68,7 +73,8 @@ public class TripMapperTest {
         assertThat(trip)
                 .returns(id, Trip::id)
                 .returns(driverId, Trip::driverId)
-                .returns(carId, Trip::carId);
+                .returns(carId, Trip::carId)
+                .returns(route, Trip::route);
 
         assertThat(trip.start())
                 .returns(startLatitude, Location::latitude)
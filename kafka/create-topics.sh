@@ -1,3 +1,5 @@
-/usr/bin/kafka-topics --create --topic "fleet-management.trip" --partitions 1 --replication-factor 1 --bootstrap-server localhost:9092
+/usr/bin/kafka-topics --create --topic "fleet-management.trip" --partitions 6 --replication-factor 1 --bootstrap-server localhost:9092
+/usr/bin/kafka-topics --create --topic "fleet-management.trip.state" --partitions 6 --replication-factor 1 --config cleanup.policy=compact --bootstrap-server localhost:9092
 /usr/bin/kafka-topics --create --topic "fleet-management.car.position" --partitions 1 --replication-factor 1 --bootstrap-server localhost:9092
+/usr/bin/kafka-topics --create --topic "fleet-management.car.position.batch" --partitions 1 --replication-factor 1 --bootstrap-server localhost:9092
 /usr/bin/kafka-topics --create --topic "fleet-management.driver.penalty-points" --partitions 1 --replication-factor 1 --bootstrap-server localhost:9092
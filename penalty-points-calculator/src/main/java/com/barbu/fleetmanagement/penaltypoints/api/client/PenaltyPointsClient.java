@@ -0,0 +1,65 @@
+package com.barbu.fleetmanagement.penaltypoints.api.client;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.ServiceUnavailableException;
+import org.apache.kafka.streams.state.HostInfo;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Forwards the penalty point queries to the instance keeping the points of the drivers, asking it to answer from its
+ * own stores ({@code local=true}) so that a query is forwarded at most once, even while the instances disagree on
+ * who keeps what during a rebalance.
+ */
+@ApplicationScoped
+public class PenaltyPointsClient {
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @ConfigProperty(name = "penalty-points.queries.forward-timeout", defaultValue = "2s")
+    Duration forwardTimeout;
+
+    /**
+     * @param pathAndQuery The path and query of the request, without {@code local}
+     * @return The answer of the instance, empty when it has no points
+     */
+    public <T> Optional<T> get(HostInfo host, String pathAndQuery, TypeReference<T> type) {
+        String separator = pathAndQuery.contains("?") ? "&" : "?";
+        URI uri = URI.create("http://" + host.host() + ":" + host.port() + pathAndQuery + separator + "local=true");
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(forwardTimeout)
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+        try {
+            HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() == 404) {
+                return Optional.empty();
+            }
+            if (response.statusCode() != 200) {
+                throw new ServiceUnavailableException("Instance " + host + " answered " + response.statusCode()
+                        + " to " + pathAndQuery);
+            }
+            return Optional.of(objectMapper.readValue(response.body(), type));
+        } catch (IOException e) {
+            throw new ServiceUnavailableException("Instance " + host + " did not answer " + pathAndQuery + ": "
+                    + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Interrupted while forwarding " + pathAndQuery + " to " + host);
+        }
+    }
+}
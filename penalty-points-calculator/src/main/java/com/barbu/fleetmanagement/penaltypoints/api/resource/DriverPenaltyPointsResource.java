@@ -0,0 +1,98 @@
+package com.barbu.fleetmanagement.penaltypoints.api.resource;
+
+import com.barbu.fleetmanagement.penaltypoints.application.service.DriverPointsQueryService;
+import com.barbu.fleetmanagement.penaltypoints.domain.DriverPenaltyPoints;
+import com.barbu.fleetmanagement.penaltypoints.domain.DriverWindowPenaltyPoints;
+import com.barbu.fleetmanagement.penaltypoints.stream.DriverPointsStores;
+import com.barbu.fleetmanagement.penaltypoints.stream.PenaltyPointsWindows;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.NotFoundException;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.Response;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.streams.errors.InvalidStateStoreException;
+import org.jboss.resteasy.reactive.RestResponse;
+import org.jboss.resteasy.reactive.server.ServerExceptionMapper;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+/**
+ * Reads the penalty points of the drivers straight from the state stores of the calculator, forwarding the queries to
+ * the instance keeping the drivers when several instances run, see {@link DriverPointsQueryService}:
+ * <ul>
+ *   <li>{@code GET /drivers/{driverId}/penalty-points}: the all-time total of a driver</li>
+ *   <li>{@code GET /drivers/penalty-points?driverId=1&driverId=2}: the totals of several drivers</li>
+ *   <li>{@code GET /drivers/penalty-points?from=1&to=100}: the totals of the drivers with an ID in a range</li>
+ *   <li>{@code GET /drivers/{driverId}/penalty-points/{daily|weekly|rolling}?from=&to=}: the totals of a driver in the
+ *   windows starting between two times, or in the current window without {@code from}</li>
+ * </ul>
+ * The stores cannot be read while the instances rebalance, which is answered with a 503.
+ */
+@Slf4j
+@Path("/drivers")
+public class DriverPenaltyPointsResource {
+
+    @Inject
+    DriverPointsQueryService driverPointsQueryService;
+
+    @Inject
+    DriverPointsStores driverPointsStores;
+
+    @GET
+    @Path("/{driverId}/penalty-points")
+    public DriverPenaltyPoints getDriverPoints(@PathParam("driverId") long driverId,
+                                               @QueryParam("local") boolean local) {
+        return driverPointsQueryService.findDriverPoints(driverId, local)
+                .orElseThrow(() -> new NotFoundException("No penalty points for driver " + driverId));
+    }
+
+    @GET
+    @Path("/penalty-points")
+    public List<DriverPenaltyPoints> getDriversPoints(@QueryParam("driverId") List<Long> driverIds,
+                                                      @QueryParam("from") Long fromDriverId,
+                                                      @QueryParam("to") Long toDriverId,
+                                                      @QueryParam("local") boolean local) {
+        if (!driverIds.isEmpty()) {
+            return driverPointsQueryService.findDriverPoints(driverIds, local);
+        }
+        if (fromDriverId == null || toDriverId == null || fromDriverId < 0 || fromDriverId > toDriverId) {
+            throw new BadRequestException("Either driverId or a range from and to, 0 <= from <= to, is required");
+        }
+        return driverPointsQueryService.findDriverPointsInRange(fromDriverId, toDriverId, local);
+    }
+
+    @GET
+    @Path("/{driverId}/penalty-points/{window}")
+    public List<DriverWindowPenaltyPoints> getWindowPoints(@PathParam("driverId") long driverId,
+                                                           @PathParam("window") String window,
+                                                           @QueryParam("from") String from,
+                                                           @QueryParam("to") String to,
+                                                           @QueryParam("local") boolean local) {
+        PenaltyPointsWindows windows = driverPointsStores.windows(window)
+                .orElseThrow(() -> new NotFoundException("No " + window + " penalty points, see penalty-points.windows"));
+        return driverPointsQueryService.findWindowPoints(driverId, windows, parse(from), parse(to), local);
+    }
+
+    @ServerExceptionMapper
+    public RestResponse<String> mapInvalidStateStore(InvalidStateStoreException exception) {
+        log.warn("Penalty points queried while the stores are not available: {}", exception.getMessage());
+        return RestResponse.status(Response.Status.SERVICE_UNAVAILABLE, exception.getMessage());
+    }
+
+    private static Instant parse(String instant) {
+        if (instant == null) {
+            return null;
+        }
+        try {
+            return Instant.parse(instant);
+        } catch (DateTimeParseException e) {
+            throw new BadRequestException("Invalid time " + instant + ", expected e.g. 2025-06-01T00:00:00Z");
+        }
+    }
+}
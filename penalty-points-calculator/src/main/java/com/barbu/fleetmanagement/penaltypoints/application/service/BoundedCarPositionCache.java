@@ -0,0 +1,248 @@
+package com.barbu.fleetmanagement.penaltypoints.application.service;
+
+import com.barbu.fleetmanagement.common.codec.CarPositionCodec;
+import com.barbu.fleetmanagement.common.codec.CarPositionView;
+import com.barbu.fleetmanagement.common.collection.LongIntHashMap;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * {@link CarPositionCache} of a bounded number of trips ({@code penalty-points.previous-positions=bounded}), its memory
+ * proportional to the active trips instead of all the trips ever seen.
+ * <p>
+ * Only the coordinates in micro-degrees and the timestamp of the previous position are kept, in parallel primitive
+ * arrays indexed by a {@link LongIntHashMap} of trip id to row: about 40 bytes per trip. The positions returned by
+ * {@link #getByTripId(long)} are rebuilt from them, with the trip id and without car and driver ids, which the speed
+ * calculation does not read.
+ * <p>
+ * A trip is evicted once it has been silent for longer than the maximum heartbeat gap. The time is the latest
+ * position timestamp saved, and the trips are scheduled on a wheel of {@value #WHEEL_SLOTS} slots covering the gap:
+ * when the time reaches a slot, its trips which were saved again since they were scheduled move to the slot of their
+ * new expiry, the others are evicted. A trip is thus only looked at about once per gap, whatever its number of saves.
+ * <p>
+ * When the cache holds its maximum number of trips, saving a new trip evicts the one closest to its expiry first.
+ * Hits, misses and evictions (tagged with their {@code cause}) are counted as {@code penalty-points.previous-positions.*}
+ * meters. Thread safe.
+ */
+public class BoundedCarPositionCache implements CarPositionCache {
+
+    private static final int WHEEL_SLOTS = 64;
+    private static final int INITIAL_SLOT_CAPACITY = 16;
+
+    private final int maxEntries;
+    private final long maxGapMillis;
+    private final long slotMillis;
+
+    private final LongIntHashMap rows;
+    private final long[] tripIds;
+    private final int[] latMicros;
+    private final int[] lonMicros;
+    private final long[] epochMillis;
+    /**
+     * Absolute wheel slot each trip is scheduled at, the wheel entries of other slots being stale.
+     */
+    private final long[] scheduledSlots;
+    private int size;
+
+    private final long[][] wheel = new long[WHEEL_SLOTS][];
+    private final int[] wheelSizes = new int[WHEEL_SLOTS];
+    private long[] spareSlot = new long[INITIAL_SLOT_CAPACITY];
+    private long currentSlot = Long.MIN_VALUE;
+    private long latestEpochMillis = Long.MIN_VALUE;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter expiredEvictions;
+    private final Counter capacityEvictions;
+
+    public BoundedCarPositionCache(int maxEntries, Duration maxHeartbeatGap, MeterRegistry meterRegistry) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("The maximum number of trips must be positive, got " + maxEntries);
+        }
+        this.maxEntries = maxEntries;
+        this.maxGapMillis = maxHeartbeatGap.toMillis();
+        // two slots of margin, the expiry of a trip saved in the middle of the current slot is rounded up
+        this.slotMillis = Math.max(1, Math.ceilDiv(maxGapMillis, WHEEL_SLOTS - 2));
+        this.rows = new LongIntHashMap(maxEntries);
+        this.tripIds = new long[maxEntries];
+        this.latMicros = new int[maxEntries];
+        this.lonMicros = new int[maxEntries];
+        this.epochMillis = new long[maxEntries];
+        this.scheduledSlots = new long[maxEntries];
+        for (int slot = 0; slot < WHEEL_SLOTS; slot++) {
+            wheel[slot] = new long[INITIAL_SLOT_CAPACITY];
+        }
+
+        this.hits = Counter.builder("penalty-points.previous-positions.hits")
+                .description("Number of previous positions found in the cache")
+                .register(meterRegistry);
+        this.misses = Counter.builder("penalty-points.previous-positions.misses")
+                .description("Number of previous positions not found in the cache")
+                .register(meterRegistry);
+        this.expiredEvictions = evictions(meterRegistry, "expired");
+        this.capacityEvictions = evictions(meterRegistry, "capacity");
+        Gauge.builder("penalty-points.previous-positions.size", this, BoundedCarPositionCache::size)
+                .description("Number of trips in the cache")
+                .register(meterRegistry);
+    }
+
+    private static Counter evictions(MeterRegistry meterRegistry, String cause) {
+        return Counter.builder("penalty-points.previous-positions.evictions")
+                .description("Number of trips evicted from the cache")
+                .tags("cause", cause)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public synchronized CarPositionView getByTripId(long tripId) {
+        int row = rows.get(tripId);
+        if (row == LongIntHashMap.MISSING) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return new CarPositionView(CarPositionCodec.encode(latMicros[row], lonMicros[row], epochMillis[row], 0, 0,
+                tripId));
+    }
+
+    @Override
+    public synchronized void save(CarPositionView carPosition) {
+        advance(carPosition.epochMillis());
+        long tripId = carPosition.tripId();
+        int row = rows.get(tripId);
+        if (row == LongIntHashMap.MISSING) {
+            if (size == maxEntries) {
+                evictClosestToExpiry();
+            }
+            row = size++;
+            rows.put(tripId, row);
+            tripIds[row] = tripId;
+            epochMillis[row] = carPosition.epochMillis();
+            schedule(row);
+        }
+        latMicros[row] = carPosition.latMicros();
+        lonMicros[row] = carPosition.lonMicros();
+        // a trip saved again stays at its slot until the time reaches it
+        epochMillis[row] = carPosition.epochMillis();
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Moves the time forward, evicting the trips of the slots it goes past which were not saved since.
+     */
+    private void advance(long nowMillis) {
+        if (nowMillis <= latestEpochMillis) {
+            return;
+        }
+        latestEpochMillis = nowMillis;
+        long targetSlot = Math.floorDiv(nowMillis, slotMillis);
+        if (currentSlot == Long.MIN_VALUE) {
+            currentSlot = targetSlot;
+            return;
+        }
+        // past a whole revolution every slot has been visited once
+        long lastSlot = Math.min(targetSlot, currentSlot + WHEEL_SLOTS);
+        for (long slot = currentSlot + 1; slot <= lastSlot; slot++) {
+            expireSlot(slot);
+        }
+        currentSlot = targetSlot;
+    }
+
+    private void expireSlot(long slot) {
+        int index = (int) Math.floorMod(slot, WHEEL_SLOTS);
+        long[] trips = takeSlot(index);
+        int count = wheelSizes[index];
+        wheelSizes[index] = 0;
+        for (int entry = 0; entry < count; entry++) {
+            int row = rows.get(trips[entry]);
+            if (row == LongIntHashMap.MISSING || scheduledSlots[row] != slot) {
+                continue;
+            }
+            if (epochMillis[row] + maxGapMillis <= latestEpochMillis) {
+                remove(row);
+                expiredEvictions.increment();
+            } else {
+                schedule(row);
+            }
+        }
+        spareSlot = trips;
+    }
+
+    /**
+     * Evicts the trip whose expiry is the closest, rescheduling on the way the trips saved since they were scheduled.
+     */
+    private void evictClosestToExpiry() {
+        for (long slot = currentSlot + 1; slot <= currentSlot + WHEEL_SLOTS; slot++) {
+            int index = (int) Math.floorMod(slot, WHEEL_SLOTS);
+            long[] trips = takeSlot(index);
+            int count = wheelSizes[index];
+            wheelSizes[index] = 0;
+            boolean evicted = false;
+            for (int entry = 0; entry < count; entry++) {
+                int row = rows.get(trips[entry]);
+                if (row == LongIntHashMap.MISSING || scheduledSlots[row] != slot) {
+                    continue;
+                }
+                if (!evicted && expirySlot(row) <= slot) {
+                    remove(row);
+                    capacityEvictions.increment();
+                    evicted = true;
+                } else {
+                    schedule(row);
+                }
+            }
+            spareSlot = trips;
+            if (evicted) {
+                return;
+            }
+        }
+        throw new IllegalStateException("No trip to evict out of " + size);
+    }
+
+    /**
+     * Swaps the trips of a slot with the spare array, so that the trips rescheduled while going through them may be
+     * added to the same slot.
+     */
+    private long[] takeSlot(int index) {
+        long[] trips = wheel[index];
+        wheel[index] = spareSlot;
+        return trips;
+    }
+
+    private void schedule(int row) {
+        long slot = Math.max(expirySlot(row), currentSlot + 1);
+        int index = (int) Math.floorMod(slot, WHEEL_SLOTS);
+        if (wheelSizes[index] == wheel[index].length) {
+            wheel[index] = Arrays.copyOf(wheel[index], wheelSizes[index] * 2);
+        }
+        wheel[index][wheelSizes[index]++] = tripIds[row];
+        scheduledSlots[row] = slot;
+    }
+
+    private long expirySlot(int row) {
+        return Math.ceilDiv(epochMillis[row] + maxGapMillis, slotMillis);
+    }
+
+    /**
+     * Removes a trip, moving the last row into its place so that the rows stay contiguous.
+     */
+    private void remove(int row) {
+        rows.remove(tripIds[row]);
+        int last = --size;
+        if (row != last) {
+            tripIds[row] = tripIds[last];
+            latMicros[row] = latMicros[last];
+            lonMicros[row] = lonMicros[last];
+            epochMillis[row] = epochMillis[last];
+            scheduledSlots[row] = scheduledSlots[last];
+            rows.put(tripIds[row], row);
+        }
+    }
+}
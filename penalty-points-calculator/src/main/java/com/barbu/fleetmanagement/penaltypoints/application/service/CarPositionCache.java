@@ -1,26 +1,19 @@
 package com.barbu.fleetmanagement.penaltypoints.application.service;
 
-import com.barbu.fleetmanagement.common.model.CarPosition;
-import jakarta.enterprise.context.ApplicationScoped;
-
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import com.barbu.fleetmanagement.common.codec.CarPositionView;
 
 /**
- * Cache for storing previous car position. In a more advanced implementation should be replaced with a cache like
- * Redis having as TTL the maximum time (plus a threshold) between each hearth beat of the same trip
+ * Previous position of every trip, from which {@link SpeedCalculatorService} calculates the speed of the next one.
  */
-@ApplicationScoped
-public class CarPositionCache {
-
-    private final Map<Long, CarPosition> previousPositions = new ConcurrentHashMap<>();
-
-    public CarPosition getByTripId(Long tripId) {
-        return previousPositions.get(tripId);
-    }
+public interface CarPositionCache {
 
-    public void save(CarPosition carPosition) {
-        previousPositions.put(carPosition.tripId(), carPosition);
-    }
+    /**
+     * @return The previous position of the trip, {@code null} when there is none
+     */
+    CarPositionView getByTripId(long tripId);
 
+    /**
+     * Replaces the previous position of the trip of the given position.
+     */
+    void save(CarPositionView carPosition);
 }
@@ -0,0 +1,125 @@
+package com.barbu.fleetmanagement.penaltypoints.application.service;
+
+import com.barbu.fleetmanagement.penaltypoints.api.client.PenaltyPointsClient;
+import com.barbu.fleetmanagement.penaltypoints.domain.DriverPenaltyPoints;
+import com.barbu.fleetmanagement.penaltypoints.domain.DriverWindowPenaltyPoints;
+import com.barbu.fleetmanagement.penaltypoints.stream.DriverPointsStores;
+import com.barbu.fleetmanagement.penaltypoints.stream.PenaltyPointsProcessor;
+import com.barbu.fleetmanagement.penaltypoints.stream.PenaltyPointsWindows;
+import com.fasterxml.jackson.core.type.TypeReference;
+import jakarta.enterprise.context.ApplicationScoped;
+import lombok.RequiredArgsConstructor;
+import org.apache.kafka.streams.state.HostInfo;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Reads the penalty points of the drivers from the state stores of the calculator instances.
+ * <p>
+ * The points of a driver are kept by the instance processing the partition of the driver: lookups of a driver are
+ * answered by its instance, multi-gets are split by instance, and range scans go to every instance, the drivers of a
+ * range being spread over all the partitions. With {@code local} only the stores of this instance are read, which is
+ * how the forwarded queries are answered.
+ */
+@ApplicationScoped
+@RequiredArgsConstructor
+public class DriverPointsQueryService {
+
+    private static final String DRIVER_POINTS_STORE = PenaltyPointsProcessor.DRIVER_POINTS_STORE;
+    private static final TypeReference<DriverPenaltyPoints> DRIVER_POINTS = new TypeReference<>() {
+    };
+    private static final TypeReference<List<DriverPenaltyPoints>> DRIVER_POINTS_LIST = new TypeReference<>() {
+    };
+    private static final TypeReference<List<DriverWindowPenaltyPoints>> WINDOW_POINTS_LIST = new TypeReference<>() {
+    };
+
+    private final DriverPointsStores driverPointsStores;
+    private final PenaltyPointsClient penaltyPointsClient;
+
+    public Optional<DriverPenaltyPoints> findDriverPoints(long driverId, boolean local) {
+        Optional<HostInfo> owner = remoteOwner(DRIVER_POINTS_STORE, driverId, local);
+        if (owner.isPresent()) {
+            return penaltyPointsClient.get(owner.get(), "/drivers/" + driverId + "/penalty-points", DRIVER_POINTS);
+        }
+        return Optional.ofNullable(driverPointsStores.get(driverId));
+    }
+
+    /**
+     * @return The points of the drivers which have any, ordered by driver ID
+     */
+    public List<DriverPenaltyPoints> findDriverPoints(Collection<Long> driverIds, boolean local) {
+        Map<Optional<HostInfo>, List<Long>> driverIdsByOwner = driverIds.stream()
+                .distinct()
+                .collect(Collectors.groupingBy(driverId -> remoteOwner(DRIVER_POINTS_STORE, driverId, local),
+                        LinkedHashMap::new, Collectors.toList()));
+        List<DriverPenaltyPoints> driverPoints = new ArrayList<>();
+        driverIdsByOwner.forEach((owner, ownedDriverIds) -> {
+            if (owner.isPresent()) {
+                penaltyPointsClient.get(owner.get(), "/drivers/penalty-points?" + driverIdsQuery(ownedDriverIds),
+                        DRIVER_POINTS_LIST).ifPresent(driverPoints::addAll);
+            } else {
+                ownedDriverIds.stream()
+                        .map(driverPointsStores::get)
+                        .filter(Objects::nonNull)
+                        .forEach(driverPoints::add);
+            }
+        });
+        driverPoints.sort(Comparator.comparing(DriverPenaltyPoints::getDriverId));
+        return driverPoints;
+    }
+
+    /**
+     * @return The points of the drivers with an ID between two IDs, included, ordered by driver ID
+     */
+    public List<DriverPenaltyPoints> findDriverPointsInRange(long fromDriverId, long toDriverId, boolean local) {
+        List<DriverPenaltyPoints> driverPoints = new ArrayList<>(driverPointsStores.range(fromDriverId, toDriverId));
+        if (!local) {
+            String pathAndQuery = "/drivers/penalty-points?from=" + fromDriverId + "&to=" + toDriverId;
+            driverPointsStores.remoteInstances(DRIVER_POINTS_STORE).forEach(host ->
+                    penaltyPointsClient.get(host, pathAndQuery, DRIVER_POINTS_LIST).ifPresent(driverPoints::addAll));
+            driverPoints.sort(Comparator.comparing(DriverPenaltyPoints::getDriverId));
+        }
+        return driverPoints;
+    }
+
+    /**
+     * @param from Earliest window start, {@code null} for the current window only
+     * @param to   Latest window start, or time of the current window, {@code null} for now
+     * @return The points of the driver in the windows starting between the two times, ordered by window start
+     */
+    public List<DriverWindowPenaltyPoints> findWindowPoints(long driverId, PenaltyPointsWindows windows,
+                                                            Instant from, Instant to, boolean local) {
+        Instant windowsTo = to == null ? Instant.now() : to;
+        Instant windowsFrom = from;
+        if (from == null) {
+            // the current window only, not the later hopping windows also containing the time
+            windowsFrom = Instant.ofEpochMilli(windows.currentWindowStart(windowsTo.toEpochMilli()));
+            windowsTo = windowsFrom;
+        }
+        Optional<HostInfo> owner = remoteOwner(windows.storeName(), driverId, local);
+        if (owner.isPresent()) {
+            return penaltyPointsClient.get(owner.get(), "/drivers/" + driverId + "/penalty-points/" + windows.name()
+                    + "?from=" + windowsFrom + "&to=" + windowsTo, WINDOW_POINTS_LIST).orElse(List.of());
+        }
+        return driverPointsStores.fetch(windows, driverId, windowsFrom, windowsTo);
+    }
+
+    private Optional<HostInfo> remoteOwner(String storeName, long driverId, boolean local) {
+        return local ? Optional.empty() : driverPointsStores.remoteOwner(storeName, driverId);
+    }
+
+    private static String driverIdsQuery(List<Long> driverIds) {
+        return driverIds.stream()
+                .map(driverId -> "driverId=" + driverId)
+                .collect(Collectors.joining("&"));
+    }
+}
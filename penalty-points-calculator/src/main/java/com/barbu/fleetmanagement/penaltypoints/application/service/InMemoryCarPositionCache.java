@@ -0,0 +1,31 @@
+package com.barbu.fleetmanagement.penaltypoints.application.service;
+
+import com.barbu.fleetmanagement.common.codec.CarPositionView;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache for storing previous car position in a map of the process ({@code penalty-points.previous-positions=in-memory}).
+ * Nothing is ever evicted and the positions are lost on restart, see {@link BoundedCarPositionCache} for a bounded
+ * alternative and the state store of {@link com.barbu.fleetmanagement.penaltypoints.stream.SpeedCalculatorProcessor}
+ * for a fault tolerant one.
+ * <p>
+ * Positions are kept as {@link CarPositionView}, i.e. as their encoded bytes, copied out of the batches they were read
+ * from not to keep the whole batches.
+ */
+public class InMemoryCarPositionCache implements CarPositionCache {
+
+    private final Map<Long, CarPositionView> previousPositions = new ConcurrentHashMap<>();
+
+    @Override
+    public CarPositionView getByTripId(long tripId) {
+        return previousPositions.get(tripId);
+    }
+
+    @Override
+    public void save(CarPositionView carPosition) {
+        previousPositions.put(carPosition.tripId(), carPosition.detach());
+    }
+
+}
@@ -1,17 +1,16 @@
 package com.barbu.fleetmanagement.penaltypoints.application.service;
 
+import com.barbu.fleetmanagement.common.codec.BinaryFormat;
+import com.barbu.fleetmanagement.common.codec.CarPositionView;
 import com.barbu.fleetmanagement.common.geo.GeoCalculator;
 import com.barbu.fleetmanagement.common.model.CarPosition;
+import com.barbu.fleetmanagement.common.model.Location;
 import com.barbu.fleetmanagement.penaltypoints.domain.CarSpeed;
 import com.barbu.fleetmanagement.penaltypoints.domain.SpeedInterval;
 import jakarta.enterprise.context.ApplicationScoped;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
-import java.math.BigDecimal;
-import java.math.MathContext;
-import java.math.RoundingMode;
-import java.time.Duration;
 import java.time.Instant;
 import java.util.Optional;
 
@@ -26,14 +25,21 @@ import java.util.Optional;
  * 
  * The service uses geographic calculations to determine distance traveled and
  * time-based calculations to determine speed in kilometers per hour.
+ * <p>
+ * Positions are handled as {@link CarPositionView}: the coordinates, timestamps and ids are read as primitives and
+ * the {@link Location} and {@link Instant} objects of {@link CarSpeed} are only created once a speed is calculated.
  */
 @Slf4j
 @ApplicationScoped
 @RequiredArgsConstructor
 public class SpeedCalculatorService {
 
-    private static final MathContext MATH_CONTEXT = new MathContext(10, RoundingMode.HALF_UP);
-    private static final BigDecimal HOURS_IN_SECOND = new BigDecimal("0.000277778"); // 1/3600
+    /**
+     * Returned by {@link #calculateSpeedKmh(CarPositionView, CarPositionCache)} when no speed is calculated.
+     */
+    public static final double NO_SPEED = Double.NaN;
+    private static final double SECONDS_IN_HOUR = 3600;
+    private static final double MINIMUM_DISTANCE_KM = 1;
 
     private final GeoCalculator geoCalculator;
 
@@ -55,10 +61,24 @@ public class SpeedCalculatorService {
      * @return An Optional CarSpeed object containing the calculated speed, or an empty Optional if:
      *         - This is the first position update for the trip (no previous position available)
      *         - The car has not moved at least 1 kilometer since the last position update
+     *         - The position is not at least a whole second later than the previous one (out of order or too close in
+     *         time to give a speed), in which case the previous position is kept
      */
-    public Optional<CarSpeed> calculateCarSpeed(CarPosition currentPosition) {
-        Long tripId = currentPosition.tripId();
-        CarPosition previousPosition = carPositionCache.getByTripId(tripId);
+    public Optional<CarSpeed> calculateCarSpeed(CarPositionView currentPosition) {
+        return calculateCarSpeed(currentPosition, carPositionCache);
+    }
+
+    /**
+     * Calculates the speed of a car like {@link #calculateCarSpeed(CarPositionView)}, from the previous positions of
+     * the given cache instead of the application one, e.g. a state store of the Kafka Streams task.
+     *
+     * @param currentPosition The current car position containing location, timestamp, and identifiers
+     * @param carPositionCache The previous positions of the trips, updated with the current position when needed
+     * @return An Optional CarSpeed object containing the calculated speed, or an empty Optional
+     */
+    public Optional<CarSpeed> calculateCarSpeed(CarPositionView currentPosition, CarPositionCache carPositionCache) {
+        long tripId = currentPosition.tripId();
+        CarPositionView previousPosition = carPositionCache.getByTripId(tripId);
 
         if (previousPosition == null) {
             // This is the first heartbeat of the trip, so save the current position in the cache
@@ -66,12 +86,21 @@ public class SpeedCalculatorService {
             return Optional.empty();
         }
 
-        // Calculate speed
-        CarSpeed speed = calculateSpeed(currentPosition, previousPosition);
+        // Calculate the distance in kilometers
+        double distanceKm = geoCalculator.calculateDistanceInKm(
+                previousPosition.latitude(), previousPosition.longitude(),
+                currentPosition.latitude(), currentPosition.longitude());
         // if the car has moved at least 1 km then return calculated speed
-        if (speed.getDistanceKm().compareTo(BigDecimal.ONE) >= 0) {
+        if (distanceKm >= MINIMUM_DISTANCE_KM) {
+            long secondsDifference = secondsBetween(previousPosition, currentPosition);
+            if (secondsDifference <= 0) {
+                log.warn("Ignoring position of trip {} at {} ms, not after the previous one at {} ms", tripId,
+                        currentPosition.epochMillis(), previousPosition.epochMillis());
+                return Optional.empty();
+            }
+            CarSpeed speed = calculateSpeed(currentPosition, previousPosition, distanceKm, secondsDifference);
             log.info("Calculated speed for car {}: {} km/h",
-                    speed.getCarId(), speed.getSpeedKmh().doubleValue());
+                    speed.getCarId(), speed.getSpeedKmh());
             carPositionCache.save(currentPosition);
             return Optional.of(speed);
 
@@ -81,47 +110,95 @@ public class SpeedCalculatorService {
         return Optional.empty();
     }
 
+    /**
+     * Calculates the speed of a car like {@link #calculateCarSpeed(CarPositionView, CarPositionCache)}, returning the
+     * speed alone: no {@link CarSpeed} or {@link Optional} is created and nothing is logged, for the single pass
+     * topology.
+     *
+     * @param currentPosition The current car position containing location, timestamp, and identifiers
+     * @param carPositionCache The previous positions of the trips, updated with the current position when needed
+     * @return The speed in km/h, or {@link #NO_SPEED} when it is not calculated
+     */
+    public double calculateSpeedKmh(CarPositionView currentPosition, CarPositionCache carPositionCache) {
+        CarPositionView previousPosition = carPositionCache.getByTripId(currentPosition.tripId());
+        if (previousPosition == null) {
+            carPositionCache.save(currentPosition);
+            return NO_SPEED;
+        }
+        double distanceKm = geoCalculator.calculateDistanceInKm(
+                previousPosition.latitude(), previousPosition.longitude(),
+                currentPosition.latitude(), currentPosition.longitude());
+        if (distanceKm < MINIMUM_DISTANCE_KM) {
+            return NO_SPEED;
+        }
+        long secondsDifference = secondsBetween(previousPosition, currentPosition);
+        if (secondsDifference <= 0) {
+            return NO_SPEED;
+        }
+        carPositionCache.save(currentPosition);
+        return speedKmh(distanceKm, secondsDifference);
+    }
+
+    /**
+     * Calculates the speed of a car from a decoded position, see {@link #calculateCarSpeed(CarPositionView)}.
+     * The position is encoded first, so prefer the view based method on hot paths.
+     *
+     * @param currentPosition The current car position containing location, timestamp, and identifiers
+     * @return An Optional CarSpeed object containing the calculated speed, or an empty Optional
+     */
+    public Optional<CarSpeed> calculateCarSpeed(CarPosition currentPosition) {
+        return calculateCarSpeed(CarPositionView.of(currentPosition));
+    }
+
 
     /**
      * Calculates the speed between two car positions.
      * This method performs the actual speed calculation by:
-     * 1. Calculating the distance in kilometers between the two positions using the GeoCalculator
-     * 2. Calculating the time difference in seconds between the position timestamps
-     * 3. Converting the time difference to hours
-     * 4. Calculating the speed in kilometers per hour (km/h)
+     * 1. Calculating the time difference in seconds between the position timestamps
+     * 2. Converting the time difference to hours
+     * 3. Calculating the speed in kilometers per hour (km/h) from the already calculated distance
      * The method also builds a comprehensive CarSpeed object containing all relevant information
      * about the car's movement, including identifiers, locations, timestamps, distance, and speed.
      *
-     * @param current  The current car position containing location and timestamp
-     * @param previous The previous car position containing location and timestamp
+     * @param current    The current car position containing location and timestamp
+     * @param previous   The previous car position containing location and timestamp
+     * @param distanceKm The distance in kilometers between the two positions
+     * @param secondsDifference The time between the two positions in whole seconds, positive
      * @return A CarSpeed object containing the calculated speed and all relevant movement data
      */
-    private CarSpeed calculateSpeed(CarPosition current, CarPosition previous) {
-
-        // Calculate distance in kilometers
-        BigDecimal distanceKm = geoCalculator.calculateDistanceInKm(
-                previous.currentLocation(),
-                current.currentLocation());
+    private CarSpeed calculateSpeed(CarPositionView current, CarPositionView previous, double distanceKm,
+                                    long secondsDifference) {
 
-        // Calculate the time difference in seconds
-        Instant currentTime = current.timestamp();
-        Instant previousTime = previous.timestamp();
-        long secondsDifference = Duration.between(previousTime, currentTime).getSeconds();
-
-        // Convert seconds to hours and calculate speed (km/h)
-        BigDecimal hoursDifference = new BigDecimal(secondsDifference).multiply(HOURS_IN_SECOND);
-        BigDecimal speedKmh = distanceKm.divide(hoursDifference, MATH_CONTEXT);
+        double speedKmh = speedKmh(distanceKm, secondsDifference);
 
         return CarSpeed.builder()
                 .carId(current.carId())
                 .driverId(current.driverId())
                 .tripId(current.tripId())
-                .currentLocation(current.currentLocation())
-                .previousLocation(previous.currentLocation())
-                .currentTimestamp(current.timestamp())
-                .previousTimestamp(previous.timestamp())
+                .currentLocation(location(current))
+                .previousLocation(location(previous))
+                .currentTimestamp(Instant.ofEpochMilli(current.epochMillis()))
+                .previousTimestamp(Instant.ofEpochMilli(previous.epochMillis()))
                 .speedKmh(speedKmh)
                 .distanceKm(distanceKm)
                 .build();
     }
+
+    /**
+     * @return The time difference in whole seconds, zero or negative when the current position is not a whole second
+     * later
+     */
+    private static long secondsBetween(CarPositionView previous, CarPositionView current) {
+        return Math.floorDiv(current.epochMillis() - previous.epochMillis(), 1000L);
+    }
+
+    private static double speedKmh(double distanceKm, long secondsDifference) {
+        // Convert seconds to hours and calculate speed (km/h)
+        return distanceKm / (secondsDifference / SECONDS_IN_HOUR);
+    }
+
+    private static Location location(CarPositionView position) {
+        return new Location(BinaryFormat.fromMicroDegrees(position.latMicros()),
+                BinaryFormat.fromMicroDegrees(position.lonMicros()));
+    }
 }
@@ -0,0 +1,38 @@
+package com.barbu.fleetmanagement.penaltypoints.config;
+
+import com.barbu.fleetmanagement.penaltypoints.application.service.BoundedCarPositionCache;
+import com.barbu.fleetmanagement.penaltypoints.application.service.CarPositionCache;
+import com.barbu.fleetmanagement.penaltypoints.application.service.InMemoryCarPositionCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Produces;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+
+/**
+ * Selects the {@link CarPositionCache} of the process with {@code penalty-points.previous-positions}: a
+ * {@link BoundedCarPositionCache} when {@code bounded}, an {@link InMemoryCarPositionCache} otherwise. It is not used
+ * with the default {@code state-store}, the previous positions being kept in the topology then.
+ */
+@ApplicationScoped
+public class CarPositionCacheConfig {
+
+    @ConfigProperty(name = "penalty-points.previous-positions", defaultValue = "state-store")
+    String previousPositions;
+
+    @ConfigProperty(name = "penalty-points.previous-positions.max-entries", defaultValue = "1000000")
+    int maxEntries;
+
+    @ConfigProperty(name = "penalty-points.previous-positions.max-heartbeat-gap", defaultValue = "5m")
+    Duration maxHeartbeatGap;
+
+    @Produces
+    @ApplicationScoped
+    public CarPositionCache carPositionCache(MeterRegistry meterRegistry) {
+        if ("bounded".equals(previousPositions)) {
+            return new BoundedCarPositionCache(maxEntries, maxHeartbeatGap, meterRegistry);
+        }
+        return new InMemoryCarPositionCache();
+    }
+}
@@ -1,13 +1,9 @@
 package com.barbu.fleetmanagement.penaltypoints.domain;
 
 import com.barbu.fleetmanagement.common.model.Location;
-import lombok.AllArgsConstructor;
 import lombok.Builder;
-import lombok.Data;
 import lombok.Getter;
-import lombok.NoArgsConstructor;
 
-import java.math.BigDecimal;
 import java.time.Instant;
 
 /**
@@ -23,6 +19,6 @@ public class CarSpeed {
     private final Location previousLocation;
     private final Instant currentTimestamp;
     private final Instant previousTimestamp;
-    private final BigDecimal speedKmh;
-    private final BigDecimal distanceKm;
+    private final double speedKmh;
+    private final double distanceKm;
 }
\ No newline at end of file
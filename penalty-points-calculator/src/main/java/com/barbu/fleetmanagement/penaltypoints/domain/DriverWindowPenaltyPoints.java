@@ -0,0 +1,34 @@
+package com.barbu.fleetmanagement.penaltypoints.domain;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * Penalty points of a driver within a time window (a calendar day, a week, the last 12 months), by penalty time.
+ */
+@Setter
+@Getter
+@NoArgsConstructor
+public class DriverWindowPenaltyPoints {
+    private Long driverId;
+    private Instant windowStart;
+    private Instant windowEnd;
+    private int totalPoints;
+    private Instant lastPenaltyTime;
+    /**
+     * Time of the penalty added last, earlier than {@link #lastPenaltyTime} when it arrived late.
+     */
+    private Instant addedPenaltyTime;
+
+    public DriverWindowPenaltyPoints addPenaltyPoints(PenaltyPoints penaltyPoints) {
+        this.totalPoints += penaltyPoints.penaltyPoints();
+        this.addedPenaltyTime = penaltyPoints.penaltyTime();
+        if (lastPenaltyTime == null || penaltyPoints.penaltyTime().isAfter(lastPenaltyTime)) {
+            this.lastPenaltyTime = penaltyPoints.penaltyTime();
+        }
+        return this;
+    }
+}
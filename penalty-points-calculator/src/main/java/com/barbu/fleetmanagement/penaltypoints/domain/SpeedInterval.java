@@ -16,10 +16,26 @@ public enum SpeedInterval {
     private final double upperLimit;
     private final int penaltyPointsPerKm;
 
+    private static final SpeedInterval[] INTERVALS = values();
+
     public static Optional<SpeedInterval> getInterval(double speedKmPerHour) {
         return Arrays.stream(values())
                 .filter(interval -> speedKmPerHour >= interval.getLowerLimit() && speedKmPerHour <= interval.getUpperLimit())
                 .findFirst();
     }
 
+    /**
+     * Penalty points per km of a speed, without allocating unlike {@link #getInterval(double)}.
+     *
+     * @return The penalty points per km of the interval of the speed, 0 when it is in none or is not a number
+     */
+    public static int getPenaltyPointsPerKm(double speedKmPerHour) {
+        for (SpeedInterval interval : INTERVALS) {
+            if (speedKmPerHour >= interval.lowerLimit && speedKmPerHour <= interval.upperLimit) {
+                return interval.penaltyPointsPerKm;
+            }
+        }
+        return 0;
+    }
+
 }
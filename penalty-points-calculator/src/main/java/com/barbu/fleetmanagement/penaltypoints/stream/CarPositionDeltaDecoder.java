@@ -0,0 +1,116 @@
+package com.barbu.fleetmanagement.penaltypoints.stream;
+
+import com.barbu.fleetmanagement.common.codec.BinaryFormat;
+import com.barbu.fleetmanagement.common.codec.CarPositionCodec;
+import com.barbu.fleetmanagement.common.codec.CarPositionDeltaCodec;
+import com.barbu.fleetmanagement.common.codec.CarPositionView;
+import com.barbu.fleetmanagement.common.codec.CarPositionViewDeserializer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.streams.processor.PunctuationType;
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+
+import java.nio.BufferUnderflowException;
+import java.time.Duration;
+
+/**
+ * Reads the records of the car position topic, which may hold both full position records and delta encoded ones (see
+ * {@link CarPositionDeltaCodec}), and forwards them as {@link CarPositionView}, with the time of the position as
+ * record time.
+ * <p>
+ * Full positions are wrapped as they are. For delta encoded records the last position of every trip is kept in the
+ * {@link DeltaPositionStore} of the task, backed by a changelog topic, so the decoding goes on after a restart or a
+ * rebalance:
+ * <ul>
+ *   <li>a keyframe replaces the last position of its trip</li>
+ *   <li>a delta is applied to the last position of its trip and replaces it</li>
+ *   <li>a delta without last position or out of sequence (a missing or repeated record) is dropped, as are the
+ *   following deltas of the trip until its next keyframe</li>
+ * </ul>
+ * Every {@code penalty-points.previous-positions.expiry-interval} the trips without any position for
+ * {@code penalty-points.previous-positions.ttl} are removed.
+ */
+@Slf4j
+public class CarPositionDeltaDecoder implements Processor<String, byte[], String, CarPositionView> {
+
+    public static final String DELTA_POSITIONS_STORE = DeltaPositionStore.NAME;
+
+    private final CarPositionViewDeserializer carPositionViewDeserializer = new CarPositionViewDeserializer();
+    private final Duration ttl;
+    private final Duration expiryInterval;
+
+    private ProcessorContext<String, CarPositionView> context;
+    private DeltaPositionStore deltaPositions;
+
+    public CarPositionDeltaDecoder(Duration ttl, Duration expiryInterval) {
+        this.ttl = ttl;
+        this.expiryInterval = expiryInterval;
+    }
+
+    @Override
+    public void init(ProcessorContext<String, CarPositionView> context) {
+        this.context = context;
+        this.deltaPositions = new DeltaPositionStore(context.getStateStore(DELTA_POSITIONS_STORE), ttl);
+        context.schedule(expiryInterval, PunctuationType.WALL_CLOCK_TIME, _ -> expire());
+    }
+
+    @Override
+    public void process(Record<String, byte[]> record) {
+        CarPositionView carPosition;
+        try {
+            carPosition = decode(record);
+        } catch (SerializationException | IllegalArgumentException | BufferUnderflowException e) {
+            // like the deserialization errors of the other topics, see default.deserialization.exception.handler
+            log.warn("Skipping a car position which cannot be decoded: {}", e.getMessage());
+            return;
+        }
+        if (carPosition != null) {
+            deltaPositions.seen(carPosition.epochMillis());
+            context.forward(record.withValue(carPosition).withTimestamp(carPosition.epochMillis()));
+        }
+    }
+
+    /**
+     * Removes the positions older than the TTL.
+     */
+    void expire() {
+        deltaPositions.expire();
+    }
+
+    private CarPositionView decode(Record<String, byte[]> record) {
+        byte[] data = record.value();
+        if (data == null || BinaryFormat.version(record.headers()) != CarPositionDeltaCodec.VERSION) {
+            return carPositionViewDeserializer.deserialize(null, record.headers(), data);
+        }
+        return switch (CarPositionDeltaCodec.frameType(data)) {
+            case CarPositionDeltaCodec.KEYFRAME -> applyKeyframe(CarPositionDeltaCodec.keyframe(data));
+            case CarPositionDeltaCodec.DELTA -> applyDelta(CarPositionDeltaCodec.decodeDelta(data));
+            default -> throw new SerializationException("Unknown car position frame type " + data[0]);
+        };
+    }
+
+    private CarPositionView applyKeyframe(CarPositionView keyframe) {
+        deltaPositions.save(0, keyframe);
+        return keyframe;
+    }
+
+    private CarPositionView applyDelta(CarPositionDeltaCodec.Delta delta) {
+        CarPositionView previous = deltaPositions.previous(delta.tripId(), delta.sequence());
+        if (previous == null) {
+            log.debug("Dropping delta {} of trip {} while waiting for a keyframe", delta.sequence(), delta.tripId());
+            deltaPositions.delete(delta.tripId());
+            return null;
+        }
+        CarPositionView current = new CarPositionView(CarPositionCodec.encode(
+                previous.latMicros() + delta.latitudeDelta(),
+                previous.lonMicros() + delta.longitudeDelta(),
+                previous.epochMillis() + delta.timestampDelta(),
+                previous.carId(),
+                previous.driverId(),
+                delta.tripId()));
+        deltaPositions.save(delta.sequence(), current);
+        return current;
+    }
+}
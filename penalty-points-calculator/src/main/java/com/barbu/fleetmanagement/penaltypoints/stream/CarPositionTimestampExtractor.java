@@ -0,0 +1,55 @@
+package com.barbu.fleetmanagement.penaltypoints.stream;
+
+import com.barbu.fleetmanagement.common.codec.BinaryFormat;
+import com.barbu.fleetmanagement.common.codec.CarPositionCodec;
+import com.barbu.fleetmanagement.common.codec.CarPositionDeltaCodec;
+import com.barbu.fleetmanagement.common.codec.CarPositionView;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.streams.processor.TimestampExtractor;
+
+import java.util.List;
+
+/**
+ * Uses the time of the car positions as record time instead of the time they were produced at, so that the penalty
+ * points are windowed by the time the car was speeding, also when the positions are replayed or simulated on an
+ * accelerated clock.
+ * <p>
+ * A batch takes the time of its first position, the positions of a batch spanning a single flush. The records of the
+ * car position topic are read as bytes, decoded afterwards by the {@link CarPositionDeltaDecoder}: full positions and
+ * keyframes take the time of their position, a delta, whose time depends on the previous position of its trip, takes
+ * the time of the partition until the decoder sets it.
+ */
+public class CarPositionTimestampExtractor implements TimestampExtractor {
+
+    @Override
+    public long extract(ConsumerRecord<Object, Object> record, long partitionTime) {
+        if (record.value() instanceof byte[] bytes) {
+            return extract(bytes, record, partitionTime);
+        }
+        if (record.value() instanceof CarPositionView carPosition) {
+            return carPosition.epochMillis();
+        }
+        if (record.value() instanceof List<?> batch && !batch.isEmpty()
+                && batch.getFirst() instanceof CarPositionView carPosition) {
+            return carPosition.epochMillis();
+        }
+        return record.timestamp();
+    }
+
+    private static long extract(byte[] bytes, ConsumerRecord<Object, Object> record, long partitionTime) {
+        try {
+            int version = BinaryFormat.version(record.headers());
+            if (version == CarPositionCodec.VERSION) {
+                return new CarPositionView(bytes).epochMillis();
+            }
+            if (version == CarPositionDeltaCodec.VERSION
+                    && CarPositionDeltaCodec.frameType(bytes) == CarPositionDeltaCodec.KEYFRAME) {
+                return CarPositionDeltaCodec.keyframe(bytes).epochMillis();
+            }
+        } catch (RuntimeException e) {
+            // not a position, skipped by the decoder
+            return record.timestamp();
+        }
+        return partitionTime >= 0 ? partitionTime : record.timestamp();
+    }
+}
@@ -0,0 +1,103 @@
+package com.barbu.fleetmanagement.penaltypoints.stream;
+
+import com.barbu.fleetmanagement.common.codec.CarPositionView;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.state.KeyValueIterator;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.apache.kafka.streams.state.StoreBuilder;
+import org.apache.kafka.streams.state.Stores;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The last decoded position of every trip of a delta encoded stream and its sequence number since the keyframe of the
+ * trip, in the {@value #NAME} state store of a task, keyed by trip ID, removing the trips without any position for a
+ * TTL.
+ * <p>
+ * Every value is the sequence number, 8 bytes, followed by the encoded position. Like {@link PreviousPositionStore}
+ * the time is the latest position timestamp {@link #seen(long) seen} by the task rather than the wall clock.
+ */
+@Slf4j
+final class DeltaPositionStore {
+
+    static final String NAME = "delta-positions-store";
+
+    private static final int SEQUENCE_SIZE = Long.BYTES;
+
+    private final KeyValueStore<Long, byte[]> store;
+    private final Duration ttl;
+    private long latestEpochMillis = Long.MIN_VALUE;
+
+    DeltaPositionStore(KeyValueStore<Long, byte[]> store, Duration ttl) {
+        this.store = store;
+        this.ttl = ttl;
+    }
+
+    /**
+     * Persistent store backed by a changelog topic.
+     */
+    static StoreBuilder<KeyValueStore<Long, byte[]>> builder() {
+        return Stores.keyValueStoreBuilder(Stores.persistentKeyValueStore(NAME), Serdes.Long(), Serdes.ByteArray());
+    }
+
+    /**
+     * The last position of a trip when a delta of a sequence number follows it, {@code null} otherwise.
+     */
+    CarPositionView previous(long tripId, long sequence) {
+        byte[] value = store.get(tripId);
+        if (value == null || ByteBuffer.wrap(value).getLong() != sequence - 1) {
+            return null;
+        }
+        return position(value);
+    }
+
+    void save(long sequence, CarPositionView carPosition) {
+        ByteBuffer value = ByteBuffer.allocate(SEQUENCE_SIZE + carPosition.length());
+        value.putLong(sequence);
+        carPosition.writeTo(value);
+        store.put(carPosition.tripId(), value.array());
+    }
+
+    void delete(long tripId) {
+        store.delete(tripId);
+    }
+
+    /**
+     * Moves the time of the store forward to the timestamp of a decoded position.
+     */
+    void seen(long epochMillis) {
+        latestEpochMillis = Math.max(latestEpochMillis, epochMillis);
+    }
+
+    /**
+     * Removes the positions older than the TTL.
+     */
+    void expire() {
+        if (latestEpochMillis == Long.MIN_VALUE) {
+            return;
+        }
+        long expiredBefore = latestEpochMillis - ttl.toMillis();
+        List<Long> expiredTripIds = new ArrayList<>();
+        try (KeyValueIterator<Long, byte[]> positions = store.all()) {
+            while (positions.hasNext()) {
+                KeyValue<Long, byte[]> position = positions.next();
+                if (position(position.value).epochMillis() < expiredBefore) {
+                    expiredTripIds.add(position.key);
+                }
+            }
+        }
+        expiredTripIds.forEach(store::delete);
+        if (!expiredTripIds.isEmpty()) {
+            log.info("Expired the delta decoding positions of {} trips", expiredTripIds.size());
+        }
+    }
+
+    private static CarPositionView position(byte[] value) {
+        return new CarPositionView(value, SEQUENCE_SIZE, value.length - SEQUENCE_SIZE);
+    }
+}
@@ -0,0 +1,207 @@
+package com.barbu.fleetmanagement.penaltypoints.stream;
+
+import com.barbu.fleetmanagement.penaltypoints.domain.DriverPenaltyPoints;
+import com.barbu.fleetmanagement.penaltypoints.domain.DriverWindowPenaltyPoints;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.KafkaStreams;
+import org.apache.kafka.streams.KeyQueryMetadata;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.StoreQueryParameters;
+import org.apache.kafka.streams.StreamsMetadata;
+import org.apache.kafka.streams.errors.InvalidStateStoreException;
+import org.apache.kafka.streams.state.HostInfo;
+import org.apache.kafka.streams.state.KeyValueIterator;
+import org.apache.kafka.streams.state.QueryableStoreTypes;
+import org.apache.kafka.streams.state.ReadOnlyKeyValueStore;
+import org.apache.kafka.streams.state.ReadOnlyWindowStore;
+import org.apache.kafka.streams.state.WindowStoreIterator;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Interactive queries of the driver penalty points kept by this instance, in the {@code driver-points-store} and in
+ * the window stores of the {@link PenaltyPointsWindows}, and of the Kafka Streams metadata telling which instance keeps
+ * the points of a driver.
+ * <p>
+ * The instances find each other with {@code kafka-streams.application.server}, the host and HTTP port every instance
+ * advertises. Without it the instance is alone and keeps the points of all the drivers. The stores cannot be queried
+ * while their partitions are rebalanced or restored, which is signalled by an {@link InvalidStateStoreException}.
+ */
+@ApplicationScoped
+public class DriverPointsStores {
+
+    @Inject
+    KafkaStreams kafkaStreams;
+
+    @Inject
+    PenaltyPointsTopology penaltyPointsTopology;
+
+    @ConfigProperty(name = "kafka-streams.application.server")
+    Optional<String> applicationServer;
+
+    public DriverPenaltyPoints get(long driverId) {
+        return driverPointsStore().get(Long.toString(driverId));
+    }
+
+    /**
+     * The points of the drivers with an ID between two IDs, included, ordered by driver ID.
+     */
+    public List<DriverPenaltyPoints> range(long fromDriverId, long toDriverId) {
+        return range(driverPointsStore(), fromDriverId, toDriverId);
+    }
+
+    /**
+     * The points of a driver in the windows starting between two times, included, ordered by window start.
+     */
+    public List<DriverWindowPenaltyPoints> fetch(PenaltyPointsWindows windows, long driverId, Instant from,
+                                                 Instant to) {
+        ReadOnlyWindowStore<String, DriverWindowPenaltyPoints> store = kafkaStreams.store(StoreQueryParameters
+                .fromNameAndType(windows.storeName(), QueryableStoreTypes.windowStore()));
+        List<DriverWindowPenaltyPoints> windowPoints = new ArrayList<>();
+        try (WindowStoreIterator<DriverWindowPenaltyPoints> entries = store.fetch(Long.toString(driverId), from, to)) {
+            while (entries.hasNext()) {
+                KeyValue<Long, DriverWindowPenaltyPoints> entry = entries.next();
+                // the DSL aggregation only sets the window when publishing it
+                DriverWindowPenaltyPoints points = entry.value;
+                points.setDriverId(driverId);
+                points.setWindowStart(Instant.ofEpochMilli(entry.key));
+                points.setWindowEnd(Instant.ofEpochMilli(entry.key + windows.size()));
+                windowPoints.add(points);
+            }
+        }
+        return windowPoints;
+    }
+
+    /**
+     * The windows of a name ({@code daily}, {@code weekly} or {@code rolling}), empty when unknown or disabled.
+     */
+    public Optional<PenaltyPointsWindows> windows(String name) {
+        return penaltyPointsTopology.penaltyPointsWindows().stream()
+                .filter(windows -> windows.name().equals(name))
+                .findFirst();
+    }
+
+    /**
+     * The instance keeping the points of a driver in a store, empty when it is this one.
+     */
+    public Optional<HostInfo> remoteOwner(String storeName, long driverId) {
+        if (applicationServer.isEmpty()) {
+            return Optional.empty();
+        }
+        KeyQueryMetadata metadata = kafkaStreams.queryMetadataForKey(storeName, Long.toString(driverId),
+                Serdes.String().serializer());
+        if (metadata == null || HostInfo.unavailable().equals(metadata.activeHost())) {
+            throw new InvalidStateStoreException("The instance keeping the points of driver " + driverId + " in "
+                    + storeName + " is not known yet");
+        }
+        return metadata.activeHost().equals(self()) ? Optional.empty() : Optional.of(metadata.activeHost());
+    }
+
+    /**
+     * The other instances keeping points of drivers in a store.
+     */
+    public List<HostInfo> remoteInstances(String storeName) {
+        if (applicationServer.isEmpty()) {
+            return List.of();
+        }
+        HostInfo self = self();
+        return kafkaStreams.streamsMetadataForStore(storeName).stream()
+                .map(StreamsMetadata::hostInfo)
+                .filter(host -> !host.equals(self))
+                .distinct()
+                .toList();
+    }
+
+    private HostInfo self() {
+        return HostInfo.buildFromEndpoint(applicationServer.orElseThrow());
+    }
+
+    private ReadOnlyKeyValueStore<String, DriverPenaltyPoints> driverPointsStore() {
+        return kafkaStreams.store(StoreQueryParameters
+                .fromNameAndType(PenaltyPointsProcessor.DRIVER_POINTS_STORE, QueryableStoreTypes.keyValueStore()));
+    }
+
+    /**
+     * The values of the keys of a store between two driver IDs, included, ordered by driver ID.
+     * <p>
+     * The IDs are stored as strings, ordered lexicographically, which matches their numeric order only between IDs of
+     * the same number of digits: the range is split at every power of ten, see {@link #driverIdRanges}. A scan between
+     * two keys also returns the keys of other lengths sorted between them, {@code "100"} or {@code "5"} between
+     * {@code "10"} and {@code "15"}, which are skipped, being read by the scan of their own number of digits:
+     * <ul>
+     *   <li>a shorter key is a single entry, the scan goes on</li>
+     *   <li>a longer key comes first of all the longer keys of its prefix, {@code "100"} to {@code "109..."} for the
+     *   prefix {@code "10"}, the scan starts again from the next prefix, {@code "11"}, instead of reading them</li>
+     * </ul>
+     * So a range of short IDs reads one entry per prefix of the longer IDs it meets, not all the longer IDs.
+     */
+    static <V> List<V> range(ReadOnlyKeyValueStore<String, V> store, long fromDriverId, long toDriverId) {
+        List<V> values = new ArrayList<>();
+        for (DriverIdRange range : driverIdRanges(fromDriverId, toDriverId)) {
+            String from = range.from();
+            while (from != null) {
+                from = scan(store, from, range.to(), values);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Adds the values of the keys between two keys of the same number of digits, until a longer key.
+     *
+     * @return The key to scan from after the longer keys sharing the prefix of the longer key met, null when the
+     * range is done
+     */
+    private static <V> String scan(ReadOnlyKeyValueStore<String, V> store, String from, String to, List<V> values) {
+        int digits = to.length();
+        try (KeyValueIterator<String, V> entries = store.range(from, to)) {
+            while (entries.hasNext()) {
+                KeyValue<String, V> entry = entries.next();
+                if (entry.key.length() == digits) {
+                    values.add(entry.value);
+                } else if (entry.key.length() > digits) {
+                    // the prefix is lower than the upper key, which sorts before its own longer keys
+                    return Long.toString(Long.parseLong(entry.key.substring(0, digits)) + 1);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Splits a range of driver IDs into ranges of IDs of the same number of digits.
+     */
+    static List<DriverIdRange> driverIdRanges(long fromDriverId, long toDriverId) {
+        List<DriverIdRange> ranges = new ArrayList<>();
+        long from = fromDriverId;
+        while (from <= toDriverId) {
+            long to = Math.min(toDriverId, largestWithSameDigits(from));
+            ranges.add(new DriverIdRange(Long.toString(from), Long.toString(to)));
+            if (to == Long.MAX_VALUE) {
+                break;
+            }
+            from = to + 1;
+        }
+        return ranges;
+    }
+
+    private static long largestWithSameDigits(long driverId) {
+        long largest = 9;
+        while (largest < driverId) {
+            if (largest > (Long.MAX_VALUE - 9) / 10) {
+                return Long.MAX_VALUE;
+            }
+            largest = largest * 10 + 9;
+        }
+        return largest;
+    }
+
+    record DriverIdRange(String from, String to) {
+    }
+}
@@ -0,0 +1,143 @@
+package com.barbu.fleetmanagement.penaltypoints.stream;
+
+import com.barbu.fleetmanagement.common.codec.CarPositionView;
+import com.barbu.fleetmanagement.penaltypoints.application.service.CarPositionCache;
+import com.barbu.fleetmanagement.penaltypoints.application.service.SpeedCalculatorService;
+import com.barbu.fleetmanagement.penaltypoints.domain.DriverPenaltyPoints;
+import com.barbu.fleetmanagement.penaltypoints.domain.DriverWindowPenaltyPoints;
+import com.barbu.fleetmanagement.penaltypoints.domain.PenaltyPoints;
+import com.barbu.fleetmanagement.penaltypoints.domain.SpeedInterval;
+import org.apache.kafka.streams.processor.PunctuationType;
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.apache.kafka.streams.state.WindowStore;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Single pass counterpart of the DSL topology ({@code penalty-points.topology=processor}): for every car position it
+ * <ol>
+ *   <li>calculates the speed with {@link SpeedCalculatorService#calculateSpeedKmh}, as a primitive</li>
+ *   <li>classifies it with {@link SpeedInterval#getPenaltyPointsPerKm(double)}, once</li>
+ *   <li>when it is penalized, forwards the {@link PenaltyPoints} to the {@value #PENALTY_POINTS_SINK}, adds them to
+ *   the total of the driver in the {@value #DRIVER_POINTS_STORE} and forwards the new total to the
+ *   {@value #DRIVER_POINTS_SINK}</li>
+ *   <li>adds them to the totals of the driver in the window stores of the {@link PenaltyPointsWindows} containing
+ *   the record time, and forwards the current window of each to its sink</li>
+ * </ol>
+ * The positions are already keyed by driver ID, so the totals are updated in the task of the position, without
+ * repartition topic. Unlike the DSL aggregation, which goes through the record cache, every new total is forwarded.
+ * Like the DSL windowed aggregation, the windows closed for more than their grace period by the latest record time are
+ * left unchanged.
+ * <p>
+ * The previous positions are kept in the {@link PreviousPositionStore} of the task, expired every expiry interval,
+ * unless a {@link CarPositionCache} of the process is given.
+ */
+public class PenaltyPointsProcessor implements Processor<String, CarPositionView, String, Object> {
+
+    public static final String DRIVER_POINTS_STORE = "driver-points-store";
+    public static final String PENALTY_POINTS_SINK = "penalty-points-sink";
+    public static final String DRIVER_POINTS_SINK = "driver-points-sink";
+
+    private final SpeedCalculatorService speedCalculatorService;
+    private final CarPositionCache carPositionCache;
+    private final Duration ttl;
+    private final Duration expiryInterval;
+    private final List<PenaltyPointsWindows> windows;
+
+    private ProcessorContext<String, Object> context;
+    private KeyValueStore<String, DriverPenaltyPoints> driverPoints;
+    private PreviousPositionStore previousPositionStore;
+    private CarPositionCache previousPositions;
+    private final List<WindowStore<String, DriverWindowPenaltyPoints>> windowStores = new ArrayList<>();
+    private long streamTime = Long.MIN_VALUE;
+
+    /**
+     * @param carPositionCache The previous positions of the process, {@code null} to keep them in the state store
+     */
+    public PenaltyPointsProcessor(SpeedCalculatorService speedCalculatorService, CarPositionCache carPositionCache,
+                                  Duration ttl, Duration expiryInterval, List<PenaltyPointsWindows> windows) {
+        this.speedCalculatorService = speedCalculatorService;
+        this.carPositionCache = carPositionCache;
+        this.ttl = ttl;
+        this.expiryInterval = expiryInterval;
+        this.windows = windows;
+    }
+
+    @Override
+    public void init(ProcessorContext<String, Object> context) {
+        this.context = context;
+        this.driverPoints = context.getStateStore(DRIVER_POINTS_STORE);
+        windows.forEach(window -> windowStores.add(context.getStateStore(window.storeName())));
+        if (carPositionCache != null) {
+            previousPositions = carPositionCache;
+            return;
+        }
+        previousPositionStore = new PreviousPositionStore(context.getStateStore(PreviousPositionStore.NAME), ttl);
+        previousPositions = previousPositionStore;
+        context.schedule(expiryInterval, PunctuationType.WALL_CLOCK_TIME, _ -> previousPositionStore.expire());
+    }
+
+    @Override
+    public void process(Record<String, CarPositionView> record) {
+        CarPositionView carPosition = record.value();
+        if (carPosition == null) {
+            // a delta encoded position which could not be decoded
+            return;
+        }
+        streamTime = Math.max(streamTime, record.timestamp());
+        if (previousPositionStore != null) {
+            previousPositionStore.seen(carPosition.epochMillis());
+        }
+        int penaltyPointsPerKm = SpeedInterval.getPenaltyPointsPerKm(
+                speedCalculatorService.calculateSpeedKmh(carPosition, previousPositions));
+        if (penaltyPointsPerKm == 0) {
+            return;
+        }
+
+        PenaltyPoints penaltyPoints = new PenaltyPoints(carPosition.driverId(), carPosition.tripId(),
+                carPosition.carId(), penaltyPointsPerKm, Instant.ofEpochMilli(carPosition.epochMillis()));
+        context.forward(record.withValue(penaltyPoints), PENALTY_POINTS_SINK);
+
+        DriverPenaltyPoints total = driverPoints.get(record.key());
+        if (total == null) {
+            total = new DriverPenaltyPoints();
+            total.setDriverId(Long.parseLong(record.key()));
+        }
+        total.addPenaltyPoint(penaltyPointsPerKm);
+        driverPoints.put(record.key(), total);
+        context.forward(record.withValue(total), DRIVER_POINTS_SINK);
+
+        for (int i = 0; i < windows.size(); i++) {
+            addToWindows(record, penaltyPoints, windows.get(i), windowStores.get(i));
+        }
+    }
+
+    private void addToWindows(Record<String, CarPositionView> record, PenaltyPoints penaltyPoints,
+                              PenaltyPointsWindows window, WindowStore<String, DriverWindowPenaltyPoints> store) {
+        long currentWindowStart = window.currentWindowStart(record.timestamp());
+        for (long windowStart = currentWindowStart; windowStart <= record.timestamp();
+             windowStart += window.advanceMs()) {
+            if (windowStart + window.size() + window.gracePeriodMs() <= streamTime) {
+                continue;
+            }
+            DriverWindowPenaltyPoints windowPoints = store.fetch(record.key(), windowStart);
+            if (windowPoints == null) {
+                windowPoints = new DriverWindowPenaltyPoints();
+                windowPoints.setDriverId(Long.parseLong(record.key()));
+                windowPoints.setWindowStart(Instant.ofEpochMilli(windowStart));
+                windowPoints.setWindowEnd(Instant.ofEpochMilli(windowStart + window.size()));
+            }
+            windowPoints.addPenaltyPoints(penaltyPoints);
+            store.put(record.key(), windowPoints, windowStart);
+            if (windowStart == currentWindowStart) {
+                context.forward(record.withValue(windowPoints), window.sinkName());
+            }
+        }
+    }
+}
@@ -1,9 +1,11 @@
 package com.barbu.fleetmanagement.penaltypoints.stream;
 
-import com.barbu.fleetmanagement.common.model.CarPosition;
+import com.barbu.fleetmanagement.common.codec.CarPositionView;
+import com.barbu.fleetmanagement.penaltypoints.application.service.CarPositionCache;
 import com.barbu.fleetmanagement.penaltypoints.application.service.SpeedCalculatorService;
 import com.barbu.fleetmanagement.penaltypoints.domain.CarSpeed;
 import com.barbu.fleetmanagement.penaltypoints.domain.DriverPenaltyPoints;
+import com.barbu.fleetmanagement.penaltypoints.domain.DriverWindowPenaltyPoints;
 import com.barbu.fleetmanagement.penaltypoints.domain.PenaltyPoints;
 import com.barbu.fleetmanagement.penaltypoints.domain.SpeedInterval;
 import jakarta.enterprise.context.ApplicationScoped;
@@ -12,12 +14,18 @@ import jakarta.inject.Inject;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.common.serialization.Serdes;
 import org.apache.kafka.common.utils.Bytes;
+import org.apache.kafka.streams.KeyValue;
 import org.apache.kafka.streams.StreamsBuilder;
 import org.apache.kafka.streams.Topology;
 import org.apache.kafka.streams.kstream.*;
 import org.apache.kafka.streams.state.KeyValueStore;
+import org.apache.kafka.streams.state.Stores;
+import org.apache.kafka.streams.state.WindowStore;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -32,9 +40,20 @@ import java.util.Optional;
  *   <li>Publishes individual penalty point events</li>
  *   <li>Aggregates penalty points by driver</li>
  *   <li>Publishes driver penalty point totals when they change</li>
+ *   <li>Unless disabled, totals them per driver and calendar day, calendar week and rolling 12 months too, each
+ *   published to its own topic, see {@link PenaltyPointsWindows}</li>
  * </ol>
  * <p>
- * The topology maintains a state store to track the accumulated penalty points for each driver.
+ * The record time of the positions is their own time, see {@link CarPositionTimestampExtractor}, so the windows are
+ * those of the penalty times rather than of the processing times.
+ * <p>
+ * The topology maintains a state store to track the accumulated penalty points for each driver, one for the last
+ * position of each delta encoded trip, see {@link CarPositionDeltaDecoder}, and, unless
+ * {@code penalty-points.previous-positions=in-memory}, another one for the previous position of each trip, see
+ * {@link SpeedCalculatorProcessor}.
+ * <p>
+ * With {@code penalty-points.topology=processor} the same results are calculated by a single
+ * {@link PenaltyPointsProcessor} instead of the chain of DSL operations, see {@link #buildProcessorTopology()}.
  */
 @Slf4j
 @ApplicationScoped
@@ -43,6 +62,9 @@ public class PenaltyPointsTopology {
     @Inject
     SpeedCalculatorService speedCalculatorService;
 
+    @Inject
+    CarPositionCache carPositionCache;
+
     /**
      * The name of the Kafka topic where driver penalty point totals are published.
      * This topic receives events when a driver's total penalty points change.
@@ -57,13 +79,96 @@ public class PenaltyPointsTopology {
     @ConfigProperty(name = "penalty.points.topic")
     String penaltyPointsTopic;
 
+    /**
+     * Whether car positions published in batches are consumed too, next to the single position records.
+     */
+    @ConfigProperty(name = "car.position.batch.enabled", defaultValue = "false")
+    boolean carPositionBatchEnabled;
+
+    /**
+     * The name of the Kafka topic where car positions are published in batches, keyed by partition key bucket.
+     */
+    @ConfigProperty(name = "car.position.batch.topic", defaultValue = "fleet-management.car.position.batch")
+    String carPositionBatchTopic;
+
+    /**
+     * Whether the penalty points are totalled per calendar day, calendar week and rolling 12 months too.
+     */
+    @ConfigProperty(name = "penalty-points.windows.enabled", defaultValue = "true")
+    boolean windowsEnabled;
+
+    /**
+     * How long after its end a window still accepts penalty points, for positions arriving out of order.
+     */
+    @ConfigProperty(name = "penalty-points.windows.grace", defaultValue = "1h")
+    Duration windowsGrace;
+
+    @ConfigProperty(name = "penalty-points.windows.daily.retention", defaultValue = "35d")
+    Duration dailyRetention;
+
+    @ConfigProperty(name = "penalty-points.windows.daily.topic",
+            defaultValue = "fleet-management.driver.penalty-points.daily")
+    String dailyTopic;
+
+    @ConfigProperty(name = "penalty-points.windows.weekly.retention", defaultValue = "91d")
+    Duration weeklyRetention;
+
+    @ConfigProperty(name = "penalty-points.windows.weekly.topic",
+            defaultValue = "fleet-management.driver.penalty-points.weekly")
+    String weeklyTopic;
+
+    @ConfigProperty(name = "penalty-points.windows.rolling.size", defaultValue = "365d")
+    Duration rollingSize;
+
+    /**
+     * How often a rolling window starts, every penalty being added to {@code size / advance} windows.
+     */
+    @ConfigProperty(name = "penalty-points.windows.rolling.advance", defaultValue = "1d")
+    Duration rollingAdvance;
+
+    @ConfigProperty(name = "penalty-points.windows.rolling.retention", defaultValue = "366d")
+    Duration rollingRetention;
+
+    @ConfigProperty(name = "penalty-points.windows.rolling.topic",
+            defaultValue = "fleet-management.driver.penalty-points.rolling")
+    String rollingTopic;
+
+    /**
+     * How the topology is built: {@code dsl} (chain of DSL operations) or {@code processor} (single processor).
+     */
+    @ConfigProperty(name = "penalty-points.topology", defaultValue = "dsl")
+    String topology;
+
+    /**
+     * Where the previous position of every trip is kept: {@code state-store} (a state store of the topology, backed by
+     * a changelog topic) or, lost on restart, the {@link
+     * com.barbu.fleetmanagement.penaltypoints.application.service.CarPositionCache} of the process.
+     */
+    @ConfigProperty(name = "penalty-points.previous-positions", defaultValue = "state-store")
+    String previousPositions;
+
+    /**
+     * How long the previous position of a trip, and the last position of a delta encoded trip, are kept in the state
+     * stores without any new position.
+     */
+    @ConfigProperty(name = "penalty-points.previous-positions.ttl", defaultValue = "10m")
+    Duration previousPositionsTtl;
+
+    /**
+     * How often the positions older than the TTL are removed from the state stores.
+     */
+    @ConfigProperty(name = "penalty-points.previous-positions.expiry-interval", defaultValue = "1m")
+    Duration previousPositionsExpiryInterval;
+
     /**
      * Produces the Kafka Streams topology.
      * <p>
      * This method builds a Kafka Streams processing topology that:
      * <ol>
-     *   <li>Creates a stream from the car position topic</li>
-     *   <li>Calculates speeds for each car position using the SpeedCalculatorService</li>
+     *   <li>Creates a stream from the car position topic, decoding delta encoded positions</li>
+     *   <li>If enabled, merges in the positions of the car position batch topic, flattened and keyed by driver ID</li>
+     *   <li>Calculates speeds for each car position using the SpeedCalculatorService, from the previous positions
+     *   kept in a state store</li>
      *   <li>Filters out positions where speed couldn't be calculated (car hasn't moved enough)</li>
      *   <li>Filters out speeds that don't fall within defined penalty intervals</li>
      *   <li>Maps speed data to penalty points based on the speed intervals</li>
@@ -71,30 +176,43 @@ public class PenaltyPointsTopology {
      *   <li>Groups penalty points by driver ID</li>
      *   <li>Aggregates penalty points for each driver in a state store</li>
      *   <li>Publishes driver penalty point totals to the driver penalty points topic</li>
+     *   <li>If enabled, aggregates penalty points for each driver and window in window stores, publishing the
+     *   current windows to their topics</li>
      * </ol>
      *
      * @return A configured Kafka Streams Topology ready for execution
      */
     @Produces
     public Topology buildTopology() {
+        if ("processor".equals(topology)) {
+            return buildProcessorTopology();
+        }
         StreamsBuilder builder = new StreamsBuilder();
 
         // Create a stream of car positions from the input topic
-        KStream<String, CarPosition> carPositions = builder.stream(
+        // Positions are read in place from the record bytes, see CarPositionView. Delta encoded positions are decoded
+        // from the last position of their trip, those which cannot be decoded are skipped
+        builder.addStateStore(DeltaPositionStore.builder());
+        KStream<String, CarPositionView> carPositions = builder.stream(
                 "fleet-management.car.position",
-                Consumed.with(Serdes.String(), SerdesFactory.carPositionSerde())
-        );
+                Consumed.with(Serdes.String(), Serdes.ByteArray())
+                        .withTimestampExtractor(new CarPositionTimestampExtractor())
+        ).process(this::carPositionDeltaDecoder, CarPositionDeltaDecoder.DELTA_POSITIONS_STORE);
+        if (carPositionBatchEnabled) {
+            carPositions = carPositions.merge(builder
+                    .stream(carPositionBatchTopic, Consumed.with(Serdes.String(), SerdesFactory.carPositionBatchViewSerde())
+                            .withTimestampExtractor(new CarPositionTimestampExtractor()))
+                    .flatMap((_, batch) -> unbatch(batch)));
+        }
 
         // Calculate speed for each car position if the car has moved at least 1 km
-        carPositions
-                .mapValues(carPosition -> speedCalculatorService.calculateCarSpeed(carPosition))
-                .filter((_, speed) -> speed.isPresent())
-                .mapValues(Optional::get)
-                .filter((_, speed) -> SpeedInterval.getInterval(speed.getSpeedKmh().doubleValue()).isPresent())
+        KGroupedStream<String, PenaltyPoints> penaltyPointsByDriver = calculateSpeeds(builder, carPositions)
+                .filter((_, speed) -> SpeedInterval.getInterval(speed.getSpeedKmh()).isPresent())
                 .mapValues((_, carSpeed) -> mapToPenaltyPoints(carSpeed))
                 //publish an event for each penalty 
                 .repartition(Repartitioned.with(Serdes.String(), SerdesFactory.penaltyPointsSerde()).withName(penaltyPointsTopic))
-                .groupByKey(Grouped.with(Serdes.String(), SerdesFactory.penaltyPointsSerde()))
+                .groupByKey(Grouped.with(Serdes.String(), SerdesFactory.penaltyPointsSerde()));
+        penaltyPointsByDriver
                 .aggregate(
                         DriverPenaltyPoints::new,
                         this::aggregate,
@@ -103,10 +221,148 @@ public class PenaltyPointsTopology {
                 .toStream()
                 //publish events when penalty points of the driver have changed
                 .to(driverPenaltyPointsTopic, Produced.with(Serdes.String(), SerdesFactory.driverPenaltyPointsSerde()));
+        penaltyPointsWindows().forEach(windows -> aggregateWindows(penaltyPointsByDriver, windows));
 
         return builder.build();
     }
 
+    /**
+     * The windows the penalty points are totalled over, none when disabled.
+     */
+    List<PenaltyPointsWindows> penaltyPointsWindows() {
+        if (!windowsEnabled) {
+            return List.of();
+        }
+        return List.of(
+                PenaltyPointsWindows.daily(windowsGrace, dailyRetention, dailyTopic),
+                PenaltyPointsWindows.weekly(windowsGrace, weeklyRetention, weeklyTopic),
+                PenaltyPointsWindows.rolling(rollingSize, rollingAdvance, windowsGrace, rollingRetention, rollingTopic));
+    }
+
+    /**
+     * Totals the penalty points of every driver over windows, in a window store retaining them for the retention of
+     * the windows, and publishes the current window of every penalty, keyed by driver ID, to their topic.
+     */
+    private void aggregateWindows(KGroupedStream<String, PenaltyPoints> penaltyPointsByDriver,
+                                  PenaltyPointsWindows windows) {
+        penaltyPointsByDriver
+                .windowedBy(windows)
+                .aggregate(
+                        DriverWindowPenaltyPoints::new,
+                        (_, penaltyPoints, driverPoints) -> driverPoints.addPenaltyPoints(penaltyPoints),
+                        getDriverPointsWindowStore(windows)
+                )
+                .toStream()
+                .filter((windowedDriverId, driverPoints) -> isCurrentWindow(windows, windowedDriverId, driverPoints))
+                .map((windowedDriverId, driverPoints) -> KeyValue.pair(windowedDriverId.key(),
+                        withWindow(driverPoints, windowedDriverId)))
+                .to(windows.topic(), Produced.with(Serdes.String(), SerdesFactory.driverWindowPenaltyPointsSerde()));
+    }
+
+    /**
+     * Whether a window is the current one of the penalty just added to it, like {@link PenaltyPointsProcessor}: by the
+     * time of that penalty, not the latest of the window, for a late penalty to publish its own current window and not
+     * the later windows it was also added to.
+     */
+    static boolean isCurrentWindow(PenaltyPointsWindows windows, Windowed<String> windowedDriverId,
+                                   DriverWindowPenaltyPoints driverPoints) {
+        return windowedDriverId.window().start()
+                == windows.currentWindowStart(driverPoints.getAddedPenaltyTime().toEpochMilli());
+    }
+
+    private static Materialized<String, DriverWindowPenaltyPoints, WindowStore<Bytes, byte[]>> getDriverPointsWindowStore(
+            PenaltyPointsWindows windows) {
+        return Materialized.<String, DriverWindowPenaltyPoints, WindowStore<Bytes, byte[]>>as(windows.storeName())
+                .withKeySerde(Serdes.String())
+                .withValueSerde(SerdesFactory.driverWindowPenaltyPointsSerde())
+                .withRetention(windows.retention());
+    }
+
+    private static DriverWindowPenaltyPoints withWindow(DriverWindowPenaltyPoints driverPoints,
+                                                        Windowed<String> windowedDriverId) {
+        driverPoints.setDriverId(Long.parseLong(windowedDriverId.key()));
+        driverPoints.setWindowStart(Instant.ofEpochMilli(windowedDriverId.window().start()));
+        driverPoints.setWindowEnd(Instant.ofEpochMilli(windowedDriverId.window().end()));
+        return driverPoints;
+    }
+
+    /**
+     * Calculates the speeds from the previous positions of the state store or of the process cache. Only the
+     * positions for which a speed could be calculated are kept.
+     */
+    private KStream<String, CarSpeed> calculateSpeeds(StreamsBuilder builder,
+                                                      KStream<String, CarPositionView> carPositions) {
+        if (!"state-store".equals(previousPositions)) {
+            return carPositions
+                    .mapValues(carPosition -> speedCalculatorService.calculateCarSpeed(carPosition))
+                    .filter((_, speed) -> speed.isPresent())
+                    .mapValues(Optional::get);
+        }
+        builder.addStateStore(PreviousPositionStore.builder());
+        return carPositions.processValues(
+                () -> new SpeedCalculatorProcessor(speedCalculatorService, previousPositionsTtl,
+                        previousPositionsExpiryInterval),
+                SpeedCalculatorProcessor.PREVIOUS_POSITIONS_STORE);
+    }
+
+    /**
+     * Builds the topology on a single {@link PenaltyPointsProcessor}, which calculates the speed, classifies it and
+     * updates the total of the driver in one pass:
+     * <ol>
+     *   <li>Reads the car position topic, decoding delta encoded positions</li>
+     *   <li>Processes every position, keeping the driver totals and, unless kept in the process, the previous
+     *   positions in state stores of the processor</li>
+     *   <li>Sends the penalty point events to the penalty points topic and the driver totals to the driver penalty
+     *   points topic, with plain sinks</li>
+     *   <li>If enabled, sends the current windowed totals of the driver to the topics of their windows</li>
+     * </ol>
+     * The positions being keyed by driver ID, the events and totals are keyed by driver ID too, without going through
+     * a repartition topic. The positions published in batches are keyed by bucket, so they are not supported.
+     *
+     * @return A configured Kafka Streams Topology ready for execution
+     */
+    Topology buildProcessorTopology() {
+        if (carPositionBatchEnabled) {
+            throw new IllegalStateException("The car position batches cannot be consumed by the processor topology,"
+                    + " they are keyed by bucket instead of driver");
+        }
+        boolean stateStore = "state-store".equals(previousPositions);
+        Topology processorTopology = new Topology();
+        // no offset reset of its own, the one of the configuration applies
+        processorTopology.addSource(null, "car-positions", new CarPositionTimestampExtractor(),
+                Serdes.String().deserializer(), Serdes.ByteArray().deserializer(), "fleet-management.car.position");
+        processorTopology.addProcessor("car-position-decoder", this::carPositionDeltaDecoder, "car-positions");
+        processorTopology.addStateStore(DeltaPositionStore.builder(), "car-position-decoder");
+        List<PenaltyPointsWindows> windows = penaltyPointsWindows();
+        processorTopology.addProcessor("penalty-points", () -> new PenaltyPointsProcessor(speedCalculatorService,
+                stateStore ? null : carPositionCache, previousPositionsTtl, previousPositionsExpiryInterval, windows),
+                "car-position-decoder");
+        processorTopology.addStateStore(Stores.keyValueStoreBuilder(
+                Stores.persistentKeyValueStore(PenaltyPointsProcessor.DRIVER_POINTS_STORE),
+                Serdes.String(), SerdesFactory.driverPenaltyPointsSerde()), "penalty-points");
+        if (stateStore) {
+            processorTopology.addStateStore(PreviousPositionStore.builder(), "penalty-points");
+        }
+        processorTopology.addSink(PenaltyPointsProcessor.PENALTY_POINTS_SINK, penaltyPointsTopic,
+                Serdes.String().serializer(), SerdesFactory.penaltyPointsSerde().serializer(), "penalty-points");
+        processorTopology.addSink(PenaltyPointsProcessor.DRIVER_POINTS_SINK, driverPenaltyPointsTopic,
+                Serdes.String().serializer(), SerdesFactory.driverPenaltyPointsSerde().serializer(), "penalty-points");
+        for (PenaltyPointsWindows window : windows) {
+            processorTopology.addStateStore(window.storeBuilder(), "penalty-points");
+            processorTopology.addSink(window.sinkName(), window.topic(), Serdes.String().serializer(),
+                    SerdesFactory.driverWindowPenaltyPointsSerde().serializer(), "penalty-points");
+        }
+        return processorTopology;
+    }
+
+    /**
+     * Decodes the records of the car position topic, keeping the last position of the delta encoded trips for the
+     * TTL of the previous positions.
+     */
+    private CarPositionDeltaDecoder carPositionDeltaDecoder() {
+        return new CarPositionDeltaDecoder(previousPositionsTtl, previousPositionsExpiryInterval);
+    }
+
     /**
      * Creates a materialized state store configuration for storing driver penalty points.
      * <p>
@@ -126,6 +382,16 @@ public class PenaltyPointsTopology {
                 .withValueSerde(SerdesFactory.driverPenaltyPointsSerde());
     }
 
+    /**
+     * Splits a batch back into its positions, keyed by driver ID like the single position records. The positions of
+     * a driver are all in the same bucket, so they keep the order they were produced in.
+     */
+    private static List<KeyValue<String, CarPositionView>> unbatch(List<CarPositionView> batch) {
+        return batch.stream()
+                .map(carPosition -> KeyValue.pair(Long.toString(carPosition.driverId()), carPosition))
+                .toList();
+    }
+
     private static PenaltyPoints mapToPenaltyPoints(CarSpeed carSpeed) {
         return PenaltyPoints.builder()
                 .driverId(carSpeed.getDriverId())
@@ -133,7 +399,7 @@ public class PenaltyPointsTopology {
                 .tripId(carSpeed.getTripId())
                 .penaltyTime(carSpeed.getCurrentTimestamp())
                 .penaltyPoints(
-                        SpeedInterval.getInterval(carSpeed.getSpeedKmh().doubleValue())
+                        SpeedInterval.getInterval(carSpeed.getSpeedKmh())
                                 .map(SpeedInterval::getPenaltyPointsPerKm)
                                 .orElse(0)
                 )
@@ -0,0 +1,145 @@
+package com.barbu.fleetmanagement.penaltypoints.stream;
+
+import com.barbu.fleetmanagement.penaltypoints.domain.DriverWindowPenaltyPoints;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.kstream.Windows;
+import org.apache.kafka.streams.kstream.internals.TimeWindow;
+import org.apache.kafka.streams.state.StoreBuilder;
+import org.apache.kafka.streams.state.Stores;
+import org.apache.kafka.streams.state.WindowStore;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Time windows over which the penalty points of every driver are totalled, by penalty time, each window kind kept in
+ * its own window store and published to its own topic:
+ * <ul>
+ *   <li>{@link #daily} tumbling windows of a calendar day, UTC</li>
+ *   <li>{@link #weekly} tumbling windows of a calendar week, from Monday 00:00 UTC</li>
+ *   <li>{@link #rolling} hopping windows, e.g. of 12 months advancing by a day</li>
+ * </ul>
+ * Like {@link org.apache.kafka.streams.kstream.TimeWindows}, the windows start every advance from an offset, here
+ * added to align the weeks on Mondays, the epoch being a Thursday. A position is added to all the windows containing
+ * its time, as long as they are not closed for more than the grace period.
+ * <p>
+ * The store keeps the windows for the retention, dropping whole segments of expired windows instead of scanning them.
+ * A window is published only while it is the current one of the penalties added to it, the earliest window containing
+ * their time: the total of the calendar day or week, and the total of the last 12 months for the rolling windows.
+ */
+public class PenaltyPointsWindows extends Windows<TimeWindow> {
+
+    private static final Duration DAY = Duration.ofDays(1);
+    private static final Duration WEEK = Duration.ofDays(7);
+    /**
+     * 1970-01-05, the first Monday after the epoch.
+     */
+    private static final Duration MONDAY_OFFSET = Duration.ofDays(4);
+
+    private final String name;
+    private final long sizeMs;
+    private final long advanceMs;
+    private final long offsetMs;
+    private final long graceMs;
+    private final Duration retention;
+    private final String topic;
+
+    PenaltyPointsWindows(String name, Duration size, Duration advance, Duration offset, Duration grace,
+                         Duration retention, String topic) {
+        if (advance.isZero() || advance.isNegative() || advance.compareTo(size) > 0) {
+            throw new IllegalArgumentException("The advance of the " + name + " windows must be positive and at most "
+                    + "their size " + size + ", got " + advance);
+        }
+        if (retention.compareTo(size.plus(grace)) < 0) {
+            throw new IllegalArgumentException("The retention of the " + name + " windows must be at least their size "
+                    + size + " plus the grace period " + grace + ", got " + retention);
+        }
+        this.name = name;
+        this.sizeMs = size.toMillis();
+        this.advanceMs = advance.toMillis();
+        this.offsetMs = offset.toMillis();
+        this.graceMs = grace.toMillis();
+        this.retention = retention;
+        this.topic = topic;
+    }
+
+    public static PenaltyPointsWindows daily(Duration grace, Duration retention, String topic) {
+        return new PenaltyPointsWindows("daily", DAY, DAY, Duration.ZERO, grace, retention, topic);
+    }
+
+    public static PenaltyPointsWindows weekly(Duration grace, Duration retention, String topic) {
+        return new PenaltyPointsWindows("weekly", WEEK, WEEK, MONDAY_OFFSET, grace, retention, topic);
+    }
+
+    public static PenaltyPointsWindows rolling(Duration size, Duration advance, Duration grace, Duration retention,
+                                               String topic) {
+        return new PenaltyPointsWindows("rolling", size, advance, Duration.ZERO, grace, retention, topic);
+    }
+
+    @Override
+    public Map<Long, TimeWindow> windowsFor(long timestamp) {
+        Map<Long, TimeWindow> windows = new LinkedHashMap<>();
+        for (long windowStart = currentWindowStart(timestamp); windowStart <= timestamp; windowStart += advanceMs) {
+            windows.put(windowStart, new TimeWindow(windowStart, windowStart + sizeMs));
+        }
+        return windows;
+    }
+
+    /**
+     * Start of the earliest window containing a time, the only one published for a penalty at that time.
+     */
+    public long currentWindowStart(long timestamp) {
+        long windowStart = Math.floorDiv(timestamp - sizeMs + advanceMs - offsetMs, advanceMs) * advanceMs + offsetMs;
+        // the windows cannot start before the epoch
+        return Math.max(0, windowStart);
+    }
+
+    @Override
+    public long size() {
+        return sizeMs;
+    }
+
+    public long advanceMs() {
+        return advanceMs;
+    }
+
+    @Override
+    public long gracePeriodMs() {
+        return graceMs;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public Duration retention() {
+        return retention;
+    }
+
+    public String topic() {
+        return topic;
+    }
+
+    public String storeName() {
+        return "driver-points-" + name + "-store";
+    }
+
+    public String sinkName() {
+        return "driver-points-" + name + "-sink";
+    }
+
+    /**
+     * Persistent window store of the {@link PenaltyPointsProcessor}, segmented over the retention.
+     */
+    StoreBuilder<WindowStore<String, DriverWindowPenaltyPoints>> storeBuilder() {
+        return Stores.windowStoreBuilder(
+                Stores.persistentWindowStore(storeName(), retention, Duration.ofMillis(sizeMs), false),
+                Serdes.String(), SerdesFactory.driverWindowPenaltyPointsSerde());
+    }
+
+    @Override
+    public String toString() {
+        return name + " windows of " + Duration.ofMillis(sizeMs) + " advancing by " + Duration.ofMillis(advanceMs);
+    }
+}
@@ -0,0 +1,87 @@
+package com.barbu.fleetmanagement.penaltypoints.stream;
+
+import com.barbu.fleetmanagement.common.codec.CarPositionView;
+import com.barbu.fleetmanagement.common.codec.CarPositionViewSerde;
+import com.barbu.fleetmanagement.penaltypoints.application.service.CarPositionCache;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.state.KeyValueIterator;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.apache.kafka.streams.state.StoreBuilder;
+import org.apache.kafka.streams.state.Stores;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link CarPositionCache} over the {@value #NAME} state store of a task, keyed by trip ID, removing the trips without
+ * any position for a TTL.
+ * <p>
+ * The time is the latest position timestamp {@link #seen(long) seen} by the task rather than the wall clock, so that
+ * replays and accelerated simulations expire the trips on their own time. After a restart nothing expires until the
+ * first position is processed.
+ */
+@Slf4j
+final class PreviousPositionStore implements CarPositionCache {
+
+    static final String NAME = "previous-positions-store";
+
+    private final KeyValueStore<Long, CarPositionView> store;
+    private final Duration ttl;
+    private long latestEpochMillis = Long.MIN_VALUE;
+
+    PreviousPositionStore(KeyValueStore<Long, CarPositionView> store, Duration ttl) {
+        this.store = store;
+        this.ttl = ttl;
+    }
+
+    /**
+     * Persistent store backed by a changelog topic.
+     */
+    static StoreBuilder<KeyValueStore<Long, CarPositionView>> builder() {
+        return Stores.keyValueStoreBuilder(Stores.persistentKeyValueStore(NAME), Serdes.Long(),
+                new CarPositionViewSerde());
+    }
+
+    @Override
+    public CarPositionView getByTripId(long tripId) {
+        return store.get(tripId);
+    }
+
+    @Override
+    public void save(CarPositionView carPosition) {
+        store.put(carPosition.tripId(), carPosition);
+    }
+
+    /**
+     * Moves the time of the store forward to the timestamp of a processed position.
+     */
+    void seen(long epochMillis) {
+        latestEpochMillis = Math.max(latestEpochMillis, epochMillis);
+    }
+
+    /**
+     * Removes the previous positions older than the TTL.
+     */
+    void expire() {
+        if (latestEpochMillis == Long.MIN_VALUE) {
+            return;
+        }
+        long expiredBefore = latestEpochMillis - ttl.toMillis();
+        List<Long> expiredTripIds = new ArrayList<>();
+        try (KeyValueIterator<Long, CarPositionView> positions = store.all()) {
+            while (positions.hasNext()) {
+                KeyValue<Long, CarPositionView> position = positions.next();
+                if (position.value.epochMillis() < expiredBefore) {
+                    expiredTripIds.add(position.key);
+                }
+            }
+        }
+        expiredTripIds.forEach(store::delete);
+        if (!expiredTripIds.isEmpty()) {
+            log.info("Expired the previous positions of {} trips", expiredTripIds.size());
+        }
+    }
+}
@@ -1,15 +1,29 @@
 package com.barbu.fleetmanagement.penaltypoints.stream;
 
-import com.barbu.fleetmanagement.common.model.CarPosition;
+import com.barbu.fleetmanagement.common.codec.CarPositionBatchViewSerde;
+import com.barbu.fleetmanagement.common.codec.CarPositionView;
+import com.barbu.fleetmanagement.common.codec.CarPositionViewSerde;
 import com.barbu.fleetmanagement.penaltypoints.domain.DriverPenaltyPoints;
+import com.barbu.fleetmanagement.penaltypoints.domain.DriverWindowPenaltyPoints;
 import com.barbu.fleetmanagement.penaltypoints.domain.PenaltyPoints;
 import io.quarkus.kafka.client.serialization.ObjectMapperSerde;
 import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serdes;
+
+import java.util.List;
 
 public class SerdesFactory {
 
-    public static Serde<CarPosition> carPositionSerde() {
-        return new ObjectMapperSerde<>(CarPosition.class);
+    /**
+     * Serde of full car positions, the records of the car position topic being read as bytes and decoded by the
+     * {@link CarPositionDeltaDecoder}.
+     */
+    public static Serde<CarPositionView> carPositionViewSerde() {
+        return new CarPositionViewSerde();
+    }
+
+    public static Serde<List<CarPositionView>> carPositionBatchViewSerde() {
+        return new CarPositionBatchViewSerde();
     }
 
     public static Serde<PenaltyPoints> penaltyPointsSerde() {
@@ -19,4 +33,8 @@ public class SerdesFactory {
     public static Serde<DriverPenaltyPoints> driverPenaltyPointsSerde() {
         return new ObjectMapperSerde<>(DriverPenaltyPoints.class);
     }
-}
\ No newline at end of file
+
+    public static Serde<DriverWindowPenaltyPoints> driverWindowPenaltyPointsSerde() {
+        return new ObjectMapperSerde<>(DriverWindowPenaltyPoints.class);
+    }
+}
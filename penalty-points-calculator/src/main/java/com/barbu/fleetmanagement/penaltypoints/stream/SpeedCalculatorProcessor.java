@@ -0,0 +1,64 @@
+package com.barbu.fleetmanagement.penaltypoints.stream;
+
+import com.barbu.fleetmanagement.common.codec.CarPositionView;
+import com.barbu.fleetmanagement.penaltypoints.application.service.SpeedCalculatorService;
+import com.barbu.fleetmanagement.penaltypoints.domain.CarSpeed;
+import org.apache.kafka.streams.processor.PunctuationType;
+import org.apache.kafka.streams.processor.api.FixedKeyProcessor;
+import org.apache.kafka.streams.processor.api.FixedKeyProcessorContext;
+import org.apache.kafka.streams.processor.api.FixedKeyRecord;
+
+import java.time.Duration;
+
+/**
+ * Calculates the speeds with {@link SpeedCalculatorService}, keeping the previous position of every trip in the
+ * {@value #PREVIOUS_POSITIONS_STORE} state store instead of a map of the process.
+ * <p>
+ * The store is keyed by trip ID and backed by a changelog topic, so the previous positions survive restarts and move
+ * with their partition on rebalances. The positions are keyed by driver ID, so all the positions of a trip are
+ * processed by the task of the same partition and the store needs no repartitioning.
+ * <p>
+ * Every {@code penalty-points.previous-positions.expiry-interval} the trips without any position for
+ * {@code penalty-points.previous-positions.ttl} are removed, completed trips as well as idle ones, see
+ * {@link PreviousPositionStore}.
+ */
+public class SpeedCalculatorProcessor implements FixedKeyProcessor<String, CarPositionView, CarSpeed> {
+
+    public static final String PREVIOUS_POSITIONS_STORE = PreviousPositionStore.NAME;
+
+    private final SpeedCalculatorService speedCalculatorService;
+    private final Duration ttl;
+    private final Duration expiryInterval;
+
+    private FixedKeyProcessorContext<String, CarSpeed> context;
+    private PreviousPositionStore previousPositions;
+
+    public SpeedCalculatorProcessor(SpeedCalculatorService speedCalculatorService, Duration ttl,
+                                    Duration expiryInterval) {
+        this.speedCalculatorService = speedCalculatorService;
+        this.ttl = ttl;
+        this.expiryInterval = expiryInterval;
+    }
+
+    @Override
+    public void init(FixedKeyProcessorContext<String, CarSpeed> context) {
+        this.context = context;
+        this.previousPositions = new PreviousPositionStore(context.getStateStore(PREVIOUS_POSITIONS_STORE), ttl);
+        context.schedule(expiryInterval, PunctuationType.WALL_CLOCK_TIME, _ -> expire());
+    }
+
+    @Override
+    public void process(FixedKeyRecord<String, CarPositionView> record) {
+        CarPositionView carPosition = record.value();
+        previousPositions.seen(carPosition.epochMillis());
+        speedCalculatorService.calculateCarSpeed(carPosition, previousPositions)
+                .ifPresent(speed -> context.forward(record.withValue(speed)));
+    }
+
+    /**
+     * Removes the previous positions older than the TTL.
+     */
+    void expire() {
+        previousPositions.expire();
+    }
+}
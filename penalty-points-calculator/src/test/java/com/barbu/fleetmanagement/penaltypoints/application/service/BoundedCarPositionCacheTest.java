@@ -0,0 +1,99 @@
+package com.barbu.fleetmanagement.penaltypoints.application.service;
+
+import com.barbu.fleetmanagement.common.codec.CarPositionCodec;
+import com.barbu.fleetmanagement.common.codec.CarPositionView;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BoundedCarPositionCacheTest {
+
+    private static final long START_MILLIS = 1_748_772_000_000L;
+    private static final Duration MAX_GAP = Duration.ofMinutes(5);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void shouldReturnThePreviousPositionOfATrip() {
+        BoundedCarPositionCache cache = new BoundedCarPositionCache(10, MAX_GAP, meterRegistry);
+
+        cache.save(position(1L, 44_400_000, 0));
+        cache.save(position(1L, 44_410_000, 10));
+
+        CarPositionView previous = cache.getByTripId(1L);
+        assertThat(previous.tripId()).isEqualTo(1L);
+        assertThat(previous.latMicros()).isEqualTo(44_410_000);
+        assertThat(previous.lonMicros()).isEqualTo(26_100_000);
+        assertThat(previous.epochMillis()).isEqualTo(START_MILLIS + 10_000);
+        assertThat(cache.getByTripId(2L)).isNull();
+        assertThat(meterRegistry.counter("penalty-points.previous-positions.hits").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("penalty-points.previous-positions.misses").count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldEvictTheTripsSilentForLongerThanTheMaxHeartbeatGap() {
+        BoundedCarPositionCache cache = new BoundedCarPositionCache(10, MAX_GAP, meterRegistry);
+        cache.save(position(1L, 44_400_000, 0));
+        cache.save(position(2L, 44_400_000, 0));
+
+        // trip 2 keeps reporting, trip 1 stays silent
+        for (int seconds = 10; seconds <= 400; seconds += 10) {
+            cache.save(position(2L, 44_400_000, seconds));
+        }
+
+        assertThat(cache.getByTripId(1L)).isNull();
+        assertThat(cache.getByTripId(2L)).isNotNull();
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(evictions("expired")).isEqualTo(1);
+    }
+
+    @Test
+    void shouldEvictTheTripClosestToExpiryWhenFull() {
+        BoundedCarPositionCache cache = new BoundedCarPositionCache(3, MAX_GAP, meterRegistry);
+        cache.save(position(1L, 44_400_000, 0));
+        cache.save(position(2L, 44_400_000, 30));
+        cache.save(position(3L, 44_400_000, 60));
+        cache.save(position(1L, 44_400_000, 90));
+
+        cache.save(position(4L, 44_400_000, 120));
+
+        assertThat(cache.getByTripId(2L)).isNull();
+        assertThat(cache.getByTripId(1L)).isNotNull();
+        assertThat(cache.getByTripId(3L)).isNotNull();
+        assertThat(cache.getByTripId(4L)).isNotNull();
+        assertThat(cache.size()).isEqualTo(3);
+        assertThat(evictions("capacity")).isEqualTo(1);
+    }
+
+    @Test
+    void shouldStayBoundedUnderManyTrips() {
+        BoundedCarPositionCache cache = new BoundedCarPositionCache(100, MAX_GAP, meterRegistry);
+
+        for (long tripId = 1; tripId <= 10_000; tripId++) {
+            cache.save(position(tripId, 44_400_000, (int) tripId));
+        }
+
+        assertThat(cache.size()).isEqualTo(100);
+        assertThat(cache.getByTripId(10_000L)).isNotNull();
+        assertThat(evictions("capacity") + evictions("expired")).isEqualTo(9_900);
+    }
+
+    @Test
+    void shouldRejectAnEmptyCapacity() {
+        assertThatThrownBy(() -> new BoundedCarPositionCache(0, MAX_GAP, meterRegistry))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private double evictions(String cause) {
+        return meterRegistry.counter("penalty-points.previous-positions.evictions", "cause", cause).count();
+    }
+
+    private static CarPositionView position(long tripId, int latMicros, int seconds) {
+        return new CarPositionView(CarPositionCodec.encode(latMicros, 26_100_000, START_MILLIS + seconds * 1000L,
+                tripId, tripId, tripId));
+    }
+}
@@ -0,0 +1,150 @@
+package com.barbu.fleetmanagement.penaltypoints.application.service;
+
+import com.barbu.fleetmanagement.penaltypoints.api.client.PenaltyPointsClient;
+import com.barbu.fleetmanagement.penaltypoints.domain.DriverPenaltyPoints;
+import com.barbu.fleetmanagement.penaltypoints.domain.DriverWindowPenaltyPoints;
+import com.barbu.fleetmanagement.penaltypoints.stream.DriverPointsStores;
+import com.barbu.fleetmanagement.penaltypoints.stream.PenaltyPointsWindows;
+import org.apache.kafka.streams.state.HostInfo;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DriverPointsQueryServiceTest {
+
+    private static final String DRIVER_POINTS_STORE = "driver-points-store";
+    private static final HostInfo OTHER_INSTANCE = new HostInfo("penalty-points-calculator-2", 8082);
+
+    @Mock
+    DriverPointsStores driverPointsStores;
+
+    @Mock
+    PenaltyPointsClient penaltyPointsClient;
+
+    @InjectMocks
+    DriverPointsQueryService driverPointsQueryService;
+
+    @Nested
+    class SingleDriver {
+
+        @Test
+        void shouldReadTheDriverKeptByThisInstance() {
+            when(driverPointsStores.remoteOwner(DRIVER_POINTS_STORE, 1L)).thenReturn(Optional.empty());
+            when(driverPointsStores.get(1L)).thenReturn(driverPoints(1L, 12));
+
+            Optional<DriverPenaltyPoints> driverPoints = driverPointsQueryService.findDriverPoints(1L, false);
+
+            assertThat(driverPoints).map(DriverPenaltyPoints::getTotalPoints).contains(12);
+            verifyNoInteractions(penaltyPointsClient);
+        }
+
+        @Test
+        void shouldForwardToTheInstanceKeepingTheDriver() {
+            when(driverPointsStores.remoteOwner(DRIVER_POINTS_STORE, 1L)).thenReturn(Optional.of(OTHER_INSTANCE));
+            when(penaltyPointsClient.get(eq(OTHER_INSTANCE), eq("/drivers/1/penalty-points"), any()))
+                    .thenReturn(Optional.of(driverPoints(1L, 12)));
+
+            Optional<DriverPenaltyPoints> driverPoints = driverPointsQueryService.findDriverPoints(1L, false);
+
+            assertThat(driverPoints).map(DriverPenaltyPoints::getTotalPoints).contains(12);
+            verify(driverPointsStores, never()).get(anyLong());
+        }
+
+        @Test
+        void shouldOnlyReadThisInstanceForAForwardedQuery() {
+            when(driverPointsStores.get(1L)).thenReturn(null);
+
+            assertThat(driverPointsQueryService.findDriverPoints(1L, true)).isEmpty();
+            verify(driverPointsStores, never()).remoteOwner(anyString(), anyLong());
+        }
+    }
+
+    @Nested
+    class SeveralDrivers {
+
+        @Test
+        void shouldSplitTheDriversByInstance() {
+            when(driverPointsStores.remoteOwner(DRIVER_POINTS_STORE, 1L)).thenReturn(Optional.empty());
+            when(driverPointsStores.remoteOwner(DRIVER_POINTS_STORE, 2L)).thenReturn(Optional.of(OTHER_INSTANCE));
+            when(driverPointsStores.remoteOwner(DRIVER_POINTS_STORE, 3L)).thenReturn(Optional.of(OTHER_INSTANCE));
+            when(driverPointsStores.get(1L)).thenReturn(driverPoints(1L, 2));
+            when(penaltyPointsClient.get(eq(OTHER_INSTANCE), eq("/drivers/penalty-points?driverId=3&driverId=2"), any()))
+                    .thenReturn(Optional.of(List.of(driverPoints(3L, 5))));
+
+            List<DriverPenaltyPoints> driverPoints = driverPointsQueryService.findDriverPoints(List.of(3L, 1L, 2L, 3L),
+                    false);
+
+            assertThat(driverPoints).extracting(DriverPenaltyPoints::getDriverId).containsExactly(1L, 3L);
+        }
+
+        @Test
+        void shouldScanTheRangeOnEveryInstance() {
+            when(driverPointsStores.range(1, 100)).thenReturn(List.of(driverPoints(4L, 2), driverPoints(8L, 2)));
+            when(driverPointsStores.remoteInstances(DRIVER_POINTS_STORE)).thenReturn(List.of(OTHER_INSTANCE));
+            when(penaltyPointsClient.get(eq(OTHER_INSTANCE), eq("/drivers/penalty-points?from=1&to=100"), any()))
+                    .thenReturn(Optional.of(List.of(driverPoints(5L, 10))));
+
+            List<DriverPenaltyPoints> driverPoints = driverPointsQueryService.findDriverPointsInRange(1, 100, false);
+
+            assertThat(driverPoints).extracting(DriverPenaltyPoints::getDriverId).containsExactly(4L, 5L, 8L);
+        }
+    }
+
+    @Nested
+    class Windows {
+
+        private final PenaltyPointsWindows rolling = PenaltyPointsWindows.rolling(Duration.ofDays(365),
+                Duration.ofDays(1), Duration.ofHours(1), Duration.ofDays(366), "rolling");
+
+        @Test
+        void shouldReadOnlyTheCurrentWindowWithoutStart() {
+            Instant at = Instant.parse("2025-06-04T15:30:00Z");
+            Instant currentWindowStart = Instant.parse("2024-06-05T00:00:00Z");
+            when(driverPointsStores.remoteOwner("driver-points-rolling-store", 1L)).thenReturn(Optional.empty());
+            when(driverPointsStores.fetch(rolling, 1L, currentWindowStart, currentWindowStart))
+                    .thenReturn(List.of(new DriverWindowPenaltyPoints()));
+
+            assertThat(driverPointsQueryService.findWindowPoints(1L, rolling, null, at, false)).hasSize(1);
+        }
+
+        @Test
+        void shouldForwardTheWindowsToTheInstanceKeepingTheDriver() {
+            Instant from = Instant.parse("2025-01-01T00:00:00Z");
+            Instant to = Instant.parse("2025-02-01T00:00:00Z");
+            when(driverPointsStores.remoteOwner("driver-points-rolling-store", 1L))
+                    .thenReturn(Optional.of(OTHER_INSTANCE));
+            when(penaltyPointsClient.get(eq(OTHER_INSTANCE),
+                    eq("/drivers/1/penalty-points/rolling?from=2025-01-01T00:00:00Z&to=2025-02-01T00:00:00Z"), any()))
+                    .thenReturn(Optional.of(List.of(new DriverWindowPenaltyPoints())));
+
+            assertThat(driverPointsQueryService.findWindowPoints(1L, rolling, from, to, false)).hasSize(1);
+            verify(driverPointsStores, never()).fetch(any(), anyLong(), any(), any());
+        }
+    }
+
+    private static DriverPenaltyPoints driverPoints(long driverId, int totalPoints) {
+        DriverPenaltyPoints driverPoints = new DriverPenaltyPoints();
+        driverPoints.setDriverId(driverId);
+        driverPoints.setTotalPoints(totalPoints);
+        return driverPoints;
+    }
+}
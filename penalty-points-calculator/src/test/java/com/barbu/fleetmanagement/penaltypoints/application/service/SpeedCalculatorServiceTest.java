@@ -0,0 +1,54 @@
+package com.barbu.fleetmanagement.penaltypoints.application.service;
+
+import com.barbu.fleetmanagement.common.codec.CarPositionCodec;
+import com.barbu.fleetmanagement.common.codec.CarPositionView;
+import com.barbu.fleetmanagement.common.geo.GeoCalculator;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class SpeedCalculatorServiceTest {
+
+    private static final long START_MILLIS = 1_748_772_000_000L;
+    // about 2.2 km north of the start
+    private static final int MOVED_LAT_MICROS = 44_420_000;
+
+    private final CarPositionCache cache = new InMemoryCarPositionCache();
+    private final SpeedCalculatorService service = new SpeedCalculatorService(new GeoCalculator(), cache);
+
+    @Test
+    void shouldCalculateTheSpeedOnceTheCarMovedOneKm() {
+        service.calculateCarSpeed(position(44_400_000, 0));
+
+        assertThat(service.calculateCarSpeed(position(MOVED_LAT_MICROS, 60)))
+                .hasValueSatisfying(speed -> assertThat(speed.getSpeedKmh()).isCloseTo(133.4, within(0.1)));
+        assertThat(service.calculateSpeedKmh(position(44_440_000, 120), cache)).isCloseTo(133.4, within(0.1));
+    }
+
+    @Test
+    void shouldNotCalculateASpeedForAPositionLessThanASecondAfterThePreviousOne() {
+        service.calculateCarSpeed(position(44_400_000, 0));
+
+        assertThat(service.calculateCarSpeed(positionAtMillis(MOVED_LAT_MICROS, 999))).isEmpty();
+        assertThat(service.calculateSpeedKmh(positionAtMillis(MOVED_LAT_MICROS, 500), cache)).isNaN();
+        assertThat(cache.getByTripId(1L).epochMillis()).isEqualTo(START_MILLIS);
+    }
+
+    @Test
+    void shouldNotCalculateASpeedForAPositionOlderThanThePreviousOne() {
+        service.calculateCarSpeed(position(44_400_000, 60));
+
+        assertThat(service.calculateCarSpeed(position(MOVED_LAT_MICROS, 0))).isEmpty();
+        assertThat(service.calculateSpeedKmh(position(MOVED_LAT_MICROS, 30), cache)).isNaN();
+        assertThat(cache.getByTripId(1L).epochMillis()).isEqualTo(START_MILLIS + 60_000);
+    }
+
+    private static CarPositionView position(int latMicros, int seconds) {
+        return positionAtMillis(latMicros, seconds * 1000L);
+    }
+
+    private static CarPositionView positionAtMillis(int latMicros, long millis) {
+        return new CarPositionView(CarPositionCodec.encode(latMicros, 26_100_000, START_MILLIS + millis, 1L, 1L, 1L));
+    }
+}
@@ -0,0 +1,196 @@
+package com.barbu.fleetmanagement.penaltypoints.stream;
+
+import com.barbu.fleetmanagement.common.codec.BinaryFormat;
+import com.barbu.fleetmanagement.common.codec.CarPositionCodec;
+import com.barbu.fleetmanagement.common.codec.CarPositionDeltaCodec;
+import com.barbu.fleetmanagement.common.codec.CarPositionView;
+import com.barbu.fleetmanagement.common.model.CarPosition;
+import com.barbu.fleetmanagement.common.model.Location;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+import org.apache.kafka.streams.state.KeyValueIterator;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CarPositionDeltaDecoderTest {
+
+    private static final Duration TTL = Duration.ofMinutes(10);
+    private static final CarPosition KEYFRAME = CarPosition.builder()
+            .carId(7L)
+            .driverId(8L)
+            .tripId(9L)
+            .currentLocation(new Location(new BigDecimal("44.100000"), new BigDecimal("26.100000")))
+            .timestamp(Instant.parse("2025-06-01T10:00:00Z"))
+            .build();
+
+    @Mock
+    ProcessorContext<String, CarPositionView> context;
+
+    private final Map<Long, byte[]> storedPositions = new HashMap<>();
+    private final List<Record<String, CarPositionView>> forwarded = new ArrayList<>();
+    private CarPositionDeltaDecoder decoder;
+
+    @BeforeEach
+    void setUp() {
+        lenient().doAnswer(invocation -> forwarded.add(invocation.getArgument(0))).when(context).forward(any());
+        KeyValueStore<Long, byte[]> store = deltaStore();
+        when(context.getStateStore(CarPositionDeltaDecoder.DELTA_POSITIONS_STORE)).thenReturn(store);
+        decoder = new CarPositionDeltaDecoder(TTL, Duration.ofMinutes(1));
+        decoder.init(context);
+    }
+
+    @Test
+    void shouldApplyDeltasToThePreviousPositionOfTheTrip() {
+        decode(CarPositionDeltaCodec.encodeKeyframe(KEYFRAME));
+
+        CarPositionView first = decode(CarPositionDeltaCodec.encodeDelta(9L, 1, 1_000, -2_000, 10_000));
+        CarPositionView second = decode(CarPositionDeltaCodec.encodeDelta(9L, 2, 500, 0, 10_000));
+
+        assertThat(first.latMicros()).isEqualTo(44_101_000);
+        assertThat(first.lonMicros()).isEqualTo(26_098_000);
+        assertThat(second.latMicros()).isEqualTo(44_101_500);
+        assertThat(second.lonMicros()).isEqualTo(26_098_000);
+        assertThat(second.epochMillis()).isEqualTo(KEYFRAME.timestamp().plusSeconds(20).toEpochMilli());
+        assertThat(forwarded.getLast().timestamp()).isEqualTo(second.epochMillis());
+        assertThat(second.carId()).isEqualTo(7L);
+        assertThat(second.driverId()).isEqualTo(8L);
+        assertThat(second.tripId()).isEqualTo(9L);
+    }
+
+    @Test
+    void shouldDropDeltasUntilNextKeyframeAfterAGap() {
+        decode(CarPositionDeltaCodec.encodeKeyframe(KEYFRAME));
+
+        assertThat(decode(CarPositionDeltaCodec.encodeDelta(9L, 2, 1_000, 0, 10_000))).isNull();
+        assertThat(decode(CarPositionDeltaCodec.encodeDelta(9L, 3, 1_000, 0, 10_000))).isNull();
+        assertThat(decode(CarPositionDeltaCodec.encodeKeyframe(KEYFRAME))).isNotNull();
+        assertThat(decode(CarPositionDeltaCodec.encodeDelta(9L, 1, 1_000, 0, 10_000))).isNotNull();
+    }
+
+    @Test
+    void shouldDropDeltasWithoutKeyframe() {
+        assertThat(decode(CarPositionDeltaCodec.encodeDelta(9L, 1, 1_000, 0, 10_000))).isNull();
+    }
+
+    @Test
+    void shouldGoOnDecodingFromTheStoreAfterARestart() {
+        decode(CarPositionDeltaCodec.encodeKeyframe(KEYFRAME));
+        decode(CarPositionDeltaCodec.encodeDelta(9L, 1, 1_000, 0, 10_000));
+
+        decoder = new CarPositionDeltaDecoder(TTL, Duration.ofMinutes(1));
+        decoder.init(context);
+
+        assertThat(decode(CarPositionDeltaCodec.encodeDelta(9L, 2, 1_000, 0, 10_000)).latMicros())
+                .isEqualTo(44_102_000);
+    }
+
+    @Test
+    void shouldExpireTheTripsWithoutPositionForTheTtl() {
+        decode(CarPositionDeltaCodec.encodeKeyframe(KEYFRAME));
+        decode(CarPositionDeltaCodec.encodeKeyframe(CarPosition.builder()
+                .carId(7L)
+                .driverId(8L)
+                .tripId(10L)
+                .currentLocation(KEYFRAME.currentLocation())
+                .timestamp(KEYFRAME.timestamp().plus(TTL).plusSeconds(1))
+                .build()));
+
+        decoder.expire();
+
+        assertThat(storedPositions).containsOnlyKeys(10L);
+    }
+
+    @Test
+    void shouldReadFullPositions() {
+        RecordHeaders headers = new RecordHeaders();
+        headers.add(BinaryFormat.VERSION_HEADER, new byte[]{CarPositionCodec.VERSION});
+
+        decoder.process(new Record<>("8", CarPositionCodec.encode(KEYFRAME), 0L, headers));
+
+        assertThat(forwarded).singleElement().satisfies(record -> {
+            assertThat(record.value().toCarPosition()).isEqualTo(KEYFRAME);
+            assertThat(record.timestamp()).isEqualTo(KEYFRAME.timestamp().toEpochMilli());
+        });
+    }
+
+    @Test
+    void shouldSkipTheRecordsWhichCannotBeDecoded() {
+        decoder.process(new Record<>("8", new byte[]{1, 2, 3}, 0L));
+
+        assertThat(forwarded).isEmpty();
+    }
+
+    /**
+     * @return The decoded position, {@code null} when dropped
+     */
+    private CarPositionView decode(byte[] bytes) {
+        RecordHeaders headers = new RecordHeaders();
+        headers.add(BinaryFormat.VERSION_HEADER, new byte[]{CarPositionDeltaCodec.VERSION});
+        int forwardedBefore = forwarded.size();
+        decoder.process(new Record<>("8", bytes, 0L, headers));
+        return forwarded.size() == forwardedBefore ? null : forwarded.getLast().value();
+    }
+
+    /**
+     * Store backed by a map, not every test using every method.
+     */
+    @SuppressWarnings("unchecked")
+    private KeyValueStore<Long, byte[]> deltaStore() {
+        KeyValueStore<Long, byte[]> store = mock(KeyValueStore.class);
+        lenient().when(store.get(anyLong()))
+                .thenAnswer(invocation -> storedPositions.get(invocation.<Long>getArgument(0)));
+        lenient().doAnswer(invocation -> storedPositions.put(invocation.getArgument(0), invocation.getArgument(1)))
+                .when(store).put(anyLong(), any());
+        lenient().when(store.delete(anyLong()))
+                .thenAnswer(invocation -> storedPositions.remove(invocation.<Long>getArgument(0)));
+        lenient().when(store.all()).thenAnswer(_ -> iterator(storedPositions.entrySet().iterator()));
+        return store;
+    }
+
+    private static KeyValueIterator<Long, byte[]> iterator(Iterator<Map.Entry<Long, byte[]>> entries) {
+        return new KeyValueIterator<>() {
+            @Override
+            public boolean hasNext() {
+                return entries.hasNext();
+            }
+
+            @Override
+            public KeyValue<Long, byte[]> next() {
+                Map.Entry<Long, byte[]> entry = entries.next();
+                return KeyValue.pair(entry.getKey(), entry.getValue());
+            }
+
+            @Override
+            public Long peekNextKey() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+}
@@ -0,0 +1,157 @@
+package com.barbu.fleetmanagement.penaltypoints.stream;
+
+import com.barbu.fleetmanagement.penaltypoints.stream.DriverPointsStores.DriverIdRange;
+import org.apache.kafka.common.utils.Bytes;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.processor.StateStoreContext;
+import org.apache.kafka.streams.state.KeyValueIterator;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.apache.kafka.streams.state.ReadOnlyKeyValueStore;
+import org.apache.kafka.streams.state.Stores;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class DriverPointsStoresTest {
+
+    @Test
+    void shouldKeepARangeOfIdsWithTheSameNumberOfDigits() {
+        assertThat(DriverPointsStores.driverIdRanges(100, 250))
+                .containsExactly(new DriverIdRange("100", "250"));
+    }
+
+    @Test
+    void shouldSplitARangeAtEveryPowerOfTen() {
+        assertThat(DriverPointsStores.driverIdRanges(5, 1200)).containsExactly(
+                new DriverIdRange("5", "9"),
+                new DriverIdRange("10", "99"),
+                new DriverIdRange("100", "999"),
+                new DriverIdRange("1000", "1200"));
+    }
+
+    @Test
+    void shouldEndAtTheLargestId() {
+        assertThat(DriverPointsStores.driverIdRanges(Long.MAX_VALUE - 1, Long.MAX_VALUE))
+                .containsExactly(new DriverIdRange(Long.toString(Long.MAX_VALUE - 1), Long.toString(Long.MAX_VALUE)));
+        assertThat(DriverPointsStores.driverIdRanges(1_000_000_000_000_000_000L, Long.MAX_VALUE)).hasSize(1);
+    }
+
+    @Nested
+    class Range {
+
+        private final KeyValueStore<Bytes, byte[]> store = Stores.inMemoryKeyValueStore("driver-points-store").get();
+
+        @BeforeEach
+        void setUp() {
+            store.init(mock(StateStoreContext.class), store);
+            for (long driverId : List.of(1L, 5L, 9L, 10L, 15L, 50L, 99L, 100L, 150L, 1000L, 1200L, 1500L, 10000L)) {
+                store.put(Bytes.wrap(bytes(Long.toString(driverId))), bytes("driver " + driverId));
+            }
+        }
+
+        @AfterEach
+        void tearDown() {
+            store.close();
+        }
+
+        @Test
+        void shouldReturnOnlyTheDriversOfTheRange() {
+            assertThat(DriverPointsStores.range(new StringStore(store), 10, 15))
+                    .containsExactly("driver 10", "driver 15");
+        }
+
+        @Test
+        void shouldNotReadTheLongerIdsSortedWithinARange() {
+            for (long driverId = 1_000_000_000_000L; driverId < 1_000_000_001_000L; driverId++) {
+                store.put(Bytes.wrap(bytes(Long.toString(driverId))), bytes("driver " + driverId));
+            }
+            StringStore stringStore = new StringStore(store);
+
+            assertThat(DriverPointsStores.range(stringStore, 1, 1_000_000_000_000L))
+                    .hasSize(14)
+                    .endsWith("driver 1000000000000");
+            // one entry per prefix of the 13 digits ids in each range of shorter ids: 100 prefixes of 12 digits, 10 of
+            // 11 digits, 1 of 10 digits and less, instead of the 1000 ids in each of the 12 ranges
+            assertThat(stringStore.entriesRead()).hasValueLessThan(250);
+        }
+
+        @Test
+        void shouldReturnEveryDriverOnceInNumericOrder() {
+            assertThat(DriverPointsStores.range(new StringStore(store), 5, 1200)).containsExactly(
+                    "driver 5", "driver 9", "driver 10", "driver 15", "driver 50", "driver 99", "driver 100",
+                    "driver 150", "driver 1000", "driver 1200");
+        }
+    }
+
+    private static byte[] bytes(String string) {
+        return string.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The in-memory store read with string keys and values, like the metered store serializing them, counting the
+     * entries read.
+     */
+    private record StringStore(KeyValueStore<Bytes, byte[]> store, AtomicInteger entriesRead)
+            implements ReadOnlyKeyValueStore<String, String> {
+
+        StringStore(KeyValueStore<Bytes, byte[]> store) {
+            this(store, new AtomicInteger());
+        }
+
+        @Override
+        public String get(String key) {
+            byte[] value = store.get(Bytes.wrap(bytes(key)));
+            return value == null ? null : new String(value, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public KeyValueIterator<String, String> range(String from, String to) {
+            return strings(store.range(Bytes.wrap(bytes(from)), Bytes.wrap(bytes(to))));
+        }
+
+        @Override
+        public KeyValueIterator<String, String> all() {
+            return strings(store.all());
+        }
+
+        @Override
+        public long approximateNumEntries() {
+            return store.approximateNumEntries();
+        }
+
+        private KeyValueIterator<String, String> strings(KeyValueIterator<Bytes, byte[]> entries) {
+            return new KeyValueIterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return entries.hasNext();
+                }
+
+                @Override
+                public KeyValue<String, String> next() {
+                    KeyValue<Bytes, byte[]> entry = entries.next();
+                    entriesRead.incrementAndGet();
+                    return KeyValue.pair(new String(entry.key.get(), StandardCharsets.UTF_8),
+                            new String(entry.value, StandardCharsets.UTF_8));
+                }
+
+                @Override
+                public String peekNextKey() {
+                    return new String(entries.peekNextKey().get(), StandardCharsets.UTF_8);
+                }
+
+                @Override
+                public void close() {
+                    entries.close();
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package com.barbu.fleetmanagement.penaltypoints.stream;
+
+import com.barbu.fleetmanagement.common.codec.CarPositionView;
+import com.barbu.fleetmanagement.common.geo.GeoCalculator;
+import com.barbu.fleetmanagement.common.model.CarPosition;
+import com.barbu.fleetmanagement.common.model.Location;
+import com.barbu.fleetmanagement.penaltypoints.application.service.InMemoryCarPositionCache;
+import com.barbu.fleetmanagement.penaltypoints.application.service.SpeedCalculatorService;
+import com.barbu.fleetmanagement.penaltypoints.domain.DriverPenaltyPoints;
+import com.barbu.fleetmanagement.penaltypoints.domain.DriverWindowPenaltyPoints;
+import com.barbu.fleetmanagement.penaltypoints.domain.PenaltyPoints;
+import org.apache.kafka.streams.processor.PunctuationType;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.apache.kafka.streams.state.WindowStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PenaltyPointsProcessorTest {
+
+    private static final Instant START = Instant.parse("2025-06-01T10:00:00Z");
+    private static final Duration TTL = Duration.ofMinutes(10);
+    private static final Duration EXPIRY_INTERVAL = Duration.ofMinutes(1);
+
+    @Mock
+    ProcessorContext<String, Object> context;
+
+    @Captor
+    ArgumentCaptor<Record<String, Object>> recordCaptor;
+
+    private final Map<String, DriverPenaltyPoints> storedPoints = new HashMap<>();
+    private final Map<Long, CarPositionView> storedPositions = new HashMap<>();
+    private final SpeedCalculatorService speedCalculatorService =
+            new SpeedCalculatorService(new GeoCalculator(), new InMemoryCarPositionCache());
+
+    @BeforeEach
+    void setUp() {
+        KeyValueStore<String, DriverPenaltyPoints> driverStore = driverStore();
+        when(context.getStateStore(PenaltyPointsProcessor.DRIVER_POINTS_STORE)).thenReturn(driverStore);
+    }
+
+    @Nested
+    class ProcessCache {
+
+        private PenaltyPointsProcessor processor;
+
+        @BeforeEach
+        void setUp() {
+            processor = new PenaltyPointsProcessor(speedCalculatorService, new InMemoryCarPositionCache(), TTL,
+                    EXPIRY_INTERVAL, List.of());
+            processor.init(context);
+        }
+
+        @Test
+        void shouldForwardThePenaltyPointsAndTheDriverTotal() {
+            processor.process(record(position(1L, "44.400000", 0)));
+            processor.process(record(position(1L, "44.418000", 60)));
+
+            PenaltyPoints penaltyPoints = (PenaltyPoints) forwarded(PenaltyPointsProcessor.PENALTY_POINTS_SINK);
+            assertThat(penaltyPoints.driverId()).isEqualTo(1L);
+            assertThat(penaltyPoints.tripId()).isEqualTo(1L);
+            assertThat(penaltyPoints.penaltyPoints()).isEqualTo(5);
+            assertThat(penaltyPoints.penaltyTime()).isEqualTo(START.plusSeconds(60));
+
+            DriverPenaltyPoints total = (DriverPenaltyPoints) forwarded(PenaltyPointsProcessor.DRIVER_POINTS_SINK);
+            assertThat(total.getDriverId()).isEqualTo(1L);
+            assertThat(total.getTotalPoints()).isEqualTo(5);
+            assertThat(storedPoints.get("1").getTotalPoints()).isEqualTo(5);
+        }
+
+        @Test
+        void shouldAddThePenaltyPointsToTheStoredTotal() {
+            DriverPenaltyPoints stored = new DriverPenaltyPoints();
+            stored.setDriverId(1L);
+            stored.setTotalPoints(7);
+            storedPoints.put("1", stored);
+
+            processor.process(record(position(1L, "44.400000", 0)));
+            // about 70 km/h
+            processor.process(record(position(1L, "44.410500", 60)));
+
+            assertThat(storedPoints.get("1").getTotalPoints()).isEqualTo(9);
+        }
+
+        @Test
+        void shouldNotForwardAnythingBelowTheSpeedLimit() {
+            processor.process(record(position(1L, "44.400000", 0)));
+            processor.process(record(position(1L, "44.401000", 60)));
+
+            verify(context, never()).forward(any(Record.class), anyString());
+            assertThat(storedPoints).isEmpty();
+        }
+
+        @Test
+        void shouldSkipThePositionsWhichCouldNotBeDecoded() {
+            processor.process(new Record<>("1", null, START.toEpochMilli()));
+
+            verify(context, never()).forward(any(Record.class), anyString());
+        }
+    }
+
+    @Nested
+    class StateStore {
+
+        private PenaltyPointsProcessor processor;
+
+        @BeforeEach
+        void setUp() {
+            KeyValueStore<Long, CarPositionView> positionStore = positionStore();
+            when(context.getStateStore(PreviousPositionStore.NAME)).thenReturn(positionStore);
+            processor = new PenaltyPointsProcessor(speedCalculatorService, null, TTL, EXPIRY_INTERVAL,
+                    List.of());
+            processor.init(context);
+        }
+
+        @Test
+        void shouldKeepThePreviousPositionsInTheStateStore() {
+            verify(context).schedule(eq(EXPIRY_INTERVAL), eq(PunctuationType.WALL_CLOCK_TIME), any());
+            storedPositions.put(1L, position(1L, "44.400000", 0));
+
+            processor.process(record(position(1L, "44.418000", 60)));
+
+            assertThat(((DriverPenaltyPoints) forwarded(PenaltyPointsProcessor.DRIVER_POINTS_SINK)).getTotalPoints())
+                    .isEqualTo(5);
+            assertThat(storedPositions.get(1L).latMicros()).isEqualTo(44_418_000);
+        }
+    }
+
+    @Nested
+    class Windows {
+
+        private final PenaltyPointsWindows daily = PenaltyPointsWindows.daily(Duration.ofHours(1), Duration.ofDays(35),
+                "daily-topic");
+        private final Map<Long, DriverWindowPenaltyPoints> storedWindows = new HashMap<>();
+        private PenaltyPointsProcessor processor;
+
+        @BeforeEach
+        void setUp() {
+            KeyValueStore<Long, CarPositionView> positionStore = positionStore();
+            when(context.getStateStore(PreviousPositionStore.NAME)).thenReturn(positionStore);
+            WindowStore<String, DriverWindowPenaltyPoints> windowStore = windowStore();
+            when(context.getStateStore(daily.storeName())).thenReturn(windowStore);
+            processor = new PenaltyPointsProcessor(speedCalculatorService, null, TTL, EXPIRY_INTERVAL,
+                    List.of(daily));
+            processor.init(context);
+        }
+
+        @Test
+        void shouldTotalThePenaltyPointsOfTheDayOfThePosition() {
+            processor.process(record(position(1L, "44.400000", 0)));
+            processor.process(record(position(1L, "44.418000", 60)));
+            processor.process(record(position(1L, "44.436000", 120)));
+
+            long dayStart = Instant.parse("2025-06-01T00:00:00Z").toEpochMilli();
+            assertThat(storedWindows).containsOnlyKeys(dayStart);
+            DriverWindowPenaltyPoints dailyPoints = storedWindows.get(dayStart);
+            assertThat(dailyPoints.getTotalPoints()).isEqualTo(10);
+            assertThat(dailyPoints.getWindowEnd()).isEqualTo(Instant.parse("2025-06-02T00:00:00Z"));
+            assertThat(dailyPoints.getLastPenaltyTime()).isEqualTo(START.plusSeconds(120));
+        }
+
+        @Test
+        void shouldLeaveTheWindowsClosedForMoreThanTheGracePeriod() {
+            // a position of the next day, past the grace period of the first one
+            processor.process(record(position(2L, "44.400000", 86_400)));
+            storedPositions.put(1L, position(1L, "44.400000", 0));
+
+            processor.process(record(position(1L, "44.418000", 60)));
+
+            assertThat(storedPoints.get("1").getTotalPoints()).isEqualTo(5);
+            assertThat(storedWindows).isEmpty();
+        }
+
+        @SuppressWarnings("unchecked")
+        private WindowStore<String, DriverWindowPenaltyPoints> windowStore() {
+            WindowStore<String, DriverWindowPenaltyPoints> store = mock(WindowStore.class);
+            lenient().when(store.fetch(anyString(), anyLong()))
+                    .thenAnswer(invocation -> storedWindows.get(invocation.<Long>getArgument(1)));
+            lenient().doAnswer(invocation -> storedWindows.put(invocation.getArgument(2), invocation.getArgument(1)))
+                    .when(store).put(anyString(), any(), anyLong());
+            return store;
+        }
+    }
+
+    private Object forwarded(String childName) {
+        verify(context).forward(recordCaptor.capture(), eq(childName));
+        Record<String, Object> forwarded = recordCaptor.getValue();
+        assertThat(forwarded.key()).isEqualTo("1");
+        return forwarded.value();
+    }
+
+    /**
+     * Stores backed by maps, not every test using every method.
+     */
+    @SuppressWarnings("unchecked")
+    private KeyValueStore<String, DriverPenaltyPoints> driverStore() {
+        KeyValueStore<String, DriverPenaltyPoints> store = mock(KeyValueStore.class);
+        lenient().when(store.get(anyString()))
+                .thenAnswer(invocation -> storedPoints.get(invocation.<String>getArgument(0)));
+        lenient().doAnswer(invocation -> storedPoints.put(invocation.getArgument(0), invocation.getArgument(1)))
+                .when(store).put(anyString(), any());
+        return store;
+    }
+
+    @SuppressWarnings("unchecked")
+    private KeyValueStore<Long, CarPositionView> positionStore() {
+        KeyValueStore<Long, CarPositionView> store = mock(KeyValueStore.class);
+        lenient().when(store.get(anyLong()))
+                .thenAnswer(invocation -> storedPositions.get(invocation.<Long>getArgument(0)));
+        lenient().doAnswer(invocation -> storedPositions.put(invocation.getArgument(0), invocation.getArgument(1)))
+                .when(store).put(anyLong(), any());
+        return store;
+    }
+
+    private static Record<String, CarPositionView> record(CarPositionView carPosition) {
+        return new Record<>(String.valueOf(carPosition.driverId()), carPosition, carPosition.epochMillis());
+    }
+
+    private static CarPositionView position(long tripId, String latitude, int seconds) {
+        return CarPositionView.of(CarPosition.builder()
+                .carId(tripId)
+                .driverId(tripId)
+                .tripId(tripId)
+                .currentLocation(new Location(new BigDecimal(latitude), new BigDecimal("26.100000")))
+                .timestamp(START.plusSeconds(seconds))
+                .build());
+    }
+}
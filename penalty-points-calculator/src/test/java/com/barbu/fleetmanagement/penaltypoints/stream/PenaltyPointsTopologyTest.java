@@ -0,0 +1,68 @@
+package com.barbu.fleetmanagement.penaltypoints.stream;
+
+import com.barbu.fleetmanagement.penaltypoints.domain.DriverWindowPenaltyPoints;
+import com.barbu.fleetmanagement.penaltypoints.domain.PenaltyPoints;
+import org.apache.kafka.streams.kstream.Windowed;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PenaltyPointsTopologyTest {
+
+    private final PenaltyPointsWindows rolling = PenaltyPointsWindows.rolling(Duration.ofDays(2), Duration.ofDays(1),
+            Duration.ofHours(1), Duration.ofDays(3), "rolling");
+    private final Map<Long, DriverWindowPenaltyPoints> aggregates = new HashMap<>();
+
+    @Test
+    void shouldPublishTheCurrentWindowOfEveryPenalty() {
+        assertThat(aggregate(penalty(5, "2025-06-01T10:00:00Z"))).containsExactly(millis("2025-05-31T00:00:00Z"));
+        assertThat(aggregate(penalty(2, "2025-06-02T01:00:00Z"))).containsExactly(millis("2025-06-01T00:00:00Z"));
+    }
+
+    @Test
+    void shouldPublishTheCurrentWindowOfALatePenalty() {
+        aggregate(penalty(5, "2025-06-02T01:00:00Z"));
+
+        // within the grace period of the window it is current in
+        List<Long> published = aggregate(penalty(2, "2025-06-01T23:50:00Z"));
+
+        long windowStart = millis("2025-05-31T00:00:00Z");
+        assertThat(published).containsExactly(windowStart);
+        assertThat(aggregates.get(windowStart).getTotalPoints()).isEqualTo(2);
+        // the later window the late penalty was also added to is not the current one of that penalty
+        assertThat(aggregates.get(millis("2025-06-01T00:00:00Z")).getTotalPoints()).isEqualTo(7);
+    }
+
+    /**
+     * Adds a penalty to its windows like the windowed aggregation of the topology.
+     *
+     * @return The starts of the windows published
+     */
+    private List<Long> aggregate(PenaltyPoints penaltyPoints) {
+        List<Long> published = new ArrayList<>();
+        rolling.windowsFor(penaltyPoints.penaltyTime().toEpochMilli()).forEach((windowStart, window) -> {
+            DriverWindowPenaltyPoints driverPoints = aggregates
+                    .computeIfAbsent(windowStart, _ -> new DriverWindowPenaltyPoints())
+                    .addPenaltyPoints(penaltyPoints);
+            if (PenaltyPointsTopology.isCurrentWindow(rolling, new Windowed<>("1", window), driverPoints)) {
+                published.add(windowStart);
+            }
+        });
+        return published;
+    }
+
+    private static PenaltyPoints penalty(int points, String time) {
+        return new PenaltyPoints(1L, 1L, 1L, points, Instant.parse(time));
+    }
+
+    private static long millis(String instant) {
+        return Instant.parse(instant).toEpochMilli();
+    }
+}
@@ -0,0 +1,66 @@
+package com.barbu.fleetmanagement.penaltypoints.stream;
+
+import org.apache.kafka.streams.kstream.internals.TimeWindow;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PenaltyPointsWindowsTest {
+
+    private static final Duration GRACE = Duration.ofHours(1);
+    private static final long PENALTY_TIME = Instant.parse("2025-06-04T15:30:00Z").toEpochMilli();
+
+    @Test
+    void shouldPlaceAPenaltyInTheCalendarDayWindow() {
+        PenaltyPointsWindows daily = PenaltyPointsWindows.daily(GRACE, Duration.ofDays(35), "daily");
+
+        Map<Long, TimeWindow> windows = daily.windowsFor(PENALTY_TIME);
+
+        assertThat(windows).containsOnlyKeys(millis("2025-06-04T00:00:00Z"));
+        assertThat(windows.get(millis("2025-06-04T00:00:00Z")).end()).isEqualTo(millis("2025-06-05T00:00:00Z"));
+    }
+
+    @Test
+    void shouldStartTheWeeksOnMonday() {
+        PenaltyPointsWindows weekly = PenaltyPointsWindows.weekly(GRACE, Duration.ofDays(91), "weekly");
+
+        // a Wednesday
+        Map<Long, TimeWindow> windows = weekly.windowsFor(PENALTY_TIME);
+
+        assertThat(windows).containsOnlyKeys(millis("2025-06-02T00:00:00Z"));
+        assertThat(weekly.windowsFor(millis("2025-06-09T00:00:00Z"))).containsOnlyKeys(millis("2025-06-09T00:00:00Z"));
+    }
+
+    @Test
+    void shouldPlaceAPenaltyInEveryRollingWindowAndPublishTheEarliest() {
+        PenaltyPointsWindows rolling = PenaltyPointsWindows.rolling(Duration.ofDays(365), Duration.ofDays(1), GRACE,
+                Duration.ofDays(366), "rolling");
+
+        Map<Long, TimeWindow> windows = rolling.windowsFor(PENALTY_TIME);
+
+        assertThat(windows).hasSize(365);
+        long currentWindowStart = rolling.currentWindowStart(PENALTY_TIME);
+        assertThat(currentWindowStart).isEqualTo(millis("2024-06-05T00:00:00Z"));
+        assertThat(windows.keySet().iterator().next()).isEqualTo(currentWindowStart);
+        assertThat(windows.get(currentWindowStart).end()).isEqualTo(millis("2025-06-05T00:00:00Z"));
+    }
+
+    @Test
+    void shouldRejectARetentionShorterThanTheWindowsAndTheGracePeriod() {
+        assertThatThrownBy(() -> PenaltyPointsWindows.rolling(Duration.ofDays(365), Duration.ofDays(1), GRACE,
+                Duration.ofDays(365), "rolling"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> PenaltyPointsWindows.rolling(Duration.ofDays(1), Duration.ofDays(2), GRACE,
+                Duration.ofDays(35), "rolling"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static long millis(String instant) {
+        return Instant.parse(instant).toEpochMilli();
+    }
+}
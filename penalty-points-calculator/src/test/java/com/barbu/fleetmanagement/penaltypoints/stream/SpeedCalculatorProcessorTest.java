@@ -0,0 +1,163 @@
+package com.barbu.fleetmanagement.penaltypoints.stream;
+
+import com.barbu.fleetmanagement.common.codec.CarPositionView;
+import com.barbu.fleetmanagement.common.geo.GeoCalculator;
+import com.barbu.fleetmanagement.common.model.CarPosition;
+import com.barbu.fleetmanagement.common.model.Location;
+import com.barbu.fleetmanagement.penaltypoints.application.service.InMemoryCarPositionCache;
+import com.barbu.fleetmanagement.penaltypoints.application.service.SpeedCalculatorService;
+import com.barbu.fleetmanagement.penaltypoints.domain.CarSpeed;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.processor.PunctuationType;
+import org.apache.kafka.streams.processor.api.FixedKeyProcessorContext;
+import org.apache.kafka.streams.processor.api.FixedKeyRecord;
+import org.apache.kafka.streams.state.KeyValueIterator;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SpeedCalculatorProcessorTest {
+
+    private static final Instant START = Instant.parse("2025-06-01T10:00:00Z");
+
+    @Mock
+    FixedKeyProcessorContext<String, CarSpeed> context;
+
+    @Captor
+    ArgumentCaptor<FixedKeyRecord<String, CarSpeed>> speedCaptor;
+
+    private final Map<Long, CarPositionView> storedPositions = new TreeMap<>();
+    private final SpeedCalculatorService speedCalculatorService =
+            new SpeedCalculatorService(new GeoCalculator(), new InMemoryCarPositionCache());
+    private SpeedCalculatorProcessor processor;
+
+    @BeforeEach
+    void setUp() {
+        KeyValueStore<Long, CarPositionView> store = store();
+        when(context.getStateStore(SpeedCalculatorProcessor.PREVIOUS_POSITIONS_STORE)).thenReturn(store);
+        processor = new SpeedCalculatorProcessor(speedCalculatorService, Duration.ofMinutes(10), Duration.ofMinutes(1));
+        processor.init(context);
+    }
+
+    @Test
+    void shouldCalculateTheSpeedFromThePreviousPositionOfTheStore() {
+        processor.process(record(position(1L, "44.400000", 0)));
+        processor.process(record(position(1L, "44.418000", 60)));
+
+        verify(context).forward(speedCaptor.capture());
+        CarSpeed speed = speedCaptor.getValue().value();
+        assertThat(speed.getTripId()).isEqualTo(1L);
+        assertThat(speed.getSpeedKmh()).isBetween(119.0, 121.0);
+        assertThat(storedPositions.get(1L).latMicros()).isEqualTo(44_418_000);
+    }
+
+    @Test
+    void shouldResumeFromThePreviousPositionRestoredInTheStore() {
+        storedPositions.put(1L, position(1L, "44.400000", 0));
+
+        processor.process(record(position(1L, "44.418000", 60)));
+
+        verify(context).forward(any(FixedKeyRecord.class));
+    }
+
+    @Test
+    void shouldExpireTheTripsWithoutPositionForTheTtl() {
+        verify(context).schedule(eq(Duration.ofMinutes(1)), eq(PunctuationType.WALL_CLOCK_TIME), any());
+        processor.process(record(position(1L, "44.400000", 0)));
+        processor.process(record(position(2L, "44.400000", 5 * 60)));
+        processor.process(record(position(3L, "44.400000", 11 * 60)));
+
+        processor.expire();
+
+        assertThat(storedPositions).containsOnlyKeys(2L, 3L);
+        verify(context, never()).forward(any(FixedKeyRecord.class));
+    }
+
+    /**
+     * Store backed by a map, not every test using every method.
+     */
+    @SuppressWarnings("unchecked")
+    private KeyValueStore<Long, CarPositionView> store() {
+        KeyValueStore<Long, CarPositionView> store = mock(KeyValueStore.class);
+        lenient().when(store.get(anyLong())).thenAnswer(invocation -> storedPositions.get(invocation.<Long>getArgument(0)));
+        lenient().doAnswer(invocation -> storedPositions.put(invocation.getArgument(0), invocation.getArgument(1)))
+                .when(store).put(anyLong(), any());
+        lenient().when(store.delete(anyLong()))
+                .thenAnswer(invocation -> storedPositions.remove(invocation.<Long>getArgument(0)));
+        lenient().when(store.all()).thenAnswer(_ -> iterator(storedPositions.entrySet().iterator()));
+        return store;
+    }
+
+    private static KeyValueIterator<Long, CarPositionView> iterator(
+            Iterator<Map.Entry<Long, CarPositionView>> entries) {
+        return new KeyValueIterator<>() {
+            @Override
+            public boolean hasNext() {
+                return entries.hasNext();
+            }
+
+            @Override
+            public KeyValue<Long, CarPositionView> next() {
+                Map.Entry<Long, CarPositionView> entry = entries.next();
+                return KeyValue.pair(entry.getKey(), entry.getValue());
+            }
+
+            @Override
+            public Long peekNextKey() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    /**
+     * Records cannot be created outside Kafka Streams, they are mocked.
+     */
+    @SuppressWarnings("unchecked")
+    private static FixedKeyRecord<String, CarPositionView> record(CarPositionView carPosition) {
+        FixedKeyRecord<String, CarPositionView> record = mock(FixedKeyRecord.class);
+        when(record.value()).thenReturn(carPosition);
+        lenient().when(record.withValue(any())).thenAnswer(invocation -> {
+            FixedKeyRecord<String, CarSpeed> speedRecord = mock(FixedKeyRecord.class);
+            lenient().when(speedRecord.value()).thenReturn(invocation.getArgument(0));
+            return speedRecord;
+        });
+        return record;
+    }
+
+    private static CarPositionView position(long tripId, String latitude, int seconds) {
+        return CarPositionView.of(CarPosition.builder()
+                .carId(tripId)
+                .driverId(tripId)
+                .tripId(tripId)
+                .currentLocation(new Location(new BigDecimal(latitude), new BigDecimal("26.100000")))
+                .timestamp(START.plusSeconds(seconds))
+                .build());
+    }
+}
@@ -1,23 +1,50 @@
 package com.barbu.fleetmanagement.simulator.api.consumer;
 
 import com.barbu.fleetmanagement.common.model.Trip;
-import com.barbu.fleetmanagement.simulator.application.service.TripSimulatorService;
+import com.barbu.fleetmanagement.simulator.application.service.TripSimulator;
+import com.barbu.fleetmanagement.simulator.domain.PartitionedCarPositionRepository;
+import io.smallrye.reactive.messaging.kafka.api.IncomingKafkaRecordMetadata;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Instance;
 import jakarta.inject.Inject;
 import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.eclipse.microprofile.reactive.messaging.Incoming;
 
 @Slf4j
 @ApplicationScoped
 public class TripConsumer {
 
+    /**
+     * The engine enabled by the {@code trip-simulator.engine} property.
+     */
     @Inject
-    TripSimulatorService tripSimulatorService;
-    
+    Instance<TripSimulator> tripSimulator;
+
+    @ConfigProperty(name = "trip-simulator.cluster.enabled", defaultValue = "false")
+    boolean clusterEnabled;
+
+    @Inject
+    Instance<PartitionedCarPositionRepository> partitionedRepository;
+
     @Incoming("trip")
-    public void consumeTripEvent(Trip trip) {
+    public void consumeTripEvent(Trip trip, IncomingKafkaRecordMetadata<String, Trip> metadata) {
         log.info("Received trip event for car {} with driver {}", trip.carId(), trip.driverId());
-        tripSimulatorService.startTripSimulation(trip);
+        // in the clustered mode the trip belongs to the instance its partition is assigned to
+        if (clusterEnabled && !partitionedRepository.get().own(trip.id(), metadata.getPartition())) {
+            log.info("Trip {} is already simulated", trip.id());
+            return;
+        }
+        try {
+            tripSimulator.get().startTripSimulation(trip);
+        } catch (IllegalArgumentException e) {
+            // an invalid trip, e.g. a truncated route, would otherwise fail the channel and stop all the next trips
+            log.error("Skipping trip {} which cannot be simulated: {}", trip.id(), e.getMessage());
+            if (clusterEnabled) {
+                partitionedRepository.get().deleteByTripId(trip.id());
+            }
+            return;
+        }
         log.info("Started trip simulation with ID {}", trip.id());
     }
-}
\ No newline at end of file
+}
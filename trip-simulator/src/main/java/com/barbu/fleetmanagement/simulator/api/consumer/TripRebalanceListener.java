@@ -0,0 +1,72 @@
+package com.barbu.fleetmanagement.simulator.api.consumer;
+
+import com.barbu.fleetmanagement.simulator.application.service.TripSimulator;
+import com.barbu.fleetmanagement.simulator.domain.CarPositionDetails;
+import com.barbu.fleetmanagement.simulator.domain.PartitionedCarPositionRepository;
+import io.smallrye.common.annotation.Identifier;
+import io.smallrye.reactive.messaging.kafka.KafkaConsumerRebalanceListener;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.TopicPartition;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * In the clustered mode ({@code trip-simulator.cluster.enabled}), moves the simulation of the trips along with the
+ * partitions of the trip topic: the trips of revoked partitions are handed over, those of assigned partitions are
+ * resumed, see {@link PartitionedCarPositionRepository}. Runs on the polling thread, so no trip event of an assigned
+ * partition is consumed before its trips are resumed. Does nothing otherwise.
+ */
+@Slf4j
+@ApplicationScoped
+@Identifier("trip-rebalance-listener")
+public class TripRebalanceListener implements KafkaConsumerRebalanceListener {
+
+    @ConfigProperty(name = "trip-simulator.cluster.enabled", defaultValue = "false")
+    boolean clusterEnabled;
+
+    @Inject
+    Instance<PartitionedCarPositionRepository> partitionedRepository;
+
+    /**
+     * The engine enabled by the {@code trip-simulator.engine} property.
+     */
+    @Inject
+    Instance<TripSimulator> tripSimulator;
+
+    @Override
+    public void onPartitionsAssigned(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        if (!clusterEnabled || partitions.isEmpty()) {
+            return;
+        }
+        List<CarPositionDetails> acquired = partitionedRepository.get().acquire(partitionNumbers(partitions));
+        TripSimulator simulator = tripSimulator.get();
+        for (CarPositionDetails position : acquired) {
+            simulator.resumeTripSimulation(position);
+        }
+        log.info("Resumed {} trips of the assigned partitions {}", acquired.size(), partitions);
+    }
+
+    @Override
+    public void onPartitionsRevoked(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        if (clusterEnabled && !partitions.isEmpty()) {
+            partitionedRepository.get().release(partitionNumbers(partitions));
+        }
+    }
+
+    @Override
+    public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        if (clusterEnabled && !partitions.isEmpty()) {
+            partitionedRepository.get().drop(partitionNumbers(partitions));
+        }
+    }
+
+    private static List<Integer> partitionNumbers(Collection<TopicPartition> partitions) {
+        return partitions.stream().map(TopicPartition::partition).toList();
+    }
+}
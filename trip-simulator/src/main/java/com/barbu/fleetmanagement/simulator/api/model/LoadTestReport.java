@@ -0,0 +1,24 @@
+package com.barbu.fleetmanagement.simulator.api.model;
+
+import java.time.Instant;
+
+/**
+ * Progress of the current or last load test run. The position rate is averaged since the start of the run, the
+ * percentiles are those of the last couple of minutes, in milliseconds. The emission queue depth is 0 unless the
+ * emission pipeline is enabled.
+ */
+public record LoadTestReport(
+        boolean running,
+        LoadTestRequest request,
+        Instant startedAt,
+        Instant stoppedAt,
+        long tripsStarted,
+        int activeTrips,
+        double positionsPerSecond,
+        Percentiles tickLagMillis,
+        Percentiles sendLatencyMillis,
+        int emissionQueueDepth) {
+
+    public record Percentiles(double p50, double p95, double p99) {
+    }
+}
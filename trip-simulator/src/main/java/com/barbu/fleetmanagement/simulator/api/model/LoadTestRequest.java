@@ -0,0 +1,15 @@
+package com.barbu.fleetmanagement.simulator.api.model;
+
+/**
+ * Parameters of a load test run: synthetic trips are started at {@code tripsPerSecond} until
+ * {@code targetActiveTrips} trips are being simulated, and then as trips complete, between random points of the
+ * bounding box.
+ */
+public record LoadTestRequest(
+        int tripsPerSecond,
+        int targetActiveTrips,
+        double minLatitude,
+        double maxLatitude,
+        double minLongitude,
+        double maxLongitude) {
+}
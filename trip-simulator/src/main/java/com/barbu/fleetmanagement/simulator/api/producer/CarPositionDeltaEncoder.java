@@ -0,0 +1,67 @@
+package com.barbu.fleetmanagement.simulator.api.producer;
+
+import com.barbu.fleetmanagement.common.codec.CarPositionDeltaCodec;
+import com.barbu.fleetmanagement.common.model.CarPosition;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.barbu.fleetmanagement.common.codec.BinaryFormat.toMicroDegrees;
+
+/**
+ * Delta encodes the car positions of every trip, see {@link CarPositionDeltaCodec}.
+ * <p>
+ * The first position of a trip, and then every {@code car.position.delta.keyframe-interval} positions, is sent as a
+ * keyframe. Since the previous positions are only kept in memory, the first position of every trip after a restart
+ * is a keyframe too. The positions of a trip are expected to be encoded one at a time, in order.
+ */
+@ApplicationScoped
+public class CarPositionDeltaEncoder {
+
+    @ConfigProperty(name = "car.position.delta.keyframe-interval", defaultValue = "10")
+    int keyframeInterval;
+
+    private final Map<Long, PreviousPosition> previousPositions = new ConcurrentHashMap<>();
+
+    public byte[] encode(CarPosition carPosition) {
+        int latitude = toMicroDegrees(carPosition.currentLocation().latitude());
+        int longitude = toMicroDegrees(carPosition.currentLocation().longitude());
+        long epochMillis = carPosition.timestamp().toEpochMilli();
+        PreviousPosition previous = previousPositions.get(carPosition.tripId());
+
+        if (previous == null || previous.sequence + 1 >= keyframeInterval) {
+            previousPositions.put(carPosition.tripId(), new PreviousPosition(latitude, longitude, epochMillis));
+            return CarPositionDeltaCodec.encodeKeyframe(carPosition);
+        }
+
+        byte[] delta = CarPositionDeltaCodec.encodeDelta(carPosition.tripId(), previous.sequence + 1,
+                latitude - previous.latitude, longitude - previous.longitude, epochMillis - previous.epochMillis);
+        previous.sequence++;
+        previous.latitude = latitude;
+        previous.longitude = longitude;
+        previous.epochMillis = epochMillis;
+        return delta;
+    }
+
+    /**
+     * Drops the previous position of a finished trip.
+     */
+    public void forget(Long tripId) {
+        previousPositions.remove(tripId);
+    }
+
+    private static final class PreviousPosition {
+        private int latitude;
+        private int longitude;
+        private long epochMillis;
+        private long sequence;
+
+        private PreviousPosition(int latitude, int longitude, long epochMillis) {
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.epochMillis = epochMillis;
+        }
+    }
+}
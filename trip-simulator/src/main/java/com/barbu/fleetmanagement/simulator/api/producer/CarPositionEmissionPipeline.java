@@ -0,0 +1,227 @@
+package com.barbu.fleetmanagement.simulator.api.producer;
+
+import com.barbu.fleetmanagement.common.model.CarPosition;
+import com.barbu.fleetmanagement.simulator.application.service.SimulatorMetrics;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+/**
+ * Bounded queue between the simulation engines and the Kafka emitters, drained by a single sender thread
+ * ({@code car.position.emission.enabled}).
+ * <p>
+ * The engines only queue the positions of their tick; the sender thread hands them over in order to the
+ * {@link CarPositionProducer}, which takes one of the {@code car.position.emission.max-in-flight} send permits per
+ * record and gives it back when Kafka acknowledges or rejects the record. When Kafka slows down the sender waits for
+ * permits, the emitter buffer never overflows and the queue grows instead, up to
+ * {@code car.position.emission.queue-capacity} positions, after which the {@link OverflowPolicy} applies.
+ * <p>
+ * The completion of a trip is queued behind its positions, so that what is kept for the trip is only released once
+ * they are sent. The queue depth, in-flight records, dropped and coalesced positions are reported as the
+ * {@code simulator.emission.*} meters, see {@link SimulatorMetrics}.
+ */
+@Slf4j
+final class CarPositionEmissionPipeline implements AutoCloseable {
+
+    private final int capacity;
+    private final OverflowPolicy overflowPolicy;
+    private final Consumer<CarPosition> sender;
+    private final LongConsumer completion;
+    private final Semaphore sendPermits;
+    private final int maxInFlight;
+    private final SimulatorMetrics.EmissionMeters meters;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final ArrayDeque<Entry> entries = new ArrayDeque<>();
+    private final Map<Long, Entry> queuedByTrip = new HashMap<>();
+    private int queuedPositions;
+
+    private final ExecutorService senderThread = Executors.newSingleThreadExecutor();
+
+    /**
+     * @param sender     Sends a position, on the sender thread
+     * @param completion Releases what is kept for a completed trip, on the sender thread
+     */
+    CarPositionEmissionPipeline(int capacity, int maxInFlight, OverflowPolicy overflowPolicy,
+                                Consumer<CarPosition> sender, LongConsumer completion,
+                                SimulatorMetrics simulatorMetrics) {
+        if (capacity < 1 || maxInFlight < 1) {
+            throw new IllegalArgumentException(
+                    "The queue capacity and the max in-flight records must be positive, got " + capacity
+                            + " and " + maxInFlight);
+        }
+        this.capacity = capacity;
+        this.maxInFlight = maxInFlight;
+        this.overflowPolicy = overflowPolicy;
+        this.sender = sender;
+        this.completion = completion;
+        this.sendPermits = new Semaphore(maxInFlight);
+        this.meters = simulatorMetrics.registerEmission(this::depth, this::inFlight);
+    }
+
+    void start() {
+        senderThread.execute(this::drain);
+    }
+
+    /**
+     * Queues a position, applying the {@link OverflowPolicy} when the queue is full.
+     */
+    void submit(CarPosition position) {
+        lock.lock();
+        try {
+            if (overflowPolicy == OverflowPolicy.COALESCE) {
+                Entry queued = queuedByTrip.get(position.tripId());
+                if (queued != null) {
+                    queued.position = position;
+                    meters.coalesced().increment();
+                    return;
+                }
+            }
+            while (queuedPositions >= capacity) {
+                if (overflowPolicy != OverflowPolicy.BLOCK) {
+                    meters.dropped().increment();
+                    return;
+                }
+                try {
+                    notFull.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    meters.dropped().increment();
+                    return;
+                }
+            }
+            Entry entry = new Entry(position.tripId(), position);
+            entries.add(entry);
+            queuedPositions++;
+            if (overflowPolicy == OverflowPolicy.COALESCE) {
+                queuedByTrip.put(position.tripId(), entry);
+            }
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Queues the completion of a trip behind its positions. Never blocked nor dropped, whatever the policy.
+     */
+    void completed(long tripId) {
+        lock.lock();
+        try {
+            entries.add(new Entry(tripId, null));
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes a send permit, waiting while {@code max-in-flight} records are not acknowledged yet.
+     *
+     * @throws CancellationException when interrupted, the pipeline is being closed
+     */
+    void acquireSendPermit() {
+        try {
+            sendPermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Closed while waiting to send");
+        }
+    }
+
+    void releaseSendPermit() {
+        sendPermits.release();
+    }
+
+    int depth() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int inFlight() {
+        return maxInFlight - sendPermits.availablePermits();
+    }
+
+    /**
+     * Waits for the next entry, a position or a trip completion.
+     */
+    Entry take() throws InterruptedException {
+        lock.lock();
+        try {
+            while (entries.isEmpty()) {
+                notEmpty.await();
+            }
+            Entry entry = entries.poll();
+            if (entry.position != null) {
+                queuedPositions--;
+                queuedByTrip.remove(entry.tripId, entry);
+                notFull.signal();
+            }
+            return entry;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        senderThread.shutdownNow();
+        int unsent = depth();
+        if (unsent > 0) {
+            log.warn("Closed the emission pipeline with {} entries not sent", unsent);
+        }
+    }
+
+    private void drain() {
+        while (!Thread.currentThread().isInterrupted()) {
+            Entry entry;
+            try {
+                entry = take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                if (entry.position == null) {
+                    completion.accept(entry.tripId);
+                } else {
+                    sender.accept(entry.position);
+                }
+            } catch (RuntimeException e) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+                // the sender thread must outlive a failing send
+                log.error("Failed to send the position of trip {}", entry.tripId, e);
+            }
+        }
+    }
+
+    /**
+     * A queued position, or the completion of a trip when the position is {@code null}.
+     */
+    static final class Entry {
+        final long tripId;
+        CarPosition position;
+
+        private Entry(long tripId, CarPosition position) {
+            this.tripId = tripId;
+            this.position = position;
+        }
+    }
+}
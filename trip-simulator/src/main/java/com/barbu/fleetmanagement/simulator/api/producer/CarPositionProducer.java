@@ -1,16 +1,63 @@
 package com.barbu.fleetmanagement.simulator.api.producer;
 
+import com.barbu.fleetmanagement.common.codec.BinaryFormat;
+import com.barbu.fleetmanagement.common.codec.CarPositionDeltaCodec;
 import com.barbu.fleetmanagement.common.model.CarPosition;
+import com.barbu.fleetmanagement.common.model.CarPositionBatch;
+import com.barbu.fleetmanagement.simulator.application.service.SimulatorMetrics;
 import com.barbu.fleetmanagement.simulator.domain.CarPositionDetails;
+import io.quarkus.scheduler.Scheduled;
 import io.smallrye.reactive.messaging.kafka.api.OutgoingKafkaRecordMetadata;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.common.header.Headers;
 import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.eclipse.microprofile.reactive.messaging.Channel;
 import org.eclipse.microprofile.reactive.messaging.Emitter;
 import org.eclipse.microprofile.reactive.messaging.Message;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static io.quarkus.scheduler.Scheduled.ConcurrentExecution.SKIP;
+
+/**
+ * Publishes car positions to Kafka.
+ * <p>
+ * By default every position is sent as its own record, keyed by driver ID. When {@code car.position.batch.enabled}
+ * is set, positions are instead buffered per partition key bucket (driver ID modulo
+ * {@code car.position.batch.buckets}) and sent as {@link CarPositionBatch} records keyed by bucket:
+ * <ul>
+ *   <li>when a bucket holds {@code car.position.batch.max-size} positions</li>
+ *   <li>on every {@code car.position.batch.flush-interval} tick, for the buckets which are not empty</li>
+ * </ul>
+ * All the positions of a driver fall in the same bucket and a bucket is sent in insertion order, so the positions of
+ * a driver keep their order.
+ * <p>
+ * Otherwise, when {@code car.position.delta.enabled} is set, single position records are delta encoded per trip by
+ * the {@link CarPositionDeltaEncoder}, see {@link CarPositionDeltaCodec}.
+ * <p>
+ * With {@code car.position.dead-reckoning.enabled} the positions a receiver could extrapolate from the previous one
+ * are not published, see {@link DeadReckoningFilter}. The last position of a trip is always published when the trip
+ * completes, not when the trip is handed over to another instance, which publishes the next positions.
+ * <p>
+ * The time until Kafka acknowledges each record is reported as {@code simulator.producer.send.latency}.
+ * <p>
+ * With {@code car.position.emission.enabled} the engines only queue the positions in a
+ * {@link CarPositionEmissionPipeline}, which sends them from its own thread with a bounded number of records waiting
+ * for their acknowledgement, so that a slow broker degrades the emission along the configured {@link OverflowPolicy}
+ * instead of overflowing the emitter buffers.
+ */
+@Slf4j
 @ApplicationScoped
 public class CarPositionProducer {
 
@@ -18,7 +65,84 @@ public class CarPositionProducer {
     @Channel("hearth-beat")
     Emitter<CarPosition> carPositionEmitter;
 
+    @Inject
+    @Channel("hearth-beat-batch")
+    Emitter<CarPositionBatch> carPositionBatchEmitter;
+
+    @Inject
+    @Channel("hearth-beat-delta")
+    Emitter<byte[]> carPositionDeltaEmitter;
+
+    @Inject
+    CarPositionDeltaEncoder carPositionDeltaEncoder;
+
+    @Inject
+    DeadReckoningFilter deadReckoningFilter;
+
+    @Inject
+    SimulatorMetrics simulatorMetrics;
+
+    @ConfigProperty(name = "car.position.delta.enabled", defaultValue = "false")
+    boolean deltaEnabled;
+
+    @ConfigProperty(name = "car.position.dead-reckoning.enabled", defaultValue = "false")
+    boolean deadReckoningEnabled;
+
+    @ConfigProperty(name = "car.position.batch.enabled", defaultValue = "false")
+    boolean batchEnabled;
+
+    @ConfigProperty(name = "car.position.batch.buckets", defaultValue = "16")
+    int batchBuckets;
+
+    @ConfigProperty(name = "car.position.batch.max-size", defaultValue = "500")
+    int batchMaxSize;
+
+    @ConfigProperty(name = "car.position.emission.enabled", defaultValue = "false")
+    boolean emissionEnabled;
+
+    @ConfigProperty(name = "car.position.emission.queue-capacity", defaultValue = "100000")
+    int emissionQueueCapacity;
+
+    @ConfigProperty(name = "car.position.emission.max-in-flight", defaultValue = "1000")
+    int emissionMaxInFlight;
+
+    @ConfigProperty(name = "car.position.emission.overflow-policy", defaultValue = "coalesce")
+    OverflowPolicy overflowPolicy;
+
+    private static final byte[] DELTA_VERSION = {CarPositionDeltaCodec.VERSION};
+    private static final byte[] POSITION_UPDATED = "position.updated".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] POSITION_BATCH = "position.batch".getBytes(StandardCharsets.UTF_8);
+
+    private final Map<Integer, List<CarPosition>> pendingBatches = new ConcurrentHashMap<>();
+    private CarPositionEmissionPipeline pipeline;
+
+    @PostConstruct
+    void startPipeline() {
+        if (emissionEnabled) {
+            pipeline = new CarPositionEmissionPipeline(emissionQueueCapacity, emissionMaxInFlight, overflowPolicy,
+                    this::emit, this::forget, simulatorMetrics);
+            pipeline.start();
+            log.info("Started the emission pipeline of {} positions with up to {} records in flight, on overflow: {}",
+                    emissionQueueCapacity, emissionMaxInFlight, overflowPolicy);
+        }
+    }
+
+    @PreDestroy
+    void stopPipeline() {
+        if (pipeline != null) {
+            pipeline.close();
+        }
+    }
+
     public void sendCarPosition(CarPositionDetails carPositionDetails) {
+        if (deadReckoningEnabled && !deadReckoningFilter.shouldPublish(carPositionDetails)) {
+            simulatorMetrics.recordPositionSuppressed();
+            return;
+        }
+        publish(carPositionDetails);
+    }
+
+    private void publish(CarPositionDetails carPositionDetails) {
         CarPosition carPosition = CarPosition.builder()
                 .carId(carPositionDetails.getCarId())
                 .driverId(carPositionDetails.getDriverId())
@@ -26,12 +150,131 @@ public class CarPositionProducer {
                 .currentLocation(carPositionDetails.getCurrentLocation())
                 .timestamp(carPositionDetails.getTimestamp())
                 .build();
+        simulatorMetrics.recordPositionSent();
+        if (pipeline != null) {
+            pipeline.submit(carPosition);
+            return;
+        }
+        emit(carPosition);
+    }
+
+    /**
+     * Releases what is kept for a trip once its simulation is over.
+     */
+    public void tripCompleted(Long tripId) {
+        if (deadReckoningEnabled) {
+            Optional<CarPositionDetails> lastPosition = deadReckoningFilter.completed(tripId);
+            lastPosition.ifPresent(this::publish);
+        }
+        release(tripId);
+    }
+
+    /**
+     * Releases what is kept for a trip handed over to another instance, without publishing anything: its next owner
+     * resumes it from its last stored position, a held position published now would reach the consumers out of order.
+     */
+    public void tripReleased(Long tripId) {
+        if (deadReckoningEnabled) {
+            deadReckoningFilter.forget(tripId);
+        }
+        release(tripId);
+    }
+
+    private void release(long tripId) {
+        if (pipeline != null) {
+            pipeline.completed(tripId);
+            return;
+        }
+        forget(tripId);
+    }
+
+    private void emit(CarPosition carPosition) {
+        if (batchEnabled) {
+            addToBatch(carPosition);
+            return;
+        }
         Headers headers = new RecordHeaders();
-        headers.add("eventType", "position.updated".getBytes());
+        headers.add("eventType", POSITION_UPDATED);
         OutgoingKafkaRecordMetadata<String> metadata = OutgoingKafkaRecordMetadata.<String> builder()
-                .withKey(carPositionDetails.getDriverId().toString())
+                .withKey(carPosition.driverId().toString())
                 .withHeaders(headers)
                 .build();
-        carPositionEmitter.send(Message.of(carPosition).addMetadata(metadata));
+        if (deltaEnabled) {
+            BinaryFormat.addVersion(headers, DELTA_VERSION);
+            byte[] delta = carPositionDeltaEncoder.encode(carPosition);
+            carPositionDeltaEmitter.send(tracked(Message.of(delta).addMetadata(metadata)));
+            return;
+        }
+        carPositionEmitter.send(tracked(Message.of(carPosition).addMetadata(metadata)));
+    }
+
+    private void forget(long tripId) {
+        if (deltaEnabled) {
+            carPositionDeltaEncoder.forget(tripId);
+        }
+    }
+
+    /**
+     * Sends the positions buffered since the previous tick. Does nothing when batching is disabled.
+     */
+    @Scheduled(every = "${car.position.batch.flush-interval:1s}", concurrentExecution = SKIP)
+    void flushBatches() {
+        pendingBatches.forEach((bucket, batch) -> {
+            synchronized (batch) {
+                if (!batch.isEmpty()) {
+                    sendBatch(bucket, batch);
+                }
+            }
+        });
+    }
+
+    private void addToBatch(CarPosition carPosition) {
+        int bucket = (int) Math.floorMod(carPosition.driverId(), (long) batchBuckets);
+        List<CarPosition> batch = pendingBatches.computeIfAbsent(bucket, _ -> new ArrayList<>());
+        // sending while holding the lock keeps the batches of a bucket in order
+        synchronized (batch) {
+            batch.add(carPosition);
+            if (batch.size() >= batchMaxSize) {
+                sendBatch(bucket, batch);
+            }
+        }
+    }
+
+    private void sendBatch(int bucket, List<CarPosition> batch) {
+        Headers headers = new RecordHeaders();
+        headers.add("eventType", POSITION_BATCH);
+        OutgoingKafkaRecordMetadata<String> metadata = OutgoingKafkaRecordMetadata.<String> builder()
+                .withKey(Integer.toString(bucket))
+                .withHeaders(headers)
+                .build();
+        CarPositionBatch carPositionBatch = new CarPositionBatch(List.copyOf(batch));
+        carPositionBatchEmitter.send(tracked(Message.of(carPositionBatch).addMetadata(metadata)));
+        batch.clear();
+    }
+
+    /**
+     * Records the send latency on acknowledgement and, with the emission pipeline, holds a send permit until Kafka
+     * acknowledges or rejects the record.
+     */
+    private <T> Message<T> tracked(Message<T> message) {
+        CarPositionEmissionPipeline inFlight = pipeline;
+        if (inFlight != null) {
+            inFlight.acquireSendPermit();
+        }
+        long sentNanos = System.nanoTime();
+        return message.withAck(() -> {
+            simulatorMetrics.recordProducerSend(System.nanoTime() - sentNanos);
+            if (inFlight != null) {
+                inFlight.releaseSendPermit();
+            }
+            return CompletableFuture.completedFuture(null);
+        }).withNack(failure -> {
+            simulatorMetrics.recordProducerSendFailure();
+            if (inFlight != null) {
+                inFlight.releaseSendPermit();
+            }
+            log.warn("Failed to send a car position record", failure);
+            return CompletableFuture.completedFuture(null);
+        });
     }
 }
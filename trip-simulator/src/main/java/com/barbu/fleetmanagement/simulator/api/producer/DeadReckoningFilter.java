@@ -0,0 +1,130 @@
+package com.barbu.fleetmanagement.simulator.api.producer;
+
+import com.barbu.fleetmanagement.common.geo.GeoCalculator;
+import com.barbu.fleetmanagement.common.geo.Trajectory;
+import com.barbu.fleetmanagement.simulator.domain.CarPositionDetails;
+import jakarta.enterprise.context.ApplicationScoped;
+import lombok.RequiredArgsConstructor;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decides which car positions are worth publishing, see {@code car.position.dead-reckoning.enabled}.
+ * <p>
+ * When a position is published, the filter remembers it with the speed and the heading of the car. The following
+ * positions of the trip are only published when:
+ * <ul>
+ *   <li>they are more than {@code car.position.dead-reckoning.tolerance-km} away from the position predicted by
+ *   moving the car from the last published position, straight along its heading at its speed</li>
+ *   <li>or nothing was published for the trip for {@code car.position.dead-reckoning.max-silence}</li>
+ * </ul>
+ * The positions which are not published are held until the next one of their trip, so that the last position of a
+ * completed trip can still be published by {@link #completed(long)}.
+ * <p>
+ * A car keeping its speed and heading is therefore only reported every max silence, while the distance between two
+ * published positions never differs by more than the tolerance from the distance the car really travelled on a
+ * straight road: the speeds calculated from the published positions stay within the tolerance over the elapsed time.
+ * The positions of a trip are expected to be filtered one at a time, in order.
+ */
+@ApplicationScoped
+@RequiredArgsConstructor
+public class DeadReckoningFilter {
+
+    private static final double EARTH_RADIUS_KM = 6371;
+    private static final double HEADING_LOOKAHEAD_KM = 0.01;
+    private static final double SECONDS_IN_HOUR = 3600;
+
+    private final GeoCalculator geoCalculator;
+
+    @ConfigProperty(name = "car.position.dead-reckoning.tolerance-km", defaultValue = "0.05")
+    double toleranceKm;
+
+    @ConfigProperty(name = "car.position.dead-reckoning.max-silence", defaultValue = "60s")
+    Duration maxSilence;
+
+    private final Map<Long, Reckoning> reckonings = new ConcurrentHashMap<>();
+
+    /**
+     * Whether to publish a position, remembering it as the last published position of its trip when it is.
+     */
+    public boolean shouldPublish(CarPositionDetails position) {
+        double latitude = position.getCurrentLocation().latitude().doubleValue();
+        double longitude = position.getCurrentLocation().longitude().doubleValue();
+        long epochMillis = position.getTimestamp().toEpochMilli();
+        Reckoning reckoning = reckonings.get(position.getTripId());
+
+        if (reckoning != null && epochMillis - reckoning.epochMillis < maxSilence.toMillis()
+                && deviationKm(reckoning, latitude, longitude, epochMillis) <= toleranceKm) {
+            reckoning.held = position;
+            return false;
+        }
+        reckonings.put(position.getTripId(), new Reckoning(latitude, longitude, epochMillis,
+                position.getSpeedKmPerHour().doubleValue(), heading(position)));
+        return true;
+    }
+
+    /**
+     * Forgets a completed trip.
+     *
+     * @return The last position of the trip, when it was not published
+     */
+    public Optional<CarPositionDetails> completed(long tripId) {
+        Reckoning reckoning = reckonings.remove(tripId);
+        return reckoning == null ? Optional.empty() : Optional.ofNullable(reckoning.held);
+    }
+
+    /**
+     * Forgets a trip simulated by another instance from now on, dropping its last position when it was not published.
+     */
+    public void forget(long tripId) {
+        reckonings.remove(tripId);
+    }
+
+    /**
+     * Distance between a position and the position predicted from the last published one.
+     */
+    private double deviationKm(Reckoning reckoning, double latitude, double longitude, long epochMillis) {
+        double distanceKm = reckoning.speedKmPerHour * (epochMillis - reckoning.epochMillis) / 1000 / SECONDS_IN_HOUR;
+        double heading = Math.toRadians(reckoning.heading);
+        // a flat earth is accurate enough over the few kilometers travelled during the max silence
+        double predictedLatitude = reckoning.latitude
+                + Math.toDegrees(distanceKm * Math.cos(heading) / EARTH_RADIUS_KM);
+        double predictedLongitude = reckoning.longitude + Math.toDegrees(distanceKm * Math.sin(heading)
+                / (EARTH_RADIUS_KM * Math.cos(Math.toRadians(reckoning.latitude))));
+        return geoCalculator.calculateDistanceInKm(predictedLatitude, predictedLongitude, latitude, longitude);
+    }
+
+    /**
+     * Direction the car is heading to along its trajectory, in degrees clockwise from north.
+     */
+    private double heading(CarPositionDetails position) {
+        Trajectory trajectory = position.getTrajectory();
+        double from = Math.max(0, Math.min(position.getDistanceTravelledKm(),
+                trajectory.getLengthKm() - HEADING_LOOKAHEAD_KM));
+        double to = Math.min(from + HEADING_LOOKAHEAD_KM, trajectory.getLengthKm());
+        return geoCalculator.calculateBearing(trajectory.latitudeAt(from), trajectory.longitudeAt(from),
+                trajectory.latitudeAt(to), trajectory.longitudeAt(to));
+    }
+
+    private static final class Reckoning {
+        private final double latitude;
+        private final double longitude;
+        private final long epochMillis;
+        private final double speedKmPerHour;
+        private final double heading;
+        private CarPositionDetails held;
+
+        private Reckoning(double latitude, double longitude, long epochMillis, double speedKmPerHour,
+                          double heading) {
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.epochMillis = epochMillis;
+            this.speedKmPerHour = speedKmPerHour;
+            this.heading = heading;
+        }
+    }
+}
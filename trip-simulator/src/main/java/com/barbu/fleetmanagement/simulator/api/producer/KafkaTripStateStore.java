@@ -0,0 +1,124 @@
+package com.barbu.fleetmanagement.simulator.api.producer;
+
+import com.barbu.fleetmanagement.simulator.domain.CarPositionDetails;
+import com.barbu.fleetmanagement.simulator.domain.CarPositionDetailsCodec;
+import com.barbu.fleetmanagement.simulator.domain.TripStateStore;
+import io.smallrye.reactive.messaging.kafka.Record;
+import io.smallrye.reactive.messaging.kafka.api.OutgoingKafkaRecordMetadata;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.reactive.messaging.Channel;
+import org.eclipse.microprofile.reactive.messaging.Emitter;
+import org.eclipse.microprofile.reactive.messaging.Message;
+import org.eclipse.microprofile.reactive.messaging.OnOverflow;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * {@link TripStateStore} on the compacted {@code fleet-management.trip.state} topic: the state of a trip is a record
+ * keyed by trip ID, in the partition of the same number as the partition of the trip topic the trip belongs to, a
+ * completed trip is a tombstone. Loading the states of partitions reads them from the beginning, with a consumer of
+ * its own, up to their end offsets.
+ * <p>
+ * The topic needs at least as many partitions as the trip topic.
+ */
+@Slf4j
+@ApplicationScoped
+public class KafkaTripStateStore implements TripStateStore {
+
+    private static final Duration POLL_TIMEOUT = Duration.ofMillis(100);
+
+    @Inject
+    @Channel("trip-state")
+    @OnOverflow(OnOverflow.Strategy.UNBOUNDED_BUFFER)
+    Emitter<Record<String, byte[]>> tripStateEmitter;
+
+    @ConfigProperty(name = "kafka.bootstrap.servers")
+    String bootstrapServers;
+
+    @ConfigProperty(name = "mp.messaging.outgoing.trip-state.topic", defaultValue = "fleet-management.trip.state")
+    String topic;
+
+    @ConfigProperty(name = "trip-simulator.cluster.load-timeout", defaultValue = "30s")
+    Duration loadTimeout;
+
+    @Override
+    public CompletableFuture<Void> save(int partition, CarPositionDetails position) {
+        CompletableFuture<Void> stored = new CompletableFuture<>();
+        send(partition, Record.of(position.getTripId().toString(), CarPositionDetailsCodec.encode(position)), stored);
+        return stored;
+    }
+
+    @Override
+    public void delete(int partition, long tripId) {
+        send(partition, Record.of(Long.toString(tripId), null), new CompletableFuture<>());
+    }
+
+    @Override
+    public Map<Integer, List<CarPositionDetails>> load(Collection<Integer> partitions) {
+        if (partitions.isEmpty()) {
+            return Map.of();
+        }
+        Properties properties = new Properties();
+        properties.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        properties.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        try (KafkaConsumer<String, byte[]> consumer = new KafkaConsumer<>(properties, new StringDeserializer(),
+                new ByteArrayDeserializer())) {
+            List<TopicPartition> topicPartitions = partitions.stream()
+                    .map(partition -> new TopicPartition(topic, partition))
+                    .toList();
+            consumer.assign(topicPartitions);
+            consumer.seekToBeginning(topicPartitions);
+            Map<TopicPartition, Long> endOffsets = consumer.endOffsets(topicPartitions, loadTimeout);
+            Map<Integer, Map<String, byte[]>> states = new HashMap<>();
+            long deadline = System.nanoTime() + loadTimeout.toNanos();
+            while (topicPartitions.stream().anyMatch(tp -> consumer.position(tp) < endOffsets.get(tp))) {
+                if (System.nanoTime() > deadline) {
+                    throw new IllegalStateException("Timed out loading the trip states of partitions " + partitions);
+                }
+                for (ConsumerRecord<String, byte[]> record : consumer.poll(POLL_TIMEOUT)) {
+                    Map<String, byte[]> partitionStates = states.computeIfAbsent(record.partition(),
+                            _ -> new HashMap<>());
+                    if (record.value() == null) {
+                        partitionStates.remove(record.key());
+                    } else {
+                        partitionStates.put(record.key(), record.value());
+                    }
+                }
+            }
+            Map<Integer, List<CarPositionDetails>> positions = new HashMap<>();
+            states.forEach((partition, partitionStates) -> positions.put(partition, partitionStates.values().stream()
+                    .map(CarPositionDetailsCodec::decode)
+                    .toList()));
+            return positions;
+        }
+    }
+
+    private void send(int partition, Record<String, byte[]> record, CompletableFuture<Void> stored) {
+        OutgoingKafkaRecordMetadata<String> metadata = OutgoingKafkaRecordMetadata.<String> builder()
+                .withPartition(partition)
+                .build();
+        tripStateEmitter.send(Message.of(record).addMetadata(metadata).withAck(() -> {
+            stored.complete(null);
+            return CompletableFuture.completedFuture(null);
+        }).withNack(failure -> {
+            log.warn("Failed to store the state of trip {}", record.key(), failure);
+            stored.completeExceptionally(failure);
+            return CompletableFuture.completedFuture(null);
+        }));
+    }
+}
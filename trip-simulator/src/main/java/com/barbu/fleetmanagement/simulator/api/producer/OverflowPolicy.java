@@ -0,0 +1,23 @@
+package com.barbu.fleetmanagement.simulator.api.producer;
+
+/**
+ * What the {@link CarPositionEmissionPipeline} does with a position once its queue is full
+ * ({@code car.position.emission.overflow-policy}).
+ */
+public enum OverflowPolicy {
+    /**
+     * Keeps only the latest queued position of each trip: a new position replaces the one of its trip still waiting to
+     * be sent, whether the queue is full or not, as it supersedes it. Once the queue is full the positions of the
+     * trips with nothing queued are dropped.
+     */
+    COALESCE,
+    /**
+     * Drops the new positions until the queue has room again.
+     */
+    DROP,
+    /**
+     * Blocks the engine thread queuing the position until the queue has room again, slowing the ticks down to the
+     * pace of Kafka. The lag then shows in {@code simulator.tick.lag}.
+     */
+    BLOCK
+}
@@ -0,0 +1,59 @@
+package com.barbu.fleetmanagement.simulator.api.resource;
+
+import com.barbu.fleetmanagement.simulator.api.model.LoadTestReport;
+import com.barbu.fleetmanagement.simulator.api.model.LoadTestRequest;
+import com.barbu.fleetmanagement.simulator.application.service.LoadGenerator;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.ClientErrorException;
+import jakarta.ws.rs.DELETE;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.NotFoundException;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.core.Response;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Starts, follows and stops the synthetic load of the {@link LoadGenerator}. Only available when
+ * {@code trip-simulator.load-test.enabled} is set, to keep it out of production.
+ */
+@Path("/load-test")
+public class LoadTestResource {
+
+    @Inject
+    LoadGenerator loadGenerator;
+
+    @ConfigProperty(name = "trip-simulator.load-test.enabled", defaultValue = "false")
+    boolean enabled;
+
+    @POST
+    public LoadTestReport start(LoadTestRequest request) {
+        checkEnabled();
+        try {
+            return loadGenerator.start(request);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage());
+        } catch (IllegalStateException e) {
+            throw new ClientErrorException(e.getMessage(), Response.Status.CONFLICT);
+        }
+    }
+
+    @GET
+    public LoadTestReport report() {
+        checkEnabled();
+        return loadGenerator.report();
+    }
+
+    @DELETE
+    public LoadTestReport stop() {
+        checkEnabled();
+        return loadGenerator.stop();
+    }
+
+    private void checkEnabled() {
+        if (!enabled) {
+            throw new NotFoundException("Load tests are disabled, see trip-simulator.load-test.enabled");
+        }
+    }
+}
@@ -1,9 +1,10 @@
 package com.barbu.fleetmanagement.simulator.application.service;
 
 import com.barbu.fleetmanagement.common.geo.GeoCalculator;
-import com.barbu.fleetmanagement.common.model.Location;
+import com.barbu.fleetmanagement.common.geo.Trajectory;
 import com.barbu.fleetmanagement.common.model.Trip;
 import com.barbu.fleetmanagement.simulator.domain.CarPositionDetails;
+import com.barbu.fleetmanagement.simulator.domain.CarPositionState;
 import jakarta.enterprise.context.ApplicationScoped;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -12,7 +13,6 @@ import java.math.BigDecimal;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.Optional;
-import java.util.Random;
 
 /**
  * Service responsible for simulating car movements during trips.
@@ -20,32 +20,49 @@ import java.util.Random;
  * This class handles the calculation of car positions as they move from a starting point
  * to a destination. It simulates realistic car movement by:
  * <ul>
- *   <li>Generating random speeds within defined limits</li>
+ *   <li>Drawing the speeds from the {@link SpeedModel}, within the {@link SpeedLimits} of the car</li>
  *   <li>Calculating new positions based on elapsed time and speed</li>
  *   <li>Determining when a car has reached its destination</li>
  * </ul>
  * The service is used by the Trip Simulator to generate position updates that are published
  * to the car position Kafka topic.
+ * <p>
+ * The time is read from the {@link SimulationClock} and each speed is drawn from the stream of its update in the
+ * {@link RandomStreams}, so an accelerated run with a fixed {@code trip-simulator.random-seed} is reproducible.
+ * Nothing is shared between the threads moving the cars.
  */
 @Slf4j
 @ApplicationScoped
 @RequiredArgsConstructor
 public class CarMover {
 
-    private final static Random random = new Random();
-    private final static int MINIMUM_SPED_KM_H = 40;
-    private final static int MAXIMUM_SPED_KM_H = 120;
     private final GeoCalculator geoCalculator;
+    private final SimulationClock clock;
+    private final SpeedModel speedModel;
+    private final CarSpeedLimits carSpeedLimits;
+    private final RandomStreams randomStreams;
 
+    /**
+     * Places the car at the start of the trip and precomputes the trajectory it will follow until the destination,
+     * along the route of the trip when it has one.
+     *
+     * @param trip The trip to start
+     * @return The position details of the car at the trip start
+     */
     public CarPositionDetails moveToInitialPosition(Trip trip) {
+        Instant now = clock.now();
+        BigDecimal speedKmPerHour = speedModel.initialSpeed(carSpeedLimits.forCar(trip.carId()),
+                randomStreams.forUpdate(trip.id(), now));
         return CarPositionDetails.builder()
                 .carId(trip.carId())
                 .driverId(trip.driverId())
                 .tripId(trip.id())
                 .currentLocation(trip.start())
                 .destination(trip.destination())
-                .speedKmPerHour(generateSpeedKmPerHour())
-                .timestamp(Instant.now())
+                .trajectory(geoCalculator.calculateTrajectory(trip.start(), trip.destination(), trip.route()))
+                .distanceTravelledKm(0)
+                .speedKmPerHour(speedKmPerHour)
+                .timestamp(now)
                 .build();
     }
 
@@ -57,57 +74,49 @@ public class CarMover {
      * <ol>
      *   <li>The elapsed time since the last position update</li>
      *   <li>The distance the car should move based on its speed and elapsed time</li>
-     *   <li>The new geographic position by interpolating between current location and destination</li>
+     *   <li>The new geographic position, by advancing the distance travelled along the precomputed trajectory</li>
      * </ol>
      * If the car has reached its destination (within 0.1 km), the method returns an empty Optional
      * to indicate the trip is complete. Otherwise, it returns a new position with an updated location
-     * and a newly generated random speed.
+     * and the next speed drawn from the {@link SpeedModel}.
      *
-     * @param position The current position details of the car
+     * @param position The current position of the car, only read before returning
      * @return An Optional containing the new position details, or empty if the car has reached its destination
      */
-    public Optional<CarPositionDetails> move(CarPositionDetails position) {
+    public Optional<CarPositionDetails> move(CarPositionState position) {
 
-        Instant now = Instant.now();
-        Duration elapsed = Duration.between(position.getTimestamp(), now);
-        BigDecimal elapsedSeconds = new BigDecimal(elapsed.toSeconds());
+        Instant now = clock.now();
+        Duration elapsed = Duration.ofSeconds(now.getEpochSecond(), now.getNano()).minusNanos(position.epochNanos());
 
         // Calculate distance to move based on speed and elapsed time
-        BigDecimal distanceToMoveKm = position.getSpeedKmPerHour()
-                .multiply(elapsedSeconds)
-                .divide(new BigDecimal("3600"), GeoCalculator.MATH_CONTEXT);
+        double distanceToMoveKm = position.speedKmPerHour().doubleValue() * elapsed.toSeconds() / 3600;
 
-        // Calculate the new position
-        Location newLocation = geoCalculator.calculateNewPosition(
-                position.getCurrentLocation(),
-                position.getDestination(),
-                distanceToMoveKm);
+        // Advance the car along its trajectory
+        Trajectory trajectory = position.trajectory();
+        double distanceTravelledKm = Math.min(position.distanceTravelledKm() + distanceToMoveKm,
+                trajectory.getLengthKm());
 
         // Check if the car has reached the destination
-        BigDecimal remainingDistance = geoCalculator.calculateDistanceInKm(newLocation, position.getDestination());
-        boolean completed = remainingDistance.compareTo(new BigDecimal("0.1")) < 0;
-        log.info("Updating position for trip {}: {}, remaining distance: {} km, actual speed: {}, completed: {}",
-                position.getTripId(), newLocation, remainingDistance, position.getSpeedKmPerHour(), completed);
+        double remainingDistance = trajectory.getLengthKm() - distanceTravelledKm;
+        boolean completed = remainingDistance < 0.1;
+        log.info("Updating position for trip {}: travelled {} km, remaining distance: {} km, actual speed: {}, completed: {}",
+                position.tripId(), distanceTravelledKm, remainingDistance, position.speedKmPerHour(), completed);
         if (completed) {
             return Optional.empty();
         } else {
+            BigDecimal speedKmPerHour = speedModel.nextSpeed(position.speedKmPerHour(), elapsed,
+                    carSpeedLimits.forCar(position.carId()), randomStreams.forUpdate(position.tripId(), now));
             return Optional.of(CarPositionDetails.builder()
-                    .carId(position.getCarId())
-                    .driverId(position.getDriverId())
-                    .tripId(position.getTripId())
-                    .currentLocation(newLocation)
-                    .destination(position.getDestination())
-                    .speedKmPerHour(generateSpeedKmPerHour())
+                    .carId(position.carId())
+                    .driverId(position.driverId())
+                    .tripId(position.tripId())
+                    .currentLocation(trajectory.locationAt(distanceTravelledKm))
+                    .destination(position.destination())
+                    .trajectory(trajectory)
+                    .distanceTravelledKm(distanceTravelledKm)
+                    .speedKmPerHour(speedKmPerHour)
                     .timestamp(now)
                     .build());
         }
     }
-
-    /**
-     * Generates a random speed value within the defined minimum and maximum limits.
-     * @return A BigDecimal representing the randomly generated speed in kilometers per hour
-     */
-    private BigDecimal generateSpeedKmPerHour() {
-        return new BigDecimal(MINIMUM_SPED_KM_H + random.nextInt(MAXIMUM_SPED_KM_H - MINIMUM_SPED_KM_H + 1));
-    }
 }
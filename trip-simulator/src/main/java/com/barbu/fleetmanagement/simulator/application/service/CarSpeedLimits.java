@@ -0,0 +1,37 @@
+package com.barbu.fleetmanagement.simulator.application.service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@link SpeedLimits} of each car: {@code trip-simulator.speed.limits} by default, overridden per car by the
+ * {@code <car id>=<min>-<max>} entries of {@code trip-simulator.speed.car-limits}.
+ */
+public final class CarSpeedLimits {
+
+    private final SpeedLimits defaultLimits;
+    private final Map<Long, SpeedLimits> carLimits;
+
+    public CarSpeedLimits(SpeedLimits defaultLimits, Map<Long, SpeedLimits> carLimits) {
+        this.defaultLimits = defaultLimits;
+        this.carLimits = Map.copyOf(carLimits);
+    }
+
+    public static CarSpeedLimits parse(String defaultLimits, List<String> carLimits) {
+        Map<Long, SpeedLimits> limits = new HashMap<>();
+        for (String entry : carLimits) {
+            int separator = entry.indexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Expected car speed limits as <car id>=<min>-<max>, got " + entry);
+            }
+            limits.put(Long.parseLong(entry.substring(0, separator).trim()),
+                    SpeedLimits.parse(entry.substring(separator + 1)));
+        }
+        return new CarSpeedLimits(SpeedLimits.parse(defaultLimits), limits);
+    }
+
+    public SpeedLimits forCar(long carId) {
+        return carLimits.getOrDefault(carId, defaultLimits);
+    }
+}
@@ -0,0 +1,16 @@
+package com.barbu.fleetmanagement.simulator.application.service;
+
+/**
+ * Where {@link TripSimulatorService} runs the trip updates ({@code trip-simulator.execution-mode}).
+ */
+public enum ExecutionMode {
+    /**
+     * On the threads of the scheduler pool, which also trigger the updates.
+     */
+    POOLED,
+    /**
+     * On a new virtual thread per update, the scheduler only triggers them. A slow update (e.g. a blocked Kafka send
+     * or logging stall) then holds a virtual thread instead of one of the few scheduler threads.
+     */
+    VIRTUAL
+}
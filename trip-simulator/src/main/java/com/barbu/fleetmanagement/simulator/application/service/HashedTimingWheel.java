@@ -0,0 +1,95 @@
+package com.barbu.fleetmanagement.simulator.application.service;
+
+import java.util.Arrays;
+
+/**
+ * Hashed timing wheel of {@code long} ids: a ring of slots, each holding the ids due at the same tick.
+ * <p>
+ * Scheduling an id appends it to the slot {@code delayTicks} after the current one and {@link #advance()} moves to
+ * the next slot and returns all its ids at once, so both are O(1) per id, without the heap reordering of a
+ * {@link java.util.concurrent.ScheduledExecutorService}. Ids are stored in primitive arrays, without boxing.
+ * <p>
+ * Delays are limited to one revolution of the wheel ({@link #getWheelSize()} ticks). The wheel is thread safe.
+ */
+public final class HashedTimingWheel {
+
+    private static final int INITIAL_SLOT_CAPACITY = 16;
+
+    private final long[][] slots;
+    private final int[] counts;
+    private long currentTick;
+    private int size;
+
+    public HashedTimingWheel(int wheelSize) {
+        if (wheelSize < 1) {
+            throw new IllegalArgumentException("The wheel needs at least one slot, got " + wheelSize);
+        }
+        this.slots = new long[wheelSize][];
+        this.counts = new int[wheelSize];
+        for (int slot = 0; slot < wheelSize; slot++) {
+            slots[slot] = new long[INITIAL_SLOT_CAPACITY];
+        }
+    }
+
+    /**
+     * Schedules the id to be returned by the {@code delayTicks}-th next call to {@link #advance()}.
+     *
+     * @param id         The id to schedule
+     * @param delayTicks The delay in ticks, between 1 and {@link #getWheelSize()}
+     */
+    public synchronized void schedule(long id, int delayTicks) {
+        if (delayTicks < 1 || delayTicks > slots.length) {
+            throw new IllegalArgumentException("Delay must be between 1 and " + slots.length + " ticks, got " + delayTicks);
+        }
+        int slot = (int) ((currentTick + delayTicks) % slots.length);
+        long[] ids = slots[slot];
+        if (counts[slot] == ids.length) {
+            ids = slots[slot] = Arrays.copyOf(ids, ids.length * 2);
+        }
+        ids[counts[slot]++] = id;
+        size++;
+    }
+
+    /**
+     * Schedules the id to be returned by the next call to {@link #advance()} moving to a tick of the given phase, the
+     * tick modulo {@link #getWheelSize()}: within one revolution, the current tick being already returned.
+     *
+     * @param id    The id to schedule
+     * @param phase The phase of the tick, between 0 and {@link #getWheelSize()} - 1
+     */
+    public synchronized void scheduleAtPhase(long id, int phase) {
+        if (phase < 0 || phase >= slots.length) {
+            throw new IllegalArgumentException("Phase must be between 0 and " + (slots.length - 1) + ", got " + phase);
+        }
+        schedule(id, (int) Math.floorMod(phase - currentTick - 1, (long) slots.length) + 1);
+    }
+
+    /**
+     * Moves to the next tick and removes the ids due at it.
+     *
+     * @return The ids due at the new tick, in scheduling order
+     */
+    public synchronized long[] advance() {
+        currentTick++;
+        int slot = (int) (currentTick % slots.length);
+        long[] due = Arrays.copyOf(slots[slot], counts[slot]);
+        size -= counts[slot];
+        counts[slot] = 0;
+        return due;
+    }
+
+    public synchronized long getCurrentTick() {
+        return currentTick;
+    }
+
+    /**
+     * Number of ids scheduled and not yet returned.
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    public int getWheelSize() {
+        return slots.length;
+    }
+}
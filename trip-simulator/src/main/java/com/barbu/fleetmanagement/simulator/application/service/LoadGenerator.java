@@ -0,0 +1,254 @@
+package com.barbu.fleetmanagement.simulator.application.service;
+
+import com.barbu.fleetmanagement.common.model.Location;
+import com.barbu.fleetmanagement.common.model.Trip;
+import com.barbu.fleetmanagement.simulator.api.model.LoadTestReport;
+import com.barbu.fleetmanagement.simulator.api.model.LoadTestRequest;
+import com.barbu.fleetmanagement.simulator.domain.CarPositionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.inject.Instance;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Capacity test mode: starts synthetic trips on the enabled {@link TripSimulator}, without going through
+ * fleet-manager and Kafka.
+ * <p>
+ * Every {@value #GENERATION_INTERVAL_MILLIS} ms the generator starts its share of
+ * {@link LoadTestRequest#tripsPerSecond()}, as long as fewer than {@link LoadTestRequest#targetActiveTrips()} trips
+ * are being simulated, so the load ramps up to the target and then holds it by replacing the completed trips. The
+ * synthetic trips use ids from {@value #SYNTHETIC_ID_OFFSET} on, as trip, car and driver ids, to never collide with
+ * the trips of fleet-manager. Stopping a run stops starting trips, the started ones are simulated until their end.
+ * <p>
+ * With the accelerated clock the generation is not scheduled: it runs on the {@link SimulationTick} events of the
+ * engine, once per {@value #GENERATION_INTERVAL_MILLIS} ms of virtual time, so a seeded run starts the same trips at
+ * the same simulated times.
+ * <p>
+ * Load tests cannot run in the clustered mode ({@code trip-simulator.cluster.enabled}): an instance only simulates the
+ * trips of the partitions of the trip topic assigned to it, the synthetic trips belong to none.
+ */
+@Slf4j
+@ApplicationScoped
+@RequiredArgsConstructor
+public class LoadGenerator {
+
+    static final long SYNTHETIC_ID_OFFSET = 1_000_000_000_000L;
+    private static final long GENERATION_INTERVAL_MILLIS = 100;
+
+    private final Instance<TripSimulator> tripSimulator;
+    private final CarPositionRepository carPositionRepository;
+    private final MeterRegistry meterRegistry;
+    private final SimulationClock clock;
+    private final Random random;
+
+    private final ScheduledExecutorService generator = Executors.newSingleThreadScheduledExecutor();
+    private final AtomicLong nextTripId = new AtomicLong(SYNTHETIC_ID_OFFSET);
+    private volatile LoadRun run;
+
+    @ConfigProperty(name = "trip-simulator.cluster.enabled", defaultValue = "false")
+    boolean clusterEnabled;
+
+    /**
+     * Starts a load test run.
+     *
+     * @throws IllegalArgumentException when the request is invalid
+     * @throws IllegalStateException    when a run is already in progress, or in the clustered mode
+     */
+    public synchronized LoadTestReport start(LoadTestRequest request) {
+        validate(request);
+        if (clusterEnabled) {
+            throw new IllegalStateException("Load tests cannot run in the clustered mode, the synthetic trips belong"
+                    + " to no partition of the trip topic");
+        }
+        if (run != null && run.isRunning()) {
+            throw new IllegalStateException("A load test is already running since " + run.startedAt);
+        }
+        LoadRun newRun = new LoadRun(request, clock.now(), System.nanoTime(), positionUpdates());
+        if (clock instanceof VirtualClock) {
+            // set before publishing the run, the engine thread reads it
+            newRun.nextGeneration = newRun.startedAt;
+            run = newRun;
+        } else {
+            run = newRun;
+            run.generation = generator.scheduleAtFixedRate(this::generate,
+                    0, GENERATION_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        }
+        log.info("Started load test of {} trips per second up to {} active trips",
+                request.tripsPerSecond(), request.targetActiveTrips());
+        return report();
+    }
+
+    /**
+     * Stops starting trips, the trips already started keep being simulated.
+     */
+    public synchronized LoadTestReport stop() {
+        if (run != null && run.isRunning()) {
+            if (run.generation != null) {
+                run.generation.cancel(false);
+            }
+            run.stoppedAt = clock.now();
+            run.stoppedNanos = System.nanoTime();
+            log.info("Stopped load test after starting {} trips", run.tripsStarted.get());
+        }
+        return report();
+    }
+
+    /**
+     * Progress of the current or last run, or an empty report when there was none.
+     */
+    public synchronized LoadTestReport report() {
+        LoadTestReport.Percentiles tickLag = percentiles("simulator.tick.lag");
+        LoadTestReport.Percentiles sendLatency = percentiles("simulator.producer.send.latency");
+        if (run == null) {
+            return new LoadTestReport(false, null, null, null, 0, carPositionRepository.count(), 0,
+                    tickLag, sendLatency, emissionQueueDepth());
+        }
+        long endNanos = run.isRunning() ? System.nanoTime() : run.stoppedNanos;
+        double elapsedSeconds = Math.max(endNanos - run.startNanos, 1) / 1e9;
+        double positionsPerSecond = (positionUpdates() - run.positionUpdatesAtStart) / elapsedSeconds;
+        return new LoadTestReport(run.isRunning(), run.request, run.startedAt, run.stoppedAt, run.tripsStarted.get(),
+                carPositionRepository.count(), positionsPerSecond, tickLag, sendLatency, emissionQueueDepth());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        generator.shutdownNow();
+    }
+
+    /**
+     * Runs the generation intervals of an accelerated run which are due at the virtual time of the tick.
+     */
+    void onSimulationTick(@Observes SimulationTick tick) {
+        LoadRun current = run;
+        if (current == null || !current.isRunning() || current.nextGeneration == null) {
+            return;
+        }
+        while (!tick.now().isBefore(current.nextGeneration)) {
+            current.nextGeneration = current.nextGeneration.plusMillis(GENERATION_INTERVAL_MILLIS);
+            generate();
+        }
+    }
+
+    /**
+     * Starts the trips of one generation interval.
+     */
+    void generate() {
+        LoadRun current = run;
+        try {
+            current.allowance += current.request.tripsPerSecond() * GENERATION_INTERVAL_MILLIS / 1000.0;
+            int missing = current.request.targetActiveTrips() - carPositionRepository.count();
+            int trips = (int) Math.min(Math.floor(current.allowance), Math.max(missing, 0));
+            current.allowance = Math.min(current.allowance - trips, current.request.tripsPerSecond());
+            TripSimulator simulator = tripSimulator.get();
+            for (int trip = 0; trip < trips; trip++) {
+                simulator.startTripSimulation(syntheticTrip(current.request));
+                current.tripsStarted.incrementAndGet();
+            }
+        } catch (RuntimeException e) {
+            // an exception would cancel the periodic task and stop the run
+            log.error("Failed to start load test trips", e);
+        }
+    }
+
+    private Trip syntheticTrip(LoadTestRequest request) {
+        long id = nextTripId.getAndIncrement();
+        return Trip.builder()
+                .id(id)
+                .carId(id)
+                .driverId(id)
+                .start(randomLocation(request))
+                .destination(randomLocation(request))
+                .build();
+    }
+
+    private Location randomLocation(LoadTestRequest request) {
+        return new Location(
+                BigDecimal.valueOf(random.nextDouble(request.minLatitude(), request.maxLatitude())),
+                BigDecimal.valueOf(random.nextDouble(request.minLongitude(), request.maxLongitude())));
+    }
+
+    private double positionUpdates() {
+        return meterRegistry.find("simulator.position.updates").counters().stream()
+                .mapToDouble(Counter::count)
+                .sum();
+    }
+
+    private int emissionQueueDepth() {
+        Gauge queueDepth = meterRegistry.find("simulator.emission.queue.depth").gauge();
+        return queueDepth == null ? 0 : (int) queueDepth.value();
+    }
+
+    /**
+     * Percentiles of the timers of that name, the highest one when several engines reported.
+     */
+    private LoadTestReport.Percentiles percentiles(String timerName) {
+        double p50 = 0;
+        double p95 = 0;
+        double p99 = 0;
+        for (Timer timer : meterRegistry.find(timerName).timers()) {
+            for (ValueAtPercentile value : timer.takeSnapshot().percentileValues()) {
+                double millis = value.value(TimeUnit.MILLISECONDS);
+                if (value.percentile() == 0.5) {
+                    p50 = Math.max(p50, millis);
+                } else if (value.percentile() == 0.95) {
+                    p95 = Math.max(p95, millis);
+                } else if (value.percentile() == 0.99) {
+                    p99 = Math.max(p99, millis);
+                }
+            }
+        }
+        return new LoadTestReport.Percentiles(p50, p95, p99);
+    }
+
+    private static void validate(LoadTestRequest request) {
+        if (request == null || request.tripsPerSecond() < 1 || request.targetActiveTrips() < 1) {
+            throw new IllegalArgumentException("The trips per second and the target active trips must be positive");
+        }
+        if (request.minLatitude() < -90 || request.maxLatitude() > 90 || request.minLatitude() >= request.maxLatitude()
+                || request.minLongitude() < -180 || request.maxLongitude() > 180
+                || request.minLongitude() >= request.maxLongitude()) {
+            throw new IllegalArgumentException("Invalid bounding box " + request);
+        }
+    }
+
+    private static final class LoadRun {
+        private final LoadTestRequest request;
+        private final Instant startedAt;
+        private final long startNanos;
+        private final double positionUpdatesAtStart;
+        private final AtomicLong tripsStarted = new AtomicLong();
+        private ScheduledFuture<?> generation;
+        private Instant nextGeneration;
+        private double allowance;
+        private volatile Instant stoppedAt;
+        private volatile long stoppedNanos;
+
+        private LoadRun(LoadTestRequest request, Instant startedAt, long startNanos, double positionUpdatesAtStart) {
+            this.request = request;
+            this.startedAt = startedAt;
+            this.startNanos = startNanos;
+            this.positionUpdatesAtStart = positionUpdatesAtStart;
+        }
+
+        private boolean isRunning() {
+            return stoppedAt == null;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.barbu.fleetmanagement.simulator.application.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.util.random.RandomGenerator;
+
+/**
+ * {@link SpeedModel} where the next speed depends only on the current one: a random walk pulled back towards the
+ * middle of the limits of the car, whose change is bounded by {@code trip-simulator.speed.max-acceleration} (in
+ * kilometers per hour per second) times the time since the previous update.
+ * <p>
+ * Unlike the {@link UniformSpeedModel}, a car above a speed limit stays above it for several updates, like a driver
+ * actually speeding, instead of flickering around it at every update.
+ */
+public final class MarkovSpeedModel implements SpeedModel {
+
+    /**
+     * Share of the distance to the middle speed recovered at each update.
+     */
+    private static final double REVERSION = 0.1;
+    private static final int SCALE = 1;
+
+    private final double maxAccelerationKmPerHourPerSecond;
+
+    public MarkovSpeedModel(double maxAccelerationKmPerHourPerSecond) {
+        if (!(maxAccelerationKmPerHourPerSecond > 0)) {
+            throw new IllegalArgumentException(
+                    "The maximum acceleration must be positive, got " + maxAccelerationKmPerHourPerSecond);
+        }
+        this.maxAccelerationKmPerHourPerSecond = maxAccelerationKmPerHourPerSecond;
+    }
+
+    @Override
+    public BigDecimal initialSpeed(SpeedLimits limits, RandomGenerator random) {
+        return round(random.nextDouble(limits.minKmPerHour(), Math.nextUp((double) limits.maxKmPerHour())));
+    }
+
+    @Override
+    public BigDecimal nextSpeed(BigDecimal currentSpeedKmPerHour, Duration elapsed, SpeedLimits limits,
+                                RandomGenerator random) {
+        double current = currentSpeedKmPerHour.doubleValue();
+        double maxChange = maxAccelerationKmPerHourPerSecond * elapsed.toMillis() / 1000.0;
+        double next = current;
+        if (maxChange > 0) {
+            double middle = (limits.minKmPerHour() + limits.maxKmPerHour()) / 2.0;
+            double change = (middle - current) * REVERSION + random.nextDouble(-maxChange, maxChange);
+            next = current + Math.clamp(change, -maxChange, maxChange);
+        }
+        return round(Math.clamp(next, limits.minKmPerHour(), limits.maxKmPerHour()));
+    }
+
+    private static BigDecimal round(double speedKmPerHour) {
+        return BigDecimal.valueOf(speedKmPerHour).setScale(SCALE, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,128 @@
+package com.barbu.fleetmanagement.simulator.application.service;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Spreads the position updates of the trips evenly over the update interval, for the trips started together not to
+ * be updated together every interval.
+ * <p>
+ * The interval is divided in {@code slots} phases. A trip is given the phase hashed from its ID, unless that phase has
+ * more trips than the least loaded one, then it is given the least loaded one. Its updates are then due on a fixed
+ * grid, at its phase of every interval. As trips finish the phases get unbalanced again, so before each update a trip
+ * whose phase has more trips than the least loaded one, plus one, moves to the least loaded phase. That update comes
+ * between half and one and a half interval after the previous one, the distance moved follows the time elapsed.
+ * <p>
+ * Thread safe.
+ */
+final class PhaseSpreader {
+
+    private static final int TOLERANCE = 1;
+
+    private final long intervalNanos;
+    private final long slotNanos;
+    private final long originNanos;
+    private final int[] slotTrips;
+    private final Map<Long, Integer> tripSlots = new HashMap<>();
+
+    /**
+     * @param originNanos The {@link System#nanoTime()} at which the first phase of the intervals starts
+     */
+    PhaseSpreader(int slots, Duration interval, long originNanos) {
+        if (slots < 1 || interval.toNanos() % slots != 0) {
+            throw new IllegalArgumentException("The " + slots + " phases must divide the interval " + interval);
+        }
+        this.intervalNanos = interval.toNanos();
+        this.slotNanos = intervalNanos / slots;
+        this.originNanos = originNanos;
+        this.slotTrips = new int[slots];
+    }
+
+    /**
+     * Gives a phase to a trip, unless it has one already.
+     *
+     * @param earliestNanos The {@link System#nanoTime()} before which the update must not be due
+     * @return The {@link System#nanoTime()} at which the first update of the trip is due, the first time of its phase
+     * from the earliest time
+     */
+    synchronized long firstDue(long tripId, long earliestNanos) {
+        return nextOccurrence(phase(tripId), earliestNanos);
+    }
+
+    /**
+     * Gives a phase to a trip, unless it has one already.
+     *
+     * @return The phase of the trip, between 0 and {@code slots} - 1
+     */
+    synchronized int phase(long tripId) {
+        Integer slot = tripSlots.get(tripId);
+        if (slot == null) {
+            slot = preferredSlot(tripId);
+            if (slotTrips[slot] > slotTrips[leastLoadedSlot()]) {
+                slot = leastLoadedSlot();
+            }
+            assign(tripId, slot);
+        }
+        return slot;
+    }
+
+    /**
+     * @param dueNanos The {@link System#nanoTime()} at which the update being processed was due
+     * @return The {@link System#nanoTime()} at which the next update of the trip is due: one interval later, or at its
+     * new phase when it moved
+     */
+    synchronized long nextDue(long tripId, long dueNanos) {
+        Integer slot = tripSlots.get(tripId);
+        if (slot == null) {
+            return firstDue(tripId, dueNanos + intervalNanos / 2);
+        }
+        int leastLoaded = leastLoadedSlot();
+        if (slotTrips[slot] > slotTrips[leastLoaded] + TOLERANCE) {
+            slotTrips[slot]--;
+            assign(tripId, leastLoaded);
+            return nextOccurrence(leastLoaded, dueNanos + intervalNanos / 2);
+        }
+        return dueNanos + intervalNanos;
+    }
+
+    /**
+     * Frees the phase of a completed trip, or of a trip handed over to another instance.
+     */
+    synchronized void release(long tripId) {
+        Integer slot = tripSlots.remove(tripId);
+        if (slot != null) {
+            slotTrips[slot]--;
+        }
+    }
+
+    synchronized int tripsInSlot(int slot) {
+        return slotTrips[slot];
+    }
+
+    private void assign(long tripId, int slot) {
+        tripSlots.put(tripId, slot);
+        slotTrips[slot]++;
+    }
+
+    private int preferredSlot(long tripId) {
+        long hash = tripId * 0x9e3779b97f4a7c15L;
+        return (int) Math.floorMod(hash ^ (hash >>> 32), (long) slotTrips.length);
+    }
+
+    private int leastLoadedSlot() {
+        int leastLoaded = 0;
+        for (int slot = 1; slot < slotTrips.length; slot++) {
+            if (slotTrips[slot] < slotTrips[leastLoaded]) {
+                leastLoaded = slot;
+            }
+        }
+        return leastLoaded;
+    }
+
+    private long nextOccurrence(int slot, long earliestNanos) {
+        long phaseNanos = originNanos + slot * slotNanos;
+        long intervals = Math.ceilDiv(earliestNanos - phaseNanos, intervalNanos);
+        return phaseNanos + intervals * intervalNanos;
+    }
+}
@@ -0,0 +1,41 @@
+package com.barbu.fleetmanagement.simulator.application.service;
+
+import java.time.Instant;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * Independent random streams derived from one seed, {@code trip-simulator.random-seed} when set.
+ * <p>
+ * The stream of a position update is seeded with a mix of the seed, the trip ID and the time of the update, so the
+ * threads moving the cars share no generator, and the speeds of a trip do not depend on the order in which the
+ * trips are moved: with the accelerated clock, the same seed and the same trips, a run produces the same speeds.
+ */
+public final class RandomStreams {
+
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private final long seed;
+
+    public RandomStreams(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * @return The random stream of the update of a trip at the given time
+     */
+    public RandomGenerator forUpdate(long tripId, Instant time) {
+        long hash = mix(seed + tripId * GOLDEN_GAMMA);
+        hash = mix(hash + time.getEpochSecond() * GOLDEN_GAMMA);
+        return new SplittableRandom(mix(hash + time.getNano()));
+    }
+
+    /**
+     * The 64-bit finalizer of {@link SplittableRandom}, so that close inputs give unrelated seeds.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,17 @@
+package com.barbu.fleetmanagement.simulator.application.service;
+
+import java.time.Instant;
+
+/**
+ * Source of the simulated time: the time at which the cars move and their positions are timestamped.
+ * <p>
+ * {@link #SYSTEM} follows the wall clock. A {@link VirtualClock} is advanced by the timing wheel engine instead, as
+ * fast as the trips can be processed, see {@code trip-simulator.clock}.
+ */
+@FunctionalInterface
+public interface SimulationClock {
+
+    SimulationClock SYSTEM = Instant::now;
+
+    Instant now();
+}
@@ -0,0 +1,12 @@
+package com.barbu.fleetmanagement.simulator.application.service;
+
+import java.time.Instant;
+
+/**
+ * CDI event fired by the {@link TimingWheelTripSimulator} on its thread before each tick of an accelerated
+ * simulation, so that work paced on the simulated time, like the {@link LoadGenerator}, runs in step with the trips.
+ *
+ * @param now The virtual time before the tick
+ */
+public record SimulationTick(Instant now) {
+}
@@ -0,0 +1,139 @@
+package com.barbu.fleetmanagement.simulator.application.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Meters of the simulation engines, tagged with the {@code engine} and its execution {@code mode} so that they can be
+ * compared:
+ * <ul>
+ *   <li>{@code simulator.tick.lag}: delay between the time a trip update is due and the time it starts</li>
+ *   <li>{@code simulator.tick.duration}: time spent processing a tick</li>
+ *   <li>{@code simulator.position.updates}: number of positions calculated, its rate being the throughput</li>
+ *   <li>{@code simulator.trips.active}: number of trips being simulated, for the engines which track it</li>
+ * </ul>
+ * and, whatever the engine, {@code simulator.producer.send.latency}: delay between sending a car position record and
+ * its acknowledgement by Kafka, {@code simulator.producer.send.failures}: number of records Kafka rejected,
+ * {@code simulator.positions.per-second}: distribution of the number of positions handed to the producer in each
+ * second, flat when the updates are spread over the interval and bursty otherwise, {@code simulator.positions.suppressed}:
+ * number of positions not published because they could be extrapolated from the previous one. With the emission pipeline:
+ * <ul>
+ *   <li>{@code simulator.emission.queue.depth}: number of positions and trip completions waiting to be sent</li>
+ *   <li>{@code simulator.emission.in-flight}: number of records sent and not acknowledged yet</li>
+ *   <li>{@code simulator.emission.dropped}: number of positions dropped because the queue was full</li>
+ *   <li>{@code simulator.emission.coalesced}: number of queued positions replaced by a newer one of their trip</li>
+ * </ul>
+ */
+@ApplicationScoped
+public class SimulatorMetrics {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, EngineMeters> engineMeters = new ConcurrentHashMap<>();
+    private final Timer producerSendLatency;
+    private final Counter producerSendFailures;
+    private final DistributionSummary positionsPerSecond;
+    private final LongAdder positionsInSecond = new LongAdder();
+    private final Counter positionsSuppressed;
+
+    public SimulatorMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.producerSendLatency = Timer.builder("simulator.producer.send.latency")
+                .description("Delay between sending a car position record and its acknowledgement")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.producerSendFailures = Counter.builder("simulator.producer.send.failures")
+                .description("Number of car position records rejected by Kafka")
+                .register(meterRegistry);
+        this.positionsPerSecond = DistributionSummary.builder("simulator.positions.per-second")
+                .description("Number of car positions handed to the producer in each second")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.positionsSuppressed = Counter.builder("simulator.positions.suppressed")
+                .description("Number of car positions not published because they could be extrapolated")
+                .register(meterRegistry);
+    }
+
+    public EngineMeters forEngine(String engine, String mode) {
+        return engineMeters.computeIfAbsent(engine + "/" + mode, _ -> new EngineMeters(
+                Timer.builder("simulator.tick.lag")
+                        .description("Delay between the time a trip update is due and the time it starts")
+                        .tags("engine", engine, "mode", mode)
+                        .publishPercentiles(0.5, 0.95, 0.99)
+                        .register(meterRegistry),
+                Timer.builder("simulator.tick.duration")
+                        .description("Time spent processing a tick")
+                        .tags("engine", engine, "mode", mode)
+                        .publishPercentiles(0.5, 0.95, 0.99)
+                        .register(meterRegistry),
+                Counter.builder("simulator.position.updates")
+                        .description("Number of car positions calculated")
+                        .tags("engine", engine, "mode", mode)
+                        .register(meterRegistry)));
+    }
+
+    public void registerActiveTrips(String engine, String mode, Supplier<Number> activeTrips) {
+        Gauge.builder("simulator.trips.active", activeTrips)
+                .tags("engine", engine, "mode", mode)
+                .strongReference(true)
+                .register(meterRegistry);
+    }
+
+    public void recordProducerSend(long latencyNanos) {
+        producerSendLatency.record(latencyNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordProducerSendFailure() {
+        producerSendFailures.increment();
+    }
+
+    public void recordPositionSent() {
+        positionsInSecond.increment();
+    }
+
+    public void recordPositionSuppressed() {
+        positionsSuppressed.increment();
+    }
+
+    /**
+     * Records the number of positions sent since the previous second.
+     */
+    @Scheduled(every = "1s")
+    void recordPositionsPerSecond() {
+        positionsPerSecond.record(positionsInSecond.sumThenReset());
+    }
+
+    public EmissionMeters registerEmission(Supplier<Number> queueDepth, Supplier<Number> inFlight) {
+        Gauge.builder("simulator.emission.queue.depth", queueDepth)
+                .description("Number of positions and trip completions waiting to be sent")
+                .strongReference(true)
+                .register(meterRegistry);
+        Gauge.builder("simulator.emission.in-flight", inFlight)
+                .description("Number of car position records sent and not acknowledged yet")
+                .strongReference(true)
+                .register(meterRegistry);
+        return new EmissionMeters(
+                Counter.builder("simulator.emission.dropped")
+                        .description("Number of car positions dropped because the emission queue was full")
+                        .register(meterRegistry),
+                Counter.builder("simulator.emission.coalesced")
+                        .description("Number of queued car positions replaced by a newer one of their trip")
+                        .register(meterRegistry));
+    }
+
+    public record EngineMeters(Timer tickLag, Timer tickDuration, Counter positionUpdates) {
+    }
+
+    public record EmissionMeters(Counter dropped, Counter coalesced) {
+    }
+}
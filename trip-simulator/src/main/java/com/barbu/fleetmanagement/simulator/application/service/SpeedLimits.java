@@ -0,0 +1,25 @@
+package com.barbu.fleetmanagement.simulator.application.service;
+
+/**
+ * The range of speeds of a car, in kilometers per hour, see {@link CarSpeedLimits}.
+ */
+public record SpeedLimits(int minKmPerHour, int maxKmPerHour) {
+
+    public SpeedLimits {
+        if (minKmPerHour < 0 || maxKmPerHour < minKmPerHour) {
+            throw new IllegalArgumentException("Invalid speed limits " + minKmPerHour + "-" + maxKmPerHour);
+        }
+    }
+
+    /**
+     * @param limits The limits as {@code <min>-<max>}, e.g. {@code 40-120}
+     */
+    public static SpeedLimits parse(String limits) {
+        int separator = limits.indexOf('-');
+        if (separator < 0) {
+            throw new IllegalArgumentException("Expected speed limits as <min>-<max>, got " + limits);
+        }
+        return new SpeedLimits(Integer.parseInt(limits.substring(0, separator).trim()),
+                Integer.parseInt(limits.substring(separator + 1).trim()));
+    }
+}
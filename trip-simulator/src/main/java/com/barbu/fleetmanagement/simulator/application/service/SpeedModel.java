@@ -0,0 +1,31 @@
+package com.barbu.fleetmanagement.simulator.application.service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.random.RandomGenerator;
+
+/**
+ * Draws the speeds of the cars, selected with {@code trip-simulator.speed.model}:
+ * <ul>
+ *   <li>{@code uniform} (default), {@link UniformSpeedModel}: an independent speed at every update</li>
+ *   <li>{@code markov}, {@link MarkovSpeedModel}: each speed follows from the previous one, with a bounded
+ *   acceleration</li>
+ * </ul>
+ * The speeds stay within the {@link SpeedLimits} of the car. The random generator is a stream of the
+ * {@link RandomStreams} dedicated to the update, so a model is stateless and shared by all the threads.
+ */
+public interface SpeedModel {
+
+    /**
+     * @return The speed of a car at the start of its trip, in kilometers per hour
+     */
+    BigDecimal initialSpeed(SpeedLimits limits, RandomGenerator random);
+
+    /**
+     * @param currentSpeedKmPerHour The speed the car had since its previous update
+     * @param elapsed The time since its previous update
+     * @return The speed of the car until its next update, in kilometers per hour
+     */
+    BigDecimal nextSpeed(BigDecimal currentSpeedKmPerHour, Duration elapsed, SpeedLimits limits,
+                         RandomGenerator random);
+}
@@ -0,0 +1,246 @@
+package com.barbu.fleetmanagement.simulator.application.service;
+
+import com.barbu.fleetmanagement.common.model.Trip;
+import com.barbu.fleetmanagement.simulator.api.producer.CarPositionProducer;
+import com.barbu.fleetmanagement.simulator.domain.CarPositionDetails;
+import com.barbu.fleetmanagement.simulator.domain.CarPositionRepository;
+import com.barbu.fleetmanagement.simulator.domain.CarPositionState;
+import io.quarkus.arc.lookup.LookupIfProperty;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * {@link TripSimulator} engine scheduling the trips on a {@link HashedTimingWheel}
+ * ({@code trip-simulator.engine=timing-wheel}).
+ * <p>
+ * A single thread advances the wheel every {@code trip-simulator.timing-wheel.tick-duration} and processes all the
+ * trips due at that tick as one batch:
+ * <ol>
+ *   <li>Moves the cars of all the due trips, removing the completed trips from the repository</li>
+ *   <li>Saves the new positions and re-arms the trips one {@value #INTERVAL_SECONDS} seconds revolution later</li>
+ *   <li>Publishes all the saved positions</li>
+ * </ol>
+ * A trip handed over to another instance meanwhile, whose position is not found or not saved anymore, is dropped
+ * without being completed, see {@link CarPositionProducer#tripReleased(Long)}.
+ * <p>
+ * A trip keeps the slot of the wheel it was first scheduled in, so trips started in the same tick, e.g. in bulk, are
+ * all processed in one tick every interval. With {@code trip-simulator.phase-spreading.enabled} a trip is first
+ * scheduled in the slot given by a {@link PhaseSpreader} instead, hashed from its ID or the least loaded one, within
+ * one revolution, see the {@code simulator.positions.per-second} distribution. The trips keep their slot afterwards,
+ * the slots freed by the completed trips being given to the next trips.
+ * Scheduling a trip is an array append instead of a heap insertion, so the engine scales to hundreds of thousands of
+ * concurrent trips. The delay between the time a tick is due and the time it starts being processed is reported as
+ * the {@code simulator.tick.lag} timer, the processing time as {@code simulator.tick.duration}, see
+ * {@link SimulatorMetrics}.
+ * <p>
+ * With the accelerated clock ({@code trip-simulator.clock=accelerated}) the ticks are not scheduled: the thread runs
+ * them back to back, advancing the {@link VirtualClock} by one tick duration before each, so hours of trips are
+ * simulated in seconds. A {@link SimulationTick} event is fired before each tick, for the trips to be started in step
+ * with the virtual time. While no trip is active the virtual time stands still, waiting for trips to start. The tick
+ * lag is not measured then, the ticks being due as soon as the previous one is done.
+ */
+@Slf4j
+@ApplicationScoped
+@RequiredArgsConstructor
+@LookupIfProperty(name = "trip-simulator.engine", stringValue = "timing-wheel")
+public class TimingWheelTripSimulator implements TripSimulator {
+
+    private static final String ENGINE = "timing-wheel";
+    private static final String MODE = "single-thread";
+    private static final String ACCELERATED_MODE = "accelerated";
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final CarMover carMover;
+    private final CarPositionProducer carPositionProducer;
+    private final CarPositionRepository carPositionRepository;
+    private final SimulatorMetrics simulatorMetrics;
+    private final SimulationClock clock;
+    private final Event<SimulationTick> simulationTicks;
+
+    @ConfigProperty(name = "trip-simulator.timing-wheel.tick-duration", defaultValue = "100ms")
+    Duration tickDuration;
+
+    @ConfigProperty(name = "trip-simulator.phase-spreading.enabled", defaultValue = "false")
+    boolean phaseSpreading;
+
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor();
+    private HashedTimingWheel wheel;
+    private PhaseSpreader phaseSpreader;
+    private SimulatorMetrics.EngineMeters meters;
+    private long startNanos;
+
+    @PostConstruct
+    void start() {
+        initialize();
+        if (clock instanceof VirtualClock virtualClock) {
+            ticker.execute(() -> runAccelerated(virtualClock));
+            log.info("Started timing wheel with {} slots of {} in accelerated time from {}",
+                    wheel.getWheelSize(), tickDuration, virtualClock.now());
+            return;
+        }
+        long tickNanos = tickDuration.toNanos();
+        ticker.scheduleAtFixedRate(this::tick, tickNanos, tickNanos, TimeUnit.NANOSECONDS);
+        log.info("Started timing wheel with {} slots of {}", wheel.getWheelSize(), tickDuration);
+    }
+
+    /**
+     * Creates the wheel and the meters, without starting to tick.
+     */
+    void initialize() {
+        long slots = Duration.ofSeconds(INTERVAL_SECONDS).toNanos() / tickDuration.toNanos();
+        if (slots < 1 || Duration.ofSeconds(INTERVAL_SECONDS).toNanos() % tickDuration.toNanos() != 0) {
+            throw new IllegalStateException(
+                    "The tick duration must divide " + INTERVAL_SECONDS + " seconds, got " + tickDuration);
+        }
+        wheel = new HashedTimingWheel((int) slots);
+        // one phase per slot, the wheel keeping the time
+        phaseSpreader = new PhaseSpreader((int) slots, Duration.ofSeconds(INTERVAL_SECONDS), 0);
+        String mode = clock instanceof VirtualClock ? ACCELERATED_MODE : MODE;
+        meters = simulatorMetrics.forEngine(ENGINE, mode);
+        HashedTimingWheel activeTrips = wheel;
+        simulatorMetrics.registerActiveTrips(ENGINE, mode, activeTrips::size);
+        startNanos = System.nanoTime();
+    }
+
+    @PreDestroy
+    void stop() {
+        ticker.shutdownNow();
+    }
+
+    @Override
+    public void startTripSimulation(Trip trip) {
+        CarPositionDetails initialPosition = carMover.moveToInitialPosition(trip);
+        carPositionRepository.save(initialPosition);
+        if (phaseSpreading) {
+            wheel.scheduleAtPhase(trip.id(), phaseSpreader.phase(trip.id()));
+        } else {
+            wheel.schedule(trip.id(), wheel.getWheelSize());
+        }
+
+        log.info("Started trip simulation {} for car {} with driver {} from {} to {}",
+                trip.id(), trip.carId(), trip.driverId(),
+                trip.start(), trip.destination());
+    }
+
+    @Override
+    public void resumeTripSimulation(CarPositionDetails position) {
+        if (phaseSpreading) {
+            wheel.scheduleAtPhase(position.getTripId(), phaseSpreader.phase(position.getTripId()));
+            return;
+        }
+        long delayNanos = TripSimulator.delayUntilNextUpdate(position, clock.now()).toNanos();
+        long delayTicks = (delayNanos + tickDuration.toNanos() - 1) / tickDuration.toNanos();
+        wheel.schedule(position.getTripId(), (int) Math.clamp(delayTicks, 1, wheel.getWheelSize()));
+    }
+
+    private void runAccelerated(VirtualClock virtualClock) {
+        while (!Thread.currentThread().isInterrupted()) {
+            if (!accelerate(virtualClock)) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    /**
+     * One step of the accelerated simulation: fires the {@link SimulationTick} then, unless no trip is active,
+     * advances the virtual clock by one tick duration and processes the tick.
+     *
+     * @return Whether the virtual time advanced
+     */
+    boolean accelerate(VirtualClock virtualClock) {
+        try {
+            simulationTicks.fire(new SimulationTick(virtualClock.now()));
+        } catch (RuntimeException e) {
+            log.error("Failed to notify the simulation tick at {}", virtualClock.now(), e);
+        }
+        if (wheel.size() == 0) {
+            return false;
+        }
+        virtualClock.advance(tickDuration);
+        tick();
+        return true;
+    }
+
+    /**
+     * Processes the trips due at the next tick of the wheel.
+     */
+    void tick() {
+        try {
+            long tickStart = System.nanoTime();
+            long[] dueTripIds = wheel.advance();
+            if (!(clock instanceof VirtualClock)) {
+                long dueNanos = startNanos + wheel.getCurrentTick() * tickDuration.toNanos();
+                meters.tickLag().record(Math.max(0, tickStart - dueNanos), TimeUnit.NANOSECONDS);
+            }
+
+            List<CarPositionDetails> moved = new ArrayList<>(dueTripIds.length);
+            for (long tripId : dueTripIds) {
+                Optional<CarPositionState> state = carPositionRepository.findStateByTripId(tripId);
+                if (state.isEmpty()) {
+                    released(tripId);
+                    continue;
+                }
+                move(state.get()).ifPresentOrElse(moved::add, () -> {
+                    if (phaseSpreading) {
+                        phaseSpreader.release(tripId);
+                    }
+                    carPositionRepository.deleteByTripId(tripId);
+                    carPositionProducer.tripCompleted(tripId);
+                });
+            }
+            List<CarPositionDetails> saved = new ArrayList<>(moved.size());
+            for (CarPositionDetails position : moved) {
+                if (carPositionRepository.save(position)) {
+                    wheel.schedule(position.getTripId(), wheel.getWheelSize());
+                    saved.add(position);
+                } else {
+                    released(position.getTripId());
+                }
+            }
+            for (CarPositionDetails position : saved) {
+                carPositionProducer.sendCarPosition(position);
+            }
+            meters.positionUpdates().increment(saved.size());
+            meters.tickDuration().record(System.nanoTime() - tickStart, TimeUnit.NANOSECONDS);
+        } catch (RuntimeException e) {
+            // an exception would cancel the periodic task and stop the simulation
+            log.error("Failed to process tick {}", wheel.getCurrentTick(), e);
+        }
+    }
+
+    /**
+     * Stops simulating a trip handed over to another instance, without completing it.
+     */
+    private void released(long tripId) {
+        if (phaseSpreading) {
+            phaseSpreader.release(tripId);
+        }
+        carPositionProducer.tripReleased(tripId);
+    }
+
+    /**
+     * Moves the car of a trip, like {@link TripSimulatorService} a trip failing to move is not simulated anymore.
+     */
+    private Optional<CarPositionDetails> move(CarPositionState state) {
+        try {
+            return carMover.move(state);
+        } catch (RuntimeException e) {
+            log.error("Failed to move the car of trip {}", state.tripId(), e);
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.barbu.fleetmanagement.simulator.application.service;
+
+import com.barbu.fleetmanagement.simulator.domain.CarPositionDetails;
+import com.barbu.fleetmanagement.simulator.domain.CarPositionRepository;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+
+/**
+ * Resumes, on startup, the simulation of the trips which are still in the {@link CarPositionRepository}, for the
+ * repositories surviving restarts ({@code trip-simulator.repository.journal.enabled}).
+ */
+@Slf4j
+@ApplicationScoped
+public class TripRecovery {
+
+    @Inject
+    CarPositionRepository carPositionRepository;
+
+    /**
+     * The engine enabled by the {@code trip-simulator.engine} property.
+     */
+    @Inject
+    Instance<TripSimulator> tripSimulator;
+
+    void onStart(@Observes StartupEvent event) {
+        List<CarPositionDetails> positions = carPositionRepository.findAll();
+        if (positions.isEmpty()) {
+            return;
+        }
+        TripSimulator simulator = tripSimulator.get();
+        for (CarPositionDetails position : positions) {
+            simulator.resumeTripSimulation(position);
+        }
+        log.info("Resumed {} trip simulations", positions.size());
+    }
+}
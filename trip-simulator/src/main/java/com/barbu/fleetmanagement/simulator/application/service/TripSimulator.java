@@ -0,0 +1,49 @@
+package com.barbu.fleetmanagement.simulator.application.service;
+
+import com.barbu.fleetmanagement.common.model.Trip;
+import com.barbu.fleetmanagement.simulator.domain.CarPositionDetails;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Engine moving the cars of the trips being simulated and publishing their positions every
+ * {@value #INTERVAL_SECONDS} seconds.
+ * <p>
+ * The engine is selected with the {@code trip-simulator.engine} property:
+ * <ul>
+ *   <li>{@code scheduled} (default): {@link TripSimulatorService}, one scheduled task per trip and tick</li>
+ *   <li>{@code timing-wheel}: {@link TimingWheelTripSimulator}, trips bucketed by due tick and updated in batches</li>
+ * </ul>
+ */
+public interface TripSimulator {
+
+    int INTERVAL_SECONDS = 10;
+
+    /**
+     * Start simulating a new trip.
+     *
+     * @param trip The trip to simulate, containing car ID, driver ID, start and destination locations
+     */
+    void startTripSimulation(Trip trip);
+
+    /**
+     * Resume simulating a trip found in the repository on startup, without moving its car: the next position update
+     * is scheduled when it would have been due, or right away when it is overdue. That update moves the car for all
+     * the time elapsed since its last position, catching up the ticks missed while the simulator was down at once.
+     *
+     * @param position The last position of the trip, as saved in the repository
+     */
+    void resumeTripSimulation(CarPositionDetails position);
+
+    /**
+     * Time left until the next position update of a resumed trip, between zero (overdue) and one interval.
+     */
+    static Duration delayUntilNextUpdate(CarPositionDetails position, Instant now) {
+        Duration delay = Duration.between(now, position.getTimestamp().plusSeconds(INTERVAL_SECONDS));
+        if (delay.isNegative()) {
+            return Duration.ZERO;
+        }
+        return delay.compareTo(Duration.ofSeconds(INTERVAL_SECONDS)) > 0 ? Duration.ofSeconds(INTERVAL_SECONDS) : delay;
+    }
+}
@@ -4,10 +4,17 @@ import com.barbu.fleetmanagement.common.model.Trip;
 import com.barbu.fleetmanagement.simulator.api.producer.CarPositionProducer;
 import com.barbu.fleetmanagement.simulator.domain.CarPositionDetails;
 import com.barbu.fleetmanagement.simulator.domain.CarPositionRepository;
+import com.barbu.fleetmanagement.simulator.domain.CarPositionState;
+import io.quarkus.arc.lookup.LookupIfProperty;
+import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -25,17 +32,53 @@ import java.util.concurrent.TimeUnit;
  * and publishes these position updates to a Kafka topic through the CarPositionProducer.
  * <p>
  * Position data is persisted in a repository to maintain state between updates.
+ * <p>
+ * Where the updates run is set by {@code trip-simulator.execution-mode}, see {@link ExecutionMode}: on the scheduler
+ * threads ({@code pooled}, the default) or, with the scheduler only triggering them, on one virtual thread per update
+ * ({@code virtual}). The delay between the time an update is due and the time it starts is reported as the
+ * {@code simulator.tick.lag} timer tagged with the mode, the updates as the {@code simulator.position.updates}
+ * counter, see {@link SimulatorMetrics}.
+ * <p>
+ * Each trip is updated every interval from its start, so trips started together, e.g. in bulk, are updated together
+ * and the whole pipeline sees bursts. With {@code trip-simulator.phase-spreading.enabled} the updates are spread over
+ * the interval by a {@link PhaseSpreader} instead, see the {@code simulator.positions.per-second} distribution.
+ * <p>
+ * This is the default {@link TripSimulator} engine ({@code trip-simulator.engine=scheduled}). Its updates wait for
+ * the wall clock, so it does not support the accelerated {@link SimulationClock}.
  */
 @Slf4j
 @ApplicationScoped
 @RequiredArgsConstructor
-public class TripSimulatorService {
+@LookupIfProperty(name = "trip-simulator.engine", stringValue = "scheduled", lookupIfMissing = true)
+public class TripSimulatorService implements TripSimulator {
+
+    private static final String ENGINE = "scheduled";
+    private static final int PHASE_SLOTS = 100;
+    private static final long INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(INTERVAL_SECONDS);
 
-    private static final int INTERVAL_SECONDS = 10;
     private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(10);
+    private final ExecutorService virtualThreads = Executors.newVirtualThreadPerTaskExecutor();
+    private final PhaseSpreader phaseSpreader = new PhaseSpreader(PHASE_SLOTS, Duration.ofSeconds(INTERVAL_SECONDS),
+            System.nanoTime());
     private final CarMover carMover;
     private final CarPositionProducer carPositionProducer;
     private final CarPositionRepository carPositionRepository;
+    private final SimulatorMetrics simulatorMetrics;
+    private final SimulationClock clock;
+
+    @ConfigProperty(name = "trip-simulator.execution-mode", defaultValue = "pooled")
+    ExecutionMode executionMode;
+
+    @ConfigProperty(name = "trip-simulator.phase-spreading.enabled", defaultValue = "false")
+    boolean phaseSpreading;
+
+    private SimulatorMetrics.EngineMeters meters;
+
+    @PreDestroy
+    void stop() {
+        scheduler.shutdownNow();
+        virtualThreads.shutdownNow();
+    }
 
     /**
      * Start simulating a new trip.
@@ -51,17 +94,65 @@ public class TripSimulatorService {
      * 
      * @param trip The trip to simulate, containing car ID, driver ID, start and destination locations
      */
+    @Override
     public void startTripSimulation(Trip trip) {
         CarPositionDetails initialPosition = carMover.moveToInitialPosition(trip);
         carPositionRepository.save(initialPosition);
         //TODO schedule position updates using a persisted scheduler(Quartz, Schedlock, etc)
-        scheduler.schedule(() -> updatePosition(trip.id()), INTERVAL_SECONDS, TimeUnit.SECONDS);
+        if (phaseSpreading) {
+            scheduleAt(trip.id(), phaseSpreader.firstDue(trip.id(), System.nanoTime() + INTERVAL_NANOS / 2));
+        } else {
+            schedulePositionUpdate(trip.id());
+        }
 
         log.info("Started trip simulation {} for car {} with driver {} from {} to {}",
                 trip.id(), trip.carId(), trip.driverId(),
                 trip.start(), trip.destination());
     }
 
+    @Override
+    public void resumeTripSimulation(CarPositionDetails position) {
+        long delayMillis = TripSimulator.delayUntilNextUpdate(position, clock.now()).toMillis();
+        if (phaseSpreading) {
+            long dueNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMillis);
+            scheduleAt(position.getTripId(), phaseSpreader.firstDue(position.getTripId(), dueNanos));
+            return;
+        }
+        schedulePositionUpdate(position.getTripId(), delayMillis, TimeUnit.MILLISECONDS);
+        log.debug("Resumed trip simulation {}, next position update in {} ms", position.getTripId(), delayMillis);
+    }
+
+    private void schedulePositionUpdate(Long tripId) {
+        schedulePositionUpdate(tripId, INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Schedules a position update of a trip at its phase.
+     *
+     * @param tripId   The ID of the trip to update
+     * @param dueNanos The {@link System#nanoTime()} at which the update is due
+     */
+    private void scheduleAt(Long tripId, long dueNanos) {
+        schedulePositionUpdate(tripId, Math.max(0, dueNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Schedules a position update of a trip, to run on the scheduler thread or on a new virtual thread depending on
+     * the {@link ExecutionMode}.
+     *
+     * @param tripId The ID of the trip to update
+     * @param delay  The delay until the update
+     * @param unit   The unit of the delay
+     */
+    private void schedulePositionUpdate(Long tripId, long delay, TimeUnit unit) {
+        long dueNanos = System.nanoTime() + unit.toNanos(delay);
+        if (executionMode == ExecutionMode.VIRTUAL) {
+            scheduler.schedule(() -> virtualThreads.execute(() -> updatePosition(tripId, dueNanos)), delay, unit);
+        } else {
+            scheduler.schedule(() -> updatePosition(tripId, dueNanos), delay, unit);
+        }
+    }
+
     /**
      * Updates the position of a car for a specific trip.
      * <p>
@@ -76,25 +167,56 @@ public class TripSimulatorService {
      *   </li>
      *   <li>If no new position is returned (car has reached destination):
      *     <ul>
-     *       <li>Cleans up by removing the trip data from the repository</li>
+     *       <li>Cleans up by removing the trip data from the repository and the producer</li>
      *       <li>Could potentially publish a trip completion event (TODO)</li>
      *     </ul>
      *   </li>
+     *   <li>If no position is found (trip handed over to another instance), stops simulating the trip without
+     *   completing it</li>
      * </ol>
      *
-     * @param tripId The ID of the trip to update
+     * @param tripId   The ID of the trip to update
+     * @param dueNanos The {@link System#nanoTime()} at which the update was due
      */
-    private void updatePosition(Long tripId) {
-        carPositionRepository.findByTripId(tripId)
-                .flatMap(carMover::move)
-                .ifPresentOrElse(
-                        this::scheduleNextPositionUpdate,
-                        () -> {
-                            carPositionRepository.deleteByTripId(tripId);
-                            //TODO publish trip.completed event?
-                        }
-                );
+    private void updatePosition(Long tripId, long dueNanos) {
+        SimulatorMetrics.EngineMeters engineMeters = meters();
+        long start = System.nanoTime();
+        engineMeters.tickLag().record(Math.max(0, start - dueNanos), TimeUnit.NANOSECONDS);
+        Optional<CarPositionState> state = carPositionRepository.findStateByTripId(tripId);
+        if (state.isEmpty()) {
+            released(tripId);
+        } else {
+            carMover.move(state.get())
+                    .ifPresentOrElse(
+                            position -> scheduleNextPositionUpdate(position, dueNanos),
+                            () -> {
+                                if (phaseSpreading) {
+                                    phaseSpreader.release(tripId);
+                                }
+                                carPositionRepository.deleteByTripId(tripId);
+                                carPositionProducer.tripCompleted(tripId);
+                                //TODO publish trip.completed event?
+                            }
+                    );
+        }
+        engineMeters.tickDuration().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Stops simulating a trip handed over to another instance, without completing it.
+     */
+    private void released(Long tripId) {
+        if (phaseSpreading) {
+            phaseSpreader.release(tripId);
+        }
+        carPositionProducer.tripReleased(tripId);
+    }
 
+    private SimulatorMetrics.EngineMeters meters() {
+        if (meters == null) {
+            meters = simulatorMetrics.forEngine(ENGINE, executionMode.name().toLowerCase());
+        }
+        return meters;
     }
 
     /**
@@ -102,18 +224,28 @@ public class TripSimulatorService {
      * <p>
      * This method:
      * <ol>
-     *   <li>Persists the updated car position in the repository</li>
-     *   <li>Schedules the next position update after the defined interval</li>
+     *   <li>Persists the updated car position in the repository, or stops simulating the trip when it is not saved
+     *   because the trip was handed over meanwhile</li>
+     *   <li>Schedules the next position update after the defined interval, or at its phase with phase spreading</li>
      *   <li>Publishes the current position to Kafka via the CarPositionProducer</li>
      * </ol>
      * This method is called when a car has not yet reached its destination and
      * needs to continue the simulation.
      *
      * @param carPositionDetails The updated position details of the car
+     * @param dueNanos           The {@link System#nanoTime()} at which the update was due
      */
-    private void scheduleNextPositionUpdate(CarPositionDetails carPositionDetails) {
-        carPositionRepository.save(carPositionDetails);
-        scheduler.schedule(() -> updatePosition(carPositionDetails.getTripId()), INTERVAL_SECONDS, TimeUnit.SECONDS);
+    private void scheduleNextPositionUpdate(CarPositionDetails carPositionDetails, long dueNanos) {
+        if (!carPositionRepository.save(carPositionDetails)) {
+            released(carPositionDetails.getTripId());
+            return;
+        }
+        if (phaseSpreading) {
+            scheduleAt(carPositionDetails.getTripId(), phaseSpreader.nextDue(carPositionDetails.getTripId(), dueNanos));
+        } else {
+            schedulePositionUpdate(carPositionDetails.getTripId());
+        }
         carPositionProducer.sendCarPosition(carPositionDetails);
+        meters().positionUpdates().increment();
     }
 }
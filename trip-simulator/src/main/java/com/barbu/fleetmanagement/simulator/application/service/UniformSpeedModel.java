@@ -0,0 +1,23 @@
+package com.barbu.fleetmanagement.simulator.application.service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.random.RandomGenerator;
+
+/**
+ * {@link SpeedModel} drawing every speed uniformly between the limits of the car, in whole kilometers per hour,
+ * regardless of the previous one.
+ */
+public final class UniformSpeedModel implements SpeedModel {
+
+    @Override
+    public BigDecimal initialSpeed(SpeedLimits limits, RandomGenerator random) {
+        return BigDecimal.valueOf(random.nextInt(limits.minKmPerHour(), limits.maxKmPerHour() + 1));
+    }
+
+    @Override
+    public BigDecimal nextSpeed(BigDecimal currentSpeedKmPerHour, Duration elapsed, SpeedLimits limits,
+                                RandomGenerator random) {
+        return initialSpeed(limits, random);
+    }
+}
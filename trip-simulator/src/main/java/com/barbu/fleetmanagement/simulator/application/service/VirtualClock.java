@@ -0,0 +1,40 @@
+package com.barbu.fleetmanagement.simulator.application.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link SimulationClock} which only moves when it is advanced, used by the accelerated simulation
+ * ({@code trip-simulator.clock=accelerated}).
+ * <p>
+ * The {@link TimingWheelTripSimulator} advances it by one tick duration before processing each tick, so the trips
+ * follow the same timeline as in real time, only without waiting for it.
+ */
+public final class VirtualClock implements SimulationClock {
+
+    private final Instant start;
+    private final AtomicLong elapsedNanos = new AtomicLong();
+
+    public VirtualClock(Instant start) {
+        this.start = start;
+    }
+
+    @Override
+    public Instant now() {
+        return start.plusNanos(elapsedNanos.get());
+    }
+
+    /**
+     * Moves the clock forward.
+     *
+     * @param duration The duration to advance by, must not be negative
+     * @return The new time
+     */
+    public Instant advance(Duration duration) {
+        if (duration.isNegative()) {
+            throw new IllegalArgumentException("A virtual clock cannot go back in time, got " + duration);
+        }
+        return start.plusNanos(elapsedNanos.addAndGet(duration.toNanos()));
+    }
+}
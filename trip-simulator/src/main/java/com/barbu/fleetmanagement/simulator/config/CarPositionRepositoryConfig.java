@@ -0,0 +1,109 @@
+package com.barbu.fleetmanagement.simulator.config;
+
+import com.barbu.fleetmanagement.simulator.domain.CarPositionRepository;
+import com.barbu.fleetmanagement.simulator.domain.InMemoryCarPositionRepository;
+import com.barbu.fleetmanagement.simulator.domain.JournalCarPositionRepository;
+import com.barbu.fleetmanagement.simulator.domain.PartitionedCarPositionRepository;
+import com.barbu.fleetmanagement.simulator.domain.PrimitiveCarPositionRepository;
+import com.barbu.fleetmanagement.simulator.domain.TripStateStore;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Disposes;
+import jakarta.enterprise.inject.Instance;
+import jakarta.enterprise.inject.Produces;
+import jakarta.enterprise.inject.Typed;
+import jakarta.inject.Singleton;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Selects the {@link CarPositionRepository} with {@code trip-simulator.repository}: {@code in-memory} (default), a map
+ * of the position details, or {@code primitive}, primitive arrays sized for very large fleets.
+ * <p>
+ * With {@code trip-simulator.repository.journal.enabled} the repository is wrapped in a
+ * {@link JournalCarPositionRepository}, so that the trips survive restarts.
+ * <p>
+ * With {@code trip-simulator.cluster.enabled} it is wrapped in a {@link PartitionedCarPositionRepository} instead, which
+ * the trips of the partitions assigned to the instance go through. The trip state topic replaces the journal then.
+ */
+@ApplicationScoped
+public class CarPositionRepositoryConfig {
+
+    private static final int MEGABYTE = 1024 * 1024;
+
+    @ConfigProperty(name = "trip-simulator.repository", defaultValue = "in-memory")
+    String repository;
+
+    @ConfigProperty(name = "trip-simulator.repository.initial-capacity", defaultValue = "1024")
+    int initialCapacity;
+
+    @ConfigProperty(name = "trip-simulator.repository.journal.enabled", defaultValue = "false")
+    boolean journalEnabled;
+
+    @ConfigProperty(name = "trip-simulator.repository.journal.directory", defaultValue = "data/journal")
+    Path journalDirectory;
+
+    @ConfigProperty(name = "trip-simulator.repository.journal.size-mb", defaultValue = "64")
+    int journalSizeMb;
+
+    @ConfigProperty(name = "trip-simulator.repository.journal.snapshot-interval", defaultValue = "1m")
+    Duration snapshotInterval;
+
+    @ConfigProperty(name = "trip-simulator.cluster.enabled", defaultValue = "false")
+    boolean clusterEnabled;
+
+    @ConfigProperty(name = "trip-simulator.cluster.checkpoint-interval", defaultValue = "1m")
+    Duration checkpointInterval;
+
+    @ConfigProperty(name = "trip-simulator.cluster.handover-timeout", defaultValue = "10s")
+    Duration handoverTimeout;
+
+    @Produces
+    @ApplicationScoped
+    public CarPositionRepository carPositionRepository(
+            Instance<PartitionedCarPositionRepository> partitionedCarPositionRepository) {
+        if (clusterEnabled) {
+            return partitionedCarPositionRepository.get();
+        }
+        return createCarPositionRepository();
+    }
+
+    /**
+     * The same instance as the {@link CarPositionRepository} in the clustered mode, typed for the rebalances.
+     */
+    @Produces
+    @Singleton
+    @Typed(PartitionedCarPositionRepository.class)
+    public PartitionedCarPositionRepository partitionedCarPositionRepository(TripStateStore tripStateStore) {
+        if (journalEnabled) {
+            throw new IllegalStateException("The journal cannot be enabled in the clustered mode, the trip states are"
+                    + " kept in the trip state topic");
+        }
+        return new PartitionedCarPositionRepository(createCarPositionRepository(), tripStateStore,
+                checkpointInterval, handoverTimeout);
+    }
+
+    private CarPositionRepository createCarPositionRepository() {
+        CarPositionRepository carPositionRepository = switch (repository) {
+            case "in-memory" -> new InMemoryCarPositionRepository();
+            case "primitive" -> new PrimitiveCarPositionRepository(initialCapacity);
+            default -> throw new IllegalArgumentException("Unknown trip-simulator.repository " + repository);
+        };
+        if (journalEnabled) {
+            return new JournalCarPositionRepository(carPositionRepository, journalDirectory, journalSizeMb * MEGABYTE,
+                    snapshotInterval);
+        }
+        return carPositionRepository;
+    }
+
+    void close(@Disposes CarPositionRepository carPositionRepository) {
+        if (carPositionRepository instanceof JournalCarPositionRepository journal) {
+            journal.close();
+        }
+    }
+
+    void close(@Disposes PartitionedCarPositionRepository partitionedCarPositionRepository) {
+        partitionedCarPositionRepository.close();
+    }
+}
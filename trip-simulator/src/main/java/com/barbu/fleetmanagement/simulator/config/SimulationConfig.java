@@ -0,0 +1,103 @@
+package com.barbu.fleetmanagement.simulator.config;
+
+import com.barbu.fleetmanagement.simulator.application.service.CarSpeedLimits;
+import com.barbu.fleetmanagement.simulator.application.service.MarkovSpeedModel;
+import com.barbu.fleetmanagement.simulator.application.service.RandomStreams;
+import com.barbu.fleetmanagement.simulator.application.service.SimulationClock;
+import com.barbu.fleetmanagement.simulator.application.service.SpeedModel;
+import com.barbu.fleetmanagement.simulator.application.service.UniformSpeedModel;
+import com.barbu.fleetmanagement.simulator.application.service.VirtualClock;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Produces;
+import jakarta.inject.Singleton;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.SplittableRandom;
+
+/**
+ * Selects the {@link SimulationClock} with {@code trip-simulator.clock}: {@code system} (default), the wall clock, or
+ * {@code accelerated}, a {@link VirtualClock} starting at {@code trip-simulator.clock.start} (now by default) which the
+ * timing wheel engine advances as fast as it processes the ticks.
+ * <p>
+ * Also provides the {@link Random} of the load generator and the {@link RandomStreams} of the speeds, both seeded with
+ * {@code trip-simulator.random-seed} when set, so that an accelerated run started with the same seed and the same
+ * trips produces the same positions, and the {@link SpeedModel} selected with {@code trip-simulator.speed.model}.
+ * <p>
+ * The clock and the random are {@link Singleton} rather than {@link ApplicationScoped}: the engine checks the actual clock type, which a
+ * client proxy would hide.
+ */
+@ApplicationScoped
+public class SimulationConfig {
+
+    @ConfigProperty(name = "trip-simulator.clock", defaultValue = "system")
+    String clock;
+
+    @ConfigProperty(name = "trip-simulator.clock.start")
+    Optional<Instant> clockStart;
+
+    @ConfigProperty(name = "trip-simulator.engine", defaultValue = "scheduled")
+    String engine;
+
+    @ConfigProperty(name = "trip-simulator.random-seed")
+    Optional<Long> randomSeed;
+
+    @ConfigProperty(name = "trip-simulator.speed.model", defaultValue = "uniform")
+    String speedModel;
+
+    @ConfigProperty(name = "trip-simulator.speed.max-acceleration", defaultValue = "2")
+    double maxAccelerationKmPerHourPerSecond;
+
+    @ConfigProperty(name = "trip-simulator.speed.limits", defaultValue = "40-120")
+    String speedLimits;
+
+    @ConfigProperty(name = "trip-simulator.speed.car-limits")
+    Optional<List<String>> carSpeedLimits;
+
+    @Produces
+    @Singleton
+    public SimulationClock simulationClock() {
+        return switch (clock) {
+            case "system" -> SimulationClock.SYSTEM;
+            case "accelerated" -> {
+                if (!"timing-wheel".equals(engine)) {
+                    throw new IllegalStateException(
+                            "The accelerated clock needs trip-simulator.engine=timing-wheel, got " + engine);
+                }
+                yield new VirtualClock(clockStart.orElseGet(Instant::now));
+            }
+            default -> throw new IllegalArgumentException("Unknown trip-simulator.clock " + clock);
+        };
+    }
+
+    @Produces
+    @Singleton
+    public Random random() {
+        return randomSeed.map(Random::new).orElseGet(Random::new);
+    }
+
+    @Produces
+    @Singleton
+    public RandomStreams randomStreams() {
+        return new RandomStreams(randomSeed.orElseGet(() -> new SplittableRandom().nextLong()));
+    }
+
+    @Produces
+    @Singleton
+    public SpeedModel speedModel() {
+        return switch (speedModel) {
+            case "uniform" -> new UniformSpeedModel();
+            case "markov" -> new MarkovSpeedModel(maxAccelerationKmPerHourPerSecond);
+            default -> throw new IllegalArgumentException("Unknown trip-simulator.speed.model " + speedModel);
+        };
+    }
+
+    @Produces
+    @Singleton
+    public CarSpeedLimits carSpeedLimits() {
+        return CarSpeedLimits.parse(speedLimits, carSpeedLimits.orElse(List.of()));
+    }
+}
@@ -1,5 +1,6 @@
 package com.barbu.fleetmanagement.simulator.domain;
 
+import com.barbu.fleetmanagement.common.geo.Trajectory;
 import com.barbu.fleetmanagement.common.model.Location;
 import lombok.Builder;
 import lombok.Getter;
@@ -9,12 +10,60 @@ import java.time.Instant;
 
 @Getter
 @Builder
-public class CarPositionDetails {
+public class CarPositionDetails implements CarPositionState {
     private final Long carId;
     private final Long driverId;
     private final Long tripId;
     private final Location currentLocation;
     private final Location destination;
+    /**
+     * Path from the trip start to the destination, computed once when the trip starts.
+     */
+    private final Trajectory trajectory;
+    /**
+     * Distance already travelled along the {@link #trajectory}, in kilometers.
+     */
+    private final double distanceTravelledKm;
     private final BigDecimal speedKmPerHour;
     private final Instant timestamp;
-}
\ No newline at end of file
+
+    @Override
+    public long tripId() {
+        return tripId;
+    }
+
+    @Override
+    public long carId() {
+        return carId;
+    }
+
+    @Override
+    public long driverId() {
+        return driverId;
+    }
+
+    @Override
+    public Location destination() {
+        return destination;
+    }
+
+    @Override
+    public Trajectory trajectory() {
+        return trajectory;
+    }
+
+    @Override
+    public double distanceTravelledKm() {
+        return distanceTravelledKm;
+    }
+
+    @Override
+    public BigDecimal speedKmPerHour() {
+        return speedKmPerHour;
+    }
+
+    @Override
+    public long epochNanos() {
+        return timestamp.getEpochSecond() * 1_000_000_000L + timestamp.getNano();
+    }
+}
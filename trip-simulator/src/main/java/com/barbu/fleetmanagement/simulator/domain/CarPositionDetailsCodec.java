@@ -0,0 +1,106 @@
+package com.barbu.fleetmanagement.simulator.domain;
+
+import com.barbu.fleetmanagement.common.geo.Polyline;
+import com.barbu.fleetmanagement.common.geo.Trajectory;
+import com.barbu.fleetmanagement.common.model.Location;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+
+/**
+ * Self-contained binary form of the {@link CarPositionDetails} of a trip, from which another instance resumes its
+ * simulation, see {@link PartitionedCarPositionRepository}:
+ * <ol>
+ *   <li>the version, the trip, car and driver IDs</li>
+ *   <li>the current location, the destination and the speed, as unscaled value and scale</li>
+ *   <li>the timestamp and the distance travelled along the trajectory</li>
+ *   <li>the waypoints of the trajectory as an encoded {@link Polyline}, empty when it is the great-circle path to the
+ *   destination, which is then rebuilt from the current location</li>
+ * </ol>
+ */
+public final class CarPositionDetailsCodec {
+
+    public static final byte VERSION = 1;
+    private static final int MAX_DECIMAL_SIZE = Integer.BYTES + 1 + Byte.MAX_VALUE;
+    private static final int MAX_FIXED_SIZE = 1 + 3 * Long.BYTES + 5 * MAX_DECIMAL_SIZE + Long.BYTES + Integer.BYTES
+            + Double.BYTES + Integer.BYTES;
+
+    private CarPositionDetailsCodec() {
+    }
+
+    public static byte[] encode(CarPositionDetails position) {
+        Trajectory trajectory = position.getTrajectory();
+        byte[] route = trajectory.getSegmentCount() > 1
+                ? Polyline.encode(trajectory.getWaypoints()).getBytes(StandardCharsets.US_ASCII)
+                : new byte[0];
+        ByteBuffer buffer = ByteBuffer.allocate(MAX_FIXED_SIZE + route.length)
+                .put(VERSION)
+                .putLong(position.getTripId())
+                .putLong(position.getCarId())
+                .putLong(position.getDriverId());
+        writeDecimal(buffer, position.getCurrentLocation().latitude());
+        writeDecimal(buffer, position.getCurrentLocation().longitude());
+        writeDecimal(buffer, position.getDestination().latitude());
+        writeDecimal(buffer, position.getDestination().longitude());
+        writeDecimal(buffer, position.getSpeedKmPerHour());
+        buffer.putLong(position.getTimestamp().getEpochSecond())
+                .putInt(position.getTimestamp().getNano())
+                .putDouble(position.getDistanceTravelledKm())
+                .putInt(route.length)
+                .put(route);
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    public static CarPositionDetails decode(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        byte version = buffer.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported car position details version " + version);
+        }
+        long tripId = buffer.getLong();
+        long carId = buffer.getLong();
+        long driverId = buffer.getLong();
+        Location currentLocation = new Location(readDecimal(buffer), readDecimal(buffer));
+        Location destination = new Location(readDecimal(buffer), readDecimal(buffer));
+        BigDecimal speedKmPerHour = readDecimal(buffer);
+        Instant timestamp = Instant.ofEpochSecond(buffer.getLong(), buffer.getInt());
+        double distanceTravelledKm = buffer.getDouble();
+        byte[] route = new byte[buffer.getInt()];
+        buffer.get(route);
+        CarPositionDetails.CarPositionDetailsBuilder builder = CarPositionDetails.builder()
+                .carId(carId)
+                .driverId(driverId)
+                .tripId(tripId)
+                .currentLocation(currentLocation)
+                .destination(destination)
+                .speedKmPerHour(speedKmPerHour)
+                .timestamp(timestamp);
+        if (route.length == 0) {
+            return builder.trajectory(Trajectory.between(currentLocation, destination))
+                    .distanceTravelledKm(0)
+                    .build();
+        }
+        return builder.trajectory(Trajectory.along(Polyline.decode(new String(route, StandardCharsets.US_ASCII))))
+                .distanceTravelledKm(distanceTravelledKm)
+                .build();
+    }
+
+    static void writeDecimal(ByteBuffer buffer, BigDecimal value) {
+        byte[] unscaled = value.unscaledValue().toByteArray();
+        if (unscaled.length > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("Unsupported precision of " + value);
+        }
+        buffer.putInt(value.scale()).put((byte) unscaled.length).put(unscaled);
+    }
+
+    static BigDecimal readDecimal(ByteBuffer buffer) {
+        int scale = buffer.getInt();
+        byte[] unscaled = new byte[buffer.get()];
+        buffer.get(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), scale);
+    }
+}
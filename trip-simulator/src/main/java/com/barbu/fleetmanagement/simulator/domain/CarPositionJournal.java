@@ -0,0 +1,137 @@
+package com.barbu.fleetmanagement.simulator.domain;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Append-only journal of records in a fixed size memory-mapped file.
+ * <p>
+ * The file starts with a header holding the generation of the journal, followed by the records, each one framed as:
+ * <ol>
+ *   <li>the length of the payload (4 bytes)</li>
+ *   <li>the CRC32C of the generation and the payload (4 bytes)</li>
+ *   <li>the payload</li>
+ * </ol>
+ * An append is a copy into the mapped memory, which the kernel writes back to the file even if the process crashes.
+ * {@link #replay(long, Consumer)} stops at the first record that is torn or belongs to another generation. Records
+ * left from before a {@link #reset(long)} fail that check, so the journal is emptied without being cleared. Not
+ * thread safe.
+ */
+final class CarPositionJournal implements AutoCloseable {
+
+    static final int HEADER_SIZE = 16;
+    static final int RECORD_HEADER_SIZE = 8;
+    private static final int MAGIC = 0x464d534a;
+    private static final long NO_GENERATION = -1;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final CRC32C checksum = new CRC32C();
+    private long generation;
+
+    CarPositionJournal(Path file, int size) throws IOException {
+        channel = FileChannel.open(file, CREATE, READ, WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        generation = buffer.getInt(0) == MAGIC ? buffer.getLong(4) : NO_GENERATION;
+        buffer.position(HEADER_SIZE);
+    }
+
+    long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Passes the payloads of the valid records to the consumer, in append order, and positions the journal after
+     * them. A journal of another generation is reset to the expected one instead.
+     */
+    void replay(long expectedGeneration, Consumer<ByteBuffer> consumer) {
+        if (generation != expectedGeneration) {
+            reset(expectedGeneration);
+            return;
+        }
+        int position = HEADER_SIZE;
+        for (int length = validLength(position); length > 0; length = validLength(position)) {
+            consumer.accept(buffer.slice(position + RECORD_HEADER_SIZE, length));
+            position += RECORD_HEADER_SIZE + length;
+        }
+        buffer.position(position);
+    }
+
+    /**
+     * Appends the remaining bytes of the payload.
+     *
+     * @return false, without appending anything, when the journal is full
+     */
+    boolean append(ByteBuffer payload) {
+        int length = payload.remaining();
+        int position = buffer.position();
+        if (length > buffer.capacity() - position - RECORD_HEADER_SIZE) {
+            return false;
+        }
+        buffer.put(position + RECORD_HEADER_SIZE, payload, payload.position(), length);
+        buffer.putInt(position + 4, checksum(position + RECORD_HEADER_SIZE, length));
+        buffer.putInt(position, length);
+        buffer.position(position + RECORD_HEADER_SIZE + length);
+        return true;
+    }
+
+    /**
+     * Empties the journal and moves it to a new generation.
+     */
+    void reset(long newGeneration) {
+        generation = newGeneration;
+        buffer.putInt(0, MAGIC);
+        buffer.putLong(4, newGeneration);
+        buffer.putInt(HEADER_SIZE, 0);
+        buffer.position(HEADER_SIZE);
+    }
+
+    /**
+     * Number of bytes used by the header and the records.
+     */
+    int size() {
+        return buffer.position();
+    }
+
+    /**
+     * Writes the mapped memory back to the storage device, to survive an operating system crash as well.
+     */
+    void force() {
+        buffer.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+
+    private int validLength(int position) {
+        if (position > buffer.capacity() - RECORD_HEADER_SIZE) {
+            return 0;
+        }
+        int length = buffer.getInt(position);
+        if (length <= 0 || length > buffer.capacity() - position - RECORD_HEADER_SIZE) {
+            return 0;
+        }
+        return buffer.getInt(position + 4) == checksum(position + RECORD_HEADER_SIZE, length) ? length : 0;
+    }
+
+    private int checksum(int offset, int length) {
+        checksum.reset();
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            checksum.update((int) (generation >>> shift));
+        }
+        checksum.update(buffer.slice(offset, length));
+        return (int) checksum.getValue();
+    }
+}
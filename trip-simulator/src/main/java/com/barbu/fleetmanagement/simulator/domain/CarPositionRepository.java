@@ -1,10 +1,28 @@
 package com.barbu.fleetmanagement.simulator.domain;
 
+import java.util.List;
 import java.util.Optional;
 
 //TODO add implementation for database persistence
 public interface CarPositionRepository {
-    void save(CarPositionDetails carPositionDetails);
+    /**
+     * Stores the position of a trip.
+     *
+     * @return false when the position was not stored, the trip not being simulated here anymore
+     */
+    boolean save(CarPositionDetails carPositionDetails);
+
     void deleteByTripId(Long tripId);
     Optional<CarPositionDetails> findByTripId(Long tripId);
+
+    /**
+     * Finds the position of a trip to move its car, on every update: unlike {@link #findByTripId(Long)} the returned
+     * state may be a view reused by the next call of the same thread, to be read before that call and not kept.
+     */
+    default Optional<CarPositionState> findStateByTripId(Long tripId) {
+        return findByTripId(tripId).map(position -> position);
+    }
+
+    List<CarPositionDetails> findAll();
+    int count();
 }
@@ -0,0 +1,37 @@
+package com.barbu.fleetmanagement.simulator.domain;
+
+import com.barbu.fleetmanagement.common.geo.Trajectory;
+import com.barbu.fleetmanagement.common.model.Location;
+
+import java.math.BigDecimal;
+
+/**
+ * Read-only view of the position of a car, what moving the car to its next position needs.
+ * <p>
+ * A {@link CarPositionDetails} is one, and {@link CarPositionRepository#findStateByTripId(Long)} may return a
+ * reusable view of its stored fields instead of building a {@link CarPositionDetails} on every update.
+ */
+public interface CarPositionState {
+
+    long tripId();
+
+    long carId();
+
+    long driverId();
+
+    Location destination();
+
+    Trajectory trajectory();
+
+    /**
+     * @return The distance already travelled along the {@link #trajectory()}, in kilometers
+     */
+    double distanceTravelledKm();
+
+    BigDecimal speedKmPerHour();
+
+    /**
+     * @return The time of the position, in nanoseconds since the epoch
+     */
+    long epochNanos();
+}
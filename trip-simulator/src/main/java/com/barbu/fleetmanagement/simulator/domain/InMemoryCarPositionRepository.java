@@ -1,19 +1,18 @@
 package com.barbu.fleetmanagement.simulator.domain;
 
-import jakarta.enterprise.context.ApplicationScoped;
-
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 
-@ApplicationScoped
 public class InMemoryCarPositionRepository implements CarPositionRepository {
 
     private final Map<Long, CarPositionDetails> activeTrips = new ConcurrentHashMap<>();
 
     @Override
-    public void save(CarPositionDetails carPositionDetails) {
+    public boolean save(CarPositionDetails carPositionDetails) {
         activeTrips.put(carPositionDetails.getTripId(), carPositionDetails);
+        return true;
     }
 
     @Override
@@ -25,4 +24,14 @@ public class InMemoryCarPositionRepository implements CarPositionRepository {
     public Optional<CarPositionDetails> findByTripId(Long tripId) {
         return Optional.ofNullable(activeTrips.get(tripId));
     }
+
+    @Override
+    public List<CarPositionDetails> findAll() {
+        return List.copyOf(activeTrips.values());
+    }
+
+    @Override
+    public int count() {
+        return activeTrips.size();
+    }
 }
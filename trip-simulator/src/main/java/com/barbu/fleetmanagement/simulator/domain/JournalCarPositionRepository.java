@@ -0,0 +1,341 @@
+package com.barbu.fleetmanagement.simulator.domain;
+
+import com.barbu.fleetmanagement.common.geo.Polyline;
+import com.barbu.fleetmanagement.common.geo.Trajectory;
+import com.barbu.fleetmanagement.common.model.Location;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+import static com.barbu.fleetmanagement.simulator.domain.CarPositionDetailsCodec.readDecimal;
+import static com.barbu.fleetmanagement.simulator.domain.CarPositionDetailsCodec.writeDecimal;
+
+/**
+ * {@link CarPositionRepository} surviving restarts: the positions are kept by a delegate repository, every change is
+ * also appended to a memory-mapped {@link CarPositionJournal} in a local directory.
+ * <p>
+ * The journal is compacted every {@code snapshotInterval}, when it is full and on {@link #close()}:
+ * <ol>
+ *   <li>All the active trips are written to a new snapshot file of the next generation, which atomically replaces
+ *   the previous one</li>
+ *   <li>The journal is reset to that generation</li>
+ * </ol>
+ * On creation the delegate is filled back from the snapshot and the records of the journal of the same generation.
+ * A journal of an older generation is ignored, its changes are already in the snapshot. Appending costs a copy into
+ * the mapped memory, there is no write to the storage device per tick.
+ * <p>
+ * The trajectory of a recovered trip is rebuilt from its current location to its destination, which is the rest of
+ * the same great-circle path. The trajectory of a trip following a route cannot be rebuilt that way, so its waypoints
+ * are journaled once, as an encoded {@link Polyline}, and its positions carry the distance travelled along them.
+ */
+@Slf4j
+public class JournalCarPositionRepository implements CarPositionRepository, AutoCloseable {
+
+    static final String JOURNAL_FILE = "car-positions.journal";
+    static final String SNAPSHOT_FILE = "car-positions.snapshot";
+    private static final int SNAPSHOT_MAGIC = 0x464d5353;
+    private static final byte SAVE = 1;
+    private static final byte DELETE = 2;
+    private static final byte ROUTE = 3;
+    private static final byte SAVE_ON_ROUTE = 4;
+    private static final int MAX_RECORD_SIZE = 1024;
+    private static final int LONG_RECORD = 0xFFFF;
+
+    private final CarPositionRepository delegate;
+    private final Path directory;
+    private final CarPositionJournal journal;
+    private final ByteBuffer record = ByteBuffer.allocate(MAX_RECORD_SIZE);
+    private final ScheduledExecutorService snapshots = Executors.newSingleThreadScheduledExecutor();
+    private final Set<Long> journaledRoutes = new HashSet<>();
+    private final Map<Long, Trajectory> recoveredRoutes = new HashMap<>();
+
+    public JournalCarPositionRepository(CarPositionRepository delegate, Path directory, int journalSize,
+                                        Duration snapshotInterval) {
+        this.delegate = delegate;
+        this.directory = directory;
+        try {
+            Files.createDirectories(directory);
+            journal = new CarPositionJournal(directory.resolve(JOURNAL_FILE), journalSize);
+            recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open the car position journal in " + directory, e);
+        }
+        long intervalMillis = snapshotInterval.toMillis();
+        snapshots.scheduleWithFixedDelay(this::snapshotQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized boolean save(CarPositionDetails carPositionDetails) {
+        if (!delegate.save(carPositionDetails)) {
+            return false;
+        }
+        if (isOnRoute(carPositionDetails) && journaledRoutes.add(carPositionDetails.getTripId())) {
+            append(routeRecord(carPositionDetails));
+        }
+        record.clear();
+        writeSave(record, carPositionDetails);
+        append(record.flip());
+        return true;
+    }
+
+    @Override
+    public synchronized void deleteByTripId(Long tripId) {
+        delegate.deleteByTripId(tripId);
+        journaledRoutes.remove(tripId);
+        record.clear();
+        record.put(DELETE).putLong(tripId);
+        append(record.flip());
+    }
+
+    @Override
+    public Optional<CarPositionDetails> findByTripId(Long tripId) {
+        return delegate.findByTripId(tripId);
+    }
+
+    @Override
+    public Optional<CarPositionState> findStateByTripId(Long tripId) {
+        return delegate.findStateByTripId(tripId);
+    }
+
+    @Override
+    public List<CarPositionDetails> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public int count() {
+        return delegate.count();
+    }
+
+    /**
+     * Writes all the active trips to a new snapshot and empties the journal.
+     */
+    public synchronized void snapshot() {
+        Path snapshot = directory.resolve(SNAPSHOT_FILE);
+        if (journal.size() == CarPositionJournal.HEADER_SIZE && Files.exists(snapshot)) {
+            // nothing changed since the last snapshot
+            return;
+        }
+        long generation = journal.getGeneration() + 1;
+        List<CarPositionDetails> positions = delegate.findAll();
+        journaledRoutes.clear();
+        Path temporary = directory.resolve(SNAPSHOT_FILE + ".tmp");
+        try (FileOutputStream file = new FileOutputStream(temporary.toFile())) {
+            CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(file), new CRC32C());
+            DataOutputStream output = new DataOutputStream(checked);
+            output.writeInt(SNAPSHOT_MAGIC);
+            output.writeLong(generation);
+            output.writeInt(positions.size() + (int) positions.stream().filter(JournalCarPositionRepository::isOnRoute).count());
+            for (CarPositionDetails position : positions) {
+                if (isOnRoute(position)) {
+                    journaledRoutes.add(position.getTripId());
+                    writeSnapshotRecord(output, routeRecord(position));
+                }
+                record.clear();
+                writeSave(record, position);
+                writeSnapshotRecord(output, record.flip());
+            }
+            output.writeLong(checked.getChecksum().getValue());
+            output.flush();
+            file.getFD().sync();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write the car position snapshot " + temporary, e);
+        }
+        try {
+            Files.move(temporary, snapshot, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to replace the car position snapshot " + snapshot, e);
+        }
+        journal.reset(generation);
+        log.debug("Wrote snapshot {} of {} trips", generation, positions.size());
+    }
+
+    /**
+     * Stops the periodic snapshots and writes a last one, so that the next start does not replay the journal.
+     */
+    @Override
+    public synchronized void close() {
+        snapshots.shutdownNow();
+        snapshot();
+        try {
+            journal.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to close the car position journal", e);
+        }
+    }
+
+    private static void writeSnapshotRecord(DataOutputStream output, ByteBuffer payload) throws IOException {
+        int length = payload.remaining();
+        if (length >= LONG_RECORD) {
+            output.writeShort(LONG_RECORD);
+            output.writeInt(length);
+        } else {
+            output.writeShort(length);
+        }
+        output.write(payload.array(), payload.arrayOffset() + payload.position(), length);
+    }
+
+    private void snapshotQuietly() {
+        try {
+            snapshot();
+        } catch (RuntimeException e) {
+            // an exception would cancel the periodic task, the journal keeps the changes meanwhile
+            log.error("Failed to write the car position snapshot", e);
+        }
+    }
+
+    private void append(ByteBuffer payload) {
+        if (!journal.append(payload)) {
+            // the change is already in the delegate, so in the snapshot
+            snapshot();
+        }
+    }
+
+    private void recover() throws IOException {
+        long start = System.nanoTime();
+        long generation = 0;
+        int snapshotRecords = 0;
+        Path snapshot = directory.resolve(SNAPSHOT_FILE);
+        if (Files.exists(snapshot)) {
+            try (CheckedInputStream checked = new CheckedInputStream(
+                    new BufferedInputStream(Files.newInputStream(snapshot)), new CRC32C())) {
+                DataInputStream input = new DataInputStream(checked);
+                if (input.readInt() != SNAPSHOT_MAGIC) {
+                    throw new IllegalStateException("Not a car position snapshot: " + snapshot);
+                }
+                generation = input.readLong();
+                snapshotRecords = input.readInt();
+                byte[] bytes = new byte[MAX_RECORD_SIZE];
+                for (int i = 0; i < snapshotRecords; i++) {
+                    int length = input.readUnsignedShort();
+                    if (length == LONG_RECORD) {
+                        length = input.readInt();
+                    }
+                    if (length > bytes.length) {
+                        bytes = new byte[length];
+                    }
+                    input.readFully(bytes, 0, length);
+                    apply(ByteBuffer.wrap(bytes, 0, length));
+                }
+                long expectedChecksum = checked.getChecksum().getValue();
+                if (input.readLong() != expectedChecksum) {
+                    throw new IllegalStateException("Corrupted car position snapshot: " + snapshot);
+                }
+            }
+        }
+        int[] journalRecords = {0};
+        journal.replay(generation, payload -> {
+            apply(payload);
+            journalRecords[0]++;
+        });
+        recoveredRoutes.clear();
+        log.info("Recovered {} trips from {} snapshot records and {} journal records in {} ms",
+                delegate.count(), snapshotRecords, journalRecords[0], TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private void apply(ByteBuffer payload) {
+        byte type = payload.get();
+        switch (type) {
+            case SAVE -> delegate.save(readSave(payload).build());
+            case DELETE -> {
+                long tripId = payload.getLong();
+                delegate.deleteByTripId(tripId);
+                recoveredRoutes.remove(tripId);
+            }
+            case ROUTE -> {
+                long tripId = payload.getLong();
+                journaledRoutes.add(tripId);
+                recoveredRoutes.put(tripId, Trajectory.along(Polyline.decode(
+                        StandardCharsets.US_ASCII.decode(payload).toString())));
+            }
+            case SAVE_ON_ROUTE -> {
+                long tripId = payload.getLong(payload.position());
+                Trajectory route = recoveredRoutes.get(tripId);
+                if (route == null) {
+                    throw new IllegalStateException("No route journaled for trip " + tripId);
+                }
+                delegate.save(readSave(payload)
+                        .trajectory(route)
+                        .distanceTravelledKm(payload.getDouble())
+                        .build());
+            }
+            default -> throw new IllegalStateException("Unknown car position journal record " + type);
+        }
+    }
+
+    private static boolean isOnRoute(CarPositionDetails position) {
+        return position.getTrajectory().getSegmentCount() > 1;
+    }
+
+    private static ByteBuffer routeRecord(CarPositionDetails position) {
+        byte[] route = Polyline.encode(position.getTrajectory().getWaypoints()).getBytes(StandardCharsets.US_ASCII);
+        return ByteBuffer.allocate(1 + Long.BYTES + route.length)
+                .put(ROUTE)
+                .putLong(position.getTripId())
+                .put(route)
+                .flip();
+    }
+
+    private static void writeSave(ByteBuffer buffer, CarPositionDetails position) {
+        boolean onRoute = isOnRoute(position);
+        buffer.put(onRoute ? SAVE_ON_ROUTE : SAVE)
+                .putLong(position.getTripId())
+                .putLong(position.getCarId())
+                .putLong(position.getDriverId());
+        writeDecimal(buffer, position.getCurrentLocation().latitude());
+        writeDecimal(buffer, position.getCurrentLocation().longitude());
+        writeDecimal(buffer, position.getDestination().latitude());
+        writeDecimal(buffer, position.getDestination().longitude());
+        writeDecimal(buffer, position.getSpeedKmPerHour());
+        buffer.putLong(position.getTimestamp().getEpochSecond()).putInt(position.getTimestamp().getNano());
+        if (onRoute) {
+            buffer.putDouble(position.getDistanceTravelledKm());
+        }
+    }
+
+    private static CarPositionDetails.CarPositionDetailsBuilder readSave(ByteBuffer buffer) {
+        long tripId = buffer.getLong();
+        long carId = buffer.getLong();
+        long driverId = buffer.getLong();
+        Location currentLocation = new Location(readDecimal(buffer), readDecimal(buffer));
+        Location destination = new Location(readDecimal(buffer), readDecimal(buffer));
+        BigDecimal speedKmPerHour = readDecimal(buffer);
+        Instant timestamp = Instant.ofEpochSecond(buffer.getLong(), buffer.getInt());
+        return CarPositionDetails.builder()
+                .carId(carId)
+                .driverId(driverId)
+                .tripId(tripId)
+                .currentLocation(currentLocation)
+                .destination(destination)
+                .trajectory(Trajectory.between(currentLocation, destination))
+                .distanceTravelledKm(0)
+                .speedKmPerHour(speedKmPerHour)
+                .timestamp(timestamp);
+    }
+}
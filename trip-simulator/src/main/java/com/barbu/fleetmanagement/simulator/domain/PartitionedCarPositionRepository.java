@@ -0,0 +1,197 @@
+package com.barbu.fleetmanagement.simulator.domain;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * {@link CarPositionRepository} of one instance of a cluster of trip simulators, holding only the trips of the
+ * partitions of the trip topic assigned to the instance. The positions are kept by a delegate repository, the last
+ * state of every trip is also kept in a shared {@link TripStateStore}:
+ * <ul>
+ *   <li>{@link #own(long, int)} a trip received from an assigned partition before simulating it</li>
+ *   <li>on a rebalance, {@link #release(Collection)} stores the last state of the trips of the revoked partitions and
+ *   forgets them, then the next owner {@link #acquire(Collection) acquires} them from the store</li>
+ *   <li>the state of all the trips is stored every {@code checkpointInterval}, for the trips of an instance which
+ *   crashed, or whose partitions were lost, to be resumed from their last checkpoint</li>
+ *   <li>the state of a completed trip is deleted</li>
+ * </ul>
+ * The positions of a trip which is not owned anymore are ignored and {@link #save} returns false: an update in
+ * progress while its partition is revoked cannot bring the trip back nor publish its position, the next update of the
+ * engine finds no position and stops simulating it without completing it.
+ */
+@Slf4j
+public class PartitionedCarPositionRepository implements CarPositionRepository, AutoCloseable {
+
+    private final CarPositionRepository delegate;
+    private final TripStateStore tripStateStore;
+    private final Duration handoverTimeout;
+    private final Map<Long, Integer> tripPartitions = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService checkpoints = Executors.newSingleThreadScheduledExecutor();
+
+    public PartitionedCarPositionRepository(CarPositionRepository delegate, TripStateStore tripStateStore,
+                                            Duration checkpointInterval, Duration handoverTimeout) {
+        this.delegate = delegate;
+        this.tripStateStore = tripStateStore;
+        this.handoverTimeout = handoverTimeout;
+        long intervalMillis = checkpointInterval.toMillis();
+        checkpoints.scheduleWithFixedDelay(this::checkpointQuietly, intervalMillis, intervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Makes this instance the owner of a trip received from a partition of the trip topic.
+     *
+     * @return false when the trip is already owned, e.g. a trip event delivered again after a rebalance
+     */
+    public boolean own(long tripId, int partition) {
+        return tripPartitions.putIfAbsent(tripId, partition) == null;
+    }
+
+    @Override
+    public boolean save(CarPositionDetails carPositionDetails) {
+        // saving under the lock of the entry, so that a release cannot happen meanwhile
+        Integer partition = tripPartitions.computeIfPresent(carPositionDetails.getTripId(), (_, owner) -> {
+            delegate.save(carPositionDetails);
+            return owner;
+        });
+        if (partition == null) {
+            log.debug("Ignored a position of trip {}, not owned anymore", carPositionDetails.getTripId());
+        }
+        return partition != null;
+    }
+
+    @Override
+    public void deleteByTripId(Long tripId) {
+        Integer partition = tripPartitions.remove(tripId);
+        delegate.deleteByTripId(tripId);
+        if (partition != null) {
+            tripStateStore.delete(partition, tripId);
+        }
+    }
+
+    @Override
+    public Optional<CarPositionDetails> findByTripId(Long tripId) {
+        return delegate.findByTripId(tripId);
+    }
+
+    @Override
+    public Optional<CarPositionState> findStateByTripId(Long tripId) {
+        return delegate.findStateByTripId(tripId);
+    }
+
+    @Override
+    public List<CarPositionDetails> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public int count() {
+        return delegate.count();
+    }
+
+    /**
+     * Takes over the trips of newly assigned partitions, from their last stored state.
+     *
+     * @return The positions of the trips to resume
+     */
+    public List<CarPositionDetails> acquire(Collection<Integer> partitions) {
+        List<CarPositionDetails> acquired = new ArrayList<>();
+        tripStateStore.load(partitions).forEach((partition, positions) -> {
+            for (CarPositionDetails position : positions) {
+                if (own(position.getTripId(), partition)) {
+                    delegate.save(position);
+                    acquired.add(position);
+                }
+            }
+        });
+        log.info("Acquired {} trips of partitions {}", acquired.size(), partitions);
+        return acquired;
+    }
+
+    /**
+     * Hands the trips of revoked partitions over: stops owning them and waits, up to the handover timeout, until their
+     * last state is stored for their next owner.
+     */
+    public void release(Collection<Integer> partitions) {
+        List<CompletableFuture<Void>> stored = new ArrayList<>();
+        for (Map.Entry<Integer, CarPositionDetails> released : forget(partitions)) {
+            stored.add(tripStateStore.save(released.getKey(), released.getValue()));
+        }
+        try {
+            CompletableFuture.allOf(stored.toArray(CompletableFuture[]::new))
+                    .get(handoverTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            log.info("Handed over {} trips of partitions {}", stored.size(), partitions);
+        } catch (ExecutionException | TimeoutException e) {
+            log.warn("Failed to hand over the {} trips of partitions {}, they resume from their last checkpoint",
+                    stored.size(), partitions, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Forgets the trips of lost partitions without storing their state: another instance may already own them, it
+     * resumes them from their last checkpoint.
+     */
+    public void drop(Collection<Integer> partitions) {
+        int dropped = forget(partitions).size();
+        log.warn("Dropped {} trips of the lost partitions {}", dropped, partitions);
+    }
+
+    /**
+     * Stores the state of all the owned trips.
+     * <p>
+     * Every trip is checkpointed under the lock of its entry, like {@link #save} and {@link #release}: the checkpoint
+     * of a trip being released is sent before the state handed over, which it cannot overwrite then, the states of a
+     * partition being stored in the order they are sent.
+     */
+    public void checkpoint() {
+        for (Long tripId : tripPartitions.keySet()) {
+            tripPartitions.computeIfPresent(tripId, (_, partition) -> {
+                delegate.findByTripId(tripId).ifPresent(position -> tripStateStore.save(partition, position));
+                return partition;
+            });
+        }
+    }
+
+    @Override
+    public void close() {
+        checkpoints.shutdownNow();
+    }
+
+    private List<Map.Entry<Integer, CarPositionDetails>> forget(Collection<Integer> partitions) {
+        List<Map.Entry<Integer, CarPositionDetails>> forgotten = new ArrayList<>();
+        for (Map.Entry<Long, Integer> trip : tripPartitions.entrySet()) {
+            if (partitions.contains(trip.getValue())) {
+                tripPartitions.computeIfPresent(trip.getKey(), (tripId, partition) -> {
+                    delegate.findByTripId(tripId).ifPresent(position -> forgotten.add(Map.entry(partition, position)));
+                    delegate.deleteByTripId(tripId);
+                    return null;
+                });
+            }
+        }
+        return forgotten;
+    }
+
+    private void checkpointQuietly() {
+        try {
+            checkpoint();
+        } catch (RuntimeException e) {
+            // an exception would cancel the periodic task, the trips would not be checkpointed anymore
+            log.error("Failed to checkpoint the trip states", e);
+        }
+    }
+}
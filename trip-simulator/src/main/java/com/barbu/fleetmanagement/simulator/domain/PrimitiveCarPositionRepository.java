@@ -0,0 +1,259 @@
+package com.barbu.fleetmanagement.simulator.domain;
+
+import com.barbu.fleetmanagement.common.collection.LongIntHashMap;
+import com.barbu.fleetmanagement.common.geo.Trajectory;
+import com.barbu.fleetmanagement.common.model.Location;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * {@link CarPositionRepository} for very large fleets, keeping the active trips in parallel primitive arrays (one
+ * array per field) indexed by a {@link LongIntHashMap} of trip id to row.
+ * <p>
+ * Saving a position overwrites the row of its trip in place, so an active trip costs about 100 bytes of arrays and
+ * index plus its destination and {@link Trajectory}, created once per trip, and its speed, instead of a map entry, a
+ * boxed key and a {@link CarPositionDetails} with a {@link Location}, two {@link BigDecimal}s and an {@link Instant}
+ * replaced on every update.
+ * <p>
+ * Moving a car reads its row through {@link #findStateByTripId(Long)}, a {@link CarPositionState} view reused by each
+ * thread, so nothing but the {@link Optional} is allocated per update. The {@link CarPositionDetails} of
+ * {@link #findByTripId(Long)} and {@link #findAll()}, used to publish and recover the positions, are built on demand.
+ * <p>
+ * The coordinates are kept as the unscaled {@code long} value and the scale of their {@link BigDecimal}, so they are
+ * found back exactly and cheaply (values of more than 18 digits are rounded). Removing a trip moves the last row into
+ * its place so that the rows stay contiguous.
+ */
+public class PrimitiveCarPositionRepository implements CarPositionRepository {
+
+    private static final MathContext LONG_PRECISION = new MathContext(18);
+    private static final int LATITUDE = 0;
+    private static final int LONGITUDE = 1;
+    private static final int DECIMALS = 2;
+
+    private final LongIntHashMap rows;
+    private final ThreadLocal<RowState> rowStates = ThreadLocal.withInitial(RowState::new);
+    private long[] tripIds;
+    private long[] carIds;
+    private long[] driverIds;
+    /**
+     * Unscaled values of the decimals of each row, {@value #DECIMALS} per row.
+     */
+    private long[] unscaledDecimals;
+    private byte[] decimalScales;
+    private double[] distancesTravelledKm;
+    private long[] timestampNanos;
+    private Location[] destinations;
+    private Trajectory[] trajectories;
+    private BigDecimal[] speedsKmPerHour;
+    private int size;
+
+    public PrimitiveCarPositionRepository(int initialCapacity) {
+        int capacity = Math.max(initialCapacity, 1);
+        rows = new LongIntHashMap(capacity);
+        tripIds = new long[capacity];
+        carIds = new long[capacity];
+        driverIds = new long[capacity];
+        unscaledDecimals = new long[capacity * DECIMALS];
+        decimalScales = new byte[capacity * DECIMALS];
+        distancesTravelledKm = new double[capacity];
+        timestampNanos = new long[capacity];
+        destinations = new Location[capacity];
+        trajectories = new Trajectory[capacity];
+        speedsKmPerHour = new BigDecimal[capacity];
+    }
+
+    @Override
+    public synchronized boolean save(CarPositionDetails carPositionDetails) {
+        long tripId = carPositionDetails.getTripId();
+        int row = rows.get(tripId);
+        if (row == LongIntHashMap.MISSING) {
+            if (size == tripIds.length) {
+                grow();
+            }
+            row = size++;
+            rows.put(tripId, row);
+        }
+        tripIds[row] = tripId;
+        carIds[row] = carPositionDetails.getCarId();
+        driverIds[row] = carPositionDetails.getDriverId();
+        setDecimal(row, LATITUDE, carPositionDetails.getCurrentLocation().latitude());
+        setDecimal(row, LONGITUDE, carPositionDetails.getCurrentLocation().longitude());
+        distancesTravelledKm[row] = carPositionDetails.getDistanceTravelledKm();
+        timestampNanos[row] = carPositionDetails.epochNanos();
+        destinations[row] = carPositionDetails.getDestination();
+        trajectories[row] = carPositionDetails.getTrajectory();
+        speedsKmPerHour[row] = carPositionDetails.getSpeedKmPerHour();
+        return true;
+    }
+
+    @Override
+    public synchronized void deleteByTripId(Long tripId) {
+        int row = rows.remove(tripId);
+        if (row == LongIntHashMap.MISSING) {
+            return;
+        }
+        int last = --size;
+        if (row != last) {
+            tripIds[row] = tripIds[last];
+            carIds[row] = carIds[last];
+            driverIds[row] = driverIds[last];
+            System.arraycopy(unscaledDecimals, last * DECIMALS, unscaledDecimals, row * DECIMALS, DECIMALS);
+            System.arraycopy(decimalScales, last * DECIMALS, decimalScales, row * DECIMALS, DECIMALS);
+            distancesTravelledKm[row] = distancesTravelledKm[last];
+            timestampNanos[row] = timestampNanos[last];
+            destinations[row] = destinations[last];
+            trajectories[row] = trajectories[last];
+            speedsKmPerHour[row] = speedsKmPerHour[last];
+            rows.put(tripIds[row], row);
+        }
+        destinations[last] = null;
+        trajectories[last] = null;
+        speedsKmPerHour[last] = null;
+    }
+
+    @Override
+    public synchronized Optional<CarPositionDetails> findByTripId(Long tripId) {
+        int row = rows.get(tripId);
+        if (row == LongIntHashMap.MISSING) {
+            return Optional.empty();
+        }
+        return Optional.of(toCarPositionDetails(row));
+    }
+
+    /**
+     * @return A view of the row of the trip reused by the next call of the same thread
+     */
+    @Override
+    public synchronized Optional<CarPositionState> findStateByTripId(Long tripId) {
+        int row = rows.get(tripId);
+        if (row == LongIntHashMap.MISSING) {
+            return Optional.empty();
+        }
+        RowState state = rowStates.get();
+        state.tripId = tripIds[row];
+        state.carId = carIds[row];
+        state.driverId = driverIds[row];
+        state.destination = destinations[row];
+        state.trajectory = trajectories[row];
+        state.distanceTravelledKm = distancesTravelledKm[row];
+        state.speedKmPerHour = speedsKmPerHour[row];
+        state.epochNanos = timestampNanos[row];
+        return Optional.of(state);
+    }
+
+    @Override
+    public synchronized List<CarPositionDetails> findAll() {
+        List<CarPositionDetails> positions = new ArrayList<>(size);
+        for (int row = 0; row < size; row++) {
+            positions.add(toCarPositionDetails(row));
+        }
+        return positions;
+    }
+
+    private CarPositionDetails toCarPositionDetails(int row) {
+        return CarPositionDetails.builder()
+                .carId(carIds[row])
+                .driverId(driverIds[row])
+                .tripId(tripIds[row])
+                .currentLocation(new Location(getDecimal(row, LATITUDE), getDecimal(row, LONGITUDE)))
+                .destination(destinations[row])
+                .trajectory(trajectories[row])
+                .distanceTravelledKm(distancesTravelledKm[row])
+                .speedKmPerHour(speedsKmPerHour[row])
+                .timestamp(Instant.ofEpochSecond(0, timestampNanos[row]))
+                .build();
+    }
+
+    @Override
+    public synchronized int count() {
+        return size;
+    }
+
+    private void setDecimal(int row, int decimal, BigDecimal value) {
+        BigDecimal rounded = value.precision() > LONG_PRECISION.getPrecision() ? value.round(LONG_PRECISION) : value;
+        if (rounded.scale() != (byte) rounded.scale()) {
+            throw new IllegalArgumentException("Unsupported scale of " + value);
+        }
+        unscaledDecimals[row * DECIMALS + decimal] = rounded.unscaledValue().longValue();
+        decimalScales[row * DECIMALS + decimal] = (byte) rounded.scale();
+    }
+
+    private BigDecimal getDecimal(int row, int decimal) {
+        return BigDecimal.valueOf(unscaledDecimals[row * DECIMALS + decimal], decimalScales[row * DECIMALS + decimal]);
+    }
+
+    private void grow() {
+        int capacity = tripIds.length * 2;
+        tripIds = Arrays.copyOf(tripIds, capacity);
+        carIds = Arrays.copyOf(carIds, capacity);
+        driverIds = Arrays.copyOf(driverIds, capacity);
+        unscaledDecimals = Arrays.copyOf(unscaledDecimals, capacity * DECIMALS);
+        decimalScales = Arrays.copyOf(decimalScales, capacity * DECIMALS);
+        distancesTravelledKm = Arrays.copyOf(distancesTravelledKm, capacity);
+        timestampNanos = Arrays.copyOf(timestampNanos, capacity);
+        destinations = Arrays.copyOf(destinations, capacity);
+        trajectories = Arrays.copyOf(trajectories, capacity);
+        speedsKmPerHour = Arrays.copyOf(speedsKmPerHour, capacity);
+    }
+
+    /**
+     * The fields of a row copied while holding the lock of the repository.
+     */
+    private static final class RowState implements CarPositionState {
+
+        private long tripId;
+        private long carId;
+        private long driverId;
+        private Location destination;
+        private Trajectory trajectory;
+        private double distanceTravelledKm;
+        private BigDecimal speedKmPerHour;
+        private long epochNanos;
+
+        @Override
+        public long tripId() {
+            return tripId;
+        }
+
+        @Override
+        public long carId() {
+            return carId;
+        }
+
+        @Override
+        public long driverId() {
+            return driverId;
+        }
+
+        @Override
+        public Location destination() {
+            return destination;
+        }
+
+        @Override
+        public Trajectory trajectory() {
+            return trajectory;
+        }
+
+        @Override
+        public double distanceTravelledKm() {
+            return distanceTravelledKm;
+        }
+
+        @Override
+        public BigDecimal speedKmPerHour() {
+            return speedKmPerHour;
+        }
+
+        @Override
+        public long epochNanos() {
+            return epochNanos;
+        }
+    }
+}
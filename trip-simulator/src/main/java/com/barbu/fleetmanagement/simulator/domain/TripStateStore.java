@@ -0,0 +1,31 @@
+package com.barbu.fleetmanagement.simulator.domain;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Store shared by the trip simulator instances, keeping the last state of each trip under the partition of the trip
+ * topic it was received from, so that the next owner of a partition resumes its trips, see
+ * {@link PartitionedCarPositionRepository}.
+ */
+public interface TripStateStore {
+
+    /**
+     * Stores the state of a trip.
+     *
+     * @return Completes once the state is stored
+     */
+    CompletableFuture<Void> save(int partition, CarPositionDetails position);
+
+    /**
+     * Removes the state of a completed trip.
+     */
+    void delete(int partition, long tripId);
+
+    /**
+     * @return The last state of the trips of the given partitions, by partition
+     */
+    Map<Integer, List<CarPositionDetails>> load(Collection<Integer> partitions);
+}
@@ -0,0 +1,95 @@
+package com.barbu.fleetmanagement.simulator.api.consumer;
+
+import com.barbu.fleetmanagement.common.geo.GeoCalculator;
+import com.barbu.fleetmanagement.common.model.Location;
+import com.barbu.fleetmanagement.common.model.Trip;
+import com.barbu.fleetmanagement.simulator.application.service.CarMover;
+import com.barbu.fleetmanagement.simulator.application.service.CarSpeedLimits;
+import com.barbu.fleetmanagement.simulator.application.service.RandomStreams;
+import com.barbu.fleetmanagement.simulator.application.service.SimulationClock;
+import com.barbu.fleetmanagement.simulator.application.service.SpeedLimits;
+import com.barbu.fleetmanagement.simulator.application.service.TripSimulator;
+import com.barbu.fleetmanagement.simulator.application.service.UniformSpeedModel;
+import com.barbu.fleetmanagement.simulator.domain.PartitionedCarPositionRepository;
+import io.smallrye.reactive.messaging.kafka.api.IncomingKafkaRecordMetadata;
+import jakarta.enterprise.inject.Instance;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TripConsumerTest {
+
+    @Mock
+    Instance<TripSimulator> tripSimulatorInstance;
+
+    @Mock
+    TripSimulator tripSimulator;
+
+    @Mock
+    Instance<PartitionedCarPositionRepository> partitionedRepositoryInstance;
+
+    @Mock
+    PartitionedCarPositionRepository partitionedRepository;
+
+    @Mock
+    IncomingKafkaRecordMetadata<String, Trip> metadata;
+
+    private final CarMover carMover = new CarMover(new GeoCalculator(), SimulationClock.SYSTEM,
+            new UniformSpeedModel(), new CarSpeedLimits(new SpeedLimits(40, 120), Map.of()), new RandomStreams(42));
+    private final TripConsumer tripConsumer = new TripConsumer();
+
+    @BeforeEach
+    void setUp() {
+        tripConsumer.tripSimulator = tripSimulatorInstance;
+        tripConsumer.partitionedRepository = partitionedRepositoryInstance;
+        when(tripSimulatorInstance.get()).thenReturn(tripSimulator);
+        lenient().when(partitionedRepositoryInstance.get()).thenReturn(partitionedRepository);
+        // the engines start with the initial position of the car, which decodes the route
+        lenient().doAnswer(invocation -> carMover.moveToInitialPosition(invocation.getArgument(0)))
+                .when(tripSimulator).startTripSimulation(any());
+    }
+
+    @Test
+    void shouldSkipATripWithATruncatedRouteAndGoOnWithTheNextTrips() {
+        assertThatCode(() -> tripConsumer.consumeTripEvent(trip(1L, "_p~iF"), metadata)).doesNotThrowAnyException();
+
+        tripConsumer.consumeTripEvent(trip(2L, "_p~iF~ps|U"), metadata);
+
+        verify(tripSimulator).startTripSimulation(trip(2L, "_p~iF~ps|U"));
+    }
+
+    @Test
+    void shouldReleaseATripWithATruncatedRouteInTheClusteredMode() {
+        tripConsumer.clusterEnabled = true;
+        when(metadata.getPartition()).thenReturn(3);
+        when(partitionedRepository.own(1L, 3)).thenReturn(true);
+
+        assertThatCode(() -> tripConsumer.consumeTripEvent(trip(1L, "?"), metadata)).doesNotThrowAnyException();
+
+        verify(partitionedRepository).deleteByTripId(1L);
+    }
+
+    private static Trip trip(long id, String route) {
+        return Trip.builder()
+                .id(id)
+                .start(new Location(new BigDecimal("44.4268"), new BigDecimal("26.1025")))
+                .destination(new Location(new BigDecimal("44.4500"), new BigDecimal("26.0800")))
+                .driverId(10L)
+                .carId(20L)
+                .route(route)
+                .build();
+    }
+}
@@ -0,0 +1,82 @@
+package com.barbu.fleetmanagement.simulator.api.producer;
+
+import com.barbu.fleetmanagement.common.codec.CarPositionDeltaCodec;
+import com.barbu.fleetmanagement.common.model.CarPosition;
+import com.barbu.fleetmanagement.common.model.Location;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CarPositionDeltaEncoderTest {
+
+    private final Instant start = Instant.parse("2025-06-01T10:00:00Z");
+    private CarPositionDeltaEncoder encoder;
+
+    @BeforeEach
+    void setUp() {
+        encoder = new CarPositionDeltaEncoder();
+        encoder.keyframeInterval = 3;
+    }
+
+    @Test
+    void shouldSendKeyframeEveryIntervalAndDeltasInBetween() {
+        byte[][] frames = new byte[7][];
+        for (int tick = 0; tick < frames.length; tick++) {
+            frames[tick] = encoder.encode(position(1L, "44.100000", "26.100000", tick));
+        }
+
+        assertThat(frameTypes(frames)).containsExactly(
+                CarPositionDeltaCodec.KEYFRAME, CarPositionDeltaCodec.DELTA, CarPositionDeltaCodec.DELTA,
+                CarPositionDeltaCodec.KEYFRAME, CarPositionDeltaCodec.DELTA, CarPositionDeltaCodec.DELTA,
+                CarPositionDeltaCodec.KEYFRAME);
+        assertThat(CarPositionDeltaCodec.decodeDelta(frames[1]))
+                .isEqualTo(new CarPositionDeltaCodec.Delta(1L, 1, 1_000, -2_000, 10_000));
+        assertThat(CarPositionDeltaCodec.decodeDelta(frames[2]).sequence()).isEqualTo(2);
+        assertThat(CarPositionDeltaCodec.decodeDelta(frames[4]).sequence()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldTrackTripsIndependently() {
+        encoder.encode(position(1L, "44.100000", "26.100000", 0));
+
+        assertThat(CarPositionDeltaCodec.frameType(encoder.encode(position(2L, "44.100000", "26.100000", 0))))
+                .isEqualTo(CarPositionDeltaCodec.KEYFRAME);
+        assertThat(CarPositionDeltaCodec.frameType(encoder.encode(position(1L, "44.100000", "26.100000", 1))))
+                .isEqualTo(CarPositionDeltaCodec.DELTA);
+    }
+
+    @Test
+    void shouldStartWithKeyframeOnceTripIsForgotten() {
+        encoder.encode(position(1L, "44.100000", "26.100000", 0));
+
+        encoder.forget(1L);
+
+        assertThat(CarPositionDeltaCodec.frameType(encoder.encode(position(1L, "44.100000", "26.100000", 1))))
+                .isEqualTo(CarPositionDeltaCodec.KEYFRAME);
+    }
+
+    private CarPosition position(Long tripId, String latitude, String longitude, int tick) {
+        // every tick moves 0.001 degrees north and 0.002 degrees west
+        return CarPosition.builder()
+                .carId(7L)
+                .driverId(8L)
+                .tripId(tripId)
+                .currentLocation(new Location(
+                        new BigDecimal(latitude).add(new BigDecimal("0.001").multiply(BigDecimal.valueOf(tick))),
+                        new BigDecimal(longitude).subtract(new BigDecimal("0.002").multiply(BigDecimal.valueOf(tick)))))
+                .timestamp(start.plusSeconds(10L * tick))
+                .build();
+    }
+
+    private static Byte[] frameTypes(byte[][] frames) {
+        Byte[] types = new Byte[frames.length];
+        for (int i = 0; i < frames.length; i++) {
+            types[i] = CarPositionDeltaCodec.frameType(frames[i]);
+        }
+        return types;
+    }
+}
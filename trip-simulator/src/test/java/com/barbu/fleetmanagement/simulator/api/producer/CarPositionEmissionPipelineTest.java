@@ -0,0 +1,140 @@
+package com.barbu.fleetmanagement.simulator.api.producer;
+
+import com.barbu.fleetmanagement.common.model.CarPosition;
+import com.barbu.fleetmanagement.common.model.Location;
+import com.barbu.fleetmanagement.simulator.application.service.SimulatorMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class CarPositionEmissionPipelineTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<CarPosition> sent = new CopyOnWriteArrayList<>();
+    private final List<Long> completed = new CopyOnWriteArrayList<>();
+    private final CountDownLatch sentLatch = new CountDownLatch(2);
+    private CarPositionEmissionPipeline pipeline;
+
+    @AfterEach
+    void tearDown() {
+        pipeline.close();
+    }
+
+    @Test
+    void shouldKeepOnlyTheLatestQueuedPositionOfEachTripAndDropNewTripsWhenFull() throws Exception {
+        pipeline = pipeline(2, OverflowPolicy.COALESCE);
+
+        pipeline.submit(position(1L, 0));
+        pipeline.submit(position(2L, 0));
+        pipeline.submit(position(1L, 1));
+        pipeline.submit(position(3L, 0));
+
+        assertThat(drain()).extracting(CarPosition::tripId, CarPosition::timestamp)
+                .containsExactly(
+                        tuple(1L, Instant.EPOCH.plusSeconds(1)),
+                        tuple(2L, Instant.EPOCH));
+        assertThat(meterRegistry.get("simulator.emission.coalesced").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("simulator.emission.dropped").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldDropNewPositionsWhenFull() throws Exception {
+        pipeline = pipeline(2, OverflowPolicy.DROP);
+
+        pipeline.submit(position(1L, 0));
+        pipeline.submit(position(1L, 1));
+        pipeline.submit(position(1L, 2));
+
+        assertThat(drain()).extracting(CarPosition::timestamp)
+                .containsExactly(Instant.EPOCH, Instant.EPOCH.plusSeconds(1));
+        assertThat(meterRegistry.get("simulator.emission.dropped").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("simulator.emission.queue.depth").gauge().value()).isZero();
+    }
+
+    @Test
+    void shouldBlockTheSubmitterUntilThereIsRoomWhenFull() throws Exception {
+        pipeline = pipeline(1, OverflowPolicy.BLOCK);
+        pipeline.submit(position(1L, 0));
+
+        CountDownLatch submitted = new CountDownLatch(1);
+        Thread engine = Thread.ofVirtual().start(() -> {
+            pipeline.submit(position(2L, 0));
+            submitted.countDown();
+        });
+
+        assertThat(submitted.await(100, TimeUnit.MILLISECONDS)).isFalse();
+        assertThat(pipeline.take().position.tripId()).isEqualTo(1L);
+        assertThat(submitted.await(5, TimeUnit.SECONDS)).isTrue();
+        engine.join();
+        assertThat(pipeline.take().position.tripId()).isEqualTo(2L);
+    }
+
+    @Test
+    void shouldSendInOrderAndCompleteTripsAfterTheirPositions() throws Exception {
+        pipeline = pipeline(10, OverflowPolicy.DROP);
+        pipeline.submit(position(1L, 0));
+        pipeline.completed(1L);
+        pipeline.submit(position(2L, 0));
+
+        pipeline.start();
+
+        assertThat(sentLatch.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(sent).extracting(CarPosition::tripId).containsExactly(1L, 2L);
+        assertThat(completed).containsExactly(1L);
+    }
+
+    @Test
+    void shouldBoundTheRecordsInFlight() throws Exception {
+        pipeline = pipeline(10, OverflowPolicy.DROP);
+        pipeline.acquireSendPermit();
+        pipeline.acquireSendPermit();
+        assertThat(meterRegistry.get("simulator.emission.in-flight").gauge().value()).isEqualTo(2);
+
+        CountDownLatch acquired = new CountDownLatch(1);
+        Thread sender = Thread.ofVirtual().start(() -> {
+            pipeline.acquireSendPermit();
+            acquired.countDown();
+        });
+
+        assertThat(acquired.await(100, TimeUnit.MILLISECONDS)).isFalse();
+        pipeline.releaseSendPermit();
+        assertThat(acquired.await(5, TimeUnit.SECONDS)).isTrue();
+        sender.join();
+    }
+
+    private CarPositionEmissionPipeline pipeline(int capacity, OverflowPolicy overflowPolicy) {
+        return new CarPositionEmissionPipeline(capacity, 2, overflowPolicy, position -> {
+            sent.add(position);
+            sentLatch.countDown();
+        }, completed::add, new SimulatorMetrics(meterRegistry));
+    }
+
+    private List<CarPosition> drain() throws InterruptedException {
+        List<CarPosition> positions = new ArrayList<>();
+        while (pipeline.depth() > 0) {
+            positions.add(pipeline.take().position);
+        }
+        return positions;
+    }
+
+    private static CarPosition position(long tripId, int second) {
+        return CarPosition.builder()
+                .carId(tripId)
+                .driverId(tripId)
+                .tripId(tripId)
+                .currentLocation(new Location(new BigDecimal("44.4"), new BigDecimal("26.1")))
+                .timestamp(Instant.EPOCH.plusSeconds(second))
+                .build();
+    }
+}
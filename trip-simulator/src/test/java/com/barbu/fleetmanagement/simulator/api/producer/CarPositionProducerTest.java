@@ -1,14 +1,21 @@
 package com.barbu.fleetmanagement.simulator.api.producer;
 
+import com.barbu.fleetmanagement.common.codec.BinaryFormat;
+import com.barbu.fleetmanagement.common.codec.CarPositionDeltaCodec;
 import com.barbu.fleetmanagement.common.model.CarPosition;
+import com.barbu.fleetmanagement.common.model.CarPositionBatch;
 import com.barbu.fleetmanagement.common.model.Location;
+import com.barbu.fleetmanagement.simulator.application.service.SimulatorMetrics;
 import com.barbu.fleetmanagement.simulator.domain.CarPositionDetails;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import io.smallrye.reactive.messaging.kafka.api.OutgoingKafkaRecordMetadata;
 import org.apache.kafka.common.header.Header;
 import org.apache.kafka.common.header.Headers;
 import org.eclipse.microprofile.reactive.messaging.Emitter;
 import org.eclipse.microprofile.reactive.messaging.Message;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
@@ -20,10 +27,20 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 
 @ExtendWith(MockitoExtension.class)
 class CarPositionProducerTest {
@@ -31,12 +48,33 @@ class CarPositionProducerTest {
     @Mock
     Emitter<CarPosition> carPositionEmitter;
 
+    @Mock
+    Emitter<CarPositionBatch> carPositionBatchEmitter;
+
+    @Mock
+    Emitter<byte[]> carPositionDeltaEmitter;
+
+    @Mock
+    CarPositionDeltaEncoder carPositionDeltaEncoder;
+
+    @Mock
+    DeadReckoningFilter deadReckoningFilter;
+
+    @Mock
+    SimulatorMetrics simulatorMetrics;
+
     @InjectMocks
     CarPositionProducer carPositionProducer;
 
     @Captor
     ArgumentCaptor<Message<CarPosition>> messageCaptor;
 
+    @Captor
+    ArgumentCaptor<Message<CarPositionBatch>> batchMessageCaptor;
+
+    @Captor
+    ArgumentCaptor<Message<byte[]>> deltaMessageCaptor;
+
     private CarPositionDetails carPositionDetails;
     private final Long carId = 1L;
     private final Long driverId = 2L;
@@ -82,4 +120,212 @@ class CarPositionProducerTest {
         assertEquals("eventType", header.key());
         assertArrayEquals("position.updated".getBytes(), header.value());
     }
+
+    @Test
+    void sendCarPosition_shouldRecordTheSendLatencyWhenAcknowledged() {
+        carPositionProducer.sendCarPosition(carPositionDetails);
+        verify(carPositionEmitter).send(messageCaptor.capture());
+        verify(simulatorMetrics).recordPositionSent();
+        verifyNoMoreInteractions(simulatorMetrics);
+
+        messageCaptor.getValue().ack().toCompletableFuture().join();
+
+        verify(simulatorMetrics).recordProducerSend(anyLong());
+    }
+
+    @Test
+    void sendCarPosition_shouldCountTheRejectedRecords() {
+        carPositionProducer.sendCarPosition(carPositionDetails);
+        verify(carPositionEmitter).send(messageCaptor.capture());
+
+        messageCaptor.getValue().nack(new IllegalStateException("broker down")).toCompletableFuture().join();
+
+        verify(simulatorMetrics).recordProducerSendFailure();
+        verify(simulatorMetrics, never()).recordProducerSend(anyLong());
+    }
+
+    @Nested
+    class EmissionPipelineTests {
+
+        private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        @BeforeEach
+        void enablePipeline() {
+            carPositionProducer.simulatorMetrics = new SimulatorMetrics(meterRegistry);
+            carPositionProducer.emissionEnabled = true;
+            carPositionProducer.emissionQueueCapacity = 10;
+            carPositionProducer.emissionMaxInFlight = 1;
+            carPositionProducer.overflowPolicy = OverflowPolicy.DROP;
+            carPositionProducer.startPipeline();
+        }
+
+        @AfterEach
+        void stopPipeline() {
+            carPositionProducer.stopPipeline();
+        }
+
+        @Test
+        void shouldSendFromThePipelineThreadOneRecordInFlightAtATime() {
+            carPositionProducer.sendCarPosition(carPositionDetails);
+            carPositionProducer.sendCarPosition(carPositionDetails);
+
+            verify(carPositionEmitter, timeout(5_000)).send(messageCaptor.capture());
+            assertEquals(1.0, meterRegistry.get("simulator.emission.in-flight").gauge().value());
+
+            messageCaptor.getValue().ack().toCompletableFuture().join();
+
+            verify(carPositionEmitter, timeout(5_000).times(2)).send(messageCaptor.capture());
+        }
+    }
+
+    @Nested
+    class BatchModeTests {
+
+        @BeforeEach
+        void enableBatching() {
+            carPositionProducer.batchEnabled = true;
+            carPositionProducer.batchBuckets = 4;
+            carPositionProducer.batchMaxSize = 3;
+        }
+
+        private CarPositionDetails positionDetails(Long driverId, Long tripId) {
+            return CarPositionDetails.builder()
+                    .carId(carId)
+                    .driverId(driverId)
+                    .tripId(tripId)
+                    .currentLocation(currentLocation)
+                    .timestamp(timestamp)
+                    .build();
+        }
+
+        @Test
+        void shouldBufferPositionsUntilFlush() {
+            carPositionProducer.sendCarPosition(carPositionDetails);
+            carPositionProducer.sendCarPosition(positionDetails(driverId, 4L));
+
+            verifyNoInteractions(carPositionEmitter, carPositionBatchEmitter);
+
+            carPositionProducer.flushBatches();
+
+            verify(carPositionBatchEmitter).send(batchMessageCaptor.capture());
+            Message<CarPositionBatch> message = batchMessageCaptor.getValue();
+            assertEquals(List.of(3L, 4L), message.getPayload().positions().stream().map(CarPosition::tripId).toList());
+            OutgoingKafkaRecordMetadata<String> metadata = message.getMetadata(OutgoingKafkaRecordMetadata.class).orElseThrow();
+            // driver 2 falls in bucket 2 of 4
+            assertEquals("2", metadata.getKey());
+            assertArrayEquals("position.batch".getBytes(), metadata.getHeaders().lastHeader("eventType").value());
+
+            // nothing left to flush
+            carPositionProducer.flushBatches();
+            verify(carPositionBatchEmitter).send(batchMessageCaptor.capture());
+        }
+
+        @Test
+        void shouldSendBatchWhenBucketIsFull() {
+            for (long tripId = 1; tripId <= 3; tripId++) {
+                carPositionProducer.sendCarPosition(positionDetails(driverId, tripId));
+            }
+
+            verify(carPositionBatchEmitter).send(batchMessageCaptor.capture());
+            assertEquals(3, batchMessageCaptor.getValue().getPayload().positions().size());
+            verify(carPositionEmitter, never()).send(messageCaptor.capture());
+        }
+
+        @Test
+        void shouldGroupDriversByBucket() {
+            carPositionProducer.sendCarPosition(positionDetails(1L, tripId));
+            carPositionProducer.sendCarPosition(positionDetails(5L, tripId));
+            carPositionProducer.sendCarPosition(positionDetails(2L, tripId));
+
+            carPositionProducer.flushBatches();
+
+            verify(carPositionBatchEmitter, times(2)).send(batchMessageCaptor.capture());
+            List<Message<CarPositionBatch>> messages = batchMessageCaptor.getAllValues();
+            for (Message<CarPositionBatch> message : messages) {
+                OutgoingKafkaRecordMetadata<String> metadata = message.getMetadata(OutgoingKafkaRecordMetadata.class).orElseThrow();
+                List<Long> driverIds = message.getPayload().positions().stream().map(CarPosition::driverId).toList();
+                assertEquals("1".equals(metadata.getKey()) ? List.of(1L, 5L) : List.of(2L), driverIds);
+            }
+        }
+    }
+
+    @Nested
+    class DeadReckoningTests {
+
+        @BeforeEach
+        void enableDeadReckoning() {
+            carPositionProducer.deadReckoningEnabled = true;
+        }
+
+        @Test
+        void shouldNotSendThePositionsWhichCanBeExtrapolated() {
+            when(deadReckoningFilter.shouldPublish(carPositionDetails)).thenReturn(false);
+
+            carPositionProducer.sendCarPosition(carPositionDetails);
+
+            verifyNoInteractions(carPositionEmitter);
+            verify(simulatorMetrics).recordPositionSuppressed();
+        }
+
+        @Test
+        void shouldSendThePositionsWhichDeviate() {
+            when(deadReckoningFilter.shouldPublish(carPositionDetails)).thenReturn(true);
+
+            carPositionProducer.sendCarPosition(carPositionDetails);
+
+            verify(carPositionEmitter).send(messageCaptor.capture());
+            assertEquals(timestamp, messageCaptor.getValue().getPayload().timestamp());
+        }
+
+        @Test
+        void shouldSendTheLastPositionHeldBackWhenTheTripCompletes() {
+            when(deadReckoningFilter.completed(tripId)).thenReturn(Optional.of(carPositionDetails));
+
+            carPositionProducer.tripCompleted(tripId);
+
+            verify(carPositionEmitter).send(messageCaptor.capture());
+            assertEquals(tripId, messageCaptor.getValue().getPayload().tripId());
+        }
+
+        @Test
+        void shouldNotSendTheLastPositionHeldBackWhenTheTripIsHandedOver() {
+            carPositionProducer.tripReleased(tripId);
+
+            verify(deadReckoningFilter).forget(tripId);
+            verify(deadReckoningFilter, never()).completed(anyLong());
+            verifyNoInteractions(carPositionEmitter);
+        }
+    }
+
+    @Nested
+    class DeltaModeTests {
+
+        @BeforeEach
+        void enableDeltaEncoding() {
+            carPositionProducer.deltaEnabled = true;
+        }
+
+        @Test
+        void shouldSendDeltaEncodedPositionWithFormatVersion() {
+            byte[] encoded = {CarPositionDeltaCodec.DELTA, 3, 1, 2, 2, 20};
+            when(carPositionDeltaEncoder.encode(any(CarPosition.class))).thenReturn(encoded);
+
+            carPositionProducer.sendCarPosition(carPositionDetails);
+
+            verify(carPositionDeltaEmitter).send(deltaMessageCaptor.capture());
+            verifyNoInteractions(carPositionEmitter);
+            Message<byte[]> message = deltaMessageCaptor.getValue();
+            assertArrayEquals(encoded, message.getPayload());
+            OutgoingKafkaRecordMetadata<String> metadata = message.getMetadata(OutgoingKafkaRecordMetadata.class).orElseThrow();
+            assertEquals(driverId.toString(), metadata.getKey());
+            assertEquals(CarPositionDeltaCodec.VERSION, BinaryFormat.version(metadata.getHeaders()));
+        }
+
+        @Test
+        void shouldForgetCompletedTrips() {
+            carPositionProducer.tripCompleted(tripId);
+
+            verify(carPositionDeltaEncoder).forget(tripId);
+        }
+    }
 }
@@ -0,0 +1,116 @@
+package com.barbu.fleetmanagement.simulator.api.producer;
+
+import com.barbu.fleetmanagement.common.geo.GeoCalculator;
+import com.barbu.fleetmanagement.common.geo.Trajectory;
+import com.barbu.fleetmanagement.common.model.Location;
+import com.barbu.fleetmanagement.simulator.domain.CarPositionDetails;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeadReckoningFilterTest {
+
+    private static final Instant START = Instant.parse("2025-06-01T08:00:00Z");
+    private static final Trajectory TRAJECTORY = Trajectory.between(
+            new Location(new BigDecimal("44.4268"), new BigDecimal("26.1025")),
+            new Location(new BigDecimal("45.6427"), new BigDecimal("25.5887")));
+
+    private final GeoCalculator geoCalculator = new GeoCalculator();
+    private DeadReckoningFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new DeadReckoningFilter(geoCalculator);
+        filter.toleranceKm = 0.05;
+        filter.maxSilence = Duration.ofSeconds(60);
+    }
+
+    @Test
+    void shouldOnlyPublishACarKeepingItsSpeedEveryMaxSilence() {
+        List<Integer> published = new ArrayList<>();
+        for (int update = 0; update <= 12; update++) {
+            if (filter.shouldPublish(position(update * 10, update * 10 * 90 / 3600.0, 90))) {
+                published.add(update * 10);
+            }
+        }
+
+        assertEquals(List.of(0, 60, 120), published);
+    }
+
+    @Test
+    void shouldPublishWhenTheSpeedChanges() {
+        assertTrue(filter.shouldPublish(position(0, 0, 90)));
+        assertFalse(filter.shouldPublish(position(10, 0.25, 50)));
+
+        // at 50 km/h instead of 90 the car is 111 m behind the extrapolated position
+        assertTrue(filter.shouldPublish(position(20, 0.25 + 50 * 10 / 3600.0, 50)));
+    }
+
+    @Test
+    void shouldKeepTheSpeedsCalculatedFromThePublishedPositionsWithinTheTolerance() {
+        double speed = 60;
+        double distanceKm = 0;
+        List<CarPositionDetails> published = new ArrayList<>();
+        for (int update = 0; update <= 60; update++) {
+            CarPositionDetails position = position(update * 10, distanceKm, speed);
+            if (filter.shouldPublish(position)) {
+                published.add(position);
+            }
+            distanceKm += speed * 10 / 3600;
+            speed = update < 30 ? speed + 1 : speed - 0.5;
+        }
+
+        assertTrue(published.size() < 30);
+        for (int i = 1; i < published.size(); i++) {
+            CarPositionDetails previous = published.get(i - 1);
+            CarPositionDetails current = published.get(i);
+            double calculatedKm = geoCalculator.calculateDistanceInKm(
+                    previous.getCurrentLocation().latitude().doubleValue(),
+                    previous.getCurrentLocation().longitude().doubleValue(),
+                    current.getCurrentLocation().latitude().doubleValue(),
+                    current.getCurrentLocation().longitude().doubleValue());
+            double travelledKm = current.getDistanceTravelledKm() - previous.getDistanceTravelledKm();
+            assertEquals(travelledKm, calculatedKm, 0.001);
+        }
+    }
+
+    @Test
+    void shouldReturnTheLastPositionHeldBackWhenTheTripCompletes() {
+        filter.shouldPublish(position(0, 0, 90));
+        CarPositionDetails last = position(10, 0.25, 90);
+        assertFalse(filter.shouldPublish(last));
+
+        assertSame(last, filter.completed(1L).orElseThrow());
+        assertTrue(filter.completed(1L).isEmpty());
+    }
+
+    @Test
+    void shouldNotHoldBackAPublishedPosition() {
+        filter.shouldPublish(position(0, 0, 90));
+
+        assertTrue(filter.completed(1L).isEmpty());
+    }
+
+    private static CarPositionDetails position(int seconds, double distanceTravelledKm, double speedKmPerHour) {
+        return CarPositionDetails.builder()
+                .carId(1L)
+                .driverId(1L)
+                .tripId(1L)
+                .currentLocation(TRAJECTORY.locationAt(distanceTravelledKm))
+                .trajectory(TRAJECTORY)
+                .distanceTravelledKm(distanceTravelledKm)
+                .speedKmPerHour(BigDecimal.valueOf(speedKmPerHour))
+                .timestamp(START.plusSeconds(seconds))
+                .build();
+    }
+}
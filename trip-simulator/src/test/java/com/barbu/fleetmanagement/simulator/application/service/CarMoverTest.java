@@ -1,6 +1,7 @@
 package com.barbu.fleetmanagement.simulator.application.service;
 
 import com.barbu.fleetmanagement.common.geo.GeoCalculator;
+import com.barbu.fleetmanagement.common.geo.Trajectory;
 import com.barbu.fleetmanagement.common.model.Location;
 import com.barbu.fleetmanagement.common.model.Trip;
 import com.barbu.fleetmanagement.simulator.domain.CarPositionDetails;
@@ -10,22 +11,41 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class CarMoverTest {
 
+    private static final long LIMITED_CAR_ID = 7L;
+
     @Mock
     private GeoCalculator geoCalculator;
 
+    @Spy
+    private VirtualClock clock = new VirtualClock(Instant.parse("2025-06-01T08:00:00Z"));
+
+    @Spy
+    private SpeedModel speedModel = new UniformSpeedModel();
+
+    @Spy
+    private CarSpeedLimits carSpeedLimits = new CarSpeedLimits(new SpeedLimits(40, 120),
+            Map.of(LIMITED_CAR_ID, new SpeedLimits(50, 50)));
+
+    @Spy
+    private RandomStreams randomStreams = new RandomStreams(42);
+
     @InjectMocks
     private CarMover carMover;
 
@@ -33,13 +53,13 @@ class CarMoverTest {
     private CarPositionDetails carPositionDetails;
     private Location startLocation;
     private Location destinationLocation;
-    private Location intermediateLocation;
+    private Trajectory trajectory;
 
     @BeforeEach
     void setUp() {
         startLocation = new Location(new BigDecimal("40.7128"), new BigDecimal("-74.0060")); // New York
         destinationLocation = new Location(new BigDecimal("34.0522"), new BigDecimal("-118.2437")); // Los Angeles
-        intermediateLocation = new Location(new BigDecimal("37.7749"), new BigDecimal("-96.1252")); // Somewhere in between
+        trajectory = Trajectory.between(startLocation, destinationLocation);
 
         trip = Trip.builder()
                 .id(1L)
@@ -55,8 +75,10 @@ class CarMoverTest {
                 .tripId(trip.id())
                 .currentLocation(startLocation)
                 .destination(destinationLocation)
+                .trajectory(trajectory)
+                .distanceTravelledKm(0)
                 .speedKmPerHour(new BigDecimal("60"))
-                .timestamp(Instant.now().minusSeconds(60)) // 1 minute ago
+                .timestamp(clock.now().minusSeconds(60)) // 1 minute ago
                 .build();
     }
 
@@ -64,6 +86,8 @@ class CarMoverTest {
     class MoveToInitialPosition {
         @Test
         void shouldCreateCarPositionDetailsWithInitialPosition() {
+            when(geoCalculator.calculateTrajectory(startLocation, destinationLocation, null)).thenReturn(trajectory);
+
             CarPositionDetails result = carMover.moveToInitialPosition(trip);
 
             assertNotNull(result);
@@ -72,20 +96,47 @@ class CarMoverTest {
             assertEquals(trip.id(), result.getTripId());
             assertEquals(trip.start(), result.getCurrentLocation());
             assertEquals(trip.destination(), result.getDestination());
+            assertEquals(trajectory, result.getTrajectory());
+            assertEquals(0, result.getDistanceTravelledKm());
             assertNotNull(result.getSpeedKmPerHour());
-            assertNotNull(result.getTimestamp());
+            assertEquals(clock.now(), result.getTimestamp());
+        }
+
+        @Test
+        void shouldDrawTheSameSpeedsWithTheSameSeed() {
+            when(geoCalculator.calculateTrajectory(startLocation, destinationLocation, null)).thenReturn(trajectory);
+            CarMover sameSeed = new CarMover(geoCalculator, clock, speedModel, carSpeedLimits, new RandomStreams(42));
+            List<Trip> trips = IntStream.range(0, 10)
+                    .mapToObj(id -> trip(id, trip.carId()))
+                    .toList();
+
+            List<BigDecimal> speeds = trips.stream()
+                    .map(trip -> carMover.moveToInitialPosition(trip).getSpeedKmPerHour())
+                    .toList();
+            // in reverse order, like another thread interleaving
+            List<BigDecimal> sameSeedSpeeds = trips.reversed().stream()
+                    .map(trip -> sameSeed.moveToInitialPosition(trip).getSpeedKmPerHour())
+                    .toList()
+                    .reversed();
+
+            assertEquals(speeds, sameSeedSpeeds);
+            assertTrue(speeds.stream().distinct().count() > 1);
+        }
+
+        @Test
+        void shouldDrawTheSpeedWithinTheLimitsOfTheCar() {
+            when(geoCalculator.calculateTrajectory(startLocation, destinationLocation, null)).thenReturn(trajectory);
+
+            CarPositionDetails result = carMover.moveToInitialPosition(trip(1L, LIMITED_CAR_ID));
+
+            assertEquals(new BigDecimal("50"), result.getSpeedKmPerHour());
         }
     }
 
     @Nested
     class Move {
         @Test
-        void move_shouldCalculateNewPositionAndReturnUpdatedCarPositionDetails() {
-            BigDecimal remainingDistance = new BigDecimal("100.0"); // 100 km
-
-            when(geoCalculator.calculateNewPosition(any(), any(), any())).thenReturn(intermediateLocation);
-            when(geoCalculator.calculateDistanceInKm(intermediateLocation, destinationLocation)).thenReturn(remainingDistance);
-
+        void move_shouldAdvanceAlongTrajectoryAndReturnUpdatedCarPositionDetails() {
             Optional<CarPositionDetails> result = carMover.move(carPositionDetails);
 
             assertTrue(result.isPresent());
@@ -93,29 +144,50 @@ class CarMoverTest {
             assertEquals(carPositionDetails.getCarId(), updatedPosition.getCarId());
             assertEquals(carPositionDetails.getDriverId(), updatedPosition.getDriverId());
             assertEquals(carPositionDetails.getTripId(), updatedPosition.getTripId());
-            assertEquals(intermediateLocation, updatedPosition.getCurrentLocation());
+            // 60 km/h during (at least) one minute
+            assertTrue(updatedPosition.getDistanceTravelledKm() >= 1.0);
+            assertTrue(updatedPosition.getDistanceTravelledKm() < 1.1);
+            assertSameLocation(trajectory.locationAt(updatedPosition.getDistanceTravelledKm()),
+                    updatedPosition.getCurrentLocation());
             assertEquals(destinationLocation, updatedPosition.getDestination());
+            assertEquals(trajectory, updatedPosition.getTrajectory());
             assertNotNull(updatedPosition.getSpeedKmPerHour());
             assertNotNull(updatedPosition.getTimestamp());
             assertTrue(updatedPosition.getTimestamp().isAfter(carPositionDetails.getTimestamp()));
 
-            verify(geoCalculator).calculateNewPosition(eq(startLocation), eq(destinationLocation), any(BigDecimal.class));
-            verify(geoCalculator).calculateDistanceInKm(intermediateLocation, destinationLocation);
+            verifyNoInteractions(geoCalculator);
         }
 
         @Test
-        void move_shouldReturnEmptyOptionalWhenDestinationIsReached() {
-            BigDecimal remainingDistance = new BigDecimal("0.05"); // Less than 0.1 km
+        void move_shouldUseTheSimulationClockTime() {
+            CarPositionDetails justMoved = carMover.move(carPositionDetails).orElseThrow();
+            clock.advance(Duration.ofMinutes(30));
 
-            when(geoCalculator.calculateNewPosition(any(), any(), any())).thenReturn(intermediateLocation);
-            when(geoCalculator.calculateDistanceInKm(intermediateLocation, destinationLocation)).thenReturn(remainingDistance);
+            CarPositionDetails result = carMover.move(justMoved).orElseThrow();
 
-            Optional<CarPositionDetails> result = carMover.move(carPositionDetails);
+            assertEquals(clock.now(), result.getTimestamp());
+            // 30 minutes at the speed drawn for the previous position, from 1 km
+            double expectedKm = 1.0 + justMoved.getSpeedKmPerHour().doubleValue() / 2;
+            assertEquals(expectedKm, result.getDistanceTravelledKm(), 1e-9);
+        }
 
-            assertFalse(result.isPresent());
+        @Test
+        void move_shouldReturnEmptyOptionalWhenDestinationIsReached() {
+            CarPositionDetails almostArrived = CarPositionDetails.builder()
+                    .carId(trip.carId())
+                    .driverId(trip.driverId())
+                    .tripId(trip.id())
+                    .currentLocation(trajectory.locationAt(trajectory.getLengthKm() - 0.5))
+                    .destination(destinationLocation)
+                    .trajectory(trajectory)
+                    .distanceTravelledKm(trajectory.getLengthKm() - 0.5)
+                    .speedKmPerHour(new BigDecimal("60"))
+                    .timestamp(clock.now().minusSeconds(60)) // 1 km further, beyond the destination
+                    .build();
+
+            Optional<CarPositionDetails> result = carMover.move(almostArrived);
 
-            verify(geoCalculator).calculateNewPosition(eq(startLocation), eq(destinationLocation), any(BigDecimal.class));
-            verify(geoCalculator).calculateDistanceInKm(intermediateLocation, destinationLocation);
+            assertFalse(result.isPresent());
         }
 
         @Test
@@ -126,15 +198,12 @@ class CarMoverTest {
                     .tripId(trip.id())
                     .currentLocation(startLocation)
                     .destination(destinationLocation)
+                    .trajectory(trajectory)
+                    .distanceTravelledKm(0)
                     .speedKmPerHour(new BigDecimal("60"))
-                    .timestamp(Instant.now())
+                    .timestamp(clock.now()) // No movement due to zero elapsed time
                     .build();
 
-            BigDecimal remainingDistance = new BigDecimal("100.0"); // 100 km
-
-            when(geoCalculator.calculateNewPosition(any(), any(), any())).thenReturn(startLocation); // No movement due to zero elapsed time
-            when(geoCalculator.calculateDistanceInKm(startLocation, destinationLocation)).thenReturn(remainingDistance);
-
             Optional<CarPositionDetails> result = carMover.move(currentPosition);
 
             assertTrue(result.isPresent());
@@ -142,14 +211,26 @@ class CarMoverTest {
             assertEquals(currentPosition.getCarId(), updatedPosition.getCarId());
             assertEquals(currentPosition.getDriverId(), updatedPosition.getDriverId());
             assertEquals(currentPosition.getTripId(), updatedPosition.getTripId());
-            assertEquals(startLocation, updatedPosition.getCurrentLocation());
+            assertEquals(0, updatedPosition.getDistanceTravelledKm());
+            assertSameLocation(startLocation, updatedPosition.getCurrentLocation());
             assertEquals(destinationLocation, updatedPosition.getDestination());
             assertNotNull(updatedPosition.getSpeedKmPerHour());
             assertNotNull(updatedPosition.getTimestamp());
-            assertTrue(updatedPosition.getTimestamp().compareTo(currentPosition.getTimestamp()) >= 0);
-
-            verify(geoCalculator).calculateNewPosition(eq(startLocation), eq(destinationLocation), any(BigDecimal.class));
-            verify(geoCalculator).calculateDistanceInKm(startLocation, destinationLocation);
         }
     }
-}
\ No newline at end of file
+
+    private Trip trip(long id, long carId) {
+        return Trip.builder()
+                .id(id)
+                .carId(carId)
+                .driverId(trip.driverId())
+                .start(startLocation)
+                .destination(destinationLocation)
+                .build();
+    }
+
+    private static void assertSameLocation(Location expected, Location actual) {
+        assertEquals(0, expected.latitude().compareTo(actual.latitude()));
+        assertEquals(0, expected.longitude().compareTo(actual.longitude()));
+    }
+}
@@ -0,0 +1,30 @@
+package com.barbu.fleetmanagement.simulator.application.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CarSpeedLimitsTest {
+
+    @Test
+    void shouldUseTheLimitsOfTheCarOrTheDefaultOnes() {
+        CarSpeedLimits limits = CarSpeedLimits.parse("40-120", List.of("1=30-90", " 2 = 60-180"));
+
+        assertThat(limits.forCar(1)).isEqualTo(new SpeedLimits(30, 90));
+        assertThat(limits.forCar(2)).isEqualTo(new SpeedLimits(60, 180));
+        assertThat(limits.forCar(3)).isEqualTo(new SpeedLimits(40, 120));
+    }
+
+    @Test
+    void shouldRejectInvalidLimits() {
+        assertThatThrownBy(() -> CarSpeedLimits.parse("120-40", List.of()))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> CarSpeedLimits.parse("40-120", List.of("1:30-90")))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> CarSpeedLimits.parse("40", List.of()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,77 @@
+package com.barbu.fleetmanagement.simulator.application.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HashedTimingWheelTest {
+
+    @Test
+    void shouldReturnIdsWhenTheirTickIsReached() {
+        HashedTimingWheel wheel = new HashedTimingWheel(4);
+        wheel.schedule(1, 1);
+        wheel.schedule(2, 3);
+        wheel.schedule(3, 3);
+
+        assertThat(wheel.advance()).containsExactly(1);
+        assertThat(wheel.advance()).isEmpty();
+        assertThat(wheel.advance()).containsExactly(2, 3);
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void shouldRearmIdsForAFullRevolution() {
+        HashedTimingWheel wheel = new HashedTimingWheel(3);
+        wheel.schedule(7, 3);
+
+        for (int revolution = 0; revolution < 5; revolution++) {
+            assertThat(wheel.advance()).isEmpty();
+            assertThat(wheel.advance()).isEmpty();
+            long[] due = wheel.advance();
+            assertThat(due).containsExactly(7);
+            // re-arming into the slot which was just drained
+            wheel.schedule(due[0], 3);
+        }
+        assertThat(wheel.getCurrentTick()).isEqualTo(15);
+        assertThat(wheel.size()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldGrowSlotsBeyondInitialCapacity() {
+        HashedTimingWheel wheel = new HashedTimingWheel(2);
+        for (long id = 0; id < 1000; id++) {
+            wheel.schedule(id, 2);
+        }
+
+        long[] due = wheel.advance();
+        assertThat(due).isEmpty();
+        due = wheel.advance();
+        assertThat(due).hasSize(1000);
+        assertThat(due[999]).isEqualTo(999);
+    }
+
+    @Test
+    void shouldScheduleIdsAtTheNextTickOfTheirPhase() {
+        HashedTimingWheel wheel = new HashedTimingWheel(4);
+        wheel.advance();
+        wheel.scheduleAtPhase(1, 3);
+        wheel.scheduleAtPhase(2, 1);
+        wheel.scheduleAtPhase(3, 2);
+
+        assertThat(wheel.advance()).containsExactly(3);
+        assertThat(wheel.advance()).containsExactly(1);
+        assertThat(wheel.advance()).isEmpty();
+        // the current tick is of phase 1 already
+        assertThat(wheel.advance()).containsExactly(2);
+        assertThatThrownBy(() -> wheel.scheduleAtPhase(1, 4)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldRejectDelaysOutsideOneRevolution() {
+        HashedTimingWheel wheel = new HashedTimingWheel(4);
+
+        assertThatThrownBy(() -> wheel.schedule(1, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> wheel.schedule(1, 5)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,152 @@
+package com.barbu.fleetmanagement.simulator.application.service;
+
+import com.barbu.fleetmanagement.common.model.Trip;
+import com.barbu.fleetmanagement.simulator.api.model.LoadTestReport;
+import com.barbu.fleetmanagement.simulator.api.model.LoadTestRequest;
+import com.barbu.fleetmanagement.simulator.domain.CarPositionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.enterprise.inject.Instance;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Random;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class LoadGeneratorTest {
+
+    private static final LoadTestRequest REQUEST = new LoadTestRequest(50, 8, 44.33, 44.55, 25.95, 26.25);
+
+    @Mock
+    private Instance<TripSimulator> tripSimulatorInstance;
+
+    @Mock
+    private TripSimulator tripSimulator;
+
+    @Mock
+    private CarPositionRepository carPositionRepository;
+
+    @Mock
+    private ScheduledExecutorService generator;
+
+    @Mock
+    private ScheduledFuture<?> generation;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private LoadGenerator loadGenerator;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        new SimulatorMetrics(meterRegistry);
+        loadGenerator = new LoadGenerator(tripSimulatorInstance, carPositionRepository, meterRegistry,
+                SimulationClock.SYSTEM, new Random(42));
+        java.lang.reflect.Field generatorField = LoadGenerator.class.getDeclaredField("generator");
+        generatorField.setAccessible(true);
+        generatorField.set(loadGenerator, generator);
+        lenient().doReturn(generation).when(generator)
+                .scheduleAtFixedRate(any(Runnable.class), anyLong(), anyLong(), any(TimeUnit.class));
+    }
+
+    @Test
+    void shouldRampUpAtTheRequestedRateUntilTheTargetIsReached() {
+        when(tripSimulatorInstance.get()).thenReturn(tripSimulator);
+        // counted by the report of start, then by each generation
+        when(carPositionRepository.count()).thenReturn(0, 0, 5, 8);
+
+        loadGenerator.start(REQUEST);
+        verify(generator).scheduleAtFixedRate(any(Runnable.class), eq(0L), eq(100L), eq(TimeUnit.MILLISECONDS));
+        loadGenerator.generate();
+        loadGenerator.generate();
+        loadGenerator.generate();
+
+        // 5 trips per 100 ms, limited by the 8 active trips target
+        ArgumentCaptor<Trip> trips = ArgumentCaptor.forClass(Trip.class);
+        verify(tripSimulator, times(8)).startTripSimulation(trips.capture());
+        assertThat(trips.getAllValues()).allSatisfy(trip -> {
+            assertThat(trip.id()).isGreaterThanOrEqualTo(LoadGenerator.SYNTHETIC_ID_OFFSET);
+            assertThat(trip.start().latitude().doubleValue()).isBetween(44.33, 44.55);
+            assertThat(trip.destination().longitude().doubleValue()).isBetween(25.95, 26.25);
+        });
+        assertThat(trips.getAllValues()).extracting(Trip::id).doesNotHaveDuplicates();
+        assertThat(loadGenerator.report().tripsStarted()).isEqualTo(8);
+    }
+
+    @Test
+    void shouldReportThePositionRateSinceTheStartOfTheRun() {
+        SimulatorMetrics.EngineMeters meters = new SimulatorMetrics(meterRegistry).forEngine("scheduled", "pooled");
+        meters.positionUpdates().increment(100);
+        meters.tickLag().record(20, TimeUnit.MILLISECONDS);
+
+        loadGenerator.start(REQUEST);
+        meters.positionUpdates().increment(50);
+        LoadTestReport report = loadGenerator.stop();
+
+        assertThat(report.running()).isFalse();
+        assertThat(report.stoppedAt()).isNotNull();
+        assertThat(report.positionsPerSecond()).isPositive();
+        assertThat(report.tickLagMillis().p99()).isPositive();
+        assertThat(report.emissionQueueDepth()).isZero();
+        verify(generation).cancel(false);
+    }
+
+    @Test
+    void shouldGenerateOnTheVirtualTimeOfTheTicksWhenAccelerated() {
+        VirtualClock clock = new VirtualClock(Instant.parse("2025-06-01T08:00:00Z"));
+        LoadGenerator accelerated = new LoadGenerator(tripSimulatorInstance, carPositionRepository, meterRegistry,
+                clock, new Random(42));
+        when(tripSimulatorInstance.get()).thenReturn(tripSimulator);
+        when(carPositionRepository.count()).thenReturn(0);
+
+        accelerated.start(REQUEST);
+        accelerated.onSimulationTick(new SimulationTick(clock.now()));
+        accelerated.onSimulationTick(new SimulationTick(clock.advance(Duration.ofMillis(50))));
+        // two generation intervals are due after 250 ms
+        accelerated.onSimulationTick(new SimulationTick(clock.advance(Duration.ofMillis(200))));
+        accelerated.stop();
+        accelerated.onSimulationTick(new SimulationTick(clock.advance(Duration.ofSeconds(1))));
+
+        // 5 trips per 100 ms of virtual time, the tick of the stopped run starting none
+        verify(tripSimulator, times(15)).startTripSimulation(any());
+        verify(generator, never()).scheduleAtFixedRate(any(Runnable.class), anyLong(), anyLong(), any(TimeUnit.class));
+    }
+
+    @Test
+    void shouldRejectASecondRunAndInvalidRequests() {
+        loadGenerator.start(REQUEST);
+
+        assertThatThrownBy(() -> loadGenerator.start(REQUEST)).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> loadGenerator.start(new LoadTestRequest(0, 8, 44.33, 44.55, 25.95, 26.25)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> loadGenerator.start(new LoadTestRequest(5, 8, 44.55, 44.33, 25.95, 26.25)))
+                .isInstanceOf(IllegalArgumentException.class);
+        verify(tripSimulator, never()).startTripSimulation(any());
+    }
+
+    @Test
+    void shouldRejectRunsInTheClusteredMode() {
+        loadGenerator.clusterEnabled = true;
+
+        assertThatThrownBy(() -> loadGenerator.start(REQUEST)).isInstanceOf(IllegalStateException.class);
+        verify(generator, never()).scheduleAtFixedRate(any(Runnable.class), anyLong(), anyLong(), any(TimeUnit.class));
+    }
+}
@@ -0,0 +1,70 @@
+package com.barbu.fleetmanagement.simulator.application.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class MarkovSpeedModelTest {
+
+    private static final SpeedLimits LIMITS = new SpeedLimits(40, 120);
+
+    private final MarkovSpeedModel speedModel = new MarkovSpeedModel(2);
+    private final SplittableRandom random = new SplittableRandom(42);
+
+    @Test
+    void shouldDrawTheInitialSpeedWithinTheLimits() {
+        for (int i = 0; i < 1000; i++) {
+            assertThat(speedModel.initialSpeed(LIMITS, random).doubleValue()).isBetween(40.0, 120.0);
+        }
+    }
+
+    @Test
+    void shouldBoundTheSpeedChangeByTheAcceleration() {
+        BigDecimal speed = new BigDecimal("80");
+        for (int i = 0; i < 1000; i++) {
+            BigDecimal next = speedModel.nextSpeed(speed, Duration.ofSeconds(10), LIMITS, random);
+
+            // 2 km/h per second during 10 seconds, rounded to a tenth
+            assertThat(next.subtract(speed).abs().doubleValue()).isLessThanOrEqualTo(20.05);
+            assertThat(next.doubleValue()).isBetween(40.0, 120.0);
+            speed = next;
+        }
+    }
+
+    @Test
+    void shouldKeepTheSpeedWhenNoTimeElapsed() {
+        BigDecimal next = speedModel.nextSpeed(new BigDecimal("95.5"), Duration.ZERO, LIMITS, random);
+
+        assertThat(next).isEqualByComparingTo("95.5");
+    }
+
+    @Test
+    void shouldBringASpeedOutsideOfTheLimitsBackWithinThem() {
+        BigDecimal next = speedModel.nextSpeed(new BigDecimal("150"), Duration.ofSeconds(10), LIMITS, random);
+
+        assertThat(next).isEqualByComparingTo("120");
+    }
+
+    @Test
+    void shouldRevertTowardsTheMiddleOfTheLimitsOnAverage() {
+        double sum = 0;
+        int updates = 10_000;
+        for (int i = 0; i < updates; i++) {
+            sum += speedModel.nextSpeed(new BigDecimal("110"), Duration.ofSeconds(10), LIMITS, random).doubleValue();
+        }
+
+        // 10% of the way from 110 to 80
+        assertThat(sum / updates).isCloseTo(107, within(0.5));
+    }
+
+    @Test
+    void shouldRejectANonPositiveAcceleration() {
+        assertThatThrownBy(() -> new MarkovSpeedModel(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,78 @@
+package com.barbu.fleetmanagement.simulator.application.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PhaseSpreaderTest {
+
+    private static final long INTERVAL_NANOS = Duration.ofSeconds(10).toNanos();
+    private static final long SLOT_NANOS = INTERVAL_NANOS / 10;
+
+    private final PhaseSpreader phaseSpreader = new PhaseSpreader(10, Duration.ofSeconds(10), 0);
+
+    @Test
+    void shouldSpreadTheTripsStartedTogetherOverThePhases() {
+        for (long tripId = 1; tripId <= 35; tripId++) {
+            long due = phaseSpreader.firstDue(tripId, INTERVAL_NANOS / 2);
+
+            assertThat(due).isBetween(INTERVAL_NANOS / 2, INTERVAL_NANOS / 2 + INTERVAL_NANOS);
+            assertThat(due % SLOT_NANOS).isZero();
+        }
+
+        assertThat(IntStream.range(0, 10).map(phaseSpreader::tripsInSlot)).allMatch(trips -> trips == 3 || trips == 4);
+    }
+
+    @Test
+    void shouldKeepThePhaseOfATrip() {
+        long first = phaseSpreader.firstDue(1, 0);
+
+        assertThat(phaseSpreader.firstDue(1, first + 1)).isEqualTo(first + INTERVAL_NANOS);
+        assertThat(phaseSpreader.nextDue(1, first)).isEqualTo(first + INTERVAL_NANOS);
+    }
+
+    @Test
+    void shouldMoveTheTripsOfOverloadedPhasesAsTripsComplete() {
+        long[] dues = new long[21];
+        for (int tripId = 1; tripId <= 20; tripId++) {
+            dues[tripId] = phaseSpreader.firstDue(tripId, 0);
+        }
+        // complete the trips of the phase of trip 1
+        int emptied = phase(dues[1]);
+        for (int tripId = 1; tripId <= 20; tripId++) {
+            if (phase(dues[tripId]) == emptied) {
+                phaseSpreader.release(tripId);
+            }
+        }
+
+        int moved = 0;
+        for (int tripId = 1; tripId <= 20; tripId++) {
+            if (phase(dues[tripId]) == emptied) {
+                continue;
+            }
+            long next = phaseSpreader.nextDue(tripId, dues[tripId]);
+            if (next != dues[tripId] + INTERVAL_NANOS) {
+                moved++;
+                assertThat(phase(next)).isEqualTo(emptied);
+                assertThat(next - dues[tripId]).isBetween(INTERVAL_NANOS / 2, INTERVAL_NANOS / 2 + INTERVAL_NANOS);
+            }
+        }
+
+        assertThat(moved).isEqualTo(1);
+        assertThat(phaseSpreader.tripsInSlot(emptied)).isEqualTo(1);
+    }
+
+    @Test
+    void shouldRejectPhasesNotDividingTheInterval() {
+        assertThatThrownBy(() -> new PhaseSpreader(3, Duration.ofMillis(100), 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static int phase(long dueNanos) {
+        return (int) (Math.floorMod(dueNanos, INTERVAL_NANOS) / SLOT_NANOS);
+    }
+}
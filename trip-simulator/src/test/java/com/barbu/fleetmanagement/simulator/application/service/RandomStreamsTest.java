@@ -0,0 +1,32 @@
+package com.barbu.fleetmanagement.simulator.application.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RandomStreamsTest {
+
+    private static final Instant TIME = Instant.parse("2025-06-01T08:00:00Z");
+
+    @Test
+    void shouldDeriveTheSameStreamForTheSameSeedTripAndTime() {
+        long first = new RandomStreams(42).forUpdate(1, TIME).nextLong();
+        long second = new RandomStreams(42).forUpdate(1, TIME).nextLong();
+
+        assertThat(first).isEqualTo(second);
+    }
+
+    @Test
+    void shouldDeriveDifferentStreamsForOtherSeedsTripsOrTimes() {
+        long stream = new RandomStreams(42).forUpdate(1, TIME).nextLong();
+
+        assertThat(new RandomStreams(43).forUpdate(1, TIME).nextLong()).isNotEqualTo(stream);
+        assertThat(new RandomStreams(42).forUpdate(2, TIME).nextLong()).isNotEqualTo(stream);
+        assertThat(new RandomStreams(42).forUpdate(1, TIME.plusNanos(1)).nextLong()).isNotEqualTo(stream);
+        // the trip and the time are not interchangeable
+        assertThat(new RandomStreams(42).forUpdate(2, TIME.minusSeconds(1)).nextLong())
+                .isNotEqualTo(new RandomStreams(42).forUpdate(1, TIME).nextLong());
+    }
+}
@@ -0,0 +1,269 @@
+package com.barbu.fleetmanagement.simulator.application.service;
+
+import com.barbu.fleetmanagement.common.model.Location;
+import com.barbu.fleetmanagement.common.model.Trip;
+import com.barbu.fleetmanagement.simulator.api.producer.CarPositionProducer;
+import com.barbu.fleetmanagement.simulator.domain.CarPositionDetails;
+import com.barbu.fleetmanagement.simulator.domain.CarPositionRepository;
+import com.barbu.fleetmanagement.simulator.domain.CarPositionState;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.enterprise.event.Event;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TimingWheelTripSimulatorTest {
+
+    // 10 seconds interval with 5 seconds ticks: trips are due every second tick
+    private static final int TICKS_PER_INTERVAL = 2;
+
+    @Mock
+    private CarMover carMover;
+
+    @Mock
+    private CarPositionProducer carPositionProducer;
+
+    @Mock
+    private CarPositionRepository carPositionRepository;
+
+    @Mock
+    private Event<SimulationTick> simulationTicks;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private TimingWheelTripSimulator simulator;
+
+    @BeforeEach
+    void setUp() {
+        simulator = simulator(SimulationClock.SYSTEM);
+        lenient().when(carPositionRepository.save(any())).thenReturn(true);
+    }
+
+    private TimingWheelTripSimulator simulator(SimulationClock clock) {
+        TimingWheelTripSimulator timingWheel = new TimingWheelTripSimulator(carMover, carPositionProducer,
+                carPositionRepository, new SimulatorMetrics(meterRegistry), clock, simulationTicks);
+        timingWheel.tickDuration = Duration.ofSeconds(5);
+        timingWheel.initialize();
+        return timingWheel;
+    }
+
+    @Test
+    void shouldMoveAllDueTripsBeforePublishingTheirPositions() {
+        CarPositionDetails first = position(1L);
+        CarPositionDetails second = position(2L);
+        CarPositionDetails firstMoved = position(1L);
+        CarPositionDetails secondMoved = position(2L);
+        when(carMover.moveToInitialPosition(any(Trip.class))).thenReturn(first, second);
+        when(carPositionRepository.findStateByTripId(1L)).thenReturn(Optional.of(first));
+        when(carPositionRepository.findStateByTripId(2L)).thenReturn(Optional.of(second));
+        when(carMover.move(first)).thenReturn(Optional.of(firstMoved));
+        when(carMover.move(second)).thenReturn(Optional.of(secondMoved));
+        simulator.startTripSimulation(trip(1L));
+        simulator.startTripSimulation(trip(2L));
+
+        simulator.tick();
+        verify(carMover, never()).move(any());
+
+        simulator.tick();
+
+        InOrder inOrder = inOrder(carMover, carPositionRepository, carPositionProducer);
+        inOrder.verify(carMover).move(first);
+        inOrder.verify(carMover).move(second);
+        inOrder.verify(carPositionRepository).save(firstMoved);
+        inOrder.verify(carPositionRepository).save(secondMoved);
+        inOrder.verify(carPositionProducer).sendCarPosition(firstMoved);
+        inOrder.verify(carPositionProducer).sendCarPosition(secondMoved);
+        assertThat(meterRegistry.get("simulator.trips.active").gauge().value()).isEqualTo(2);
+        assertThat(meterRegistry.get("simulator.tick.lag").timer().count()).isEqualTo(TICKS_PER_INTERVAL);
+    }
+
+    @Test
+    void shouldRemoveCompletedTrips() {
+        CarPositionDetails initial = position(1L);
+        when(carMover.moveToInitialPosition(any(Trip.class))).thenReturn(initial);
+        when(carPositionRepository.findStateByTripId(1L)).thenReturn(Optional.of(initial));
+        when(carMover.move(initial)).thenReturn(Optional.empty());
+        simulator.startTripSimulation(trip(1L));
+
+        for (int tick = 0; tick < TICKS_PER_INTERVAL; tick++) {
+            simulator.tick();
+        }
+
+        verify(carPositionRepository).deleteByTripId(1L);
+        verify(carPositionProducer).tripCompleted(1L);
+        verify(carPositionProducer, never()).sendCarPosition(any());
+        assertThat(meterRegistry.get("simulator.trips.active").gauge().value()).isZero();
+    }
+
+    @Test
+    void shouldDropTripsHandedOverWithoutCompletingThem() {
+        CarPositionDetails released = position(1L);
+        CarPositionDetails releasing = position(2L);
+        CarPositionDetails releasingMoved = position(2L);
+        when(carMover.moveToInitialPosition(any(Trip.class))).thenReturn(released, releasing);
+        when(carPositionRepository.findStateByTripId(1L)).thenReturn(Optional.empty());
+        when(carPositionRepository.findStateByTripId(2L)).thenReturn(Optional.of(releasing));
+        when(carMover.move(releasing)).thenReturn(Optional.of(releasingMoved));
+        // trip 2 is handed over while it moves
+        when(carPositionRepository.save(releasingMoved)).thenReturn(false);
+        simulator.startTripSimulation(trip(1L));
+        simulator.startTripSimulation(trip(2L));
+
+        for (int tick = 0; tick < TICKS_PER_INTERVAL; tick++) {
+            simulator.tick();
+        }
+
+        verify(carPositionProducer).tripReleased(1L);
+        verify(carPositionProducer).tripReleased(2L);
+        verify(carPositionProducer, never()).tripCompleted(any());
+        verify(carPositionProducer, never()).sendCarPosition(any());
+        verify(carPositionRepository, never()).deleteByTripId(any());
+        assertThat(meterRegistry.get("simulator.trips.active").gauge().value()).isZero();
+    }
+
+    @Test
+    void shouldSpreadTheTripsStartedTogetherOverTheSlotsWithPhaseSpreading() {
+        TimingWheelTripSimulator spreading = new TimingWheelTripSimulator(carMover, carPositionProducer,
+                carPositionRepository, new SimulatorMetrics(new SimpleMeterRegistry()), SimulationClock.SYSTEM,
+                simulationTicks);
+        spreading.tickDuration = Duration.ofSeconds(1);
+        spreading.phaseSpreading = true;
+        spreading.initialize();
+        when(carMover.moveToInitialPosition(any(Trip.class)))
+                .thenAnswer(invocation -> position(invocation.<Trip>getArgument(0).id()));
+        when(carPositionRepository.findStateByTripId(anyLong()))
+                .thenAnswer(invocation -> Optional.of(position(invocation.getArgument(0))));
+        when(carMover.move(any()))
+                .thenAnswer(invocation -> Optional.of(position(invocation.<CarPositionState>getArgument(0).tripId())));
+        for (long tripId = 1; tripId <= 30; tripId++) {
+            spreading.startTripSimulation(trip(tripId));
+        }
+
+        // 10 slots of 1 second, the trips keep their slot on the next revolution
+        for (int tick = 0; tick < 20; tick++) {
+            clearInvocations(carMover);
+            spreading.tick();
+            verify(carMover, times(3)).move(any());
+        }
+    }
+
+    @Test
+    void shouldKeepSimulatingOtherTripsWhenOneFails() {
+        CarPositionDetails failing = position(1L);
+        CarPositionDetails healthy = position(2L);
+        CarPositionDetails healthyMoved = position(2L);
+        when(carMover.moveToInitialPosition(any(Trip.class))).thenReturn(failing, healthy);
+        when(carPositionRepository.findStateByTripId(1L)).thenReturn(Optional.of(failing));
+        when(carPositionRepository.findStateByTripId(2L)).thenReturn(Optional.of(healthy));
+        when(carMover.move(failing)).thenThrow(new IllegalStateException("boom"));
+        when(carMover.move(healthy)).thenReturn(Optional.of(healthyMoved));
+        simulator.startTripSimulation(trip(1L));
+        simulator.startTripSimulation(trip(2L));
+
+        for (int tick = 0; tick < TICKS_PER_INTERVAL; tick++) {
+            simulator.tick();
+        }
+
+        verify(carPositionRepository).deleteByTripId(1L);
+        verify(carPositionProducer).sendCarPosition(healthyMoved);
+    }
+
+    @Test
+    void shouldMoveOverdueResumedTripsAtTheFirstTickAndOthersWhenTheyAreDue() {
+        CarPositionDetails overdue = CarPositionDetails.builder()
+                .tripId(1L)
+                .timestamp(Instant.now().minusSeconds(60))
+                .build();
+        CarPositionDetails recent = position(2L);
+        when(carPositionRepository.findStateByTripId(1L)).thenReturn(Optional.of(overdue));
+        when(carPositionRepository.findStateByTripId(2L)).thenReturn(Optional.of(recent));
+        when(carMover.move(overdue)).thenReturn(Optional.of(position(1L)));
+        when(carMover.move(recent)).thenReturn(Optional.of(position(2L)));
+        simulator.resumeTripSimulation(overdue);
+        simulator.resumeTripSimulation(recent);
+
+        simulator.tick();
+        verify(carMover).move(overdue);
+        verify(carMover, never()).move(recent);
+
+        simulator.tick();
+        verify(carMover).move(recent);
+        verify(carMover, never()).moveToInitialPosition(any());
+    }
+
+    @Nested
+    class Accelerated {
+
+        private final VirtualClock clock = new VirtualClock(Instant.parse("2025-06-01T08:00:00Z"));
+        private final Instant start = clock.now();
+
+        @BeforeEach
+        void setUp() {
+            simulator = simulator(clock);
+        }
+
+        @Test
+        void shouldHoldTheVirtualTimeWhileNoTripIsActive() {
+            assertThat(simulator.accelerate(clock)).isFalse();
+
+            assertThat(clock.now()).isEqualTo(start);
+            verify(simulationTicks).fire(new SimulationTick(start));
+        }
+
+        @Test
+        void shouldAdvanceTheVirtualTimeOneTickDurationPerTick() {
+            CarPositionDetails initial = position(1L);
+            CarPositionDetails moved = position(1L);
+            when(carMover.moveToInitialPosition(any(Trip.class))).thenReturn(initial);
+            when(carPositionRepository.findStateByTripId(1L)).thenReturn(Optional.of(initial));
+            when(carMover.move(initial)).thenReturn(Optional.of(moved));
+            simulator.startTripSimulation(trip(1L));
+
+            assertThat(simulator.accelerate(clock)).isTrue();
+            verify(carMover, never()).move(any());
+            assertThat(simulator.accelerate(clock)).isTrue();
+
+            verify(carPositionProducer).sendCarPosition(moved);
+            assertThat(clock.now()).isEqualTo(start.plusSeconds(TripSimulator.INTERVAL_SECONDS));
+            verify(simulationTicks).fire(new SimulationTick(start.plusSeconds(5)));
+            assertThat(meterRegistry.get("simulator.tick.duration").tag("mode", "accelerated").timer().count())
+                    .isEqualTo(TICKS_PER_INTERVAL);
+            assertThat(meterRegistry.get("simulator.tick.lag").tag("mode", "accelerated").timer().count()).isZero();
+        }
+    }
+
+    private static Trip trip(Long id) {
+        Location location = new Location(new BigDecimal("44.4"), new BigDecimal("26.1"));
+        return Trip.builder().id(id).carId(id).driverId(id).start(location).destination(location).build();
+    }
+
+    private static CarPositionDetails position(Long tripId) {
+        return CarPositionDetails.builder()
+                .tripId(tripId)
+                .carId(tripId)
+                .driverId(tripId)
+                .speedKmPerHour(new BigDecimal("60"))
+                .timestamp(Instant.now())
+                .build();
+    }
+}
@@ -5,6 +5,7 @@ import com.barbu.fleetmanagement.common.model.Trip;
 import com.barbu.fleetmanagement.simulator.api.producer.CarPositionProducer;
 import com.barbu.fleetmanagement.simulator.domain.CarPositionDetails;
 import com.barbu.fleetmanagement.simulator.domain.CarPositionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -13,11 +14,13 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
@@ -40,6 +43,17 @@ class TripSimulatorServiceTest {
     @Mock
     private ScheduledExecutorService scheduler;
 
+    @Mock
+    private ExecutorService virtualThreads;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private SimulatorMetrics simulatorMetrics = new SimulatorMetrics(meterRegistry);
+
+    @Spy
+    private VirtualClock clock = new VirtualClock(Instant.parse("2025-06-01T08:00:00Z"));
+
     @Captor
     private ArgumentCaptor<Runnable> runnableCaptor;
 
@@ -84,14 +98,19 @@ class TripSimulatorServiceTest {
                 .timestamp(Instant.now().plusSeconds(600)) // 10 minutes later
                 .build();
 
-        // Replace the scheduler in TripSimulatorService with our mock
+        // Replace the executors in TripSimulatorService with our mocks
         try {
             java.lang.reflect.Field schedulerField = TripSimulatorService.class.getDeclaredField("scheduler");
             schedulerField.setAccessible(true);
             schedulerField.set(tripSimulatorService, scheduler);
+            java.lang.reflect.Field virtualThreadsField = TripSimulatorService.class.getDeclaredField("virtualThreads");
+            virtualThreadsField.setAccessible(true);
+            virtualThreadsField.set(tripSimulatorService, virtualThreads);
         } catch (Exception e) {
-            fail("Failed to replace scheduler: " + e.getMessage());
+            fail("Failed to replace executors: " + e.getMessage());
         }
+        tripSimulatorService.executionMode = ExecutionMode.POOLED;
+        lenient().when(carPositionRepository.save(any(CarPositionDetails.class))).thenReturn(true);
     }
 
     @Nested
@@ -115,7 +134,7 @@ class TripSimulatorServiceTest {
     class UpdatePosition {
         @Test
         void shouldMoveCarAndScheduleNextUpdateWhenNotAtDestination() {
-            when(carPositionRepository.findByTripId(trip.id())).thenReturn(Optional.of(initialPosition));
+            when(carPositionRepository.findStateByTripId(trip.id())).thenReturn(Optional.of(initialPosition));
             when(carMover.move(initialPosition)).thenReturn(Optional.of(updatedPosition));
 
             tripSimulatorService.startTripSimulation(trip);
@@ -123,16 +142,19 @@ class TripSimulatorServiceTest {
             Runnable updatePositionTask = runnableCaptor.getValue();
             updatePositionTask.run();
 
-            verify(carPositionRepository).findByTripId(trip.id());
+            verify(carPositionRepository).findStateByTripId(trip.id());
             verify(carMover).move(initialPosition);
             verify(carPositionRepository).save(updatedPosition);
             verify(carPositionProducer).sendCarPosition(updatedPosition);
             verify(scheduler, times(2)).schedule(any(Runnable.class), eq(10L), eq(TimeUnit.SECONDS));
+            verifyNoInteractions(virtualThreads);
+            assertEquals(1, meterRegistry.get("simulator.tick.lag").tag("mode", "pooled").timer().count());
+            assertEquals(1, meterRegistry.get("simulator.position.updates").tag("mode", "pooled").counter().count());
         }
 
         @Test
         void shouldDeleteTripWhenDestinationIsReached() {
-            when(carPositionRepository.findByTripId(trip.id())).thenReturn(Optional.of(initialPosition));
+            when(carPositionRepository.findStateByTripId(trip.id())).thenReturn(Optional.of(initialPosition));
             when(carMover.move(initialPosition)).thenReturn(Optional.empty()); // Destination reached
 
             tripSimulatorService.startTripSimulation(trip);
@@ -140,12 +162,142 @@ class TripSimulatorServiceTest {
             Runnable updatePositionTask = runnableCaptor.getValue();
             updatePositionTask.run();
 
-            verify(carPositionRepository).findByTripId(trip.id());
+            verify(carPositionRepository).findStateByTripId(trip.id());
             verify(carMover).move(initialPosition);
             verify(carPositionRepository).deleteByTripId(trip.id());
+            verify(carPositionProducer).tripCompleted(trip.id());
             verify(carPositionRepository, never()).save(any(CarPositionDetails.class));
             verify(carPositionProducer, never()).sendCarPosition(any(CarPositionDetails.class));
             verify(scheduler, times(1)).schedule(any(Runnable.class), eq(10L), eq(TimeUnit.SECONDS));
         }
+
+        @Test
+        void shouldStopSimulatingATripHandedOverWithoutCompletingIt() {
+            when(carPositionRepository.findStateByTripId(trip.id())).thenReturn(Optional.empty());
+
+            tripSimulatorService.startTripSimulation(trip);
+            verify(scheduler).schedule(runnableCaptor.capture(), eq(10L), eq(TimeUnit.SECONDS));
+            runnableCaptor.getValue().run();
+
+            verify(carPositionProducer).tripReleased(trip.id());
+            verify(carPositionProducer, never()).tripCompleted(anyLong());
+            verify(carPositionRepository, never()).deleteByTripId(anyLong());
+            verify(scheduler, times(1)).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+        }
+
+        @Test
+        void shouldNotPublishAPositionOfATripHandedOverWhileItMoves() {
+            when(carPositionRepository.findStateByTripId(trip.id())).thenReturn(Optional.of(initialPosition));
+            when(carMover.move(initialPosition)).thenReturn(Optional.of(updatedPosition));
+            lenient().when(carPositionRepository.save(updatedPosition)).thenReturn(false);
+
+            tripSimulatorService.startTripSimulation(trip);
+            verify(scheduler).schedule(runnableCaptor.capture(), eq(10L), eq(TimeUnit.SECONDS));
+            runnableCaptor.getValue().run();
+
+            verify(carPositionProducer).tripReleased(trip.id());
+            verify(carPositionProducer, never()).sendCarPosition(any(CarPositionDetails.class));
+            verify(scheduler, times(1)).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+        }
+    }
+
+    @Nested
+    class ResumeTripSimulation {
+        @Test
+        void shouldScheduleTheUpdateOfAnOverdueTripRightAway() {
+            CarPositionDetails overdue = CarPositionDetails.builder()
+                    .tripId(trip.id())
+                    .timestamp(clock.now().minusSeconds(120))
+                    .build();
+
+            tripSimulatorService.resumeTripSimulation(overdue);
+
+            verify(scheduler).schedule(any(Runnable.class), eq(0L), eq(TimeUnit.MILLISECONDS));
+            verifyNoInteractions(carMover, carPositionRepository);
+        }
+
+        @Test
+        void shouldScheduleTheUpdateOfATripWhenItIsDue() {
+            CarPositionDetails recent = CarPositionDetails.builder()
+                    .tripId(trip.id())
+                    .timestamp(clock.now().minusSeconds(4))
+                    .build();
+
+            tripSimulatorService.resumeTripSimulation(recent);
+
+            verify(scheduler).schedule(any(Runnable.class), eq(6_000L), eq(TimeUnit.MILLISECONDS));
+        }
+    }
+
+    @Nested
+    class PhaseSpreading {
+        @BeforeEach
+        void setUp() {
+            tripSimulatorService.phaseSpreading = true;
+        }
+
+        @Test
+        void shouldScheduleTheUpdatesOfATripAtItsPhase() {
+            when(carMover.moveToInitialPosition(trip)).thenReturn(initialPosition);
+            when(carPositionRepository.findStateByTripId(trip.id())).thenReturn(Optional.of(initialPosition));
+            when(carMover.move(initialPosition)).thenReturn(Optional.of(updatedPosition));
+            ArgumentCaptor<Long> delayCaptor = ArgumentCaptor.forClass(Long.class);
+
+            tripSimulatorService.startTripSimulation(trip);
+            verify(scheduler).schedule(runnableCaptor.capture(), delayCaptor.capture(), eq(TimeUnit.NANOSECONDS));
+            runnableCaptor.getValue().run();
+
+            verify(scheduler, times(2)).schedule(any(Runnable.class), delayCaptor.capture(),
+                    eq(TimeUnit.NANOSECONDS));
+            // the first update comes at the first time of the phase of the trip from half an interval
+            assertTrue(delayCaptor.getAllValues().get(0) <= TimeUnit.SECONDS.toNanos(15));
+            assertTrue(delayCaptor.getAllValues().get(0) >= TimeUnit.SECONDS.toNanos(5) - TimeUnit.SECONDS.toNanos(1));
+            // then one interval after the time it was due, run here right away
+            assertTrue(delayCaptor.getAllValues().get(2) > TimeUnit.SECONDS.toNanos(9));
+            assertTrue(delayCaptor.getAllValues().get(2) <= TimeUnit.SECONDS.toNanos(25));
+        }
+
+        @Test
+        void shouldFreeThePhaseOfACompletedTrip() {
+            when(carMover.moveToInitialPosition(trip)).thenReturn(initialPosition);
+            when(carPositionRepository.findStateByTripId(trip.id())).thenReturn(Optional.of(initialPosition));
+            when(carMover.move(initialPosition)).thenReturn(Optional.empty());
+
+            tripSimulatorService.startTripSimulation(trip);
+            verify(scheduler).schedule(runnableCaptor.capture(), anyLong(), eq(TimeUnit.NANOSECONDS));
+            runnableCaptor.getValue().run();
+
+            verify(carPositionRepository).deleteByTripId(trip.id());
+            verify(scheduler, times(1)).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+        }
+    }
+
+    @Nested
+    class VirtualExecutionMode {
+        @BeforeEach
+        void setUp() {
+            tripSimulatorService.executionMode = ExecutionMode.VIRTUAL;
+        }
+
+        @Test
+        void shouldOnlyTriggerTheUpdateOnTheSchedulerAndRunItOnAVirtualThread() {
+            when(carMover.moveToInitialPosition(trip)).thenReturn(initialPosition);
+            when(carPositionRepository.findStateByTripId(trip.id())).thenReturn(Optional.of(initialPosition));
+            when(carMover.move(initialPosition)).thenReturn(Optional.of(updatedPosition));
+
+            tripSimulatorService.startTripSimulation(trip);
+            verify(scheduler).schedule(runnableCaptor.capture(), eq(10L), eq(TimeUnit.SECONDS));
+            runnableCaptor.getValue().run();
+
+            verify(carMover, never()).move(any(CarPositionDetails.class));
+            verify(virtualThreads).execute(runnableCaptor.capture());
+            runnableCaptor.getValue().run();
+
+            verify(carPositionRepository).save(updatedPosition);
+            verify(carPositionProducer).sendCarPosition(updatedPosition);
+            verify(scheduler, times(2)).schedule(any(Runnable.class), eq(10L), eq(TimeUnit.SECONDS));
+            assertEquals(1, meterRegistry.get("simulator.tick.lag").tag("mode", "virtual").timer().count());
+            assertEquals(1, meterRegistry.get("simulator.position.updates").tag("mode", "virtual").counter().count());
+        }
     }
 }
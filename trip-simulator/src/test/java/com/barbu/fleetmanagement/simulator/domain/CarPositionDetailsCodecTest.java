@@ -0,0 +1,63 @@
+package com.barbu.fleetmanagement.simulator.domain;
+
+import com.barbu.fleetmanagement.common.geo.Trajectory;
+import com.barbu.fleetmanagement.common.model.Location;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class CarPositionDetailsCodecTest {
+
+    private static final Location START = new Location(new BigDecimal("44.4268000"), new BigDecimal("26.1025000"));
+    private static final Location DESTINATION = new Location(new BigDecimal("44.4500"), new BigDecimal("26.0800"));
+    private static final Instant TIMESTAMP = Instant.parse("2025-06-01T10:15:30.123456789Z");
+
+    @Test
+    void shouldRebuildTheGreatCircleTrajectoryFromTheCurrentLocation() {
+        Trajectory trajectory = Trajectory.between(START, DESTINATION);
+        Location current = trajectory.locationAt(1);
+
+        CarPositionDetails decoded = CarPositionDetailsCodec.decode(
+                CarPositionDetailsCodec.encode(position(current, trajectory, 1)));
+
+        assertThat(decoded.getTripId()).isEqualTo(1L);
+        assertThat(decoded.getCarId()).isEqualTo(2L);
+        assertThat(decoded.getDriverId()).isEqualTo(3L);
+        assertThat(decoded.getCurrentLocation()).isEqualTo(current);
+        assertThat(decoded.getDestination()).isEqualTo(DESTINATION);
+        assertThat(decoded.getSpeedKmPerHour()).isEqualTo(new BigDecimal("72.5"));
+        assertThat(decoded.getTimestamp()).isEqualTo(TIMESTAMP);
+        assertThat(decoded.getDistanceTravelledKm()).isZero();
+        assertThat(decoded.getTrajectory().getLengthKm()).isCloseTo(trajectory.getLengthKm() - 1, within(1e-6));
+    }
+
+    @Test
+    void shouldKeepTheRouteAndTheDistanceTravelledAlongIt() {
+        Trajectory route = Trajectory.along(new double[]{44.4268, 26.1025, 44.4400, 26.1100, 44.4500, 26.0800});
+
+        CarPositionDetails decoded = CarPositionDetailsCodec.decode(
+                CarPositionDetailsCodec.encode(position(route.locationAt(2), route, 2)));
+
+        assertThat(decoded.getDistanceTravelledKm()).isEqualTo(2);
+        assertThat(decoded.getTrajectory().getSegmentCount()).isEqualTo(2);
+        assertThat(decoded.getTrajectory().getLengthKm()).isCloseTo(route.getLengthKm(), within(0.01));
+    }
+
+    private static CarPositionDetails position(Location current, Trajectory trajectory, double distanceTravelledKm) {
+        return CarPositionDetails.builder()
+                .tripId(1L)
+                .carId(2L)
+                .driverId(3L)
+                .currentLocation(current)
+                .destination(DESTINATION)
+                .trajectory(trajectory)
+                .distanceTravelledKm(distanceTravelledKm)
+                .speedKmPerHour(new BigDecimal("72.5"))
+                .timestamp(TIMESTAMP)
+                .build();
+    }
+}
@@ -0,0 +1,176 @@
+package com.barbu.fleetmanagement.simulator.domain;
+
+import com.barbu.fleetmanagement.common.geo.Trajectory;
+import com.barbu.fleetmanagement.common.model.Location;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class JournalCarPositionRepositoryTest {
+
+    private static final Location START = new Location(new BigDecimal("44.4268000"), new BigDecimal("26.1025000"));
+    private static final Location DESTINATION = new Location(new BigDecimal("44.4500"), new BigDecimal("26.0800"));
+    private static final Trajectory TRAJECTORY = Trajectory.between(START, DESTINATION);
+    private static final int JOURNAL_SIZE = 64 * 1024;
+
+    @TempDir
+    Path directory;
+
+    private final List<JournalCarPositionRepository> opened = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        opened.forEach(JournalCarPositionRepository::close);
+    }
+
+    @Test
+    void shouldRecoverTheTripsFromTheJournalAfterACrash() {
+        JournalCarPositionRepository repository = open(JOURNAL_SIZE);
+        Instant timestamp = Instant.parse("2025-06-01T10:15:30.123456789Z");
+        repository.save(position(1L, START, 0, timestamp));
+        repository.save(position(2L, START, 0, timestamp));
+        Location moved = TRAJECTORY.locationAt(1);
+        repository.save(position(1L, moved, 1, timestamp.plusSeconds(10)));
+        repository.deleteByTripId(2L);
+
+        // not closed, like a killed process
+        JournalCarPositionRepository recovered = open(JOURNAL_SIZE);
+
+        assertThat(recovered.findByTripId(2L)).isEmpty();
+        CarPositionDetails position = recovered.findByTripId(1L).orElseThrow();
+        assertThat(position.getCarId()).isEqualTo(101L);
+        assertThat(position.getDriverId()).isEqualTo(201L);
+        assertThat(position.getCurrentLocation()).isEqualTo(moved);
+        assertThat(position.getDestination()).isEqualTo(DESTINATION);
+        assertThat(position.getSpeedKmPerHour()).isEqualTo(new BigDecimal("60"));
+        assertThat(position.getTimestamp()).isEqualTo(timestamp.plusSeconds(10));
+        // the trajectory restarts at the current location, on the same path
+        assertThat(position.getDistanceTravelledKm()).isZero();
+        assertThat(position.getTrajectory().getLengthKm())
+                .isCloseTo(TRAJECTORY.getLengthKm() - 1, within(1e-6));
+    }
+
+    @Test
+    void shouldRecoverTheRouteAndTheDistanceTravelledAlongIt() {
+        Trajectory route = Trajectory.along(new double[]{44.4268, 26.1025, 44.4400, 26.1100, 44.4500, 26.0800});
+        JournalCarPositionRepository repository = open(JOURNAL_SIZE);
+        repository.save(position(1L, START, route, 0, Instant.now()));
+        repository.snapshot();
+        repository.save(position(1L, route.locationAt(2), route, 2, Instant.now()));
+        repository.save(position(2L, START, route, 0, Instant.now()));
+
+        JournalCarPositionRepository recovered = open(JOURNAL_SIZE);
+
+        for (long tripId : new long[]{1L, 2L}) {
+            CarPositionDetails position = recovered.findByTripId(tripId).orElseThrow();
+            assertThat(position.getTrajectory().getSegmentCount()).isEqualTo(2);
+            // the waypoints are journaled at the precision of an encoded polyline, about a meter
+            assertThat(position.getTrajectory().getLengthKm()).isCloseTo(route.getLengthKm(), within(0.01));
+        }
+        assertThat(recovered.findByTripId(1L).orElseThrow().getDistanceTravelledKm()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldRecoverTheTripsFromTheSnapshotAndTheJournalWrittenAfterIt() {
+        JournalCarPositionRepository repository = open(JOURNAL_SIZE);
+        repository.save(position(1L, START, 0, Instant.now()));
+        repository.save(position(2L, START, 0, Instant.now()));
+        repository.snapshot();
+        repository.deleteByTripId(1L);
+        repository.save(position(3L, START, 0, Instant.now()));
+
+        JournalCarPositionRepository recovered = open(JOURNAL_SIZE);
+
+        assertThat(recovered.findAll()).extracting(CarPositionDetails::getTripId).containsExactlyInAnyOrder(2L, 3L);
+    }
+
+    @Test
+    void shouldCompactTheJournalIntoASnapshotWhenItIsFull() {
+        JournalCarPositionRepository repository = open(1024);
+        for (int tick = 0; tick < 100; tick++) {
+            repository.save(position(1L, START, tick, Instant.now()));
+            repository.save(position(2L, START, tick, Instant.now()));
+        }
+
+        JournalCarPositionRepository recovered = open(1024);
+
+        assertThat(Files.exists(directory.resolve(JournalCarPositionRepository.SNAPSHOT_FILE))).isTrue();
+        assertThat(recovered.findAll()).hasSize(2);
+    }
+
+    @Test
+    void shouldIgnoreATornRecordAtTheEndOfTheJournal() throws IOException {
+        JournalCarPositionRepository repository = open(JOURNAL_SIZE);
+        repository.save(position(1L, START, 0, Instant.now()));
+        repository.save(position(2L, START, 0, Instant.now()));
+        try (RandomAccessFile journal = new RandomAccessFile(
+                directory.resolve(JournalCarPositionRepository.JOURNAL_FILE).toFile(), "rw")) {
+            // corrupt the last byte of the second record, like a write interrupted by a crash
+            journal.seek(CarPositionJournal.HEADER_SIZE);
+            long secondRecord = CarPositionJournal.HEADER_SIZE + CarPositionJournal.RECORD_HEADER_SIZE
+                    + journal.readInt();
+            journal.seek(secondRecord);
+            long lastByte = secondRecord + CarPositionJournal.RECORD_HEADER_SIZE + journal.readInt() - 1;
+            journal.seek(lastByte);
+            int value = journal.read();
+            journal.seek(lastByte);
+            journal.write(~value);
+        }
+
+        JournalCarPositionRepository recovered = open(JOURNAL_SIZE);
+
+        assertThat(recovered.findAll()).extracting(CarPositionDetails::getTripId).containsExactly(1L);
+    }
+
+    @Test
+    void shouldWriteASnapshotOnClose() {
+        JournalCarPositionRepository repository = new JournalCarPositionRepository(
+                new InMemoryCarPositionRepository(), directory, JOURNAL_SIZE, Duration.ofMinutes(1));
+        repository.save(position(1L, START, 0, Instant.now()));
+        repository.close();
+
+        JournalCarPositionRepository recovered = open(JOURNAL_SIZE);
+
+        assertThat(recovered.findAll()).extracting(CarPositionDetails::getTripId).containsExactly(1L);
+    }
+
+    private JournalCarPositionRepository open(int journalSize) {
+        JournalCarPositionRepository repository = new JournalCarPositionRepository(
+                new InMemoryCarPositionRepository(), directory, journalSize, Duration.ofMinutes(1));
+        opened.add(repository);
+        return repository;
+    }
+
+    private static CarPositionDetails position(long tripId, Location location, double distanceTravelledKm,
+                                               Instant timestamp) {
+        return position(tripId, location, TRAJECTORY, distanceTravelledKm, timestamp);
+    }
+
+    private static CarPositionDetails position(long tripId, Location location, Trajectory trajectory,
+                                               double distanceTravelledKm, Instant timestamp) {
+        return CarPositionDetails.builder()
+                .carId(100 + tripId)
+                .driverId(200 + tripId)
+                .tripId(tripId)
+                .currentLocation(location)
+                .destination(DESTINATION)
+                .trajectory(trajectory)
+                .distanceTravelledKm(distanceTravelledKm)
+                .speedKmPerHour(new BigDecimal("60"))
+                .timestamp(timestamp)
+                .build();
+    }
+}
@@ -0,0 +1,177 @@
+package com.barbu.fleetmanagement.simulator.domain;
+
+import com.barbu.fleetmanagement.common.geo.Trajectory;
+import com.barbu.fleetmanagement.common.model.Location;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PartitionedCarPositionRepositoryTest {
+
+    private static final Location START = new Location(new BigDecimal("44.4268"), new BigDecimal("26.1025"));
+    private static final Location DESTINATION = new Location(new BigDecimal("44.4500"), new BigDecimal("26.0800"));
+
+    @Mock
+    private TripStateStore tripStateStore;
+
+    private PartitionedCarPositionRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new PartitionedCarPositionRepository(new InMemoryCarPositionRepository(), tripStateStore,
+                Duration.ofMinutes(1), Duration.ofSeconds(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.close();
+    }
+
+    @Test
+    void shouldOnlyKeepThePositionsOfOwnedTrips() {
+        assertThat(repository.own(1L, 0)).isTrue();
+        repository.save(position(1L));
+        repository.save(position(2L));
+
+        assertThat(repository.findAll()).extracting(CarPositionDetails::getTripId).containsExactly(1L);
+    }
+
+    @Test
+    void shouldNotOwnATripTwice() {
+        repository.own(1L, 0);
+
+        assertThat(repository.own(1L, 0)).isFalse();
+    }
+
+    @Test
+    void shouldDeleteTheStateOfACompletedTrip() {
+        repository.own(1L, 3);
+        repository.save(position(1L));
+
+        repository.deleteByTripId(1L);
+
+        assertThat(repository.findByTripId(1L)).isEmpty();
+        verify(tripStateStore).delete(3, 1L);
+    }
+
+    @Test
+    void shouldHandOverTheTripsOfRevokedPartitions() {
+        when(tripStateStore.save(anyInt(), any())).thenReturn(CompletableFuture.completedFuture(null));
+        repository.own(1L, 0);
+        repository.own(2L, 1);
+        CarPositionDetails second = position(2L);
+        repository.save(position(1L));
+        repository.save(second);
+
+        repository.release(List.of(1));
+
+        verify(tripStateStore).save(1, second);
+        assertThat(repository.findAll()).extracting(CarPositionDetails::getTripId).containsExactly(1L);
+        // an update in progress does not bring the trip back, completing it does not delete its state
+        assertThat(repository.save(position(2L))).isFalse();
+        repository.deleteByTripId(2L);
+        assertThat(repository.findByTripId(2L)).isEmpty();
+        verify(tripStateStore, never()).delete(1, 2L);
+    }
+
+    @Test
+    void shouldDropTheTripsOfLostPartitionsWithoutStoringThem() {
+        repository.own(1L, 0);
+        repository.save(position(1L));
+
+        repository.drop(List.of(0));
+
+        assertThat(repository.findAll()).isEmpty();
+        verify(tripStateStore, never()).save(anyInt(), any());
+    }
+
+    @Test
+    void shouldAcquireTheTripsOfAssignedPartitions() {
+        repository.own(1L, 0);
+        repository.save(position(1L));
+        when(tripStateStore.load(List.of(0, 2))).thenReturn(Map.of(
+                0, List.of(position(1L)),
+                2, List.of(position(3L))));
+
+        List<CarPositionDetails> acquired = repository.acquire(List.of(0, 2));
+
+        // trip 1 is already simulated here
+        assertThat(acquired).extracting(CarPositionDetails::getTripId).containsExactly(3L);
+        assertThat(repository.findAll()).extracting(CarPositionDetails::getTripId).containsExactlyInAnyOrder(1L, 3L);
+        repository.deleteByTripId(3L);
+        verify(tripStateStore).delete(2, 3L);
+    }
+
+    @Test
+    void shouldCheckpointTheOwnedTrips() {
+        repository.own(1L, 0);
+        repository.own(2L, 1);
+        CarPositionDetails first = position(1L);
+        CarPositionDetails second = position(2L);
+        repository.save(first);
+        repository.save(second);
+
+        repository.checkpoint();
+
+        verify(tripStateStore).save(0, first);
+        verify(tripStateStore).save(1, second);
+    }
+
+    @Test
+    void shouldNotSendACheckpointAfterTheStateHandedOver() throws Exception {
+        repository.own(1L, 0);
+        repository.save(position(1L));
+        List<String> sent = new CopyOnWriteArrayList<>();
+        Thread release = new Thread(() -> repository.release(List.of(0)));
+        when(tripStateStore.save(anyInt(), any())).thenAnswer(_ -> {
+            // a rebalance while the trip is being checkpointed
+            release.start();
+            Thread.sleep(200);
+            sent.add("checkpoint");
+            return CompletableFuture.completedFuture(null);
+        }).thenAnswer(_ -> {
+            sent.add("handover");
+            return CompletableFuture.completedFuture(null);
+        });
+
+        repository.checkpoint();
+        release.join();
+
+        // the state handed over comes last, the checkpoint cannot overwrite it
+        assertThat(sent).containsExactly("checkpoint", "handover");
+        assertThat(repository.findAll()).isEmpty();
+    }
+
+    private static CarPositionDetails position(long tripId) {
+        return CarPositionDetails.builder()
+                .carId(100 + tripId)
+                .driverId(200 + tripId)
+                .tripId(tripId)
+                .currentLocation(START)
+                .destination(DESTINATION)
+                .trajectory(Trajectory.between(START, DESTINATION))
+                .distanceTravelledKm(0)
+                .speedKmPerHour(new BigDecimal("60"))
+                .timestamp(Instant.parse("2025-06-01T08:00:00Z"))
+                .build();
+    }
+}
@@ -0,0 +1,116 @@
+package com.barbu.fleetmanagement.simulator.domain;
+
+import com.barbu.fleetmanagement.common.geo.Trajectory;
+import com.barbu.fleetmanagement.common.model.Location;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PrimitiveCarPositionRepositoryTest {
+
+    private static final Location START = new Location(new BigDecimal("44.4268"), new BigDecimal("26.1025"));
+    private static final Location DESTINATION = new Location(new BigDecimal("44.4500"), new BigDecimal("26.0800"));
+    private static final Trajectory TRAJECTORY = Trajectory.between(START, DESTINATION);
+
+    private final PrimitiveCarPositionRepository repository = new PrimitiveCarPositionRepository(1);
+
+    @Test
+    void shouldReturnTheSavedPosition() {
+        Instant timestamp = Instant.parse("2025-06-01T10:15:30.123456789Z");
+        repository.save(position(1L, START, 12.5, timestamp));
+
+        CarPositionDetails found = repository.findByTripId(1L).orElseThrow();
+
+        assertThat(found.getTripId()).isEqualTo(1L);
+        assertThat(found.getCarId()).isEqualTo(101L);
+        assertThat(found.getDriverId()).isEqualTo(201L);
+        assertThat(found.getCurrentLocation()).isEqualTo(START);
+        assertThat(found.getDestination()).isEqualTo(DESTINATION);
+        assertThat(found.getTrajectory()).isSameAs(TRAJECTORY);
+        assertThat(found.getDistanceTravelledKm()).isEqualTo(12.5);
+        assertThat(found.getSpeedKmPerHour()).isEqualTo(new BigDecimal("60"));
+        assertThat(found.getTimestamp()).isEqualTo(timestamp);
+    }
+
+    @Test
+    void shouldReadTheStateOfATripThroughAReusedView() {
+        Instant timestamp = Instant.parse("2025-06-01T10:15:30.123456789Z");
+        repository.save(position(1L, START, 12.5, timestamp));
+        repository.save(position(2L, START, 20, timestamp));
+
+        CarPositionState state = repository.findStateByTripId(1L).orElseThrow();
+
+        assertThat(state.tripId()).isEqualTo(1L);
+        assertThat(state.carId()).isEqualTo(101L);
+        assertThat(state.driverId()).isEqualTo(201L);
+        assertThat(state.destination()).isSameAs(DESTINATION);
+        assertThat(state.trajectory()).isSameAs(TRAJECTORY);
+        assertThat(state.distanceTravelledKm()).isEqualTo(12.5);
+        assertThat(state.speedKmPerHour()).isEqualTo(new BigDecimal("60"));
+        assertThat(state.epochNanos()).isEqualTo(position(1L, START, 12.5, timestamp).epochNanos());
+        assertThat(repository.findStateByTripId(2L).orElseThrow()).isSameAs(state);
+        assertThat(state.tripId()).isEqualTo(2L);
+        assertThat(state.distanceTravelledKm()).isEqualTo(20);
+        assertThat(repository.findStateByTripId(3L)).isEmpty();
+    }
+
+    @Test
+    void shouldOverwriteThePositionOfATripInPlace() {
+        repository.save(position(1L, START, 0, Instant.now()));
+        Location moved = TRAJECTORY.locationAt(1);
+        repository.save(position(1L, moved, 1, Instant.now()));
+
+        CarPositionDetails found = repository.findByTripId(1L).orElseThrow();
+
+        assertThat(repository.count()).isEqualTo(1);
+        assertThat(found.getCurrentLocation()).isEqualTo(moved);
+        assertThat(found.getDistanceTravelledKm()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldKeepTheOtherTripsWhenDeletingOneAndGrowing() {
+        for (long tripId = 1; tripId <= 100; tripId++) {
+            repository.save(position(tripId, START, tripId, Instant.now()));
+        }
+
+        repository.deleteByTripId(1L);
+        repository.deleteByTripId(50L);
+        repository.deleteByTripId(1000L);
+
+        assertThat(repository.count()).isEqualTo(98);
+        assertThat(repository.findByTripId(1L)).isEmpty();
+        assertThat(repository.findByTripId(50L)).isEmpty();
+        for (long tripId = 2; tripId <= 100; tripId++) {
+            if (tripId != 50) {
+                assertThat(repository.findByTripId(tripId).orElseThrow().getDistanceTravelledKm()).isEqualTo(tripId);
+            }
+        }
+    }
+
+    @Test
+    void shouldRoundDecimalsWhichDoNotFitInALong() {
+        Location precise = new Location(new BigDecimal("44.42680000000000000001"), START.longitude());
+        repository.save(position(1L, precise, 0, Instant.now()));
+
+        assertThat(repository.findByTripId(1L).orElseThrow().getCurrentLocation().latitude())
+                .isEqualByComparingTo("44.4268");
+    }
+
+    private static CarPositionDetails position(long tripId, Location location, double distanceTravelledKm,
+                                               Instant timestamp) {
+        return CarPositionDetails.builder()
+                .carId(100 + tripId)
+                .driverId(200 + tripId)
+                .tripId(tripId)
+                .currentLocation(location)
+                .destination(DESTINATION)
+                .trajectory(TRAJECTORY)
+                .distanceTravelledKm(distanceTravelledKm)
+                .speedKmPerHour(new BigDecimal("60"))
+                .timestamp(timestamp)
+                .build();
+    }
+}